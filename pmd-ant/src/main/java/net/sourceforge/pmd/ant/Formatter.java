@@ -267,6 +267,11 @@ public class Formatter {
                 return listener.startFileAnalysis(file);
             }
 
+            @Override
+            public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+                return listener.startCrossFileAnalysis(file);
+            }
+
             @Override
             public void close() throws Exception {
                 listener.close();
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.cli.commands.internal;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -54,6 +55,13 @@ public abstract class AbstractAnalysisPmdSubcommand<C extends AbstractConfigurat
             defaultValue = "true", negatable = true)
     protected boolean failOnError;
 
+    @Option(names = "--exclude-pattern",
+            description = "Gitignore-style glob of files and directories to exclude from the analysis, like 'target/' or '*.generated.java'. "
+                + "A pattern without '/' matches a name at any depth, otherwise it is relative to the directories given with --dir. "
+                + "Excluded directories are not walked at all.",
+            arity = "1..*")
+    protected List<String> excludePatterns = new ArrayList<>();
+
     protected List<Path> relativizeRootPaths;
 
     @Option(names = { "--relativize-paths-with", "-z"}, description = "Path relative to which directories are rendered in the report. "
@@ -103,6 +103,7 @@ public class CpdCommand extends AbstractAnalysisPmdSubcommand<CPDConfiguration>
     protected CPDConfiguration toConfiguration() {
         final CPDConfiguration configuration = new CPDConfiguration();
         configuration.setExcludes(excludes);
+        configuration.setExcludePatterns(excludePatterns);
         if (relativizeRootPaths != null) {
             configuration.addRelativizeRoots(relativizeRootPaths);
         }
@@ -0,0 +1,96 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli.commands.internal;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+import net.sourceforge.pmd.internal.LogMessages;
+import net.sourceforge.pmd.lang.metrics.internal.MetricsDumper;
+import net.sourceforge.pmd.util.log.PmdReporter;
+import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
+
+@Command(name = "metrics-dump", showDefaultValues = true,
+    description = "Dumps the metrics of each method and constructor of the source code as CSV, without running rules")
+public class MetricsDumpCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration> {
+
+    @Option(names = "--aux-classpath",
+            description = "Specifies the classpath for libraries used by the source code. "
+                    + "This is used to resolve types in Java source files, which some metrics need. "
+                    + "The platform specific path delimiter (\":\" on Linux, \";\" on Windows) is used to separate the entries.")
+    private String auxClasspath;
+
+    @Option(names = { "--report-file", "-r" },
+            description = "Path to a file to which the metrics are written. "
+                + "If this option is not specified, the metrics are written to standard output.")
+    private Path reportFile;
+
+    @Override
+    protected PMDConfiguration toConfiguration() {
+        final PMDConfiguration configuration = new PMDConfiguration();
+        if (inputPaths != null) {
+            configuration.setInputPathList(new ArrayList<>(inputPaths));
+        }
+        configuration.setInputFilePath(fileListPath);
+        configuration.setExcludePatterns(excludePatterns);
+        configuration.setInputUri(uri);
+        configuration.setSourceEncoding(encoding.getEncoding());
+        if (relativizeRootPaths != null) {
+            configuration.addRelativizeRoots(relativizeRootPaths);
+        }
+        configuration.setFailOnError(failOnError);
+        configuration.setReporter(new SimpleMessageReporter(LoggerFactory.getLogger(MetricsDumpCommand.class)));
+
+        try {
+            configuration.prependAuxClasspath(auxClasspath);
+        } catch (IllegalArgumentException e) {
+            throw new ParameterException(spec.commandLine(), "Invalid auxiliary classpath: " + e.getMessage(), e);
+        }
+        return configuration;
+    }
+
+    @Override
+    protected @NonNull CliExitCode doExecute(PMDConfiguration configuration) {
+        final PmdReporter reporter = configuration.getReporter();
+        int parseErrors;
+        try {
+            if (reportFile == null) {
+                // No try-with-resources, do not want to close STDOUT
+                @SuppressWarnings("PMD.CloseResource")
+                final Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+                parseErrors = new MetricsDumper(configuration, writer).dump();
+                writer.flush();
+            } else {
+                try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                    parseErrors = new MetricsDumper(configuration, writer).dump();
+                }
+            }
+        } catch (final IOException e) {
+            reporter.errorEx(LogMessages.errorDetectedMessage(1, "metrics-dump"), e);
+            return CliExitCode.ERROR;
+        }
+
+        if (reporter.numErrors() > parseErrors) {
+            return CliExitCode.ERROR;
+        } else if (parseErrors > 0 && configuration.isFailOnError()) {
+            return CliExitCode.RECOVERED_ERRORS_OR_VIOLATIONS;
+        }
+        return CliExitCode.OK;
+    }
+}
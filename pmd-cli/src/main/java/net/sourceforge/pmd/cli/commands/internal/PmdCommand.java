@@ -88,6 +88,8 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
 
     private boolean showSuppressed;
 
+    private boolean asyncReport;
+
     private String suppressMarker;
 
     private RulePriority minimumPriority;
@@ -96,6 +98,12 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
 
     private Path reportFile;
 
+    private Path baselineFile;
+
+    private Path baselineOutputFile;
+
+    private String changedSince;
+
     private List<LanguageVersion> languageVersion;
 
     private Language forceLanguage;
@@ -143,6 +151,13 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         this.showSuppressed = showSuppressed;
     }
 
+    @Option(names = "--async-report",
+            description = "Render the report on a separate thread, so that slow report formats or a slow report file "
+                + "do not hold up the analysis.")
+    public void setAsyncReport(final boolean asyncReport) {
+        this.asyncReport = asyncReport;
+    }
+
     @Option(names = "--suppress-marker",
             description = "Specifies the string that marks a line which PMD should ignore.",
             defaultValue = "NOPMD")
@@ -169,11 +184,35 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
     @Option(names = { "--report-file", "-r" },
             description = "Path to a file to which report output is written. "
                 + "The file is created if it does not exist. "
+                + "If the file name ends with .gz, the report is compressed with gzip. "
                 + "If this option is not specified, the report is rendered to standard output.")
     public void setReportFile(final Path reportFile) {
         this.reportFile = reportFile;
     }
 
+    @Option(names = "--baseline",
+            description = "Path to a baseline of known violations, written by a previous run with --write-baseline. "
+                + "Violations of the baseline are not reported, so that only new violations are. "
+                + "They are matched by rule, file and code, not by line number.")
+    public void setBaselineFile(final Path baselineFile) {
+        this.baselineFile = baselineFile;
+    }
+
+    @Option(names = "--write-baseline",
+            description = "Path to a file to which the baseline of this run is written. "
+                + "The baseline contains all the violations found, including those of the current --baseline.")
+    public void setBaselineOutputFile(final Path baselineOutputFile) {
+        this.baselineOutputFile = baselineOutputFile;
+    }
+
+    @Option(names = "--changed-since",
+            description = "A git revision, like origin/main. Only the files that changed since the merge base of this revision "
+                + "and HEAD are analyzed, including uncommitted changes, and only the violations on changed lines are reported. "
+                + "Cross-file rules are not applied. The changes are read from the git repository of the current directory.")
+    public void setChangedSince(final String changedSince) {
+        this.changedSince = changedSince;
+    }
+
     @Option(names = "--use-version",
             description = "The language version PMD should use when parsing source code.%nValid values: ${COMPLETION-CANDIDATES}",
             completionCandidates = PmdLanguageVersionTypeSupport.class, converter = PmdLanguageVersionTypeSupport.class)
@@ -256,17 +295,22 @@ public class PmdCommand extends AbstractAnalysisPmdSubcommand<PMDConfiguration>
         }
         configuration.setInputFilePath(fileListPath);
         configuration.setIgnoreFilePath(ignoreListPath);
+        configuration.setExcludePatterns(excludePatterns);
         configuration.setInputUri(uri);
         configuration.setReportFormat(format);
         configuration.setSourceEncoding(encoding.getEncoding());
         configuration.setMinimumPriority(minimumPriority);
         configuration.setReportFile(reportFile);
+        configuration.setBaselineFile(baselineFile);
+        configuration.setBaselineOutputFile(baselineOutputFile);
+        configuration.setChangedSince(changedSince);
         configuration.setReportProperties(properties);
         if (relativizeRootPaths != null) {
             configuration.addRelativizeRoots(relativizeRootPaths);
         }
         configuration.setRuleSets(rulesets);
         configuration.setShowSuppressedViolations(showSuppressed);
+        configuration.setAsynchronousRendering(asyncReport);
         configuration.setSuppressMarker(suppressMarker);
         configuration.setThreads(threads);
         configuration.setFailOnViolation(failOnViolation);
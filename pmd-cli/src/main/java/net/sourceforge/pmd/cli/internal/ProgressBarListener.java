@@ -86,6 +86,22 @@ public final class ProgressBarListener implements GlobalAnalysisListener {
         };
     }
 
+    @Override
+    public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+        // the file was already counted as done, only count the violations
+        return new FileAnalysisListener() {
+            @Override
+            public void onRuleViolation(RuleViolation violation) {
+                ProgressBarListener.this.numViolations.addAndGet(1);
+            }
+
+            @Override
+            public void close() {
+                refreshProgressBar();
+            }
+        };
+    }
+
     @Override
     public void close() throws Exception {
         progressBar.close();
@@ -0,0 +1,61 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cli;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.cli.internal.CliExitCode;
+
+class MetricsDumpCliTest extends BaseCliTest {
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    void testDumpMethodMetrics() throws Exception {
+        Path file = tmp.resolve("Foo.java");
+        Files.write(file, ("class Foo {\n"
+            + "  int f(int a) {\n"
+            + "    if (a > 0) { return 1; }\n"
+            + "    return 0;\n"
+            + "  }\n"
+            + "}\n").getBytes(StandardCharsets.UTF_8));
+
+        runCliSuccessfully("-d", file.toString(), "-z", tmp.toString())
+            .checkStdOut(allOf(
+                startsWith("\"file\",\"line\",\"column\",\"node\",\"metric\",\"value\""),
+                containsString("\"Foo.java\",\"2\",\"7\",\"MethodDeclaration\",\"Cyclomatic Complexity\",\"2\""),
+                containsString("\"MethodDeclaration\",\"NPath Complexity\",\"2\""),
+                containsString("\"MethodDeclaration\",\"Non-commenting source statements\",\"4\"")
+            ));
+    }
+
+    @Test
+    void testParseErrorIsReported() throws Exception {
+        Path file = tmp.resolve("Broken.java");
+        Files.write(file, "class Broken { void f( }".getBytes(StandardCharsets.UTF_8));
+
+        runCli(CliExitCode.RECOVERED_ERRORS_OR_VIOLATIONS, "-d", file.toString())
+            .verify(r -> r.checkStdErr(containsString("Error while parsing")));
+    }
+
+    @Override
+    protected List<String> cliStandardArgs() {
+        final List<String> argList = new ArrayList<>();
+        argList.add("metrics-dump");
+        return argList;
+    }
+}
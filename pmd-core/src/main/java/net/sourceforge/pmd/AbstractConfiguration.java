@@ -18,11 +18,13 @@ import java.util.Objects;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguagePropertyBundle;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
+import net.sourceforge.pmd.lang.document.FileCollector;
 import net.sourceforge.pmd.util.AssertionUtil;
 import net.sourceforge.pmd.util.log.PmdReporter;
 
@@ -45,6 +47,7 @@ public abstract class AbstractConfiguration {
     private Path inputFilePath;
     private Path ignoreFilePath;
     private List<Path> excludes = new ArrayList<>();
+    private List<String> excludePatterns = new ArrayList<>();
     private boolean collectRecursive = true;
     private boolean failOnViolation = true;
     private boolean failOnError = true;
@@ -372,6 +375,31 @@ public abstract class AbstractConfiguration {
         this.excludes = Objects.requireNonNull(excludes);
     }
 
+    /**
+     * Returns the gitignore-style globs of the files and directories
+     * that are excluded from the analysis.
+     *
+     * @see FileCollector#excludePattern(String)
+     * @since 7.7.0
+     */
+    @Experimental
+    public List<String> getExcludePatterns() {
+        return excludePatterns;
+    }
+
+    /**
+     * Set the gitignore-style globs of the files and directories that
+     * are excluded from the analysis, like {@code target/} or {@code *.generated.java}.
+     * Matching directories are not walked at all.
+     *
+     * @see FileCollector#excludePattern(String)
+     * @since 7.7.0
+     */
+    @Experimental
+    public void setExcludePatterns(List<String> excludePatterns) {
+        this.excludePatterns = Objects.requireNonNull(excludePatterns);
+    }
+
     public boolean collectFilesRecursively() {
         return collectRecursive;
     }
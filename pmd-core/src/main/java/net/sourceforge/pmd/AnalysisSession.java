@@ -0,0 +1,172 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.internal.util.ClasspathClassLoader;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry.LanguageTerminationException;
+import net.sourceforge.pmd.lang.ast.internal.AstCache;
+import net.sourceforge.pmd.util.log.PmdReporter;
+
+/**
+ * A session in which several PMD analyses run one after the other in
+ * the same process, for instance with different rulesets. The analyses
+ * of a session share the language processors, and a cache of the parsed
+ * files. A file that is analysed again with the same contents is not
+ * parsed again, and the semantic analysis of its AST, like Java type
+ * resolution, is not repeated either.
+ *
+ * <pre>{@code
+ *   try (AnalysisSession session = AnalysisSession.create(config)) {
+ *     try (PmdAnalysis pmd = session.newPmdAnalysis(config)) {
+ *       pmd.addRuleSet(firstRuleset);
+ *       pmd.performAnalysis();
+ *     }
+ *     try (PmdAnalysis pmd = session.newPmdAnalysis(otherConfig)) {
+ *       pmd.addRuleSet(secondRuleset);
+ *       pmd.performAnalysis();
+ *     }
+ *   }
+ * }</pre>
+ *
+ * <p>The language processors are created from the configuration of the
+ * session: the language properties, language versions and auxclasspath
+ * of the configurations of the analyses are ignored. The cache of parsed
+ * files is bounded by an estimate of the memory used by the cached ASTs,
+ * which is based on their number of nodes. Cached files are identified
+ * by their file id and checksum, so a file that changed between two
+ * analyses is parsed again.
+ *
+ * <p>A cached AST is reused as it was before the rules of the first
+ * analysis were applied to it: the data that rules stored on its nodes,
+ * like metrics, is cleared, and the semantic warnings of its processing
+ * are reported again.
+ *
+ * <p>Analyses of a session must not run concurrently, as ASTs are
+ * not thread-safe. CPD works on the tokens of the files and not on
+ * their AST, so {@link net.sourceforge.pmd.cpd.CpdAnalysis} does not
+ * use sessions.
+ *
+ * @since 7.7.0
+ */
+@Experimental
+public final class AnalysisSession implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnalysisSession.class);
+
+    private final PMDConfiguration configuration;
+    private final LanguageProcessorRegistry lpRegistry;
+    private final AstCache astCache;
+    private final AtomicBoolean analysisRunning = new AtomicBoolean();
+    private boolean closed;
+
+    private AnalysisSession(PMDConfiguration configuration, long maxCachedBytes) {
+        this.configuration = configuration;
+        this.astCache = new AstCache(maxCachedBytes);
+        this.lpRegistry = LanguageProcessorRegistry.create(
+            configuration.getLanguageRegistry(),
+            PmdAnalysis.languagePropertiesOf(configuration),
+            configuration.getReporter()
+        );
+    }
+
+    /**
+     * Create a new session, with the default bound on the cache of
+     * parsed files, which is an eighth of the maximum heap size. The
+     * configuration should not be modified afterwards.
+     *
+     * @param config Configuration for the language processors
+     */
+    public static AnalysisSession create(PMDConfiguration config) {
+        return create(config, Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    /**
+     * Create a new session. The configuration should not be modified
+     * afterwards.
+     *
+     * @param config         Configuration for the language processors
+     * @param maxCachedBytes Maximum estimated memory used by the parsed files
+     *                       that are kept in the cache, in bytes. Zero
+     *                       disables the cache
+     *
+     * @throws IllegalArgumentException If the bound is negative
+     */
+    public static AnalysisSession create(PMDConfiguration config, long maxCachedBytes) {
+        return new AnalysisSession(config, maxCachedBytes);
+    }
+
+    /**
+     * Create a new analysis that belongs to this session. The files,
+     * rulesets, renderers and analysis cache of the analysis are set
+     * up from the given configuration, as with {@link PmdAnalysis#create(PMDConfiguration)}.
+     *
+     * @param config Configuration of the analysis
+     *
+     * @throws IllegalStateException If the session is closed
+     */
+    public PmdAnalysis newPmdAnalysis(PMDConfiguration config) {
+        if (closed) {
+            throw new IllegalStateException("Session is closed");
+        }
+        PmdAnalysis pmd = PmdAnalysis.create(config);
+        pmd.setSession(this);
+        return pmd;
+    }
+
+    LanguageProcessorRegistry getLanguageProcessors() {
+        return lpRegistry;
+    }
+
+    AstCache getAstCache() {
+        return astCache;
+    }
+
+    boolean ownsClassLoader(ClassLoader classLoader) {
+        return configuration.getClassLoader() == classLoader;
+    }
+
+    void beginAnalysis() {
+        if (closed) {
+            throw new IllegalStateException("Session is closed");
+        }
+        if (!analysisRunning.compareAndSet(false, true)) {
+            throw new IllegalStateException("Analyses of a session must not run concurrently");
+        }
+    }
+
+    void endAnalysis() {
+        analysisRunning.set(false);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LOG.debug("Closing analysis session, parsed file cache: {} hits, {} misses",
+                  astCache.getHits(), astCache.getMisses());
+        astCache.clear();
+
+        PmdReporter reporter = configuration.getReporter();
+        try {
+            lpRegistry.close();
+        } catch (LanguageTerminationException e) {
+            reporter.errorEx("Error while closing language processors", e);
+        }
+
+        if (configuration.getClassLoader() instanceof ClasspathClassLoader) {
+            IOUtil.tryCloseClassLoader(configuration.getClassLoader());
+        }
+    }
+}
@@ -17,6 +17,7 @@ import java.util.Properties;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.cache.internal.AnalysisCache;
 import net.sourceforge.pmd.cache.internal.FileAnalysisCache;
 import net.sourceforge.pmd.cache.internal.NoopAnalysisCache;
@@ -72,6 +73,12 @@ import net.sourceforge.pmd.util.log.internal.SimpleMessageReporter;
  * {@link #getReportProperties()}</li>
  * <li>An indicator of whether to show suppressed Rule violations in Reports.
  * {@link #isShowSuppressedViolations()}</li>
+ * <li>An indicator of whether renderers run on their own thread.
+ * {@link #isAsynchronousRendering()}</li>
+ * <li>A baseline of known violations, which are not reported.
+ * {@link #getBaselineFile()}</li>
+ * <li>A git revision, to only analyze the changes since that revision.
+ * {@link #getChangedSince()}</li>
  * </ul>
  *
  * <h2>Language configuration</h2>
@@ -108,6 +115,10 @@ public class PMDConfiguration extends AbstractConfiguration {
     private String reportFormat;
     private Properties reportProperties = new Properties();
     private boolean showSuppressedViolations = false;
+    private boolean asynchronousRendering = false;
+    private Path baselineFile;
+    private Path baselineOutputFile;
+    private String changedSince;
 
     private AnalysisCache analysisCache = new NoopAnalysisCache();
     private boolean ignoreIncrementalAnalysis;
@@ -342,6 +353,128 @@ public class PMDConfiguration extends AbstractConfiguration {
         this.showSuppressedViolations = showSuppressedViolations;
     }
 
+    /**
+     * Get whether the renderers are run on their own thread.
+     *
+     * @return <code>true</code> if rendering is asynchronous,
+     *         <code>false</code> otherwise.
+     *
+     * @see #setAsynchronousRendering(boolean)
+     * @since 7.7.0
+     */
+    @Experimental
+    public boolean isAsynchronousRendering() {
+        return asynchronousRendering;
+    }
+
+    /**
+     * Set whether the renderers are run on their own thread. If so, the
+     * violations of each file are queued and rendered on that thread,
+     * so that slow report formats or a slow report file do not hold
+     * up the analysis. By default, renderers are run on the analysis
+     * threads.
+     *
+     * @param asynchronousRendering
+     *            <code>true</code> if rendering is asynchronous,
+     *            <code>false</code> otherwise.
+     *
+     * @see net.sourceforge.pmd.reporting.GlobalAnalysisListener#asynchronous(net.sourceforge.pmd.reporting.GlobalAnalysisListener, int)
+     * @since 7.7.0
+     */
+    @Experimental
+    public void setAsynchronousRendering(boolean asynchronousRendering) {
+        this.asynchronousRendering = asynchronousRendering;
+    }
+
+    /**
+     * Get the baseline file, whose violations are not reported.
+     *
+     * @return The baseline file, or null if all violations are reported.
+     *
+     * @see #setBaselineFile(Path)
+     * @since 7.7.0
+     */
+    @Experimental
+    public Path getBaselineFile() {
+        return baselineFile;
+    }
+
+    /**
+     * Set the baseline file. The violations of the baseline are known,
+     * and are not reported, but counted as suppressed violations, so
+     * that only new violations are reported. Violations are matched by
+     * rule, file and code of the line, not by line number. A baseline
+     * is written with {@link #setBaselineOutputFile(Path)}.
+     *
+     * @param baselineFile The baseline file, or null to report all violations.
+     *
+     * @see net.sourceforge.pmd.reporting.Baseline
+     * @since 7.7.0
+     */
+    @Experimental
+    public void setBaselineFile(Path baselineFile) {
+        this.baselineFile = baselineFile;
+    }
+
+    /**
+     * Get the file to which the baseline of the analysis is written.
+     *
+     * @return The file, or null if no baseline is written.
+     *
+     * @see #setBaselineOutputFile(Path)
+     * @since 7.7.0
+     */
+    @Experimental
+    public Path getBaselineOutputFile() {
+        return baselineOutputFile;
+    }
+
+    /**
+     * Set the file to which the baseline of the analysis is written. The
+     * baseline contains all the violations that are found, including those
+     * of the {@linkplain #setBaselineFile(Path) current baseline}, and can
+     * be used as baseline of later analyses.
+     *
+     * @param baselineOutputFile The file, or null to not write a baseline.
+     *
+     * @since 7.7.0
+     */
+    @Experimental
+    public void setBaselineOutputFile(Path baselineOutputFile) {
+        this.baselineOutputFile = baselineOutputFile;
+    }
+
+    /**
+     * Get the git revision since which changes are analyzed.
+     *
+     * @return The revision, or null if all files are analyzed.
+     *
+     * @see #setChangedSince(String)
+     * @since 7.7.0
+     */
+    @Experimental
+    public String getChangedSince() {
+        return changedSince;
+    }
+
+    /**
+     * Set a git revision, to only analyze the files that changed since
+     * the merge base of this revision and {@code HEAD}, including uncommitted
+     * changes. Only the violations on changed lines are reported, the others
+     * are counted as suppressed violations. Cross-file rules are not applied,
+     * as they need to see all files. The changes are read from the git repository
+     * of the current directory.
+     *
+     * @param changedSince The revision, like {@code origin/main}, or null to analyze all files.
+     *
+     * @see net.sourceforge.pmd.reporting.GitChanges
+     * @since 7.7.0
+     */
+    @Experimental
+    public void setChangedSince(String changedSince) {
+        this.changedSince = changedSince;
+    }
+
     /**
      * Get the Report properties. These are used to create the Renderer.
      *
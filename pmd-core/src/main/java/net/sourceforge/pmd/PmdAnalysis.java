@@ -5,10 +5,12 @@
 package net.sourceforge.pmd;
 
 import static net.sourceforge.pmd.lang.document.InternalApiBridge.newCollector;
+import static net.sourceforge.pmd.lang.document.InternalApiBridge.setWalkerThreads;
 import static net.sourceforge.pmd.lang.rule.InternalApiBridge.loadRuleSetsWithoutException;
 import static net.sourceforge.pmd.lang.rule.InternalApiBridge.ruleSetApplies;
 import static net.sourceforge.pmd.util.CollectionUtil.listOf;
 
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -20,6 +22,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.event.Level;
@@ -43,15 +46,19 @@ import net.sourceforge.pmd.lang.LanguagePropertyBundle;
 import net.sourceforge.pmd.lang.LanguageRegistry;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
+import net.sourceforge.pmd.lang.ast.internal.AstCache;
 import net.sourceforge.pmd.lang.document.FileCollector;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.RuleSet;
 import net.sourceforge.pmd.lang.rule.RuleSetLoader;
+import net.sourceforge.pmd.lang.rule.internal.CrossFileAnalysis;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
 import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.reporting.Baseline;
 import net.sourceforge.pmd.reporting.ConfigurableFileNameRenderer;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GitChanges;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
 import net.sourceforge.pmd.reporting.ListenerInitializer;
 import net.sourceforge.pmd.reporting.Report;
@@ -140,6 +147,9 @@ public final class PmdAnalysis implements AutoCloseable {
 
     private static final Logger LOG = LoggerFactory.getLogger(PmdAnalysis.class);
 
+    /** Bound of the queue of files waiting to be rendered with asynchronous rendering. */
+    private static final int MAX_QUEUED_RENDERED_FILES = 1024;
+
     private final FileCollector collector;
     private final List<Renderer> renderers = new ArrayList<>();
     private final List<GlobalAnalysisListener> listeners = new ArrayList<>();
@@ -150,6 +160,10 @@ public final class PmdAnalysis implements AutoCloseable {
     private final Map<Language, LanguagePropertyBundle> langProperties = new HashMap<>();
     private boolean closed;
     private final ConfigurableFileNameRenderer fileNameRenderer = new ConfigurableFileNameRenderer();
+    // set if this analysis is part of a session
+    private @Nullable AnalysisSession session;
+    // set if only the changes since a git revision are analyzed
+    private @Nullable GitChanges changes;
 
     /**
      * Constructs a new instance. The files paths (input files, filelist,
@@ -164,6 +178,8 @@ public final class PmdAnalysis implements AutoCloseable {
             config.getLanguageVersionDiscoverer(),
             reporter
         );
+        // directories are walked with as many threads as the analysis
+        setWalkerThreads(collector, Math.max(1, config.getThreads()));
 
     }
 
@@ -187,7 +203,10 @@ public final class PmdAnalysis implements AutoCloseable {
         // they could be ignored later. The problem is if you call
         // addRuleSet later, then you could be enabling new languages
         // So the files should not be pruned in advance
-        FileCollectionUtil.collectFiles(config, pmd.files());
+        if (config.getChangedSince() != null) {
+            pmd.changes = readChanges(config.getChangedSince(), pmd.reporter);
+        }
+        FileCollectionUtil.collectFiles(config, pmd.files(), pmd.changes != null ? pmd.changes.getChangedFiles() : null);
 
         if (config.getReportFormat() != null) {
             Renderer renderer = config.createRenderer(true);
@@ -200,10 +219,37 @@ public final class PmdAnalysis implements AutoCloseable {
             pmd.addRuleSets(ruleSets);
         }
 
+        pmd.langProperties.putAll(languagePropertiesOf(config));
+
+        for (Path path : config.getRelativizeRoots()) {
+            pmd.fileNameRenderer.relativizeWith(path);
+        }
+
+        return pmd;
+    }
+
+    private static @Nullable GitChanges readChanges(String revision, PmdReporter reporter) {
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.COLLECT_FILES, "git changes")) {
+            GitChanges changes = GitChanges.read(revision);
+            LOG.debug("{} files changed since {}", changes.getChangedFiles().size(), revision);
+            return changes;
+        } catch (IOException e) {
+            reporter.errorEx("Cannot read the changes since {0}, all files are analyzed", new Object[] { revision }, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the language properties for the languages of the configuration,
+     * completed with the settings of the configuration that are not yet
+     * language properties.
+     */
+    static Map<Language, LanguagePropertyBundle> languagePropertiesOf(PMDConfiguration config) {
+        Map<Language, LanguagePropertyBundle> result = new HashMap<>();
         for (Language language : config.getLanguageRegistry()) {
             LanguagePropertyBundle props = config.getLanguageProperties(language);
             assert props.getLanguage().equals(language);
-            pmd.langProperties.put(language, props);
+            result.put(language, props);
 
             LanguageVersion forcedVersion = config.getForceLanguageVersion();
             if (forcedVersion != null && forcedVersion.getLanguage().equals(language)) {
@@ -217,12 +263,11 @@ public final class PmdAnalysis implements AutoCloseable {
                 ((JvmLanguagePropertyBundle) props).setClassLoader(config.getClassLoader());
             }
         }
+        return result;
+    }
 
-        for (Path path : config.getRelativizeRoots()) {
-            pmd.fileNameRenderer.relativizeWith(path);
-        }
-
-        return pmd;
+    void setSession(AnalysisSession session) {
+        this.session = session;
     }
 
     // test only
@@ -384,16 +429,36 @@ public final class PmdAnalysis implements AutoCloseable {
         RuleSets rulesets = new RuleSets(this.ruleSets);
 
         GlobalAnalysisListener listener;
+        // collects the summaries of cross-file rules, null if there are none
+        CrossFileAnalysis crossFileAnalysis = CrossFileAnalysis.create(rulesets);
+        if (crossFileAnalysis != null && changes != null) {
+            reporter.warn("Cross-file rules are not applied when only the changed files are analyzed");
+            crossFileAnalysis = null;
+        }
         try {
             @SuppressWarnings("PMD.CloseResource")
             AnalysisCacheListener cacheListener = new AnalysisCacheListener(configuration.getAnalysisCache(),
                                                                             rulesets,
                                                                             configuration.getClassLoader(),
                                                                             textFiles);
-            listener = GlobalAnalysisListener.tee(listOf(createComposedRendererListener(renderers),
-                                                         GlobalAnalysisListener.tee(listeners),
-                                                         GlobalAnalysisListener.tee(extraListeners),
-                                                         cacheListener));
+            // read it before creating the listeners, which may open report files
+            Baseline baseline = configuration.getBaselineFile() != null ? Baseline.read(configuration.getBaselineFile()) : null;
+            GlobalAnalysisListener reportListener = GlobalAnalysisListener.tee(listOf(createComposedRendererListener(renderers),
+                                                                                      GlobalAnalysisListener.tee(listeners),
+                                                                                      GlobalAnalysisListener.tee(extraListeners)));
+            if (baseline != null) {
+                // the cache still records all violations, so that it stays valid if the baseline changes
+                reportListener = baseline.filter(reportListener, reporter);
+            }
+            if (changes != null) {
+                reportListener = changes.filter(reportListener);
+            }
+            listener = GlobalAnalysisListener.tee(listOf(reportListener,
+                                                         configuration.getBaselineOutputFile() != null
+                                                             ? Baseline.writer(configuration.getBaselineOutputFile())
+                                                             : GlobalAnalysisListener.noop(),
+                                                         cacheListener,
+                                                         crossFileAnalysis != null ? crossFileAnalysis : GlobalAnalysisListener.noop()));
             
             // Initialize listeners
             try (ListenerInitializer initializer = listener.initializer()) {
@@ -416,39 +481,35 @@ public final class PmdAnalysis implements AutoCloseable {
 
             encourageToUseIncrementalAnalysis(configuration);
 
-            try (LanguageProcessorRegistry lpRegistry = LanguageProcessorRegistry.create(
-                // only start the applicable languages (and dependencies)
-                new LanguageRegistry(getApplicableLanguages(true)),
-                langProperties,
-                reporter
-            )) {
-                // Note the analysis task is shared: all processors see
-                // the same file list, which may contain files for other
-                // languages.
-                AnalysisTask analysisTask = InternalApiBridge.createAnalysisTask(
-                    rulesets,
-                    textFiles,
-                    listener,
-                    configuration.getThreads(),
-                    configuration.getAnalysisCache(),
-                    reporter,
-                    lpRegistry
-                );
-
-                List<AutoCloseable> analyses = new ArrayList<>();
+            // only start the applicable languages (and dependencies)
+            Set<Language> languages = getApplicableLanguages(true);
+            if (session != null) {
+                // the processors of the session outlive this analysis
+                session.beginAnalysis();
                 try {
-                    for (Language lang : lpRegistry.getLanguages()) {
-                        analyses.add(lpRegistry.getProcessor(lang).launchAnalysis(analysisTask));
-                    }
+                    launchAnalyses(session.getLanguageProcessors(), languages, rulesets, textFiles, listener, session.getAstCache());
                 } finally {
-                    Exception e = IOUtil.closeAll(analyses);
-                    if (e != null) {
-                        reporter.errorEx("Error while joining analysis", e);
-                    }
+                    session.endAnalysis();
+                }
+            } else {
+                try (LanguageProcessorRegistry lpRegistry = LanguageProcessorRegistry.create(
+                    new LanguageRegistry(languages),
+                    langProperties,
+                    reporter
+                )) {
+                    launchAnalyses(lpRegistry, lpRegistry.getLanguages(), rulesets, textFiles, listener, null);
+                } catch (LanguageTerminationException e) {
+                    reporter.errorEx("Error while closing language processors", e);
                 }
+            }
 
-            } catch (LanguageTerminationException e) {
-                reporter.errorEx("Error while closing language processors", e);
+            if (crossFileAnalysis != null) {
+                // all files have been analysed, the listeners are still open
+                try {
+                    crossFileAnalysis.reduce(listener, textFiles, reporter);
+                } catch (Exception e) {
+                    reporter.errorEx("Error while reporting violations of cross-file rules", e);
+                }
             }
         } finally {
             try {
@@ -462,6 +523,39 @@ public final class PmdAnalysis implements AutoCloseable {
     }
 
 
+    private void launchAnalyses(LanguageProcessorRegistry lpRegistry,
+                                Iterable<Language> languages,
+                                RuleSets rulesets,
+                                List<TextFile> textFiles,
+                                GlobalAnalysisListener listener,
+                                @Nullable AstCache astCache) {
+        // Note the analysis task is shared: all processors see
+        // the same file list, which may contain files for other
+        // languages.
+        AnalysisTask analysisTask = InternalApiBridge.createAnalysisTask(
+            rulesets,
+            textFiles,
+            listener,
+            configuration.getThreads(),
+            configuration.getAnalysisCache(),
+            reporter,
+            lpRegistry,
+            astCache
+        );
+
+        List<AutoCloseable> analyses = new ArrayList<>();
+        try {
+            for (Language lang : languages) {
+                analyses.add(lpRegistry.getProcessor(lang).launchAnalysis(analysisTask));
+            }
+        } finally {
+            Exception e = IOUtil.closeAll(analyses);
+            if (e != null) {
+                reporter.errorEx("Error while joining analysis", e);
+            }
+        }
+    }
+
     private GlobalAnalysisListener createComposedRendererListener(List<Renderer> renderers) throws Exception {
         if (renderers.isEmpty()) {
             return GlobalAnalysisListener.noop();
@@ -480,7 +574,11 @@ public final class PmdAnalysis implements AutoCloseable {
                 throw AssertionUtil.shouldNotReachHere("ensureClosed should have thrown", ioe);
             }
         }
-        return GlobalAnalysisListener.tee(rendererListeners);
+        GlobalAnalysisListener composed = GlobalAnalysisListener.tee(rendererListeners);
+        if (configuration.isAsynchronousRendering()) {
+            return GlobalAnalysisListener.asynchronous(composed, MAX_QUEUED_RENDERED_FILES);
+        }
+        return composed;
     }
 
     private Set<Language> getApplicableLanguages(boolean quiet) {
@@ -563,7 +661,8 @@ public final class PmdAnalysis implements AutoCloseable {
          * Maven + Jacoco provide us with a cloaseable classloader that if closed
          * will throw a ClassNotFoundException.
          */
-        if (configuration.getClassLoader() instanceof ClasspathClassLoader) {
+        if (configuration.getClassLoader() instanceof ClasspathClassLoader
+            && (session == null || !session.ownsClassLoader(configuration.getClassLoader()))) {
             IOUtil.tryCloseClassLoader(configuration.getClassLoader());
         }
     }
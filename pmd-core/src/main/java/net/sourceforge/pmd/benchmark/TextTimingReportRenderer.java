@@ -9,6 +9,7 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.text.MessageFormat;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -33,6 +34,8 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
     private static final int CALL_COLUMN_WIDTH = 9;
     private static final int COUNTER_COLUMN_WIDTH = 12;
 
+    private static final int MAX_OUTLIERS = 20;
+
     private static final int COLUMNS = LABEL_COLUMN_WIDTH + TIME_COLUMN_WIDTH
             + SELF_TIME_COLUMN_WIDTH + CALL_COLUMN_WIDTH + COUNTER_COLUMN_WIDTH;
 
@@ -46,6 +49,16 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
             }
         }
 
+        final List<Entry<String, Long>> outliers = report.getWorstOutliers(MAX_OUTLIERS);
+        if (!outliers.isEmpty()) {
+            renderOutliers(outliers, writer);
+        }
+
+        final List<Entry<String, Long>> skippedRules = report.getSkippedRuleCounts();
+        if (!skippedRules.isEmpty()) {
+            renderCounters("Skipped Rules", skippedRules, writer);
+        }
+
         renderHeader("Summary", writer);
 
         for (final TimedOperationCategory category : TimedOperationCategory.values()) {
@@ -106,6 +119,23 @@ public class TextTimingReportRenderer implements TimingReportRenderer {
         writer.println();
     }
 
+    private void renderOutliers(final List<Entry<String, Long>> outliers, final PrintWriter writer) throws IOException {
+        renderCounters("Outliers", outliers, writer);
+    }
+
+    private void renderCounters(final String displayName, final List<Entry<String, Long>> counters,
+            final PrintWriter writer) throws IOException {
+        renderHeader(displayName, writer);
+
+        for (final Entry<String, Long> entry : counters) {
+            writer.write(StringUtils.rightPad(entry.getKey(), COLUMNS - COUNTER_COLUMN_WIDTH));
+            final String counter = MessageFormat.format(CUSTOM_COUNTER_FORMAT, entry.getValue());
+            writer.write(StringUtils.leftPad(counter, COUNTER_COLUMN_WIDTH));
+            writer.println();
+        }
+        writer.println();
+    }
+
     private void renderHeader(final String displayName, final PrintWriter writer) throws IOException {
         final StringBuilder sb = new StringBuilder(COLUMNS)
                 .append(displayName);
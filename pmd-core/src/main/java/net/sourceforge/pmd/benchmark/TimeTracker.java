@@ -26,6 +26,8 @@ public final class TimeTracker {
     private static long wallClockStartMillis = -1;
     private static final ThreadLocal<Queue<TimerEntry>> TIMER_ENTRIES;
     private static final ConcurrentMap<TimedOperationKey, TimedResult> ACCUMULATED_RESULTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Long> OUTLIERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Long> SKIPPED_RULES = new ConcurrentHashMap<>();
     private static final TimedOperation NOOP_TIMED_OPERATION = new TimedOperation() {
 
         @Override
@@ -55,6 +57,8 @@ public final class TimeTracker {
         wallClockStartMillis = System.currentTimeMillis();
         trackTime = true;
         ACCUMULATED_RESULTS.clear(); // just in case
+        OUTLIERS.clear();
+        SKIPPED_RULES.clear();
         initThread(); // init main thread
     }
 
@@ -76,7 +80,7 @@ public final class TimeTracker {
         unaccountedResult.totalTimeNanos.set(unaccountedResult.selfTimeNanos.get());
         unaccountedResult.callCount.set(0);
 
-        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS);
+        return new TimingReport(System.currentTimeMillis() - wallClockStartMillis, ACCUMULATED_RESULTS, OUTLIERS, SKIPPED_RULES);
     }
 
     /**
@@ -158,6 +162,43 @@ public final class TimeTracker {
         }
     }
 
+    /**
+     * Records an outlier, that is, an item (eg a file or an expression)
+     * which was unusually expensive to process. The timing report lists
+     * the outliers with the highest cost. If the same label is recorded
+     * several times, the highest cost is kept.
+     *
+     * @param label A label identifying the item, eg including its location
+     * @param cost  A measure of the cost, eg a number of iterations
+     *
+     * @since 7.7.0
+     */
+    public static void recordOutlier(final String label, final long cost) {
+        if (!trackTime) {
+            return;
+        }
+
+        OUTLIERS.merge(label, cost, Math::max);
+    }
+
+    /**
+     * Records that a rule was skipped on a file, because none of its
+     * {@linkplain net.sourceforge.pmd.lang.rule.Rule#getRequiredTokens() required tokens}
+     * occurs in the file. The timing report lists the number of files
+     * each rule was skipped on.
+     *
+     * @param ruleName Name of the rule
+     *
+     * @since 7.7.0
+     */
+    public static void recordSkippedRule(final String ruleName) {
+        if (!trackTime) {
+            return;
+        }
+
+        SKIPPED_RULES.merge(ruleName, 1L, Long::sum);
+    }
+
     public static void bench(String label, Runnable runnable) {
         try (TimedOperation ignored = startOperation(TimedOperationCategory.LANGUAGE_SPECIFIC_PROCESSING, label)) {
             runnable.run();
@@ -4,7 +4,9 @@
 
 package net.sourceforge.pmd.benchmark;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import net.sourceforge.pmd.benchmark.TimeTracker.TimedOperationKey;
@@ -18,10 +20,15 @@ public class TimingReport {
 
     private final long wallClockMillis;
     private final Map<TimedOperationKey, TimedResult> results;
+    private final Map<String, Long> outliers;
+    private final Map<String, Long> skippedRules;
 
-    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults) {
+    /* package */ TimingReport(final long wallClockMillis, final Map<TimedOperationKey, TimedResult> accumulatedResults,
+                               final Map<String, Long> outliers, final Map<String, Long> skippedRules) {
         this.wallClockMillis = wallClockMillis;
         results = accumulatedResults;
+        this.outliers = outliers;
+        this.skippedRules = skippedRules;
     }
 
     public Map<String, TimedResult> getLabeledMeasurements(final TimedOperationCategory category) {
@@ -48,6 +55,33 @@ public class TimingReport {
         return null;
     }
 
+    /**
+     * Returns the outliers recorded with {@link TimeTracker#recordOutlier(String, long)},
+     * sorted by decreasing cost.
+     *
+     * @param maxCount Maximum number of outliers to return
+     *
+     * @since 7.7.0
+     */
+    public List<Map.Entry<String, Long>> getWorstOutliers(final int maxCount) {
+        final List<Map.Entry<String, Long>> ret = new ArrayList<>(outliers.entrySet());
+        ret.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return ret.subList(0, Math.min(maxCount, ret.size()));
+    }
+
+    /**
+     * Returns the number of files each rule was skipped on, as recorded
+     * with {@link TimeTracker#recordSkippedRule(String)}, sorted by
+     * decreasing count. Rules that were never skipped are absent.
+     *
+     * @since 7.7.0
+     */
+    public List<Map.Entry<String, Long>> getSkippedRuleCounts() {
+        final List<Map.Entry<String, Long>> ret = new ArrayList<>(skippedRules.entrySet());
+        ret.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return ret;
+    }
+
     public long getWallClockMillis() {
         return wallClockMillis;
     }
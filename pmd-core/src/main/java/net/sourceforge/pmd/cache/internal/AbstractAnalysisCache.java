@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,10 +30,14 @@ import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.internal.SystemProps;
 import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.InternalApiBridge;
 import net.sourceforge.pmd.lang.document.TextDocument;
 import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.Report.ProcessingError;
@@ -45,6 +50,8 @@ abstract class AbstractAnalysisCache implements AnalysisCache {
 
     protected static final Logger LOG = LoggerFactory.getLogger(AbstractAnalysisCache.class);
     protected static final ClasspathFingerprinter FINGERPRINTER = new ClasspathFingerprinter();
+    // coarsest granularity of file modification times in common file systems (FAT)
+    private static final long MODIFICATION_TIME_GRANULARITY_MILLIS = 2000;
     protected final String pmdVersion;
     protected final ConcurrentMap<FileId, AnalysisResult> fileResultsCache = new ConcurrentHashMap<>();
     protected final ConcurrentMap<FileId, AnalysisResult> updatedResultsCache = new ConcurrentHashMap<>();
@@ -90,8 +97,47 @@ abstract class AbstractAnalysisCache implements AnalysisCache {
     }
 
     @Override
-    public List<RuleViolation> getCachedViolations(final TextDocument sourceFile) {
-        final AnalysisResult analysisResult = fileResultsCache.get(sourceFile.getFileId());
+    public @Nullable TextFile checkUnchanged(final TextFile file) {
+        final AnalysisResult cachedResult = fileResultsCache.get(file.getFileId());
+        final Path path = InternalApiBridge.getPath(file);
+        if (cachedResult == null || path == null) {
+            return file;
+        }
+
+        try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.ANALYSIS_CACHE, "unchanged check")) {
+            // read the attributes before the contents, so that they are older if the file is changed meanwhile
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            final long fileSize = attributes.size();
+            final long lastModified = attributes.lastModifiedTime().toMillis();
+
+            if (cachedResult.getFileSize() != AnalysisResult.UNKNOWN && cachedResult.getFileSize() != fileSize) {
+                return file;
+            } else if (!SystemProps.isCacheTrustingModificationTimes()
+                || cachedResult.getFileSize() != fileSize
+                || cachedResult.getLastModified() != lastModified) {
+                final byte[] bytes = Files.readAllBytes(path);
+                if (cachedResult.getFileChecksum() != InternalApiBridge.computeCheckSum(bytes)) {
+                    // the bytes are decoded for the analysis instead of being read again
+                    return InternalApiBridge.withBytes(file, bytes);
+                }
+            }
+
+            LOG.trace("Incremental Analysis cache HIT without reading the file");
+            // a file modified right after it was read may keep the same modification time,
+            // so only recent modification times that cannot change anymore are stored
+            final boolean recent = System.currentTimeMillis() - lastModified < MODIFICATION_TIME_GRANULARITY_MILLIS;
+            updatedResultsCache.put(file.getFileId(),
+                                    cachedResult.withFileAttributes(fileSize, recent ? AnalysisResult.UNKNOWN : lastModified));
+            return null;
+        } catch (final IOException e) {
+            // the file will be read again, and the error reported then
+            return file;
+        }
+    }
+
+    @Override
+    public List<RuleViolation> getCachedViolations(final FileId fileId) {
+        final AnalysisResult analysisResult = fileResultsCache.get(fileId);
 
         if (analysisResult == null) {
             // new file, avoid nulls
@@ -101,6 +147,20 @@ abstract class AbstractAnalysisCache implements AnalysisCache {
         return analysisResult.getViolations();
     }
 
+    @Override
+    public void reportCachedSummaries(FileId fileId, FileAnalysisListener listener) {
+        final AnalysisResult analysisResult = fileResultsCache.get(fileId);
+
+        if (analysisResult != null) {
+            for (CachedFileSummary summary : analysisResult.getSummaries()) {
+                Rule rule = summary.getRule();
+                if (rule != null) {
+                    listener.onFileSummary(rule, summary.getSummary());
+                }
+            }
+        }
+    }
+
     @Override
     public void analysisFailed(final TextDocument sourceFile) {
         updatedResultsCache.remove(sourceFile.getFileId());
@@ -224,6 +284,13 @@ abstract class AbstractAnalysisCache implements AnalysisCache {
                 }
             }
 
+            @Override
+            public void onFileSummary(Rule rule, FileSummary summary) {
+                if (!failed) {
+                    updatedResultsCache.get(fileName).addSummary(CachedFileSummary.of(ruleMapper, rule, summary));
+                }
+            }
+
             @Override
             public void onError(ProcessingError error) {
                 failed = true;
@@ -8,6 +8,9 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.TextDocument;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
@@ -39,11 +42,37 @@ public interface AnalysisCache {
     boolean isUpToDate(TextDocument document);
 
     /**
-     * Retrieves cached violations for the given file. Make sure to call {@link #isUpToDate(TextDocument)} first.
-     * @param sourceFile The file to check in the cache
+     * Checks if a given file is up to date in the cache, without decoding its
+     * text. If this returns null, the file is recorded in the updated cache like
+     * with {@link #isUpToDate(TextDocument)}, and its analysis can be skipped.
+     * Otherwise, the file may still be up to date, and {@link #isUpToDate(TextDocument)}
+     * must be called on the document of the returned file.
+     *
+     * @param file The file to check in the cache
+     * @return Null if the cache is a hit. Otherwise, the file to analyse: if the
+     *     bytes of the file were read to compute their checksum, a file that reads
+     *     its contents from these bytes, so that they are not read again, else the
+     *     given file.
+     */
+    default @Nullable TextFile checkUnchanged(TextFile file) {
+        return file;
+    }
+
+    /**
+     * Retrieves cached violations for the given file. Make sure to call {@link #isUpToDate(TextDocument)}
+     * or {@link #checkUnchanged(TextFile)} first.
+     * @param fileId The file to check in the cache
      * @return The list of cached violations.
      */
-    List<RuleViolation> getCachedViolations(TextDocument sourceFile);
+    List<RuleViolation> getCachedViolations(FileId fileId);
+
+    /**
+     * Reports the cached summaries of cross-file rules for the given file to the listener.
+     * Make sure to call {@link #isUpToDate(TextDocument)} or {@link #checkUnchanged(TextFile)} first.
+     * @param fileId   The file to check in the cache
+     * @param listener The listener that receives the summaries
+     */
+    void reportCachedSummaries(FileId fileId, FileAnalysisListener listener);
 
     /**
      * Notifies the cache that analysis of the given file has failed and should not be cached.
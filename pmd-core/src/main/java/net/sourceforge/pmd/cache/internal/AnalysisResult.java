@@ -11,16 +11,36 @@ import net.sourceforge.pmd.reporting.RuleViolation;
 
 /**
  * The result of a single file analysis.
- * Includes a checksum of the file and the complete list of violations detected.
+ * Includes a checksum of the file, the complete list of violations detected,
+ * and the summaries reported by cross-file rules. The size and last modification
+ * time of the file are known if it was found unchanged without being decoded.
  */
 public class AnalysisResult {
 
+    /** Value of the size and last modification time if they are not known. */
+    static final long UNKNOWN = -1;
+
     private final long fileChecksum;
     private final List<RuleViolation> violations;
+    private final List<CachedFileSummary> summaries;
+    private final long fileSize;
+    private final long lastModified;
 
     public AnalysisResult(final long fileChecksum, final List<RuleViolation> violations) {
+        this(fileChecksum, violations, UNKNOWN, UNKNOWN);
+    }
+
+    AnalysisResult(long fileChecksum, List<RuleViolation> violations, long fileSize, long lastModified) {
+        this(fileChecksum, violations, new ArrayList<>(), fileSize, lastModified);
+    }
+
+    private AnalysisResult(long fileChecksum, List<RuleViolation> violations, List<CachedFileSummary> summaries,
+                           long fileSize, long lastModified) {
         this.fileChecksum = fileChecksum;
         this.violations = violations;
+        this.summaries = summaries;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
     }
 
     public AnalysisResult(final long fileChecksum) {
@@ -31,6 +51,22 @@ public class AnalysisResult {
         return fileChecksum;
     }
 
+    long getFileSize() {
+        return fileSize;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Returns a result with the same violations and summaries, for
+     * a file of the given size and last modification time.
+     */
+    AnalysisResult withFileAttributes(long fileSize, long lastModified) {
+        return new AnalysisResult(fileChecksum, violations, summaries, fileSize, lastModified);
+    }
+
     public List<RuleViolation> getViolations() {
         return violations;
     }
@@ -42,4 +78,12 @@ public class AnalysisResult {
     public void addViolation(final RuleViolation ruleViolation) {
         this.violations.add(ruleViolation);
     }
+
+    List<CachedFileSummary> getSummaries() {
+        return summaries;
+    }
+
+    void addSummary(CachedFileSummary summary) {
+        this.summaries.add(summary);
+    }
 }
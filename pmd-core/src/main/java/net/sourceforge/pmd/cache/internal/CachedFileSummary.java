@@ -0,0 +1,122 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.cache.internal;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.lang.rule.InternalApiBridge;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.RuleViolation;
+import net.sourceforge.pmd.util.StringUtil;
+
+/**
+ * A {@link FileSummary} of a cross-file rule, stored with the identity
+ * of its rule, like {@link CachedRuleViolation}.
+ */
+final class CachedFileSummary {
+
+    private final CachedRuleMapper mapper;
+
+    private final String ruleClassName;
+    private final String ruleName;
+    private final String ruleTargetLanguage;
+    private final FileSummary summary;
+
+    private CachedFileSummary(CachedRuleMapper mapper, String ruleClassName, String ruleName,
+                              String ruleTargetLanguage, FileSummary summary) {
+        this.mapper = mapper;
+        this.ruleClassName = ruleClassName;
+        this.ruleName = ruleName;
+        this.ruleTargetLanguage = ruleTargetLanguage;
+        this.summary = summary;
+    }
+
+    static CachedFileSummary of(CachedRuleMapper mapper, Rule rule, FileSummary summary) {
+        return new CachedFileSummary(mapper,
+                                     StringUtil.nullToEmpty(rule.getRuleClass()),
+                                     StringUtil.nullToEmpty(rule.getName()),
+                                     StringUtil.nullToEmpty(rule.getLanguage().getId()),
+                                     summary);
+    }
+
+    /** Returns the rule of the current ruleset, or null if the rule is not in the ruleset anymore. */
+    Rule getRule() {
+        // The mapper may be initialized after cache is loaded, so use it lazily
+        return mapper.getRuleForClass(ruleClassName, ruleName, ruleTargetLanguage);
+    }
+
+    FileSummary getSummary() {
+        return summary;
+    }
+
+    static CachedFileSummary loadFromStream(DataInputStream stream, FileId fileId, CachedRuleMapper mapper) throws IOException {
+        String ruleClassName = stream.readUTF();
+        String ruleName = stream.readUTF();
+        String ruleTargetLanguage = stream.readUTF();
+        FileSummary summary = new FileSummary();
+
+        int numRelations = stream.readInt();
+        while (numRelations-- > 0) {
+            String relation = stream.readUTF();
+            int numFacts = stream.readInt();
+            while (numFacts-- > 0) {
+                summary.addFact(relation, stream.readUTF());
+            }
+        }
+
+        int numKeys = stream.readInt();
+        while (numKeys-- > 0) {
+            String key = stream.readUTF();
+            int numViolations = stream.readInt();
+            while (numViolations-- > 0) {
+                InternalApiBridge.addDeferredViolation(summary, key, CachedRuleViolation.loadFromStream(stream, fileId, mapper));
+            }
+        }
+        return new CachedFileSummary(mapper, ruleClassName, ruleName, ruleTargetLanguage, summary);
+    }
+
+    void storeToStream(DataOutputStream stream) throws IOException {
+        stream.writeUTF(ruleClassName);
+        stream.writeUTF(ruleName);
+        stream.writeUTF(ruleTargetLanguage);
+
+        stream.writeInt(summary.getRelations().size());
+        for (String relation : summary.getRelations()) {
+            Set<String> facts = summary.getFacts(relation);
+            stream.writeUTF(relation);
+            stream.writeInt(facts.size());
+            for (String fact : facts) {
+                stream.writeUTF(fact);
+            }
+        }
+
+        // suppressed violations are not cached, like those of other rules
+        Map<String, List<RuleViolation>> deferred = new LinkedHashMap<>();
+        for (Map.Entry<String, List<RuleViolation>> entry : summary.getDeferredViolations().entrySet()) {
+            for (RuleViolation violation : entry.getValue()) {
+                if (InternalApiBridge.getSuppression(summary, violation) == null) {
+                    deferred.computeIfAbsent(entry.getKey(), k -> new ArrayList<>(1)).add(violation);
+                }
+            }
+        }
+        stream.writeInt(deferred.size());
+        for (Map.Entry<String, List<RuleViolation>> entry : deferred.entrySet()) {
+            stream.writeUTF(entry.getKey());
+            stream.writeInt(entry.getValue().size());
+            for (RuleViolation violation : entry.getValue()) {
+                CachedRuleViolation.storeToStream(stream, violation);
+            }
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -32,6 +33,14 @@ import net.sourceforge.pmd.reporting.RuleViolation;
  */
 public class FileAnalysisCache extends AbstractAnalysisCache {
 
+    /**
+     * Version of the layout of the cache file, written after the PMD
+     * version. Must be incremented whenever {@link #persist()} changes
+     * what it writes, so that cache files written by a snapshot build
+     * with the same PMD version but another layout are discarded.
+     */
+    static final int CACHE_FORMAT_VERSION = 2;
+
     private final File cacheFile;
 
     /**
@@ -67,16 +76,18 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
                         new BufferedInputStream(Files.newInputStream(cacheFile.toPath())));
                 ) {
                     final String cacheVersion = inputStream.readUTF();
+                    final int formatVersion = inputStream.readInt();
 
-                    if (PMDVersion.VERSION.equals(cacheVersion)) {
+                    if (PMDVersion.VERSION.equals(cacheVersion) && formatVersion == CACHE_FORMAT_VERSION) {
                         // Cache seems valid, load the rest
 
                         // Get checksums
-                        rulesetChecksum = inputStream.readLong();
-                        auxClassPathChecksum = inputStream.readLong();
-                        executionClassPathChecksum = inputStream.readLong();
+                        final long loadedRulesetChecksum = inputStream.readLong();
+                        final long loadedAuxClassPathChecksum = inputStream.readLong();
+                        final long loadedExecutionClassPathChecksum = inputStream.readLong();
 
-                        // Cached results
+                        // Cached results, only published once the whole file has been read
+                        final Map<FileId, AnalysisResult> loadedResults = new HashMap<>();
                         while (inputStream.available() > 0) {
                             final String filePathId = inputStream.readUTF();
                             FileId fileId = idMap.get(filePathId);
@@ -86,6 +97,8 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
                                 fileId = FileId.fromURI(filePathId);
                             }
                             final long checksum = inputStream.readLong();
+                            final long fileSize = inputStream.readLong();
+                            final long lastModified = inputStream.readLong();
 
                             final int countViolations = inputStream.readInt();
                             final List<RuleViolation> violations = new ArrayList<>(countViolations);
@@ -93,12 +106,23 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
                                 violations.add(CachedRuleViolation.loadFromStream(inputStream, fileId, ruleMapper));
                             }
 
-                            fileResultsCache.put(fileId, new AnalysisResult(checksum, violations));
+                            final AnalysisResult result = new AnalysisResult(checksum, violations, fileSize, lastModified);
+                            final int countSummaries = inputStream.readInt();
+                            for (int i = 0; i < countSummaries; i++) {
+                                result.addSummary(CachedFileSummary.loadFromStream(inputStream, fileId, ruleMapper));
+                            }
+
+                            loadedResults.put(fileId, result);
                         }
 
+                        rulesetChecksum = loadedRulesetChecksum;
+                        auxClassPathChecksum = loadedAuxClassPathChecksum;
+                        executionClassPathChecksum = loadedExecutionClassPathChecksum;
+                        fileResultsCache.putAll(loadedResults);
+
                         LOG.debug("Analysis cache loaded from {}", cacheFile);
                     } else {
-                        LOG.debug("Analysis cache invalidated, PMD version changed.");
+                        LOG.debug("Analysis cache invalidated, PMD version or cache format changed.");
                     }
                 } catch (final EOFException e) {
                     LOG.warn("Cache file {} is malformed, will not be used for current analysis", cacheFile.getPath());
@@ -134,6 +158,7 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
                     new BufferedOutputStream(Files.newOutputStream(cacheFile.toPath())))
             ) {
                 outputStream.writeUTF(pmdVersion);
+                outputStream.writeInt(CACHE_FORMAT_VERSION);
 
                 outputStream.writeLong(rulesetChecksum);
                 outputStream.writeLong(auxClassPathChecksum);
@@ -144,11 +169,19 @@ public class FileAnalysisCache extends AbstractAnalysisCache {
 
                     outputStream.writeUTF(resultEntry.getKey().getUriString()); // the path id
                     outputStream.writeLong(resultEntry.getValue().getFileChecksum());
+                    outputStream.writeLong(resultEntry.getValue().getFileSize());
+                    outputStream.writeLong(resultEntry.getValue().getLastModified());
 
                     outputStream.writeInt(violations.size());
                     for (final RuleViolation rv : violations) {
                         CachedRuleViolation.storeToStream(outputStream, rv);
                     }
+
+                    final List<CachedFileSummary> summaries = resultEntry.getValue().getSummaries();
+                    outputStream.writeInt(summaries.size());
+                    for (final CachedFileSummary summary : summaries) {
+                        summary.storeToStream(outputStream);
+                    }
                 }
                 if (cacheFileShouldBeCreated) {
                     LOG.debug("Analysis cache created");
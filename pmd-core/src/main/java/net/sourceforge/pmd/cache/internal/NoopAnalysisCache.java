@@ -8,6 +8,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.TextDocument;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
@@ -40,10 +41,15 @@ public class NoopAnalysisCache implements AnalysisCache {
     }
 
     @Override
-    public List<RuleViolation> getCachedViolations(TextDocument sourceFile) {
+    public List<RuleViolation> getCachedViolations(FileId fileId) {
         return Collections.emptyList();
     }
 
+    @Override
+    public void reportCachedSummaries(FileId fileId, FileAnalysisListener listener) {
+        // noop
+    }
+
     @Override
     public FileAnalysisListener startFileAnalysis(TextDocument filename) {
         return FileAnalysisListener.noop();
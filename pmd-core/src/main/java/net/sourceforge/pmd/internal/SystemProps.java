@@ -7,6 +7,7 @@ package net.sourceforge.pmd.internal;
 public final class SystemProps {
 
     public static final String PMD_ERROR_RECOVERY = "pmd.error_recovery";
+    public static final String PMD_CACHE_TRUST_MTIME = "pmd.cache.trust_mtime";
 
     private SystemProps() {
     }
@@ -25,4 +26,17 @@ public final class SystemProps {
     public static boolean isErrorRecoveryMode() {
         return System.getProperty(PMD_ERROR_RECOVERY) != null;
     }
+
+    /**
+     * If set, the analysis cache considers that a file has not changed
+     * if it has the same size and last modification time as when it was
+     * cached, without reading it. Otherwise, the checksum of the file is
+     * compared. This is only safe if the tools that change the analyzed
+     * files also update their modification time.
+     * <p>
+     * The System Property is called {@code pmd.cache.trust_mtime}.
+     */
+    public static boolean isCacheTrustingModificationTimes() {
+        return System.getProperty(PMD_CACHE_TRUST_MTIME) != null;
+    }
 }
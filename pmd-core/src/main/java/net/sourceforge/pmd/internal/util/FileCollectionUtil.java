@@ -16,6 +16,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,12 +24,10 @@ import net.sourceforge.pmd.AbstractConfiguration;
 import net.sourceforge.pmd.cpd.CPDConfiguration;
 import net.sourceforge.pmd.lang.document.FileCollector;
 import net.sourceforge.pmd.lang.document.FileId;
-import net.sourceforge.pmd.lang.document.InternalApiBridge;
 import net.sourceforge.pmd.util.database.DBMSMetadata;
 import net.sourceforge.pmd.util.database.DBURI;
 import net.sourceforge.pmd.util.database.SourceObject;
 import net.sourceforge.pmd.util.log.PmdReporter;
-import net.sourceforge.pmd.util.log.internal.ErrorsAsWarningsReporter;
 
 /**
  * @author Clément Fournier
@@ -71,13 +70,26 @@ public final class FileCollectionUtil {
     }
 
     public static void collectFiles(AbstractConfiguration configuration, FileCollector collector) {
+        collectFiles(configuration, collector, null);
+    }
+
+    /**
+     * Collect the files of the configuration. If {@code onlyFiles} is not
+     * null, only those files are collected from the input paths and file
+     * lists, and the input directories are not walked.
+     *
+     * @param onlyFiles Real paths of the files that may be collected, or null
+     */
+    public static void collectFiles(AbstractConfiguration configuration, FileCollector collector, @Nullable Set<Path> onlyFiles) {
         if (configuration.getSourceEncoding() != null) {
             collector.setCharset(configuration.getSourceEncoding());
             collector.setRecursive(configuration.collectFilesRecursively());
         }
 
+        // the exclusions are known before collecting, so that excluded directories are not even walked
+        excludeFiles(configuration, collector);
 
-        collectFiles(collector, configuration.getInputPathList());
+        collectFiles(collector, configuration.getInputPathList(), onlyFiles);
 
         if (configuration.getUri() != null) {
             collectDB(collector, configuration.getUri());
@@ -85,31 +97,55 @@ public final class FileCollectionUtil {
 
 
         if (configuration.getInputFile() != null) {
-            collectFileList(collector, configuration.getInputFile());
+            collectFileList(collector, configuration.getInputFile(), onlyFiles);
         }
+    }
 
-        if (configuration.getIgnoreFile() != null || !configuration.getExcludes().isEmpty()) {
-            // This is to be able to interpret the log (will report 'adding' xxx)
-            LOG.debug("Now collecting files to exclude.");
-            // errors like "excluded file does not exist" are reported as warnings.
-            PmdReporter mutedLog = new ErrorsAsWarningsReporter(collector.getReporter());
-            try (FileCollector excludeCollector = InternalApiBridge.newCollector(collector, mutedLog)) {
-
-                if (configuration.getIgnoreFile() != null) {
-                    // todo better reporting of *where* exactly the path is
-                    collectFileList(excludeCollector, configuration.getIgnoreFile());
+    private static void excludeFiles(AbstractConfiguration configuration, FileCollector collector) {
+        // errors like "excluded file does not exist" are reported as warnings.
+        PmdReporter reporter = collector.getReporter();
+        if (configuration.getIgnoreFile() != null) {
+            Path ignoreFile = configuration.getIgnoreFile();
+            LOG.debug("Reading file list {} of files to exclude.", ignoreFile);
+            if (!Files.exists(ignoreFile)) {
+                reporter.warn("No such file {0}", ignoreFile);
+            } else {
+                try {
+                    excludePaths(collector, FileUtil.readFilelistEntries(ignoreFile));
+                } catch (IOException e) {
+                    reporter.warnEx("Error reading {0}", new Object[] { ignoreFile }, e);
                 }
-                collectFiles(excludeCollector, configuration.getExcludes());
-                collector.exclude(excludeCollector);
+            }
+        }
+        excludePaths(collector, configuration.getExcludes());
+
+        for (String pattern : configuration.getExcludePatterns()) {
+            try {
+                collector.excludePattern(pattern);
+            } catch (IllegalArgumentException e) {
+                reporter.error("Invalid exclude pattern ''{0}''", pattern);
             }
         }
     }
 
+    private static void excludePaths(FileCollector collector, List<Path> paths) {
+        for (Path path : paths) {
+            if (!Files.exists(path)) {
+                collector.getReporter().warn("No such file {0}", path);
+            }
+            collector.excludePath(path);
+        }
+    }
+
 
     public static void collectFiles(FileCollector collector, List<Path> filePaths) {
+        collectFiles(collector, filePaths, null);
+    }
+
+    private static void collectFiles(FileCollector collector, List<Path> filePaths, @Nullable Set<Path> onlyFiles) {
         for (Path rootLocation : filePaths) {
             try {
-                addRoot(collector, rootLocation);
+                addRoot(collector, rootLocation, onlyFiles);
             } catch (IOException e) {
                 collector.getReporter().errorEx("Error collecting {0}", new Object[]{ rootLocation }, e);
             }
@@ -117,6 +153,10 @@ public final class FileCollectionUtil {
     }
 
     public static void collectFileList(FileCollector collector, Path fileList) {
+        collectFileList(collector, fileList, null);
+    }
+
+    private static void collectFileList(FileCollector collector, Path fileList, @Nullable Set<Path> onlyFiles) {
         LOG.debug("Reading file list {}.", fileList);
         if (!Files.exists(fileList)) {
             collector.getReporter().error("No such file {0}", fileList);
@@ -130,16 +170,27 @@ public final class FileCollectionUtil {
             collector.getReporter().errorEx("Error reading {0}", new Object[] { fileList }, e);
             return;
         }
-        collectFiles(collector, filePaths);
+        collectFiles(collector, filePaths, onlyFiles);
     }
 
-    private static void addRoot(FileCollector collector, Path path) throws IOException {
+    private static void addRoot(FileCollector collector, Path path, @Nullable Set<Path> onlyFiles) throws IOException {
         String pathStr = path.toString();
         if (!Files.exists(path)) {
             collector.getReporter().error("No such file {0}", path);
             return;
         }
 
+        if (onlyFiles != null) {
+            if (Files.isDirectory(path)) {
+                LOG.debug("Adding selected files of directory {}.", path);
+                collector.addDirectoryFiles(path, onlyFiles);
+                return;
+            } else if (!onlyFiles.contains(path.toRealPath())) {
+                LOG.debug("Ignoring {}: not selected", path);
+                return;
+            }
+        }
+
         if (Files.isDirectory(path)) {
             LOG.debug("Adding directory {}.", path);
             collector.addDirectory(path);
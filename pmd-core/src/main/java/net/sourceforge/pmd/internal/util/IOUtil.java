@@ -4,6 +4,7 @@
 
 package net.sourceforge.pmd.internal.util;
 
+import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FilterInputStream;
@@ -30,6 +31,7 @@ import java.security.PrivilegedAction;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -45,6 +47,8 @@ public final class IOUtil {
     public static final char UTF_BOM = '\uFEFF';
     /** Conventional return value for readers. */
     public static final int EOF = -1;
+    /** Buffer size of report files, which are often large. */
+    public static final int REPORT_BUFFER_SIZE = 64 * 1024;
     private static final int BUFFER_SIZE = 8192;
 
     private IOUtil() {
@@ -105,14 +109,38 @@ public final class IOUtil {
      * the given charset. Even for writing to stdout. It never
      * falls back to the default charset.</p>
      *
+     * <p>If the file name ends with {@code .gz}, the file is compressed
+     * with gzip.</p>
+     *
      * @param charset the charset to be used (required)
      * @param reportFile the file name (optional)
      * @return
      */
     public static Writer createWriter(Charset charset, String reportFile) {
+        OutputStream out = createOutputStream(reportFile);
+        if (StringUtils.isBlank(reportFile)) {
+            return new OutputStreamWriter(out, charset);
+        }
+        // like Files.newBufferedWriter, but with a larger buffer
+        return new BufferedWriter(new OutputStreamWriter(out, charset.newEncoder()), REPORT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an output stream that writes to the given file or to stdout.
+     * The file is created if it does not exist. Closing the stream does
+     * not close stdout. The stream is not buffered.
+     *
+     * <p>If the file name ends with {@code .gz}, the file is compressed
+     * with gzip.</p>
+     *
+     * @param reportFile the file name (optional)
+     *
+     * @return the output stream, never null
+     */
+    public static OutputStream createOutputStream(String reportFile) {
         try {
             if (StringUtils.isBlank(reportFile)) {
-                return new OutputStreamWriter(new FilterOutputStream(System.out) {
+                return new FilterOutputStream(System.out) {
                     @Override
                     public void close() {
                         // avoid closing stdout, simply flush
@@ -131,12 +159,16 @@ public final class IOUtil {
                          */
                         out.write(b, off, len);
                     }
-                }, charset);
+                };
             }
             Path path = new File(reportFile).toPath().toAbsolutePath();
             Files.createDirectories(path.getParent()); // ensure parent dir exists
             // this will create the file if it doesn't exist
-            return Files.newBufferedWriter(path, charset);
+            OutputStream out = Files.newOutputStream(path);
+            if (path.getFileName().toString().endsWith(".gz")) {
+                out = new GZIPOutputStream(out, REPORT_BUFFER_SIZE);
+            }
+            return out;
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
@@ -6,8 +6,11 @@ package net.sourceforge.pmd.lang;
 
 import java.util.List;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.cache.internal.AnalysisCache;
+import net.sourceforge.pmd.lang.ast.internal.AstCache;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
@@ -35,7 +38,22 @@ public final class InternalApiBridge {
                                                                     AnalysisCache analysisCache,
                                                                     PmdReporter messageReporter,
                                                                     LanguageProcessorRegistry lpRegistry) {
-        return new LanguageProcessor.AnalysisTask(rulesets, files, listener, threadCount, analysisCache, messageReporter, lpRegistry);
+        return createAnalysisTask(rulesets, files, listener, threadCount, analysisCache, messageReporter, lpRegistry, null);
+    }
+
+    public static LanguageProcessor.AnalysisTask createAnalysisTask(RuleSets rulesets,
+                                                                    List<TextFile> files,
+                                                                    GlobalAnalysisListener listener,
+                                                                    int threadCount,
+                                                                    AnalysisCache analysisCache,
+                                                                    PmdReporter messageReporter,
+                                                                    LanguageProcessorRegistry lpRegistry,
+                                                                    @Nullable AstCache astCache) {
+        return new LanguageProcessor.AnalysisTask(rulesets, files, listener, threadCount, analysisCache, messageReporter, lpRegistry, astCache);
+    }
+
+    public static @Nullable AstCache getAstCache(LanguageProcessor.AnalysisTask task) {
+        return task.getAstCache();
     }
 
     public static LanguageProcessor.AnalysisTask taskWithFiles(LanguageProcessor.AnalysisTask originalTask, List<TextFile> newFiles) {
@@ -8,8 +8,10 @@ import java.util.Collections;
 import java.util.List;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.cache.internal.AnalysisCache;
+import net.sourceforge.pmd.lang.ast.internal.AstCache;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
 import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
@@ -66,6 +68,7 @@ public interface LanguageProcessor extends AutoCloseable {
         private final AnalysisCache analysisCache;
         private final PmdReporter messageReporter;
         private final LanguageProcessorRegistry lpRegistry;
+        private final @Nullable AstCache astCache;
 
 
         /**
@@ -80,7 +83,8 @@ public interface LanguageProcessor extends AutoCloseable {
                             int threadCount,
                             AnalysisCache analysisCache,
                             PmdReporter messageReporter,
-                            LanguageProcessorRegistry lpRegistry) {
+                            LanguageProcessorRegistry lpRegistry,
+                            @Nullable AstCache astCache) {
             this.rulesets = rulesets;
             this.files = files;
             this.listener = listener;
@@ -88,6 +92,7 @@ public interface LanguageProcessor extends AutoCloseable {
             this.analysisCache = analysisCache;
             this.messageReporter = messageReporter;
             this.lpRegistry = lpRegistry;
+            this.astCache = astCache;
         }
 
         public RuleSets getRulesets() {
@@ -118,6 +123,16 @@ public interface LanguageProcessor extends AutoCloseable {
             return lpRegistry;
         }
 
+        /**
+         * Returns the cache of parsed files shared with other analyses,
+         * or null if files should always be parsed.
+         *
+         * @apiNote Internal API
+         */
+        @Nullable AstCache getAstCache() {
+            return astCache;
+        }
+
         /**
          * Produce a new analysis task with just different files.
          *
@@ -131,7 +146,8 @@ public interface LanguageProcessor extends AutoCloseable {
                 threadCount,
                 analysisCache,
                 messageReporter,
-                lpRegistry
+                lpRegistry,
+                astCache
             );
         }
     }
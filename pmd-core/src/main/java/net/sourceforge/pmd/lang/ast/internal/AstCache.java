@@ -0,0 +1,286 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.ast.SemanticException;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.DataKey;
+
+/**
+ * A cache of parsed files, shared by the analyses of an analysis session.
+ * Entries are keyed by the file id, language version and checksum of the
+ * file, so that a file whose contents changed is parsed again. The cache
+ * is bounded by the estimated memory used by the cached ASTs, and evicts
+ * the least recently used files first.
+ *
+ * <p>A cached AST is reused as it was after parsing and processing:
+ * <ul>
+ * <li>The {@linkplain Node#getUserMap() user data} of its nodes is
+ * reset to what it was when the AST was cached. The data that rules
+ * stored on the nodes, like metrics or dataflow results, is cleared,
+ * so that a rule sees the same AST whether it was cached or not.
+ * The values that the language processor stored during processing are
+ * shared, and must not be mutated by rules.
+ * <li>The semantic warnings that were reported during processing are
+ * reported again.
+ * <li>The state that nodes compute lazily themselves, like Java types
+ * and symbols, is shared. This is the point of the cache.
+ * </ul>
+ *
+ * <p>A cached AST must only be used with the language processor that
+ * created it, so this cache must not outlive the language processors.
+ * This class is thread-safe.
+ */
+public final class AstCache {
+
+    /**
+     * Rough estimate of the memory used by a node of a processed AST,
+     * including its tokens and the results of the semantic analysis,
+     * in bytes.
+     */
+    static final long ESTIMATED_BYTES_PER_NODE = 256;
+
+    private final long maxBytes;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+    private int hits;
+    private int misses;
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxBytes Maximum estimated memory used by the cached ASTs
+     *
+     * @throws IllegalArgumentException If the bound is negative
+     */
+    public AstCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Negative size " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the AST of the document if it is in the cache, or null.
+     * The user data of the AST is reset, and the semantic warnings that
+     * were recorded when the AST was cached are reported on the given
+     * reporter.
+     */
+    public @Nullable RootNode get(TextDocument document, SemanticErrorReporter reporter) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(new Key(document));
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+        }
+        // analyses of a session do not run concurrently, and a file is
+        // analysed once per analysis, so the AST is not used by another thread
+        entry.reset(reporter);
+        return entry.root;
+    }
+
+    /**
+     * Add the AST of a document to the cache. The AST must be complete,
+     * ie, it must have been processed without semantic errors, and no rule
+     * must have been applied to it yet. The reporter must be the one that
+     * was used to process it. This may evict other entries. ASTs that are
+     * larger than the bound are not cached.
+     */
+    public void put(TextDocument document, RootNode root, RecordingReporter reporter) {
+        if (estimatedBytes(document.getLength(), 0) > maxBytes) {
+            return;
+        }
+        Entry entry = new Entry(root, reporter.getWarnings());
+        if (entry.estimatedBytes > maxBytes) {
+            return;
+        }
+
+        synchronized (this) {
+            Entry previous = entries.put(new Key(document), entry);
+            cachedBytes += entry.estimatedBytes;
+            if (previous != null) {
+                cachedBytes -= previous.estimatedBytes;
+            }
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (cachedBytes > maxBytes && iterator.hasNext()) {
+                cachedBytes -= iterator.next().estimatedBytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    /** Remove all entries. */
+    public synchronized void clear() {
+        entries.clear();
+        cachedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Returns the estimated memory used by the cached ASTs, in bytes. */
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    static long estimatedBytes(int textLength, int numNodes) {
+        // the text is kept by the document, with two bytes per char
+        return 2L * textLength + numNodes * ESTIMATED_BYTES_PER_NODE;
+    }
+
+    /**
+     * A reporter that records the warnings that are reported while
+     * processing an AST, so that they can be reported again when the
+     * AST is reused.
+     */
+    public static final class RecordingReporter implements SemanticErrorReporter {
+
+        private final SemanticErrorReporter delegate;
+        private final List<Warning> warnings = Collections.synchronizedList(new ArrayList<>());
+
+        public RecordingReporter(SemanticErrorReporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void warning(Node location, String message, Object... formatArgs) {
+            warnings.add(new Warning(location, message, formatArgs));
+            delegate.warning(location, message, formatArgs);
+        }
+
+        @Override
+        public SemanticException error(Node location, String message, Object... formatArgs) {
+            return delegate.error(location, message, formatArgs);
+        }
+
+        @Override
+        public void acceptError(SemanticException e) {
+            delegate.acceptError(e);
+        }
+
+        @Override
+        public @Nullable SemanticException getFirstError() {
+            return delegate.getFirstError();
+        }
+
+        List<Warning> getWarnings() {
+            synchronized (warnings) {
+                return new ArrayList<>(warnings);
+            }
+        }
+    }
+
+    private static final class Warning {
+
+        private final Node location;
+        private final String message;
+        private final Object[] formatArgs;
+
+        Warning(Node location, String message, Object[] formatArgs) {
+            this.location = location;
+            this.message = message;
+            this.formatArgs = formatArgs;
+        }
+    }
+
+    private static final class Entry {
+
+        private final RootNode root;
+        private final List<Warning> warnings;
+        // user data of the nodes that had some when the AST was cached
+        private final Map<Node, DataMap<DataKey<?, ?>>> userData = new IdentityHashMap<>();
+        private final long estimatedBytes;
+
+        Entry(RootNode root, List<Warning> warnings) {
+            this.root = root;
+            this.warnings = warnings;
+            int numNodes = 0;
+            for (Node node : root.descendantsOrSelf().crossFindBoundaries()) {
+                numNodes++;
+                DataMap<DataKey<?, ?>> data = node.getUserMap();
+                if (!data.isEmpty()) {
+                    userData.put(node, data.copy());
+                }
+            }
+            this.estimatedBytes = estimatedBytes(root.getTextDocument().getLength(), numNodes);
+        }
+
+        void reset(SemanticErrorReporter reporter) {
+            for (Node node : root.descendantsOrSelf().crossFindBoundaries()) {
+                DataMap<DataKey<?, ?>> data = node.getUserMap();
+                data.clear();
+                DataMap<DataKey<?, ?>> initial = userData.get(node);
+                if (initial != null) {
+                    data.putAll(initial);
+                }
+            }
+            for (Warning warning : warnings) {
+                reporter.warning(warning.location, warning.message, warning.formatArgs);
+            }
+        }
+    }
+
+    private static final class Key {
+
+        private final FileId fileId;
+        private final LanguageVersion languageVersion;
+        private final long checksum;
+
+        Key(TextDocument document) {
+            this.fileId = document.getFileId();
+            this.languageVersion = document.getLanguageVersion();
+            this.checksum = document.getCheckSum();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return checksum == key.checksum
+                && fileId.equals(key.fileId)
+                && languageVersion.equals(key.languageVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileId, languageVersion, checksum);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.document;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Walks a directory tree in parallel to find the regular files it
+ * contains. Each directory is listed by its own task, so that the latency
+ * of the file system (e.g. a network file system) is overlapped. The
+ * tasks run on a fork-join pool of their own, which is shut down after
+ * the walk, as they block on IO and must not hold up the threads of the
+ * common pool. Excluded paths and directories matching an
+ * {@link ExcludePattern} are pruned without listing their contents.
+ *
+ * <p>Like {@link Files#walkFileTree(Path, Set, int, java.nio.file.FileVisitor)}
+ * with {@link java.nio.file.FileVisitOption#FOLLOW_LINKS}, symbolic links
+ * are followed, and a cycle of links is reported as a {@link FileSystemLoopException}.
+ */
+final class DirectoryWalker {
+
+    private final Path root;
+    private final int maxDepth;
+    private final Set<Path> excludedPaths;
+    private final List<ExcludePattern> excludePatterns;
+    private final int threads;
+
+    private final Queue<Path> files = new ConcurrentLinkedQueue<>();
+    private final Queue<IOException> errors = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param root            Directory to walk
+     * @param maxDepth        Maximum number of levels to visit, 1 only visits the entries of the root
+     * @param excludedPaths   Normalized absolute paths that are not visited
+     * @param excludePatterns Patterns for paths relative to the root that are not visited
+     * @param threads         Number of threads that list directories
+     */
+    DirectoryWalker(Path root, int maxDepth, Set<Path> excludedPaths, List<ExcludePattern> excludePatterns, int threads) {
+        this.root = root;
+        this.maxDepth = maxDepth;
+        this.excludedPaths = excludedPaths;
+        this.excludePatterns = excludePatterns;
+        this.threads = threads;
+    }
+
+    /**
+     * Walk the tree and pass the regular files found to the handler, in
+     * no particular order. If some directories could not be read, the first
+     * error is thrown after the rest of the tree was walked and the files
+     * found were handled.
+     */
+    void walk(Consumer<Path> handler) throws IOException {
+        BasicFileAttributes rootAttrs = Files.readAttributes(root, BasicFileAttributes.class);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new DirectoryTask(root, 1, new Ancestor(null, rootAttrs.fileKey(), root)));
+        } finally {
+            pool.shutdown();
+        }
+
+        files.forEach(handler);
+        IOException error = null;
+        for (IOException e : errors) {
+            if (error == null) {
+                error = e;
+            } else {
+                error.addSuppressed(e);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Whether the walk would visit the given file, which is below the root.
+     * This is the case if neither the file nor one of its parent directories
+     * is excluded, and the file is not deeper than the maximum depth.
+     */
+    boolean isVisited(Path file) {
+        Path relative = root.relativize(file);
+        if (relative.getNameCount() > maxDepth || isExcluded(file, false)) {
+            return false;
+        }
+        for (Path dir = file.getParent(); dir != null && !dir.equals(root); dir = dir.getParent()) {
+            if (isExcluded(dir, true)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the path is excluded. If the type of the path is not known
+     * yet, only the patterns that apply to files and directories are tried.
+     */
+    private boolean isExcluded(Path path, @Nullable Boolean isDirectory) {
+        if (!excludedPaths.isEmpty() && excludedPaths.contains(path.toAbsolutePath().normalize())) {
+            return true;
+        }
+        String relativePath = null;
+        for (ExcludePattern pattern : excludePatterns) {
+            if (isDirectory == null && pattern.isDirectoryOnly()) {
+                continue;
+            }
+            if (relativePath == null) {
+                relativePath = root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+            }
+            if (pattern.matches(relativePath, Boolean.TRUE.equals(isDirectory))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        private final int depth;
+        private final Ancestor ancestors;
+
+        DirectoryTask(Path dir, int depth, Ancestor ancestors) {
+            this.dir = dir;
+            this.depth = depth;
+            this.ancestors = ancestors;
+        }
+
+        @Override
+        protected void compute() {
+            Collection<DirectoryTask> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    // don't stat files that are excluded anyway
+                    if (isExcluded(entry, null)) {
+                        continue;
+                    }
+                    BasicFileAttributes attrs = readAttributes(entry);
+                    if (attrs == null) {
+                        continue;
+                    }
+                    if (attrs.isRegularFile()) {
+                        files.add(entry);
+                    } else if (attrs.isDirectory() && depth < maxDepth && !isExcluded(entry, true)) {
+                        if (ancestors.contains(attrs.fileKey(), entry)) {
+                            errors.add(new FileSystemLoopException(entry.toString()));
+                        } else {
+                            subdirectories.add(new DirectoryTask(entry, depth + 1, new Ancestor(ancestors, attrs.fileKey(), entry)));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                errors.add(e);
+            }
+            invokeAll(subdirectories);
+        }
+
+        private @Nullable BasicFileAttributes readAttributes(Path entry) {
+            try {
+                return Files.readAttributes(entry, BasicFileAttributes.class);
+            } catch (IOException e) {
+                // a broken link is skipped, like Files.walkFileTree does
+                if (!Files.isSymbolicLink(entry)) {
+                    errors.add(e);
+                }
+                return null;
+            }
+        }
+    }
+
+    /** The directories above a task, to detect cycles of symbolic links. */
+    private static final class Ancestor {
+
+        private final @Nullable Ancestor parent;
+        private final @Nullable Object fileKey;
+        private final Path path;
+
+        Ancestor(@Nullable Ancestor parent, @Nullable Object fileKey, Path path) {
+            this.parent = parent;
+            this.fileKey = fileKey;
+            this.path = path;
+        }
+
+        boolean contains(@Nullable Object fileKey, Path path) {
+            for (Ancestor a = this; a != null; a = a.parent) {
+                if (fileKey != null ? Objects.equals(fileKey, a.fileKey) : isSameFile(path, a.path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isSameFile(Path path, Path other) {
+            try {
+                return Files.isSameFile(path, other);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
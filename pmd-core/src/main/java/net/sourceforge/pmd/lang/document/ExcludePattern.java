@@ -0,0 +1,111 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.document;
+
+import java.util.regex.Pattern;
+
+/**
+ * A gitignore-style glob, compiled once to a regex. Patterns are matched
+ * against paths relative to the walked directory, with {@code /} as separator.
+ *
+ * <ul>
+ * <li>{@code *} matches any characters except {@code /}, {@code ?} matches one of them,
+ * and {@code [abc]} or {@code [!abc]} match a character of a set;
+ * <li>{@code **} matches any number of directories;
+ * <li>a pattern that contains no {@code /} except at its end matches at any depth,
+ * otherwise it is anchored to the walked directory;
+ * <li>a pattern that ends with {@code /} only matches directories.
+ * </ul>
+ *
+ * <p>Negated patterns ({@code !pattern}) are not supported.
+ */
+final class ExcludePattern {
+
+    private final String glob;
+    private final Pattern regex;
+    private final boolean directoryOnly;
+
+    private ExcludePattern(String glob, Pattern regex, boolean directoryOnly) {
+        this.glob = glob;
+        this.regex = regex;
+        this.directoryOnly = directoryOnly;
+    }
+
+    static ExcludePattern compile(String glob) {
+        String pattern = glob.trim().replace('\\', '/');
+        if (pattern.isEmpty() || pattern.startsWith("!")) {
+            throw new IllegalArgumentException("Not a valid exclude pattern: '" + glob + "'");
+        }
+        boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+
+        StringBuilder regex = new StringBuilder();
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        } else if (pattern.indexOf('/') < 0) {
+            // match the name at any depth
+            regex.append("(?:.*/)?");
+        }
+        appendGlob(regex, pattern);
+        return new ExcludePattern(glob, Pattern.compile(regex.toString()), directoryOnly);
+    }
+
+    private static void appendGlob(StringBuilder regex, String pattern) {
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (pattern.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 3;
+                continue;
+            } else if (pattern.startsWith("**", i)) {
+                regex.append(".*");
+                i += 2;
+                continue;
+            }
+
+            if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (c == '[' && pattern.indexOf(']', i + 1) > i + 1) {
+                int end = pattern.indexOf(']', i + 1);
+                String set = pattern.substring(i + 1, end);
+                regex.append('[');
+                if (set.startsWith("!")) {
+                    regex.append('^');
+                    set = set.substring(1);
+                }
+                regex.append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                i = end;
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+            i++;
+        }
+    }
+
+    /** Whether this pattern only applies to directories. */
+    boolean isDirectoryOnly() {
+        return directoryOnly;
+    }
+
+    /**
+     * Whether the given relative path matches this pattern.
+     *
+     * @param relativePath Path relative to the walked directory, separated with {@code /}
+     * @param isDirectory  Whether the path is a directory
+     */
+    boolean matches(String relativePath, boolean isDirectory) {
+        return (isDirectory || !directoryOnly) && regex.matcher(relativePath).matches();
+    }
+
+    @Override
+    public String toString() {
+        return glob;
+    }
+}
@@ -12,29 +12,30 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.FileSystems;
-import java.nio.file.FileVisitOption;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.ProviderNotFoundException;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageVersion;
@@ -62,6 +63,9 @@ public final class FileCollector implements AutoCloseable {
     private boolean closed;
     private boolean recursive = true;
     private Predicate<FileId> fileFilter = file -> true;
+    private final Set<Path> excludedPaths = new HashSet<>();
+    private final List<ExcludePattern> excludePatterns = new ArrayList<>();
+    private int walkerThreads = Runtime.getRuntime().availableProcessors();
 
     // construction
 
@@ -89,9 +93,14 @@ public final class FileCollector implements AutoCloseable {
     FileCollector newCollector(PmdReporter logger) {
         FileCollector fileCollector = new FileCollector(discoverer, logger, null);
         fileCollector.charset = this.charset;
+        fileCollector.walkerThreads = this.walkerThreads;
         return fileCollector;
     }
 
+    void setWalkerThreads(int threads) {
+        this.walkerThreads = AssertionUtil.requireOver1("threads", threads);
+    }
+
     // public behaviour
 
     /**
@@ -147,7 +156,14 @@ public final class FileCollector implements AutoCloseable {
             reporter.error("Not a regular file: {0}", file);
             return false;
         }
-        LanguageVersion languageVersion = discoverLanguage(file.toString());
+        return addDiscoveredFile(file, discoverLanguage(file.toString()));
+    }
+
+    private boolean addDiscoveredFile(Path file, @Nullable LanguageVersion languageVersion) {
+        if (isExcluded(file)) {
+            LOG.trace("File {} is excluded", file);
+            return false;
+        }
         return languageVersion != null
             && addFileImpl(TextFile.builderForPath(file, charset, languageVersion)
                                    .setParentFsPath(outerFsPath)
@@ -172,9 +188,7 @@ public final class FileCollector implements AutoCloseable {
         }
         LanguageVersion lv = discoverer.getDefaultLanguageVersion(language);
         Objects.requireNonNull(lv);
-        return addFileImpl(TextFile.builderForPath(file, charset, lv)
-                                   .setParentFsPath(outerFsPath)
-                                   .build());
+        return addDiscoveredFile(file, lv);
     }
 
     /**
@@ -272,24 +286,92 @@ public final class FileCollector implements AutoCloseable {
         return addDirectory(dir, recursive);
     }
 
+    /**
+     * Add all regular files of a directory, as with {@link #addFile(Path)}.
+     * The directory tree is walked in parallel, and the paths that are
+     * {@linkplain #excludePath(Path) excluded} or match an
+     * {@linkplain #excludePattern(String) exclude pattern} are not visited.
+     * The files are added in the order of their paths.
+     *
+     * @param dir     Directory path
+     * @param recurse Whether to add the files of subdirectories as well
+     *
+     * @return True if the directory has been added
+     */
     public boolean addDirectory(Path dir, boolean recurse) throws IOException {
         if (!Files.isDirectory(dir)) {
             reporter.error("Not a directory {0}", dir);
             return false;
         }
+        if (isExcluded(dir)) {
+            LOG.trace("Directory {} is excluded", dir);
+            return false;
+        }
         int maxDepth = recurse ? Integer.MAX_VALUE : 1;
-        Files.walkFileTree(dir, EnumSet.of(FileVisitOption.FOLLOW_LINKS), maxDepth, new SimpleFileVisitor<Path>() {
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                if (attrs.isRegularFile()) {
-                    FileCollector.this.addFile(file);
-                }
-                return super.visitFile(file, attrs);
+        List<Path> files = new ArrayList<>();
+        try {
+            new DirectoryWalker(dir, maxDepth, excludedPaths, excludePatterns, walkerThreads).walk(files::add);
+        } finally {
+            addFoundFiles(files);
+        }
+        return true;
+    }
+
+    /**
+     * Add the given files, if they are in the directory, as if they had
+     * been found by {@link #addDirectory(Path)}. The directory is not walked,
+     * so that a few files of a large tree, like the changed files of a
+     * repository, are added quickly. Exclusions apply as usual.
+     *
+     * @param dir   Directory path
+     * @param files Real paths of the files that may be added, as given by {@link Path#toRealPath(java.nio.file.LinkOption...)}
+     *
+     * @return True if the directory has been added
+     *
+     * @since 7.7.0
+     */
+    @Experimental
+    public boolean addDirectoryFiles(Path dir, Collection<Path> files) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            reporter.error("Not a directory {0}", dir);
+            return false;
+        }
+        if (isExcluded(dir)) {
+            LOG.trace("Directory {} is excluded", dir);
+            return false;
+        }
+        Path realDir = dir.toRealPath();
+        DirectoryWalker walker = new DirectoryWalker(dir, recursive ? Integer.MAX_VALUE : 1, excludedPaths, excludePatterns, walkerThreads);
+        List<Path> found = new ArrayList<>();
+        for (Path file : files) {
+            if (!file.startsWith(realDir)) {
+                continue;
             }
-        });
+            // keep the path of the directory as given, for the display name of the file
+            Path relative = realDir.relativize(file);
+            Path inDir = dir.resolve(relative);
+            if (Files.isRegularFile(inDir) && walker.isVisited(inDir)) {
+                found.add(inDir);
+            }
+        }
+        addFoundFiles(found);
         return true;
     }
 
+    private void addFoundFiles(List<Path> files) {
+        // the language of many files is the same, discover it once per extension
+        Map<String, Optional<LanguageVersion>> languageByExtension = new HashMap<>();
+        files.sort(Comparator.naturalOrder());
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            int dot = fileName.lastIndexOf('.');
+            String extension = dot < 0 ? "" : fileName.substring(dot + 1);
+            Optional<LanguageVersion> languageVersion =
+                languageByExtension.computeIfAbsent(extension, ext -> Optional.ofNullable(discoverLanguage(fileName)));
+            addDiscoveredFile(file, languageVersion.orElse(null));
+        }
+    }
+
 
     /**
      * Add a file or directory recursively. Language is determined automatically
@@ -330,6 +412,10 @@ public final class FileCollector implements AutoCloseable {
         if (!Files.isRegularFile(zipFile)) {
             throw new IllegalArgumentException("Not a regular file: " + zipFile);
         }
+        if (isExcluded(zipFile)) {
+            LOG.trace("Zip file {} is excluded", zipFile);
+            return false;
+        }
         URI zipUri = URI.create("jar:" + zipFile.toUri());
         FileSystem fs;
         boolean isNewFileSystem = false;
@@ -366,7 +452,9 @@ public final class FileCollector implements AutoCloseable {
 
     /** A collector that prefixes the display name of the files it will contain with the path of the zip. */
     private FileCollector newZipCollector(Path zipFilePath) {
-        return new FileCollector(discoverer, reporter, FileId.fromPath(zipFilePath));
+        FileCollector zipCollector = new FileCollector(discoverer, reporter, FileId.fromPath(zipFilePath));
+        zipCollector.excludePatterns.addAll(this.excludePatterns);
+        return zipCollector;
     }
 
     // configuration
@@ -397,6 +485,65 @@ public final class FileCollector implements AutoCloseable {
         this.fileFilter = Objects.requireNonNull(fileFilter);
     }
 
+    /**
+     * Exclude a file or directory from the files that are added later.
+     * Excluded directories are not walked by {@link #addDirectory(Path)},
+     * and the files and directories they contain are excluded as well when
+     * they are added explicitly.
+     * This is cheaper than collecting the files to exclude and {@linkplain #exclude(FileCollector) removing}
+     * them afterwards.
+     *
+     * @param path A file or directory, which doesn't need to exist
+     *
+     * @since 7.7.0
+     */
+    @Experimental
+    public void excludePath(Path path) {
+        excludedPaths.add(path.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Exclude the files and directories that match a gitignore-style glob
+     * from the directories that are added later. The pattern is matched
+     * against the paths relative to the directory given to {@link #addDirectory(Path)},
+     * or to the root of a zip file:
+     * <ul>
+     * <li>{@code *} matches any characters except {@code /}, {@code ?} matches one of them,
+     * and {@code [abc]} matches a character of a set;
+     * <li>{@code **} matches any number of directories;
+     * <li>a pattern without {@code /}, like {@code *.generated.java}, matches a name at any depth,
+     * otherwise it is anchored to the added directory, like {@code src/test/**};
+     * <li>a pattern that ends with {@code /}, like {@code target/}, only matches directories,
+     * which are not walked.
+     * </ul>
+     *
+     * @param pattern A glob
+     *
+     * @throws IllegalArgumentException If the pattern is empty or negated (starts with {@code !})
+     * @since 7.7.0
+     */
+    @Experimental
+    public void excludePattern(String pattern) {
+        excludePatterns.add(ExcludePattern.compile(pattern));
+    }
+
+    /**
+     * Whether the path or one of its parent directories is excluded,
+     * so that a file or directory given explicitly, eg in a file list,
+     * is excluded like it would be when walking its parents.
+     */
+    private boolean isExcluded(Path path) {
+        if (excludedPaths.isEmpty()) {
+            return false;
+        }
+        for (Path p = path.toAbsolutePath().normalize(); p != null; p = p.getParent()) {
+            if (excludedPaths.contains(p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // filtering
 
     /**
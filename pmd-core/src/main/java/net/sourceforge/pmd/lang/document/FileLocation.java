@@ -22,6 +22,9 @@ import net.sourceforge.pmd.util.AssertionUtil;
  *
  * <p>This should replace the text coordinates methods in {@link Node},
  * {@link GenericToken}, and {@link RuleViolation} at least (see {@link Reportable}).
+ *
+ * <p>The locations created by a {@link TextDocument} only search their lines
+ * and columns in the document when they are first queried.
  */
 public final class FileLocation {
 
@@ -33,12 +36,17 @@ public final class FileLocation {
     public static final Comparator<FileLocation> COMPARATOR =
         Comparator.comparing(FileLocation::getFileId).thenComparing(COORDS_COMPARATOR);
 
-    private final int beginLine;
-    private final int endLine;
-    private final int beginColumn;
-    private final int endColumn;
+    // These are 0 until they are resolved, if this location is lazy.
+    // Each field is written independently with the same value by any
+    // thread that resolves it, and read once by its getter, so this is
+    // thread-safe without synchronization (like String#hashCode).
+    private int beginLine;
+    private int endLine;
+    private int beginColumn;
+    private int endColumn;
     private final FileId fileName;
     private final @Nullable TextRegion region;
+    private final @Nullable SourceCodePositioner positioner;
 
     FileLocation(FileId fileName, int beginLine, int beginColumn, int endLine, int endColumn) {
         this(fileName, beginLine, beginColumn, endLine, endColumn, null);
@@ -51,10 +59,54 @@ public final class FileLocation {
         this.beginColumn = AssertionUtil.requireOver1("Begin column", beginColumn);
         this.endColumn = AssertionUtil.requireOver1("End column", endColumn);
         this.region = region;
+        this.positioner = null;
 
         requireLinesCorrectlyOrdered();
     }
 
+    /**
+     * Creates a lazy location, whose lines and columns are only searched
+     * in the positioner when they are queried. Most nodes are never
+     * reported, so this avoids searching their lines and columns. Note
+     * that the effect on the time and allocations of a whole analysis
+     * has not been measured with a benchmark yet. The region must be in
+     * range of the positioner.
+     */
+    FileLocation(FileId fileName, TextRegion region, SourceCodePositioner positioner) {
+        this.fileName = Objects.requireNonNull(fileName);
+        this.region = Objects.requireNonNull(region);
+        this.positioner = Objects.requireNonNull(positioner);
+    }
+
+    /**
+     * Returns a location with the same coordinates, which doesn't
+     * reference the positioner of its document. This is used for locations
+     * that outlive their document, e.g. in a report.
+     */
+    FileLocation detach() {
+        if (positioner == null) {
+            return this;
+        }
+        return new FileLocation(fileName, getStartLine(), getStartColumn(), getEndLine(), getEndColumn(), region);
+    }
+
+    private TextPos2d resolveStart() {
+        assert positioner != null && region != null : "Not a lazy location";
+        TextPos2d pos = positioner.lineColFromOffset(region.getStartOffset(), true);
+        beginLine = pos.getLine();
+        beginColumn = pos.getColumn();
+        return pos;
+    }
+
+    private TextPos2d resolveEnd() {
+        assert positioner != null && region != null : "Not a lazy location";
+        TextPos2d pos = region.isEmpty() ? positioner.lineColFromOffset(region.getStartOffset(), true)
+                                         : positioner.lineColFromOffset(region.getEndOffset(), false);
+        endLine = pos.getLine();
+        endColumn = pos.getColumn();
+        return pos;
+    }
+
     private void requireLinesCorrectlyOrdered() {
         if (beginLine > endLine) {
             throw AssertionUtil.mustBe("endLine", endLine, ">= beginLine (= " + beginLine + ")");
@@ -72,29 +124,33 @@ public final class FileLocation {
 
     /** Inclusive, 1-based line number. */
     public int getStartLine() {
-        return beginLine;
+        int line = beginLine;
+        return line != 0 ? line : resolveStart().getLine();
     }
 
     /** Inclusive, 1-based line number. */
     public int getEndLine() {
-        return endLine;
+        int line = endLine;
+        return line != 0 ? line : resolveEnd().getLine();
     }
 
     /** Inclusive, 1-based column number. */
     public int getStartColumn() {
-        return beginColumn;
+        int column = beginColumn;
+        return column != 0 ? column : resolveStart().getColumn();
     }
 
     /** <b>Exclusive</b>, 1-based column number. */
     public int getEndColumn() {
-        return endColumn;
+        int column = endColumn;
+        return column != 0 ? column : resolveEnd().getColumn();
     }
 
     /**
      * Returns the start position.
      */
     public TextPos2d getStartPos() {
-        return TextPos2d.pos2d(beginLine, beginColumn);
+        return TextPos2d.pos2d(getStartLine(), getStartColumn());
     }
 
 
@@ -102,14 +158,14 @@ public final class FileLocation {
      * Returns the end position.
      */
     public TextPos2d getEndPos() {
-        return TextPos2d.pos2d(endLine, endColumn);
+        return TextPos2d.pos2d(getEndLine(), getEndColumn());
     }
 
     /**
      * Turn this into a range country.
      */
     public TextRange2d toRange2d() {
-        return TextRange2d.range2d(beginLine, beginColumn, endLine, endColumn);
+        return TextRange2d.range2d(getStartLine(), getStartColumn(), getEndLine(), getEndColumn());
     }
 
     /** Returns the region in the file, or null if this was not available. */
@@ -4,6 +4,10 @@
 
 package net.sourceforge.pmd.lang.document;
 
+import java.nio.file.Path;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.LanguageVersionDiscoverer;
 import net.sourceforge.pmd.util.log.PmdReporter;
@@ -30,4 +34,47 @@ public final class InternalApiBridge {
     public static FileCollector newCollector(FileCollector collector, PmdReporter reporter) {
         return collector.newCollector(reporter);
     }
+
+    /**
+     * Sets the number of threads that list the directories added to the
+     * collector. By default, this is the number of available processors.
+     */
+    public static void setWalkerThreads(FileCollector collector, int threads) {
+        collector.setWalkerThreads(threads);
+    }
+
+    /**
+     * Returns a location with the same coordinates, which doesn't
+     * reference the document it was created from.
+     */
+    public static FileLocation detachFileLocation(FileLocation location) {
+        return location.detach();
+    }
+
+    /**
+     * Returns the path of the file, if it is a file of a file system,
+     * or null otherwise.
+     */
+    public static @Nullable Path getPath(TextFile file) {
+        return file instanceof NioTextFile ? ((NioTextFile) file).getPath() : null;
+    }
+
+    /**
+     * Computes the checksum of the bytes of a file, without decoding
+     * them. This is the same as {@link TextFileContent#getCheckSum()}
+     * for the contents read from these bytes.
+     */
+    public static long computeCheckSum(byte[] bytes) {
+        return TextFileContent.computeCheckSum(bytes);
+    }
+
+    /**
+     * Returns a file that reads its contents from the given bytes, which
+     * were read from the path of the given file, instead of reading the
+     * file again. The bytes are only used once, further reads read the file.
+     * The file must be a file of a file system, see {@link #getPath(TextFile)}.
+     */
+    public static TextFile withBytes(TextFile file, byte[] bytes) {
+        return ((NioTextFile) file).withBytes(bytes);
+    }
 }
@@ -45,6 +45,10 @@ class NioTextFile extends BaseCloseable implements TextFile {
         this.fileId = FileId.fromPath(path, parentFsPath);
     }
 
+    Path getPath() {
+        return path;
+    }
+
     @Override
     public @NonNull LanguageVersion getLanguageVersion() {
         return languageVersion;
@@ -86,7 +90,18 @@ class NioTextFile extends BaseCloseable implements TextFile {
             throw new IOException("Not a regular file: " + path);
         }
 
-        return TextFileContent.fromInputStream(Files.newInputStream(path), charset);
+        // source files are small, reading them at once is faster than streaming
+        // them, and lets line terminators be normalized before decoding
+        return TextFileContent.fromBytes(Files.readAllBytes(path), charset);
+    }
+
+    /**
+     * Returns a view of this file that reads its contents from the given
+     * bytes the first time, for instance because they were already read
+     * to compute their checksum.
+     */
+    TextFile withBytes(byte[] bytes) {
+        return new PreReadTextFile(this, bytes);
     }
 
 
@@ -117,4 +132,67 @@ class NioTextFile extends BaseCloseable implements TextFile {
     public String toString() {
         return "NioTextFile[charset=" + charset + ", path=" + path + ']';
     }
+
+    private static final class PreReadTextFile implements TextFile {
+
+        private final NioTextFile file;
+        private byte[] bytes;
+
+        PreReadTextFile(NioTextFile file, byte[] bytes) {
+            this.file = file;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public @NonNull LanguageVersion getLanguageVersion() {
+            return file.getLanguageVersion();
+        }
+
+        @Override
+        public FileId getFileId() {
+            return file.getFileId();
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return file.isReadOnly();
+        }
+
+        @Override
+        public void writeContents(TextFileContent content) throws IOException {
+            file.writeContents(content);
+        }
+
+        @Override
+        public TextFileContent readContents() throws IOException {
+            file.ensureOpen();
+            byte[] preRead = bytes;
+            if (preRead == null) {
+                return file.readContents();
+            }
+            // the bytes are modified when they are decoded, and should not be kept
+            bytes = null;
+            return TextFileContent.fromBytes(preRead, file.charset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof PreReadTextFile && file.equals(((PreReadTextFile) o).file);
+        }
+
+        @Override
+        public int hashCode() {
+            return file.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return file.toString();
+        }
+    }
 }
@@ -62,22 +62,8 @@ final class RootTextDocument extends BaseCloseable implements TextDocument {
     @Override
     public FileLocation toLocation(TextRegion region) {
         checkInRange(region, this.getLength());
-        SourceCodePositioner positioner = content.getPositioner();
-
-        // We use longs to return both numbers at the same time
-        // This limits us to 2 billion lines or columns, which is FINE
-        TextPos2d bpos = positioner.lineColFromOffset(region.getStartOffset(), true);
-        TextPos2d epos = region.isEmpty() ? bpos
-                                          : positioner.lineColFromOffset(region.getEndOffset(), false);
-
-        return new FileLocation(
-            fileId,
-            bpos.getLine(),
-            bpos.getColumn(),
-            epos.getLine(),
-            epos.getColumn(),
-            region
-        );
+        // lines and columns are only searched if they are queried
+        return new FileLocation(fileId, region, content.getPositioner());
     }
 
     @Override
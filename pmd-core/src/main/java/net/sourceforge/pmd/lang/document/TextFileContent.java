@@ -6,6 +6,7 @@ package net.sourceforge.pmd.lang.document;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -160,6 +161,85 @@ public final class TextFileContent {
         }
     }
 
+    /**
+     * Produce a {@link TextFileContent} from the bytes of a file. The
+     * array may be modified. Use this instead of {@link #fromInputStream(InputStream, Charset)}
+     * when the whole file is read anyway.
+     *
+     * <p>If the charset encodes line terminators as single bytes that
+     * occur nowhere else, like UTF-8 or ISO-8859-1, line terminators are
+     * normalized on the bytes, and the bytes are decoded at once. Otherwise
+     * the bytes are read like an input stream.
+     *
+     * @param bytes          Bytes of the file
+     * @param sourceEncoding Encoding of the file
+     */
+    static TextFileContent fromBytes(byte[] bytes, Charset sourceEncoding) throws IOException {
+        return fromBytes(bytes, sourceEncoding, FALLBACK_LINESEP);
+    }
+
+    // test only
+    static TextFileContent fromBytes(byte[] bytes, Charset sourceEncoding, String fallbackLineSep) throws IOException {
+        if (!hasSingleByteLineTerminators(sourceEncoding)) {
+            return fromInputStream(new ByteArrayInputStream(bytes), sourceEncoding, fallbackLineSep);
+        }
+        // like for input streams, the checksum is computed on the original bytes
+        long checksum = computeCheckSum(bytes);
+
+        String lineTerminator = null;
+        int length = bytes.length;
+        int firstCr = indexOf(bytes, (byte) '\r', 0);
+        if (indexOf(bytes, (byte) NORMALIZED_LINE_TERM_CHAR, 0) < firstCr) {
+            // there is an LF before the first CR, or no CR at all
+            lineTerminator = LF;
+        }
+        if (firstCr < bytes.length) {
+            // replace the terminators by LF, moving the bytes that follow a CRLF
+            length = firstCr;
+            int i = firstCr;
+            while (i < bytes.length) {
+                byte b = bytes[i++];
+                if (b == '\r') {
+                    String newLineTerm = CR;
+                    if (i < bytes.length && bytes[i] == NORMALIZED_LINE_TERM_CHAR) {
+                        newLineTerm = CRLF;
+                        i++;
+                    }
+                    lineTerminator = detectLineTerm(lineTerminator, newLineTerm, fallbackLineSep);
+                    b = NORMALIZED_LINE_TERM_CHAR;
+                } else if (b == NORMALIZED_LINE_TERM_CHAR) {
+                    lineTerminator = detectLineTerm(lineTerminator, LF, fallbackLineSep);
+                }
+                bytes[length++] = b;
+            }
+        }
+        if (lineTerminator == null) {
+            lineTerminator = fallbackLineSep;
+        }
+
+        String text = new String(bytes, 0, length, sourceEncoding);
+        if (!text.isEmpty() && text.charAt(0) == IOUtil.UTF_BOM) {
+            text = text.substring(1);
+        }
+        return new TextFileContent(Chars.wrap(text), lineTerminator, checksum, SourceCodePositioner.create(text));
+    }
+
+    private static boolean hasSingleByteLineTerminators(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset)
+            || StandardCharsets.US_ASCII.equals(charset)
+            || StandardCharsets.ISO_8859_1.equals(charset);
+    }
+
+    /** Returns the index of the byte, or the length of the array if there is none. */
+    private static int indexOf(byte[] bytes, byte b, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return bytes.length;
+    }
+
     // test only
     static @NonNull TextFileContent normalizeCharSeq(CharSequence text, String fallBackLineSep) {
         long checksum = getCheckSum(text); // the checksum is computed on the original file
@@ -321,6 +401,17 @@ public final class TextFileContent {
     }
 
 
+    /**
+     * Computes the checksum of the bytes of a file, which is the
+     * checksum of the contents read from them, whatever their charset,
+     * byte order mark and line terminators.
+     */
+    static long computeCheckSum(byte[] bytes) {
+        Checksum checksum = newChecksum();
+        checksum.update(bytes, 0, bytes.length);
+        return checksum.getValue();
+    }
+
     private static Checksum newChecksum() {
         return new Adler32();
     }
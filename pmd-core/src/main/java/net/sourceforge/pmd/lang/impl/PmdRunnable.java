@@ -6,6 +6,8 @@ package net.sourceforge.pmd.lang.impl;
 
 import static net.sourceforge.pmd.util.CollectionUtil.listOf;
 
+import java.util.List;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +16,7 @@ import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
 import net.sourceforge.pmd.cache.internal.AnalysisCache;
 import net.sourceforge.pmd.internal.SystemProps;
+import net.sourceforge.pmd.lang.InternalApiBridge;
 import net.sourceforge.pmd.lang.LanguageProcessor;
 import net.sourceforge.pmd.lang.LanguageProcessor.AnalysisTask;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
@@ -23,8 +26,11 @@ import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
 import net.sourceforge.pmd.lang.ast.RootNode;
 import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
 import net.sourceforge.pmd.lang.ast.SemanticException;
+import net.sourceforge.pmd.lang.ast.internal.AstCache;
+import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.TextDocument;
 import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.Report;
@@ -60,37 +66,24 @@ abstract class PmdRunnable implements Runnable {
 
             RuleSets ruleSets = getRulesets();
 
-            // Coarse check to see if any RuleSet applies to file, will need to do a finer RuleSet specific check later
-            if (ruleSets.applies(textFile)) {
+            // The rules whose ruleset applies to the file, and which apply to its language version.
+            // If a ruleset applies but none of its rules apply to the language version, the file
+            // is still parsed, so that parse errors are reported.
+            List<Rule> rules = ruleSets.getApplicableRules(textFile.getFileId(), textFile.getLanguageVersion());
+            if (!rules.isEmpty() || ruleSets.applies(textFile)) {
                 AnalysisCache analysisCache = task.getAnalysisCache();
-                try (TextDocument textDocument = TextDocument.create(textFile);
-                     FileAnalysisListener cacheListener = analysisCache.startFileAnalysis(textDocument)) {
-
-                    @SuppressWarnings("PMD.CloseResource")
-                    FileAnalysisListener completeListener = FileAnalysisListener.tee(listOf(listener, cacheListener));
-
-                    if (analysisCache.isUpToDate(textDocument)) {
-                        LOG.trace("Skipping file (lang: {}) because it was found in the cache: {}", textFile.getLanguageVersion(), textFile.getFileId().getAbsolutePath());
-                        // note: no cache listener here
-                        //                         vvvvvvvv
-                        reportCachedRuleViolations(listener, textDocument);
-                    } else {
-                        LOG.trace("Processing file (lang: {}): {}", textFile.getLanguageVersion(), textFile.getFileId().getAbsolutePath());
-                        try {
-                            processSource(completeListener, textDocument, ruleSets);
-                        } catch (Exception | StackOverflowError | AssertionError e) {
-                            if (e instanceof Error && !SystemProps.isErrorRecoveryMode()) { // NOPMD:
-                                throw e;
-                            }
-
-                            // The listener handles logging if needed,
-                            // it may also rethrow the error, as a FileAnalysisException (which we let through below)
-                            completeListener.onError(new Report.ProcessingError(e, textFile.getFileId()));
-                        }
-                    }
+                // if the file was read to check it, this file reads the same bytes
+                @SuppressWarnings("PMD.CloseResource") // closed with its document
+                TextFile fileToRead = analysisCache.checkUnchanged(textFile);
+                if (fileToRead == null) {
+                    // the file is not even decoded
+                    LOG.trace("Skipping file (lang: {}) because it was found unchanged in the cache: {}", textFile.getLanguageVersion(), textFile.getFileId().getAbsolutePath());
+                    reportCachedRuleViolations(listener, textFile.getFileId());
+                } else {
+                    readAndProcess(listener, analysisCache, fileToRead, ruleSets, rules);
                 }
             } else {
-                LOG.trace("Skipping file (lang: {}) because no rule applies: {}", textFile.getLanguageVersion(), textFile.getFileId());
+                LOG.trace("Skipping file (lang: {}) because no ruleset applies: {}", textFile.getLanguageVersion(), textFile.getFileId());
             }
         } catch (FileAnalysisException e) {
             throw e; // bubble managed exceptions, they were already reported
@@ -101,7 +94,38 @@ abstract class PmdRunnable implements Runnable {
         TimeTracker.finishThread();
     }
 
-    private void reportCachedRuleViolations(final FileAnalysisListener ctx, TextDocument file) {
+    private void readAndProcess(FileAnalysisListener listener, AnalysisCache analysisCache, TextFile fileToRead, RuleSets ruleSets, List<Rule> rules) throws Exception {
+        try (TextDocument textDocument = TextDocument.create(fileToRead);
+             FileAnalysisListener cacheListener = analysisCache.startFileAnalysis(textDocument)) {
+
+            @SuppressWarnings("PMD.CloseResource")
+            FileAnalysisListener completeListener = FileAnalysisListener.tee(listOf(listener, cacheListener));
+
+            if (analysisCache.isUpToDate(textDocument)) {
+                LOG.trace("Skipping file (lang: {}) because it was found in the cache: {}", textFile.getLanguageVersion(), textFile.getFileId().getAbsolutePath());
+                // note: no cache listener here
+                //                         vvvvvvvv
+                reportCachedRuleViolations(listener, textDocument.getFileId());
+            } else {
+                LOG.trace("Processing file (lang: {}): {}", textFile.getLanguageVersion(), textFile.getFileId().getAbsolutePath());
+                try {
+                    processSource(completeListener, textDocument, ruleSets, rules);
+                } catch (Exception | StackOverflowError | AssertionError e) {
+                    if (e instanceof Error && !SystemProps.isErrorRecoveryMode()) { // NOPMD:
+                        throw e;
+                    }
+
+                    // The listener handles logging if needed,
+                    // it may also rethrow the error, as a FileAnalysisException (which we let through below)
+                    completeListener.onError(new Report.ProcessingError(e, textFile.getFileId()));
+                }
+            }
+        }
+    }
+
+    private void reportCachedRuleViolations(final FileAnalysisListener ctx, FileId file) {
+        // summaries of cross-file rules, so that the file needs not be parsed again
+        task.getAnalysisCache().reportCachedSummaries(file, ctx);
         for (final RuleViolation rv : task.getAnalysisCache().getCachedViolations(file)) {
             ctx.onRuleViolation(rv);
         }
@@ -116,28 +140,40 @@ abstract class PmdRunnable implements Runnable {
 
     private void processSource(FileAnalysisListener listener,
                                TextDocument textDocument,
-                               RuleSets ruleSets) throws FileAnalysisException {
-
-        SemanticErrorReporter reporter = SemanticErrorReporter.reportToLogger(task.getMessageReporter());
-        @SuppressWarnings("PMD.CloseResource")
-        LanguageProcessor processor = task.getLpRegistry().getProcessor(textDocument.getLanguageVersion().getLanguage());
-        ParserTask parserTask = new ParserTask(textDocument,
-                                               reporter,
-                                               task.getLpRegistry());
-
-        LanguageVersionHandler handler = processor.services();
-
-        Parser parser = handler.getParser();
-
-        RootNode rootNode = parse(parser, parserTask);
-
-        SemanticException semanticError = reporter.getFirstError();
-        if (semanticError != null) {
-            // cause a processing error to be reported and rule analysis to be skipped
-            throw semanticError;
+                               RuleSets ruleSets,
+                               List<Rule> rules) throws FileAnalysisException {
+
+        SemanticErrorReporter logger = SemanticErrorReporter.reportToLogger(task.getMessageReporter());
+        // the AST may have been built by a previous analysis of the session
+        AstCache astCache = InternalApiBridge.getAstCache(task);
+        RootNode rootNode = astCache != null ? astCache.get(textDocument, logger) : null;
+        if (rootNode == null) {
+            @SuppressWarnings("PMD.CloseResource")
+            LanguageProcessor processor = task.getLpRegistry().getProcessor(textDocument.getLanguageVersion().getLanguage());
+            LanguageVersionHandler handler = processor.services();
+            Parser parser = handler.getParser();
+
+            // record the warnings, so that they are reported again if the AST is reused
+            AstCache.RecordingReporter reporter = astCache != null ? new AstCache.RecordingReporter(logger) : null;
+            ParserTask parserTask = new ParserTask(textDocument,
+                                                   reporter != null ? reporter : logger,
+                                                   task.getLpRegistry());
+
+            rootNode = parse(parser, parserTask);
+
+            SemanticException semanticError = logger.getFirstError();
+            if (semanticError != null) {
+                // cause a processing error to be reported and rule analysis to be skipped
+                throw semanticError;
+            }
+            if (astCache != null && reporter != null) {
+                astCache.put(textDocument, rootNode, reporter);
+            }
         }
 
-        ruleSets.apply(rootNode, listener);
+        if (!rules.isEmpty()) {
+            ruleSets.apply(rootNode, rules, listener);
+        }
     }
 
 }
@@ -4,14 +4,16 @@
 
 package net.sourceforge.pmd.lang.metrics;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.NodeStream;
+import net.sourceforge.pmd.lang.ast.RootNode;
 
 
 /**
@@ -45,19 +47,32 @@ public interface LanguageMetricsProvider {
     /**
      * Computes all metrics available on the given node.
      * The returned results may contain Double.NaN as a value.
+     * Results are cached on the node, and shared with the rules
+     * that use the same metrics with the default options. A language
+     * may compute several metrics in the same traversal of the node.
      *
      * @param node Node to inspect
      *
      * @return A map of metric key to their result, possibly empty, but with no null value
+     *
+     * @see MetricsUtil#computeMetrics(Node, Iterable, MetricOptions)
      */
     default Map<Metric<?, ?>, Number> computeAllMetricsFor(Node node) {
-        Map<Metric<?, ?>, Number> results = new HashMap<>();
-        for (Metric<?, ?> metric : getMetrics()) {
-            @Nullable Number result = Metric.compute(metric, node, MetricOptions.emptyOptions());
-            if (result != null) {
-                results.put(metric, result);
-            }
-        }
-        return results;
+        return MetricsUtil.computeMetrics(node, getMetrics(), MetricOptions.emptyOptions());
+    }
+
+    /**
+     * Returns the operations declared in the file, eg methods and
+     * constructors, in document order. These are the nodes whose
+     * metrics are written by the {@code metrics-dump} command of the CLI.
+     * By default, returns an empty stream.
+     *
+     * @param root Root of a file of this language
+     *
+     * @since 7.7.0
+     */
+    @Experimental
+    default NodeStream<? extends Node> getOperations(RootNode root) {
+        return NodeStream.empty();
     }
 }
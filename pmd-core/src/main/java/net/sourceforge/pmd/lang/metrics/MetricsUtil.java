@@ -5,10 +5,14 @@
 package net.sourceforge.pmd.lang.metrics;
 
 import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.lang.ast.Node;
 
 /**
@@ -69,6 +73,49 @@ public final class MetricsUtil {
                             .collect(Collectors.summarizingDouble(op -> computeMetric(key, op, options).doubleValue()));
     }
 
+    /**
+     * Computes several metrics on a node, with the same options. Metrics
+     * that do not support the node are skipped. Like with {@link #computeMetric(Metric, Node, MetricOptions)},
+     * results are cached on the node. Metrics that are defined in terms
+     * of other metrics (eg a sum over the methods of a class) therefore
+     * reuse the results computed for the other nodes, and rules that
+     * request one of those metrics later get the cached value.
+     *
+     * <p>This is not faster than calling {@link #computeMetric(Metric, Node, MetricOptions)}
+     * for each metric: only the cached results are shared. Each metric
+     * traverses the node on its own, unless its language computes it
+     * together with other metrics.
+     *
+     * @param node    The node on which to compute the metrics
+     * @param metrics The metrics to compute
+     * @param options The options of the metrics
+     *
+     * @return A map of metric to their result, in the iteration order of the metrics
+     *
+     * @since 7.7.0
+     */
+    public static Map<Metric<?, ?>, Number> computeMetrics(Node node,
+                                                           Iterable<? extends Metric<?, ?>> metrics,
+                                                           MetricOptions options) {
+        Objects.requireNonNull(node, NULL_NODE_MESSAGE);
+        Objects.requireNonNull(metrics, NULL_KEY_MESSAGE);
+        Objects.requireNonNull(options, NULL_OPTIONS_MESSAGE);
+
+        Map<Metric<?, ?>, Number> results = new LinkedHashMap<>();
+        for (Metric<?, ?> metric : metrics) {
+            Number result = computeIfSupported(metric, node, options);
+            if (result != null) {
+                results.put(metric, result);
+            }
+        }
+        return results;
+    }
+
+    private static <N extends Node, R extends Number> @Nullable R computeIfSupported(Metric<N, R> metric, Node node, MetricOptions options) {
+        N n = metric.castIfSupported(node);
+        return n == null ? null : computeMetric(metric, n, options);
+    }
+
     /**
      * Computes a metric identified by its code on a node, with the default options.
      *
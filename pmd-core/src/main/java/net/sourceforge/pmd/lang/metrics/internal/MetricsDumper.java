@@ -0,0 +1,138 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.metrics.internal;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageProcessor;
+import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguagePropertyBundle;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.FileAnalysisException;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.Parser.ParserTask;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.metrics.LanguageMetricsProvider;
+import net.sourceforge.pmd.lang.metrics.Metric;
+import net.sourceforge.pmd.util.log.PmdReporter;
+
+/**
+ * Writes the metrics of the operations of a codebase as CSV, without
+ * running any rule. Each file is parsed, and the metrics of each of the
+ * {@linkplain LanguageMetricsProvider#getOperations(RootNode) operations}
+ * it declares are computed with the default options. There is one row
+ * per operation and metric, with the columns {@code file, line, column,
+ * node, metric, value}. Files whose language has no metrics are skipped.
+ */
+public final class MetricsDumper {
+
+    private static final String[] TITLES = {"file", "line", "column", "node", "metric", "value"};
+
+    private final PMDConfiguration configuration;
+    private final Appendable out;
+    private final String lineSeparator = System.lineSeparator();
+
+    public MetricsDumper(PMDConfiguration configuration, Appendable out) {
+        this.configuration = configuration;
+        this.out = out;
+    }
+
+    /**
+     * Collects the files of the configuration and writes the metrics of
+     * their operations.
+     *
+     * @return The number of files that could not be parsed, which are
+     *     reported on the reporter of the configuration
+     *
+     * @throws IOException If writing to the output fails
+     */
+    public int dump() throws IOException {
+        try (PmdAnalysis pmd = PmdAnalysis.create(configuration)) {
+            List<TextFile> files = pmd.files().getCollectedFiles();
+
+            Set<Language> languages = new LinkedHashSet<>();
+            for (TextFile file : files) {
+                languages.addAll(configuration.getLanguageRegistry()
+                                              .getDependenciesOf(file.getLanguageVersion().getLanguage())
+                                              .getLanguages());
+            }
+            Map<Language, LanguagePropertyBundle> properties = new HashMap<>();
+            for (Language language : languages) {
+                properties.put(language, configuration.getLanguageProperties(language));
+            }
+
+            writeRow(TITLES);
+            try (LanguageProcessorRegistry lpRegistry = LanguageProcessorRegistry.create(new LanguageRegistry(languages),
+                                                                                         properties,
+                                                                                         configuration.getReporter())) {
+                int errors = 0;
+                for (TextFile file : files) {
+                    if (!dumpFile(pmd, lpRegistry, file)) {
+                        errors++;
+                    }
+                }
+                return errors;
+            }
+        }
+    }
+
+    private boolean dumpFile(PmdAnalysis pmd, LanguageProcessorRegistry lpRegistry, TextFile file) throws IOException {
+        @SuppressWarnings("PMD.CloseResource")
+        LanguageProcessor processor = lpRegistry.getProcessor(file.getLanguageVersion().getLanguage());
+        LanguageMetricsProvider metrics = processor.services().getLanguageMetricsProvider();
+        if (metrics == null) {
+            return true;
+        }
+
+        PmdReporter reporter = configuration.getReporter();
+        try (TextDocument document = TextDocument.create(file)) {
+            RootNode root;
+            try {
+                ParserTask task = new ParserTask(document, SemanticErrorReporter.reportToLogger(reporter), lpRegistry);
+                root = processor.services().getParser().parse(task);
+            } catch (FileAnalysisException e) {
+                reporter.errorEx("Error while parsing " + file.getFileId().getAbsolutePath(), e);
+                return false;
+            }
+
+            String fileName = pmd.fileNameRenderer().getDisplayName(file.getFileId());
+            for (Node operation : metrics.getOperations(root)) {
+                FileLocation location = operation.getReportLocation();
+                for (Entry<Metric<?, ?>, Number> result : metrics.computeAllMetricsFor(operation).entrySet()) {
+                    writeRow(fileName,
+                             String.valueOf(location.getStartLine()),
+                             String.valueOf(location.getStartColumn()),
+                             operation.getXPathNodeName(),
+                             result.getKey().displayName(),
+                             String.valueOf(result.getValue()));
+                }
+            }
+        }
+        return true;
+    }
+
+    private void writeRow(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('"').append(fields[i].replace("\"", "\"\"")).append('"');
+        }
+        out.append(lineSeparator);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * A rule whose violations depend on several files. Such a rule works
+ * in two steps:
+ * <ol>
+ * <li>During the normal analysis, which processes files in parallel,
+ * the rule reports a {@link FileSummary} for each file with
+ * {@link RuleContext#reportSummary(FileSummary)}. The summary contains
+ * the facts the rule needs about the file, and the violations it may
+ * report in the file.
+ * <li>Once all files have been analysed, {@link #reduce(List, Consumer)} is
+ * called once, with the summaries of all files. It selects the deferred
+ * violations that should be reported.
+ * </ol>
+ *
+ * <p>Summaries are stored in the analysis cache, so that files that did
+ * not change since the previous analysis are not parsed again: their
+ * summary is read from the cache. This also means that the summary of a
+ * file should only depend on the contents of this file, and that the
+ * rule should not keep references to the ASTs it analyses.
+ *
+ * <p>The violations reported by the reduce step are not stored in the
+ * analysis cache, as they depend on other files. They are reported after
+ * the violations of the first step, in no particular order.
+ *
+ * @since 7.7.0
+ */
+@Experimental
+public interface CrossFileRule extends Rule {
+
+    /**
+     * Select the violations to report, given the summaries of all the
+     * files of the analysis. This is called once per analysis, on the
+     * instance of the rule that is in the ruleset, and not on one of
+     * the copies that process files.
+     *
+     * @param summaries Summaries of the analysed files, in no particular order
+     * @param reporter  Receives the violations to report, which must be
+     *                  deferred violations of the summaries
+     */
+    void reduce(List<FileSummary> summaries, Consumer<? super RuleViolation> reporter);
+
+}
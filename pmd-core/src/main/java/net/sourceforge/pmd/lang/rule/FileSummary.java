@@ -0,0 +1,135 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.InternalApiBridge;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * The facts that a {@link CrossFileRule} extracted from a single file.
+ * A summary contains only strings and violations, so that it is small
+ * compared to the AST of the file, and can be stored in the analysis
+ * cache. This means that the summary of a file that has not changed
+ * since the last analysis is available without parsing the file again.
+ *
+ * <p>A summary contains two kinds of data:
+ * <ul>
+ * <li>Facts, which are strings grouped by relation. The meaning of
+ * relations and facts is up to the rule, for instance a relation
+ * {@code "uses"} may contain the names of the types used in the file.
+ * <li>Deferred violations, which are created while the file is analysed,
+ * but are only reported if the rule selects them in its
+ * {@linkplain CrossFileRule#reduce(List, java.util.function.Consumer) reduce step}.
+ * Each deferred violation is identified by a key chosen by the rule.
+ * </ul>
+ *
+ * <p>Summaries are not thread-safe. They should be filled by the rule
+ * that created them, then reported with {@link RuleContext#reportSummary(FileSummary)},
+ * after which they should not be modified anymore.
+ *
+ * @since 7.7.0
+ */
+@Experimental
+public final class FileSummary {
+
+    private final Map<String, Set<String>> facts = new LinkedHashMap<>();
+    private final Map<String, List<RuleViolation>> deferredViolations = new LinkedHashMap<>();
+    // deferred violations that were suppressed, by identity
+    private final Map<RuleViolation, SuppressedViolation> suppressions = new IdentityHashMap<>(0);
+
+    /**
+     * Add a fact to the given relation.
+     *
+     * @param relation Name of the relation
+     * @param fact     Fact to add
+     */
+    public void addFact(String relation, String fact) {
+        facts.computeIfAbsent(relation, k -> new LinkedHashSet<>()).add(fact);
+    }
+
+    /**
+     * Returns the facts of the given relation, which is empty if no
+     * fact was added to the relation.
+     */
+    public Set<String> getFacts(String relation) {
+        return Collections.unmodifiableSet(facts.getOrDefault(relation, Collections.emptySet()));
+    }
+
+    /**
+     * Returns the names of the relations that have at least one fact.
+     */
+    public Set<String> getRelations() {
+        return Collections.unmodifiableSet(facts.keySet());
+    }
+
+    /**
+     * Create a violation of the rule of the context, which is only
+     * reported if the rule selects it in its reduce step. The violation
+     * is subject to the usual suppression mechanisms: a suppressed
+     * violation is still recorded, and if the rule selects it, it is
+     * reported as a suppressed violation. Suppressed violations are not
+     * stored in the analysis cache, like the suppressed violations of
+     * other rules.
+     *
+     * @param key         Key that identifies the violation in the reduce step
+     * @param ctx         Rule context of the current file
+     * @param location    Location of the violation
+     * @param formatArgs  Arguments for the message of the rule
+     */
+    public void deferViolation(String key, RuleContext ctx, Node location, Object... formatArgs) {
+        FileAnalysisListener capture = new FileAnalysisListener() {
+            @Override
+            public void onRuleViolation(RuleViolation violation) {
+                addDeferredViolation(key, violation);
+            }
+
+            @Override
+            public void onSuppressedRuleViolation(SuppressedViolation violation) {
+                addDeferredViolation(key, violation.getRuleViolation());
+                suppressions.put(violation.getRuleViolation(), violation);
+            }
+        };
+        InternalApiBridge.createRuleContext(capture, InternalApiBridge.getRule(ctx))
+                         .addViolation(location, formatArgs);
+    }
+
+    void addDeferredViolation(String key, RuleViolation violation) {
+        deferredViolations.computeIfAbsent(key, k -> new ArrayList<>(1)).add(violation);
+    }
+
+    /** Returns the suppression of a deferred violation, or null if it was not suppressed. */
+    @Nullable SuppressedViolation getSuppression(RuleViolation violation) {
+        return suppressions.get(violation);
+    }
+
+    /**
+     * Returns the deferred violations, grouped by their key. This
+     * includes the suppressed violations.
+     */
+    public Map<String, List<RuleViolation>> getDeferredViolations() {
+        return Collections.unmodifiableMap(deferredViolations);
+    }
+
+    @Override
+    public String toString() {
+        return "FileSummary{facts=" + facts + ", deferredViolations=" + deferredViolations.keySet() + '}';
+    }
+}
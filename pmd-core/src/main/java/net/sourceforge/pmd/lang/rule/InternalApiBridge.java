@@ -7,10 +7,13 @@ package net.sourceforge.pmd.lang.rule;
 import java.util.List;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.annotation.InternalApi;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+import net.sourceforge.pmd.reporting.RuleViolation;
 import net.sourceforge.pmd.util.log.PmdReporter;
 
 /**
@@ -40,6 +43,25 @@ public final class InternalApiBridge {
         return ruleSetLoader.loadRuleSetsWithoutException(rulesetPaths);
     }
 
+    /**
+     * Returns the rule if it is a {@link CrossFileRule}, possibly
+     * through rule references, or null otherwise.
+     */
+    public static @Nullable CrossFileRule asCrossFileRule(Rule rule) {
+        while (rule instanceof RuleReference) {
+            rule = ((RuleReference) rule).getRule();
+        }
+        return rule instanceof CrossFileRule ? (CrossFileRule) rule : null;
+    }
+
+    public static void addDeferredViolation(FileSummary summary, String key, RuleViolation violation) {
+        summary.addDeferredViolation(key, violation);
+    }
+
+    public static @Nullable SuppressedViolation getSuppression(FileSummary summary, RuleViolation violation) {
+        return summary.getSuppression(violation);
+    }
+
     public static RuleSetLoader withReporter(RuleSetLoader ruleSetLoader, @NonNull PmdReporter reporter) {
         return ruleSetLoader.withReporter(reporter);
     }
@@ -4,10 +4,13 @@
 
 package net.sourceforge.pmd.lang.rule;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageProcessor;
 import net.sourceforge.pmd.lang.LanguageVersion;
@@ -267,6 +270,30 @@ public interface Rule extends PropertySource {
      */
     RuleTargetSelector getTargetSelector();
 
+    /**
+     * Returns the images of tokens of which at least one must occur in
+     * a file for this rule to report violations on it, for instance the
+     * names of the methods whose calls the rule checks. This is a hint
+     * that allows PMD to skip the rule on files that contain none of
+     * these tokens, without calling {@link #start(RuleContext)}, {@link #apply(Node, RuleContext)}
+     * or {@link #end(RuleContext)}. Images are compared case-sensitively
+     * with the images of the tokens of the file. Comments are not tokens.
+     *
+     * <p>Files are only filtered for languages whose parser keeps the
+     * tokens of the file, like languages implemented with JavaCC. Other
+     * files are analysed as usual. The set may depend on the properties
+     * of the rule, it is queried once the properties are set. By default,
+     * the set is empty and the rule is applied to all files.
+     *
+     * @return A set of token images, empty if the rule applies to all files
+     *
+     * @since 7.7.0
+     */
+    @Experimental
+    default Set<String> getRequiredTokens() {
+        return Collections.emptySet();
+    }
+
     /**
      * Initialize the rule using the language processor if needed.
      *
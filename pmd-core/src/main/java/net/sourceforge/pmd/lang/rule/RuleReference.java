@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageProcessor;
@@ -398,6 +399,11 @@ public class RuleReference implements Rule {
         return rule.getTargetSelector();
     }
 
+    @Override
+    public Set<String> getRequiredTokens() {
+        return rule.getRequiredTokens();
+    }
+
     @Override
     public void initialize(LanguageProcessor languageProcessor) {
         rule.initialize(languageProcessor);
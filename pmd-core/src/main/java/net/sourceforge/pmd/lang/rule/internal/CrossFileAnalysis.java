@@ -0,0 +1,154 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.rule.internal;
+
+import static net.sourceforge.pmd.lang.rule.InternalApiBridge.asCrossFileRule;
+import static net.sourceforge.pmd.lang.rule.InternalApiBridge.getSuppression;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimedOperation;
+import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.CrossFileRule;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+import net.sourceforge.pmd.reporting.RuleViolation;
+import net.sourceforge.pmd.util.log.PmdReporter;
+
+/**
+ * Collects the summaries reported by {@link CrossFileRule}s while files
+ * are analysed, and runs the reduce step of each rule once all files
+ * have been analysed. Summaries may be reported from several threads,
+ * by copies of the rules of the ruleset, so they are matched to the
+ * rules of the ruleset by name.
+ */
+public final class CrossFileAnalysis implements GlobalAnalysisListener {
+
+    private final Map<String, Rule> rules = new LinkedHashMap<>();
+    private final Map<String, Queue<FileSummary>> summaries = new HashMap<>();
+
+    private CrossFileAnalysis(Collection<? extends Rule> crossFileRules) {
+        for (Rule rule : crossFileRules) {
+            String key = ruleKey(rule);
+            rules.put(key, rule);
+            summaries.put(key, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Returns a cross-file analysis for the rules of the ruleset,
+     * or null if none of them is a {@link CrossFileRule}.
+     */
+    public static @Nullable CrossFileAnalysis create(RuleSets ruleSets) {
+        List<Rule> crossFileRules = new ArrayList<>();
+        for (Rule rule : ruleSets.getAllRules()) {
+            if (asCrossFileRule(rule) != null) {
+                crossFileRules.add(rule);
+            }
+        }
+        return crossFileRules.isEmpty() ? null : new CrossFileAnalysis(crossFileRules);
+    }
+
+    private static String ruleKey(Rule rule) {
+        return rule.getRuleClass() + "$$" + rule.getName() + "$$" + rule.getLanguage().getId();
+    }
+
+    @Override
+    public FileAnalysisListener startFileAnalysis(TextFile file) {
+        return new FileAnalysisListener() {
+            @Override
+            public void onRuleViolation(RuleViolation violation) {
+                // nothing to do
+            }
+
+            @Override
+            public void onFileSummary(Rule rule, FileSummary summary) {
+                Queue<FileSummary> queue = summaries.get(ruleKey(rule));
+                if (queue != null) {
+                    queue.add(summary);
+                }
+            }
+        };
+    }
+
+    /**
+     * Run the reduce step of each rule, and report the violations they
+     * select to the listener, through {@link GlobalAnalysisListener#startCrossFileAnalysis(TextFile)}.
+     * Deferred violations that were suppressed are reported as suppressed
+     * violations. This must be called after all files have been analysed,
+     * and before the listener is closed. An exception thrown by a rule
+     * is reported and does not prevent the other rules from running.
+     *
+     * @param listener Listener for the violations
+     * @param files    Files of the analysis
+     * @param reporter Reporter for the errors
+     */
+    public void reduce(GlobalAnalysisListener listener, Collection<? extends TextFile> files, PmdReporter reporter) throws Exception {
+        Map<FileId, List<RuleViolation>> violationsByFile = new LinkedHashMap<>();
+        Map<RuleViolation, SuppressedViolation> suppressions = new IdentityHashMap<>();
+        for (Map.Entry<String, Rule> entry : rules.entrySet()) {
+            Rule rule = entry.getValue();
+            List<FileSummary> ruleSummaries = new ArrayList<>(summaries.get(entry.getKey()));
+            for (FileSummary summary : ruleSummaries) {
+                for (List<RuleViolation> deferred : summary.getDeferredViolations().values()) {
+                    for (RuleViolation violation : deferred) {
+                        SuppressedViolation suppression = getSuppression(summary, violation);
+                        if (suppression != null) {
+                            suppressions.put(violation, suppression);
+                        }
+                    }
+                }
+            }
+            try (TimedOperation ignored = TimeTracker.startOperation(TimedOperationCategory.RULE, rule.getName())) {
+                asCrossFileRule(rule).reduce(
+                    ruleSummaries,
+                    violation -> violationsByFile.computeIfAbsent(violation.getFileId(), k -> new ArrayList<>()).add(violation)
+                );
+            } catch (Exception e) {
+                reporter.errorEx("Exception in the reduce step of rule " + rule.getName(), e);
+            }
+        }
+        summaries.clear();
+
+        for (TextFile file : files) {
+            List<RuleViolation> violations = violationsByFile.get(file.getFileId());
+            if (violations == null) {
+                continue;
+            }
+            // the listener of the file is already closed, this is not a new analysis of the file
+            try (FileAnalysisListener fileListener = listener.startCrossFileAnalysis(file)) {
+                for (RuleViolation violation : violations) {
+                    SuppressedViolation suppression = suppressions.get(violation);
+                    if (suppression != null) {
+                        fileListener.onSuppressedRuleViolation(suppression);
+                    } else {
+                        fileListener.onRuleViolation(violation);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // the summaries are used by reduce, which is called by the owner
+    }
+}
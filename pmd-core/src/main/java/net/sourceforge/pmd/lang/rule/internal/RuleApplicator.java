@@ -7,9 +7,15 @@ package net.sourceforge.pmd.lang.rule.internal;
 import static net.sourceforge.pmd.lang.rule.InternalApiBridge.ruleSetApplies;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.exception.ExceptionContext;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +26,9 @@ import net.sourceforge.pmd.internal.SystemProps;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.ast.impl.javacc.JavaccToken;
+import net.sourceforge.pmd.lang.ast.impl.javacc.JjtreeNode;
+import net.sourceforge.pmd.lang.document.Chars;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
 import net.sourceforge.pmd.reporting.InternalApiBridge;
@@ -42,6 +51,14 @@ public class RuleApplicator {
     private final TreeIndex idx;
     private LanguageVersion currentLangVer;
 
+    // the rules that declare required tokens, see Rule#getRequiredTokens
+    private final Map<Rule, Set<Chars>> requiredTokens = new IdentityHashMap<>();
+    // union of the required tokens of all rules
+    private final Set<Chars> interestingTokens = new HashSet<>();
+    // interesting tokens that occur in the current file, null if the
+    // tokens of the file are not available
+    private @Nullable Set<Chars> presentTokens;
+
     public RuleApplicator(TreeIndex index) {
         this.idx = index;
     }
@@ -51,6 +68,27 @@ public class RuleApplicator {
         idx.reset();
         indexTree(root, idx);
         currentLangVer = root.getLanguageVersion();
+        presentTokens = interestingTokens.isEmpty() ? null : collectInterestingTokens(root);
+    }
+
+    private @Nullable Set<Chars> collectInterestingTokens(RootNode root) {
+        if (!(root instanceof JjtreeNode)) {
+            return null;
+        }
+        Set<Chars> present = new HashSet<>();
+        for (JavaccToken token : ((JjtreeNode<?>) root).tokens()) {
+            Chars image = token.getImageCs();
+            if (interestingTokens.contains(image) && present.add(image)
+                && present.size() == interestingTokens.size()) {
+                break;
+            }
+        }
+        return present;
+    }
+
+    private boolean canSkip(Rule rule) {
+        Set<Chars> required = requiredTokens.get(rule);
+        return required != null && presentTokens != null && Collections.disjoint(required, presentTokens);
     }
 
     public void apply(Collection<? extends Rule> rules, FileAnalysisListener listener) {
@@ -62,7 +100,12 @@ public class RuleApplicator {
             if (!ruleSetApplies(rule, currentLangVer)) {
                 continue; // No point in even trying to apply the rule
             }
-            
+            if (canSkip(rule)) {
+                // none of the tokens the rule needs occurs in the file
+                TimeTracker.recordSkippedRule(rule.getName());
+                continue;
+            }
+
             RuleContext ctx = InternalApiBridge.createRuleContext(listener, rule);
             rule.start(ctx);
             try (TimedOperation rcto = TimeTracker.startOperation(TimedOperationCategory.RULE, rule.getName())) {
@@ -129,7 +172,24 @@ public class RuleApplicator {
         for (Rule it : rules) {
             it.getTargetSelector().prepare(builder);
         }
-        return builder.build();
+        RuleApplicator applicator = builder.build();
+        for (Rule it : rules) {
+            applicator.registerRequiredTokens(it);
+        }
+        return applicator;
+    }
+
+    private void registerRequiredTokens(Rule rule) {
+        Set<String> tokens = rule.getRequiredTokens();
+        if (tokens.isEmpty()) {
+            return;
+        }
+        Set<Chars> images = new HashSet<>();
+        for (String token : tokens) {
+            images.add(Chars.wrap(token));
+        }
+        requiredTokens.put(rule, images);
+        interestingTokens.addAll(images);
     }
 
 }
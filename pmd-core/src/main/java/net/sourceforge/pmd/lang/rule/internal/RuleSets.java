@@ -4,19 +4,31 @@
 
 package net.sourceforge.pmd.lang.rule.internal;
 
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.benchmark.TimedOperation;
 import net.sourceforge.pmd.benchmark.TimedOperationCategory;
+import net.sourceforge.pmd.internal.util.PredicateUtil;
 import net.sourceforge.pmd.lang.LanguageProcessorRegistry;
+import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.InternalApiBridge;
 import net.sourceforge.pmd.lang.rule.Rule;
@@ -35,6 +47,15 @@ public class RuleSets {
 
     private RuleApplicator ruleApplicator;
 
+    // The rulesets grouped by their include and exclude patterns, so that
+    // each distinct set of patterns is matched once per file. Lazily
+    // initialized, as the rules may change until the analysis starts.
+    private List<FileFilterGroup> filterGroups;
+    // index of the group of each ruleset
+    private int[] groupOfRuleSet;
+    // applicable rules, keyed by the groups that apply to a file and its language version
+    private final Map<List<Object>, List<Rule>> applicableRules = new HashMap<>();
+
     /**
      * Copy constructor. Deep copies RuleSets.
      *
@@ -75,6 +96,7 @@ public class RuleSets {
                 }
             }
         }
+        resetApplicableRules();
     }
 
     private RuleApplicator prepareApplicator() {
@@ -139,6 +161,19 @@ public class RuleSets {
      * @param listener Listener that will handle events while analysing.
      */
     public void apply(RootNode root, FileAnalysisListener listener) {
+        apply(root, getApplicableRules(root.getTextDocument().getFileId(), root.getLanguageVersion()), listener);
+    }
+
+    /**
+     * Apply the given rules to the compilation unit. The rules must
+     * be rules of these rulesets, usually the rules returned by {@link #getApplicableRules(FileId, LanguageVersion)}
+     * for the file of the compilation unit.
+     *
+     * @param root     the compilation unit
+     * @param rules    the rules to apply
+     * @param listener Listener that will handle events while analysing.
+     */
+    public void apply(RootNode root, List<Rule> rules, FileAnalysisListener listener) {
         if (ruleApplicator == null) {
             // initialize here instead of ctor, because some rules properties
             // are set after creating the ruleset, and jaxen xpath queries
@@ -150,11 +185,89 @@ public class RuleSets {
             ruleApplicator.index(root);
         }
 
-        for (RuleSet ruleSet : ruleSets) {
-            if (InternalApiBridge.ruleSetApplies(ruleSet, root.getTextDocument().getFileId())) {
-                ruleApplicator.apply(ruleSet.getRules(), listener);
+        ruleApplicator.apply(rules, listener);
+    }
+
+    /**
+     * Returns the rules that apply to a file, in the order of their
+     * rulesets. A rule applies to a file if its ruleset applies to the
+     * file (see {@link #applies(TextFile)}), and if the rule applies to
+     * the language version of the file. Note that a file to which a
+     * ruleset applies is still parsed if this returns no rule, so that
+     * parse errors are reported.
+     *
+     * <p>Rulesets that have the same include and exclude patterns are
+     * matched only once, and the result is memoized for files to which
+     * the same rulesets apply.
+     *
+     * @param fileId          the file
+     * @param languageVersion the language version of the file
+     *
+     * @return An unmodifiable list of rules, possibly empty
+     */
+    public List<Rule> getApplicableRules(FileId fileId, LanguageVersion languageVersion) {
+        if (filterGroups == null) {
+            groupByFileFilter();
+        }
+
+        String path = fileId.getAbsolutePath().replace('\\', '/');
+        BitSet applicableGroups = new BitSet(filterGroups.size());
+        for (int i = 0; i < filterGroups.size(); i++) {
+            if (filterGroups.get(i).applies(path)) {
+                applicableGroups.set(i);
+            }
+        }
+        return applicableRules.computeIfAbsent(listOf(applicableGroups, languageVersion),
+            k -> computeApplicableRules(applicableGroups, languageVersion));
+    }
+
+    private List<Rule> computeApplicableRules(BitSet applicableGroups, LanguageVersion languageVersion) {
+        List<Rule> result = new ArrayList<>();
+        for (int i = 0; i < ruleSets.size(); i++) {
+            if (!applicableGroups.get(groupOfRuleSet[i])) {
+                continue;
+            }
+            for (Rule rule : ruleSets.get(i).getRules()) {
+                if (InternalApiBridge.ruleSetApplies(rule, languageVersion)) {
+                    result.add(rule);
+                }
             }
         }
+        return Collections.unmodifiableList(result);
+    }
+
+    private void groupByFileFilter() {
+        Map<List<List<String>>, Integer> groupIndices = new HashMap<>();
+        List<FileFilterGroup> groups = new ArrayList<>();
+        int[] groupOf = new int[ruleSets.size()];
+        for (int i = 0; i < ruleSets.size(); i++) {
+            RuleSet ruleSet = ruleSets.get(i);
+            List<List<String>> key = listOf(describe(ruleSet.getFileExclusions()), describe(ruleSet.getFileInclusions()));
+            Integer index = groupIndices.get(key);
+            if (index == null) {
+                index = groups.size();
+                groupIndices.put(key, index);
+                groups.add(new FileFilterGroup(ruleSet.getFileInclusions(), ruleSet.getFileExclusions()));
+            }
+            groupOf[i] = index;
+        }
+        this.filterGroups = groups;
+        this.groupOfRuleSet = groupOf;
+    }
+
+    // Pattern does not override equals
+    private static List<String> describe(List<Pattern> patterns) {
+        List<String> result = new ArrayList<>(patterns.size());
+        for (Pattern pattern : patterns) {
+            result.add(pattern.flags() + "/" + pattern.pattern());
+        }
+        return result;
+    }
+
+    private void resetApplicableRules() {
+        filterGroups = null;
+        groupOfRuleSet = null;
+        applicableRules.clear();
     }
 
     /**
@@ -199,6 +312,7 @@ public class RuleSets {
         for (RuleSet ruleSet : ruleSets) {
             ruleSet.removeDysfunctionalRules(collector);
         }
+        resetApplicableRules();
     }
 
     /**
@@ -214,4 +328,24 @@ public class RuleSets {
         }
         return checksum;
     }
+
+    /**
+     * Rulesets that share the same include and exclude patterns.
+     */
+    private static final class FileFilterGroup {
+
+        // null if there are no patterns, then all files are accepted
+        private final @Nullable Predicate<String> filter;
+
+        FileFilterGroup(List<Pattern> includePatterns, List<Pattern> excludePatterns) {
+            this.filter = excludePatterns.isEmpty()
+                          ? null
+                          : PredicateUtil.buildRegexFilterIncludeOverExclude(includePatterns, excludePatterns);
+        }
+
+        /** The path must be normalized to use forward slashes. */
+        boolean applies(String path) {
+            return filter == null || filter.test(path);
+        }
+    }
 }
@@ -88,6 +88,11 @@ public abstract class AbstractAccumulatingRenderer extends AbstractRenderer {
                 return reportBuilder.startFileAnalysis(file);
             }
 
+            @Override
+            public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+                return reportBuilder.startCrossFileAnalysis(file);
+            }
+
             @Override
             public void onConfigError(ConfigurationError error) {
                 reportBuilder.onConfigError(error);
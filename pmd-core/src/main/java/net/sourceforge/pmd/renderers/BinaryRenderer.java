@@ -0,0 +1,108 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportWriter;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * Renders the violations in a compact binary format, that can be
+ * converted to any other report format later with {@link BinaryReportReader}.
+ * Violations and processing errors are appended to the report as soon
+ * as a file is done. Suppressed violations are not rendered.
+ *
+ * <p>As the format is binary, this renderer must write to a report
+ * file or an {@linkplain #setOutputStream(OutputStream) output stream},
+ * and cannot use a {@linkplain #setWriter(java.io.Writer) writer}.
+ *
+ * @since 7.7.0
+ */
+@Experimental
+public class BinaryRenderer extends AbstractRenderer {
+
+    public static final String NAME = "binary";
+
+    private OutputStream out;
+    private BinaryReportWriter reportWriter;
+
+    public BinaryRenderer() {
+        super(NAME, "Compact binary format, to be converted to other formats later.");
+    }
+
+    @Override
+    public String defaultFileExtension() {
+        return "pmdbin";
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If the file name ends with {@code .gz}, the report is compressed
+     * with gzip.
+     */
+    @Override
+    public void setReportFile(String reportFilename) {
+        setOutputStream(IOUtil.createOutputStream(reportFilename));
+    }
+
+    /**
+     * Set the output stream of this renderer. It is closed when this
+     * renderer is {@linkplain #flush() flushed}.
+     */
+    public void setOutputStream(OutputStream out) {
+        this.out = new BufferedOutputStream(out, IOUtil.REPORT_BUFFER_SIZE);
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (out == null) {
+            throw new IOException("The binary report format needs a report file or output stream, not a writer");
+        }
+        reportWriter = new BinaryReportWriter(out);
+        reportWriter.start();
+    }
+
+    @Override
+    public void startFileAnalysis(TextFile dataSource) {
+        // nothing to do
+    }
+
+    @Override
+    public void renderFileReport(Report report) throws IOException {
+        for (RuleViolation violation : report.getViolations()) {
+            reportWriter.addViolation(violation);
+        }
+        for (Report.ProcessingError error : report.getProcessingErrors()) {
+            reportWriter.addProcessingError(error);
+        }
+        for (Report.ConfigurationError error : report.getConfigurationErrors()) {
+            reportWriter.addConfigurationError(error);
+        }
+    }
+
+    @Override
+    public void end() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            super.flush();
+        } finally {
+            if (out != null) {
+                IOUtil.closeQuietly(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static net.sourceforge.pmd.reporting.InternalApiBridge.createRuleViolation;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.Language;
+import net.sourceforge.pmd.lang.LanguageRegistry;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RulePriority;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat;
+import net.sourceforge.pmd.renderers.internal.binary.BinaryReportFormat.RecordReader;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.Report.ConfigurationError;
+import net.sourceforge.pmd.reporting.Report.GlobalReportBuilderListener;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.Report.ReportBuilderListener;
+import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * Reads a report written by {@link BinaryRenderer}, and converts it to
+ * other report formats. The report is read file by file, so converting
+ * it only needs as much memory as the violations of a single file.
+ *
+ * <pre>{@code
+ *   Renderer renderer = new XMLRenderer();
+ *   renderer.setReportFile("report.xml");
+ *   BinaryReportReader.render(Paths.get("report.pmdbin"), renderer);
+ * }</pre>
+ *
+ * <p>The rules of the violations are read from the report, and can't be
+ * applied. The file name renderer of the renderer is used as is, so paths
+ * are rendered as they were given to PMD, unless the renderer is set up
+ * otherwise.
+ *
+ * @since 7.7.0
+ */
+@Experimental
+public final class BinaryReportReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<FileId> files = new ArrayList<>();
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * Create a reader for the given stream, which is closed when this
+     * reader is closed.
+     */
+    public BinaryReportReader(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in, IOUtil.REPORT_BUFFER_SIZE));
+    }
+
+    /**
+     * Create a reader for the given report file. If the file name ends
+     * with {@code .gz}, the report is decompressed with gzip.
+     */
+    public static BinaryReportReader open(Path reportFile) throws IOException {
+        InputStream in = Files.newInputStream(reportFile);
+        if (reportFile.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, IOUtil.REPORT_BUFFER_SIZE);
+        }
+        return new BinaryReportReader(in);
+    }
+
+    /**
+     * Render the given binary report with a renderer, like PMD would
+     * have rendered it during the analysis. The renderer must have an
+     * output, it is {@linkplain Renderer#flush() flushed} at the end.
+     *
+     * @param reportFile Binary report
+     * @param renderer   Renderer for the new format
+     *
+     * @throws IOException If the report cannot be read, or the renderer fails
+     */
+    public static void render(Path reportFile, Renderer renderer) throws IOException {
+        try (BinaryReportReader reader = open(reportFile)) {
+            renderer.start();
+            reader.readFileReports(renderer::renderFileReport);
+            renderer.end();
+        } finally {
+            renderer.flush();
+        }
+    }
+
+    /**
+     * Read the whole report. The violations and processing errors of each
+     * file are passed to the handler in a report. The configuration errors
+     * are passed in a last report, even if there are none.
+     *
+     * @param handler Handler for the reports
+     *
+     * @throws IOException If the report cannot be read, or the handler fails
+     */
+    public void readFileReports(FileReportHandler handler) throws IOException {
+        BinaryReportFormat.readHeader(in);
+
+        GlobalReportBuilderListener configErrors = new GlobalReportBuilderListener();
+        ReportBuilderListener fileReport = null;
+        FileId currentFile = null;
+
+        for (int tag = in.read(); tag != IOUtil.EOF; tag = in.read()) {
+            byte[] payload = new byte[BinaryReportFormat.readVarint(in)];
+            in.readFully(payload);
+            RecordReader record = new RecordReader(payload);
+
+            switch (tag) {
+            case BinaryReportFormat.RULE:
+                rules.add(readRule(record));
+                break;
+            case BinaryReportFormat.FILE:
+                files.add(readFileId(record));
+                break;
+            case BinaryReportFormat.STRING:
+                strings.add(record.string());
+                break;
+            case BinaryReportFormat.VIOLATION:
+            case BinaryReportFormat.PROCESSING_ERROR:
+                FileId file = files.get(record.varint());
+                if (!file.equals(currentFile)) {
+                    handleFileReport(fileReport, handler);
+                    fileReport = new ReportBuilderListener();
+                    currentFile = file;
+                }
+                if (tag == BinaryReportFormat.VIOLATION) {
+                    fileReport.onRuleViolation(readViolation(file, record));
+                } else {
+                    fileReport.onError(new StoredProcessingError(file, record.string(), record.string()));
+                }
+                break;
+            case BinaryReportFormat.CONFIGURATION_ERROR:
+                configErrors.onConfigError(new ConfigurationError(rules.get(record.varint()), record.string()));
+                break;
+            default:
+                // a record of a later version of the format, skip it
+                break;
+            }
+        }
+
+        handleFileReport(fileReport, handler);
+        configErrors.close();
+        handler.handle(configErrors.getResult());
+    }
+
+    private static void handleFileReport(@Nullable ReportBuilderListener fileReport, FileReportHandler handler) throws IOException {
+        if (fileReport != null) {
+            fileReport.close();
+            handler.handle(fileReport.getResult());
+        }
+    }
+
+    private RuleViolation readViolation(FileId file, RecordReader record) throws IOException {
+        Rule rule = rules.get(record.varint());
+        String message = strings.get(record.varint());
+        int beginLine = record.varint();
+        int beginColumn = record.varint();
+        int endLine = beginLine + record.varint();
+        int endColumn = record.varint();
+        int infoSize = record.varint();
+        Map<String, String> additionalInfo = Collections.emptyMap();
+        if (infoSize > 0) {
+            additionalInfo = new HashMap<>();
+            for (int i = 0; i < infoSize; i++) {
+                additionalInfo.put(strings.get(record.varint()), strings.get(record.varint()));
+            }
+        }
+        FileLocation location = FileLocation.range(file, TextRange2d.range2d(beginLine, beginColumn, endLine, endColumn));
+        return createRuleViolation(rule, location, message, additionalInfo);
+    }
+
+    private static Rule readRule(RecordReader record) throws IOException {
+        StoredRule rule = new StoredRule();
+        rule.setName(record.string());
+        rule.setRuleSetName(record.string());
+        Language language = LanguageRegistry.PMD.getLanguageById(record.string());
+        if (language != null) {
+            rule.setLanguage(language);
+        }
+        rule.setPriority(RulePriority.valueOf(record.varint()));
+        rule.setMessage(record.string());
+        rule.setDescription(record.string());
+        rule.setExternalInfoUrl(record.string());
+        rule.setSince(record.string());
+        int numExamples = record.varint();
+        for (int i = 0; i < numExamples; i++) {
+            rule.addExample(record.string());
+        }
+        return rule;
+    }
+
+    private static FileId readFileId(RecordReader record) throws IOException {
+        return new StoredFileId(record.string(), record.string(), record.string(), record.string());
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Handles the reports read by {@link #readFileReports(FileReportHandler)}.
+     */
+    @FunctionalInterface
+    public interface FileReportHandler {
+
+        void handle(Report report) throws IOException;
+    }
+
+    /** A rule read from a report. */
+    private static final class StoredRule extends AbstractRule {
+
+        @Override
+        public void apply(Node target, RuleContext ctx) {
+            throw new UnsupportedOperationException("Rule " + getName() + " was read from a binary report");
+        }
+    }
+
+    /** A processing error read from a report. */
+    private static final class StoredProcessingError extends ProcessingError {
+
+        private final String msg;
+        private final String detail;
+
+        StoredProcessingError(FileId file, String msg, String detail) {
+            super(new RuntimeException(msg), file);
+            this.msg = msg;
+            this.detail = detail;
+        }
+
+        @Override
+        public String getMsg() {
+            return msg;
+        }
+
+        @Override
+        public String getDetail() {
+            return detail;
+        }
+    }
+
+    /** A file id read from a report. */
+    private static final class StoredFileId implements FileId {
+
+        private final String originalPath;
+        private final String absolutePath;
+        private final String uriString;
+        private final String fileName;
+
+        StoredFileId(String originalPath, String absolutePath, String uriString, String fileName) {
+            this.originalPath = originalPath;
+            this.absolutePath = absolutePath;
+            this.uriString = uriString;
+            this.fileName = fileName;
+        }
+
+        @Override
+        public String getFileName() {
+            return fileName;
+        }
+
+        @Override
+        public String getOriginalPath() {
+            return originalPath;
+        }
+
+        @Override
+        public String getAbsolutePath() {
+            return absolutePath;
+        }
+
+        @Override
+        public String getUriString() {
+            return uriString;
+        }
+
+        @Override
+        public @Nullable FileId getParentFsPath() {
+            return null;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof FileId
+                && ((FileId) obj).getUriString().equals(this.getUriString());
+        }
+
+        @Override
+        public int hashCode() {
+            return uriString.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "FileId(fromBinaryReport=" + originalPath + ")";
+        }
+    }
+}
@@ -223,9 +223,18 @@ public interface Renderer extends PropertySource {
 
             @Override
             public FileAnalysisListener startFileAnalysis(TextFile file) {
-                Renderer renderer = Renderer.this;
+                Renderer.this.startFileAnalysis(file); // this routine is thread-safe by contract
+                return newFileReportListener();
+            }
+
+            @Override
+            public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+                // the renderer already started this file
+                return newFileReportListener();
+            }
 
-                renderer.startFileAnalysis(file); // this routine is thread-safe by contract
+            private FileAnalysisListener newFileReportListener() {
+                Renderer renderer = Renderer.this;
                 return new FileAnalysisListener() {
                     final ReportBuilderListener reportBuilder = new ReportBuilderListener();
 
@@ -0,0 +1,218 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Constants and encoding routines of the binary report format.
+ *
+ * <p>A report starts with the magic bytes {@code PMDV} and a version
+ * byte, followed by a sequence of records. A record is a tag byte, the
+ * length of its payload, and the payload. Readers skip the records whose
+ * tag they don't know. Records are only ever appended: rules, files and
+ * strings are defined by their own records, and numbered in the order
+ * of definition, before violations refer to them by number.
+ *
+ * <ul>
+ * <li>{@link #RULE}: name, ruleset name, language id, priority, message,
+ * description, external info url, since, number of examples, examples</li>
+ * <li>{@link #FILE}: original path, absolute path, URI, file name</li>
+ * <li>{@link #STRING}: a string, used for messages and additional info</li>
+ * <li>{@link #VIOLATION}: file, rule, message, begin line, begin column,
+ * number of lines, end column, number of additional info entries,
+ * key and value of each entry</li>
+ * <li>{@link #PROCESSING_ERROR}: file, message, detail</li>
+ * <li>{@link #CONFIGURATION_ERROR}: rule, issue</li>
+ * </ul>
+ *
+ * <p>Ints are encoded as unsigned LEB128 varints. Strings are encoded as
+ * the length of their UTF-8 encoding plus one, followed by the bytes,
+ * a length of 0 stands for null.
+ */
+public final class BinaryReportFormat {
+
+    public static final int VERSION = 1;
+
+    public static final int RULE = 1;
+    public static final int FILE = 2;
+    public static final int STRING = 3;
+    public static final int VIOLATION = 4;
+    public static final int PROCESSING_ERROR = 5;
+    public static final int CONFIGURATION_ERROR = 6;
+
+    private static final byte[] MAGIC = {'P', 'M', 'D', 'V'};
+
+    private BinaryReportFormat() {
+        // utility class
+    }
+
+    public static void writeHeader(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    /**
+     * Read the header of a report.
+     *
+     * @throws IOException If the stream is not a binary report, or has
+     *                     an unsupported version
+     */
+    public static void readHeader(DataInputStream in) throws IOException {
+        byte[] header = new byte[MAGIC.length + 1];
+        try {
+            in.readFully(header);
+        } catch (EOFException e) {
+            throw new IOException("Not a PMD binary report", e);
+        }
+        if (!Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length))) {
+            throw new IOException("Not a PMD binary report");
+        }
+        int version = header[MAGIC.length];
+        if (version != VERSION) {
+            throw new IOException("Unsupported version of the PMD binary report format: " + version);
+        }
+    }
+
+    /**
+     * Read a varint from the stream.
+     *
+     * @throws EOFException If the stream ends before the varint
+     */
+    public static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+
+    /**
+     * Builds the payload of a record, and writes the record. Instances
+     * are reused for several records.
+     */
+    public static final class RecordBuilder {
+
+        private byte[] buffer = new byte[256];
+        private int size;
+        private int tag;
+
+        /** Start a new record, dropping the current one. */
+        public RecordBuilder begin(int tag) {
+            this.tag = tag;
+            this.size = 0;
+            return this;
+        }
+
+        public RecordBuilder varint(int value) {
+            int v = value;
+            while ((v & ~0x7F) != 0) {
+                put((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            put(v);
+            return this;
+        }
+
+        public RecordBuilder string(@Nullable String string) {
+            if (string == null) {
+                return varint(0);
+            }
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+            return this;
+        }
+
+        private void put(int b) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) b;
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+            }
+        }
+
+        /** Write the record to the stream. */
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(tag);
+            writeVarint(out, size);
+            out.write(buffer, 0, size);
+        }
+    }
+
+    /**
+     * Reads the fields of the payload of a record.
+     */
+    public static final class RecordReader {
+
+        private final byte[] payload;
+        private int pos;
+
+        public RecordReader(byte[] payload) {
+            this.payload = payload;
+        }
+
+        public int varint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = next();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        public @Nullable String string() throws IOException {
+            int length = varint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (pos + length > payload.length) {
+                throw new EOFException("Truncated record");
+            }
+            String string = new String(payload, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return string;
+        }
+
+        private int next() throws IOException {
+            if (pos >= payload.length) {
+                throw new EOFException("Truncated record");
+            }
+            return payload[pos++] & 0xFF;
+        }
+    }
+}
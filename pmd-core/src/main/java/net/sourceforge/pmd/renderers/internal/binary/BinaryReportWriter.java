@@ -0,0 +1,145 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * Writes a report in the {@linkplain BinaryReportFormat binary report format}.
+ * Each violation or error is written as soon as it is added. Rules, files
+ * and strings are written the first time they are used, and are then
+ * referred to by their number.
+ */
+public class BinaryReportWriter {
+
+    private final OutputStream out;
+    private final BinaryReportFormat.RecordBuilder record = new BinaryReportFormat.RecordBuilder();
+
+    // rules are compared by identity, like in reports
+    private final Map<Rule, Integer> rules = new IdentityHashMap<>();
+    private final Map<FileId, Integer> files = new HashMap<>();
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * Create a new writer.
+     *
+     * @param out Output, which is not closed by this writer
+     */
+    public BinaryReportWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /** Write the header of the report, must be called first. */
+    public void start() throws IOException {
+        BinaryReportFormat.writeHeader(out);
+    }
+
+    public void addViolation(RuleViolation violation) throws IOException {
+        // define the referenced rules, files and strings before the
+        // violation record is built, as they are written with the same builder
+        int file = fileNumber(violation.getFileId());
+        int rule = ruleNumber(violation.getRule());
+        int message = stringNumber(violation.getDescription());
+        Map<String, String> additionalInfo = violation.getAdditionalInfo();
+        int[] info = new int[2 * additionalInfo.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : additionalInfo.entrySet()) {
+            info[i++] = stringNumber(entry.getKey());
+            info[i++] = stringNumber(entry.getValue());
+        }
+
+        record.begin(BinaryReportFormat.VIOLATION)
+              .varint(file)
+              .varint(rule)
+              .varint(message)
+              .varint(violation.getBeginLine())
+              .varint(violation.getBeginColumn())
+              .varint(violation.getEndLine() - violation.getBeginLine())
+              .varint(violation.getEndColumn())
+              .varint(additionalInfo.size());
+        for (int number : info) {
+            record.varint(number);
+        }
+        record.writeTo(out);
+    }
+
+    public void addProcessingError(Report.ProcessingError error) throws IOException {
+        int file = fileNumber(error.getFileId());
+        record.begin(BinaryReportFormat.PROCESSING_ERROR)
+              .varint(file)
+              .string(error.getMsg())
+              .string(error.getDetail())
+              .writeTo(out);
+    }
+
+    public void addConfigurationError(Report.ConfigurationError error) throws IOException {
+        int rule = ruleNumber(error.rule());
+        record.begin(BinaryReportFormat.CONFIGURATION_ERROR)
+              .varint(rule)
+              .string(error.issue())
+              .writeTo(out);
+    }
+
+    private int ruleNumber(Rule rule) throws IOException {
+        Integer number = rules.get(rule);
+        if (number == null) {
+            number = rules.size();
+            rules.put(rule, number);
+            List<String> examples = rule.getExamples();
+            record.begin(BinaryReportFormat.RULE)
+                  .string(rule.getName())
+                  .string(rule.getRuleSetName())
+                  .string(rule.getLanguage() == null ? null : rule.getLanguage().getId())
+                  .varint(rule.getPriority().getPriority())
+                  .string(rule.getMessage())
+                  .string(rule.getDescription())
+                  .string(rule.getExternalInfoUrl())
+                  .string(rule.getSince())
+                  .varint(examples.size());
+            for (String example : examples) {
+                record.string(example);
+            }
+            record.writeTo(out);
+        }
+        return number;
+    }
+
+    private int fileNumber(FileId fileId) throws IOException {
+        Integer number = files.get(fileId);
+        if (number == null) {
+            number = files.size();
+            files.put(fileId, number);
+            record.begin(BinaryReportFormat.FILE)
+                  .string(fileId.getOriginalPath())
+                  .string(fileId.getAbsolutePath())
+                  .string(fileId.getUriString())
+                  .string(fileId.getFileName())
+                  .writeTo(out);
+        }
+        return number;
+    }
+
+    private int stringNumber(String string) throws IOException {
+        Integer number = strings.get(string);
+        if (number == null) {
+            number = strings.size();
+            strings.put(string, number);
+            record.begin(BinaryReportFormat.STRING)
+                  .string(string)
+                  .writeTo(out);
+        }
+        return number;
+    }
+}
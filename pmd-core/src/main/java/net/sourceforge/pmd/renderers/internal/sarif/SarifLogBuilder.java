@@ -8,9 +8,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import net.sourceforge.pmd.PMDVersion;
+import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ArtifactLocation;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.AssociatedRule;
 import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Component;
@@ -33,6 +36,7 @@ import net.sourceforge.pmd.reporting.RuleViolation;
 
 public class SarifLogBuilder {
     private final List<ReportingDescriptor> rules = new ArrayList<>();
+    private final Map<Rule, Integer> ruleIndices = new IdentityHashMap<>();
     private final List<Result> results = new ArrayList<>();
     private final List<ToolConfigurationNotification> toolConfigurationNotifications = new ArrayList<>();
     private final List<ToolExecutionNotification> toolExecutionNotifications = new ArrayList<>();
@@ -42,18 +46,28 @@ public class SarifLogBuilder {
     }
 
     public SarifLogBuilder add(RuleViolation violation) {
-        final ReportingDescriptor ruleDescriptor = getReportingDescriptor(violation);
-        int ruleIndex = rules.indexOf(ruleDescriptor);
-        if (ruleIndex == -1) {
-            rules.add(ruleDescriptor);
-            ruleIndex = rules.size() - 1;
+        results.add(resultFrom(violation, rules, ruleIndices));
+        return this;
+    }
+
+    /**
+     * Returns the result for a violation. The descriptor of its rule is
+     * added to the list of rules if it is not yet there. The index is
+     * keyed by rule, so that it does not grow with the number of distinct
+     * messages.
+     */
+    static Result resultFrom(RuleViolation violation, List<ReportingDescriptor> rules,
+                             Map<Rule, Integer> ruleIndices) {
+        final Rule rule = violation.getRule();
+        Integer ruleIndex = ruleIndices.get(rule);
+        if (ruleIndex == null) {
+            ruleIndex = rules.size();
+            rules.add(getReportingDescriptor(rule));
+            ruleIndices.put(rule, ruleIndex);
         }
 
         final Location location = getRuleViolationLocation(violation);
-        final Result result = resultFrom(ruleDescriptor, ruleIndex, location);
-        results.add(result);
-
-        return this;
+        return resultFrom(violation, ruleIndex, location);
     }
 
     public SarifLogBuilder addRunTimeError(Report.ProcessingError error) {
@@ -107,17 +121,10 @@ public class SarifLogBuilder {
     }
 
     public SarifLog build() {
-        final Component driver = getDriverComponent().toBuilder().rules(rules).build();
-        final Tool tool = Tool.builder().driver(driver).build();
-        final Invocation invocation = Invocation.builder()
-                .toolExecutionNotifications(toolExecutionNotifications)
-                .toolConfigurationNotifications(toolConfigurationNotifications)
-                .executionSuccessful(isExecutionSuccessful())
-                .build();
         final Run run = Run.builder()
-                .tool(tool)
+                .tool(buildTool(rules))
                 .results(results)
-                .invocations(Collections.singletonList(invocation))
+                .invocations(buildInvocations())
                 .build();
 
         List<Run> runs = Collections.singletonList(run);
@@ -125,18 +132,32 @@ public class SarifLogBuilder {
         return SarifLog.builder().runs(runs).build();
     }
 
+    static Tool buildTool(List<ReportingDescriptor> rules) {
+        final Component driver = getDriverComponent().toBuilder().rules(rules).build();
+        return Tool.builder().driver(driver).build();
+    }
+
+    List<Invocation> buildInvocations() {
+        final Invocation invocation = Invocation.builder()
+                .toolExecutionNotifications(toolExecutionNotifications)
+                .toolConfigurationNotifications(toolConfigurationNotifications)
+                .executionSuccessful(isExecutionSuccessful())
+                .build();
+        return Collections.singletonList(invocation);
+    }
+
     private boolean isExecutionSuccessful() {
         return toolExecutionNotifications.isEmpty() && toolConfigurationNotifications.isEmpty();
     }
 
-    private Result resultFrom(ReportingDescriptor rule, Integer ruleIndex, Location location) {
+    private static Result resultFrom(RuleViolation violation, Integer ruleIndex, Location location) {
         final Result result = Result.builder()
-                .ruleId(rule.getId())
+                .ruleId(violation.getRule().getName())
                 .ruleIndex(ruleIndex)
                 .build();
 
         final Message message = Message.builder()
-                .text(rule.getShortDescription().getText())
+                .text(violation.getDescription())
                 .build();
 
         result.setMessage(message);
@@ -145,7 +166,7 @@ public class SarifLogBuilder {
         return result;
     }
 
-    private Location getRuleViolationLocation(RuleViolation rv) {
+    private static Location getRuleViolationLocation(RuleViolation rv) {
         ArtifactLocation artifactLocation = ArtifactLocation.builder()
                 .uri(rv.getFileId().getUriString())
                 .build();
@@ -167,26 +188,26 @@ public class SarifLogBuilder {
             .build();
     }
 
-    private ReportingDescriptor getReportingDescriptor(RuleViolation rv) {
+    private static ReportingDescriptor getReportingDescriptor(Rule rule) {
         return ReportingDescriptor.builder()
-            .id(rv.getRule().getName())
-            .shortDescription(new MultiformatMessage(rv.getDescription()))
-            .fullDescription(new MultiformatMessage(rv.getRule().getDescription()))
-            .helpUri(rv.getRule().getExternalInfoUrl())
-            .help(new MultiformatMessage(rv.getRule().getDescription()))
-            .properties(getRuleProperties(rv))
+            .id(rule.getName())
+            .shortDescription(new MultiformatMessage(rule.getMessage()))
+            .fullDescription(new MultiformatMessage(rule.getDescription()))
+            .helpUri(rule.getExternalInfoUrl())
+            .help(new MultiformatMessage(rule.getDescription()))
+            .properties(getRuleProperties(rule))
             .build();
     }
 
-    private PropertyBag getRuleProperties(RuleViolation rv) {
+    private static PropertyBag getRuleProperties(Rule rule) {
         return PropertyBag.builder()
-                .ruleset(rv.getRule().getRuleSetName())
-                .priority(rv.getRule().getPriority().getPriority())
-                .tags(new HashSet<>(Arrays.asList(rv.getRule().getRuleSetName())))
+                .ruleset(rule.getRuleSetName())
+                .priority(rule.getPriority().getPriority())
+                .tags(new HashSet<>(Arrays.asList(rule.getRuleSetName())))
                 .build();
     }
 
-    private Component getDriverComponent() {
+    private static Component getDriverComponent() {
         return Component.builder()
                 .name("PMD")
                 .version(PMDVersion.VERSION)
@@ -0,0 +1,97 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers.internal.sarif;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Invocation;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.ReportingDescriptor;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Result;
+import net.sourceforge.pmd.renderers.internal.sarif.SarifLog.Tool;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Writes a SARIF log with a single run incrementally, instead of building
+ * it in memory like {@link SarifLogBuilder}. Each result is written as
+ * soon as it is added. Only the rule descriptors, one per rule, and
+ * the errors are kept until the end. As the rules are
+ * only known once all results have been added, the tool of the run is
+ * written after its results.
+ */
+public class SarifLogWriter {
+
+    private final Gson gson;
+    private final JsonWriter out;
+
+    private final List<ReportingDescriptor> rules = new ArrayList<>();
+    private final Map<Rule, Integer> ruleIndices = new IdentityHashMap<>();
+    private final SarifLogBuilder errors = SarifLogBuilder.sarifLogBuilder();
+
+    /**
+     * Create a new writer. The output is formatted according to the
+     * settings of the Gson instance, eg pretty printing.
+     *
+     * @param writer Output, which is not closed by this writer
+     * @param gson   Gson instance
+     */
+    public SarifLogWriter(Writer writer, Gson gson) throws IOException {
+        this.gson = gson;
+        this.out = gson.newJsonWriter(writer);
+    }
+
+    /** Write the start of the log, must be called first. */
+    public void start() throws IOException {
+        final SarifLog header = SarifLog.builder().build();
+        out.beginObject();
+        out.name("$schema").value(header.getSchema());
+        out.name("version").value(header.getVersion());
+        out.name("runs").beginArray();
+        out.beginObject();
+        out.name("results").beginArray();
+    }
+
+    /** Write the result for a violation. */
+    public void add(RuleViolation violation) throws IOException {
+        final Result result = SarifLogBuilder.resultFrom(violation, rules, ruleIndices);
+        gson.toJson(result, Result.class, out);
+    }
+
+    public void addRunTimeError(Report.ProcessingError error) {
+        errors.addRunTimeError(error);
+    }
+
+    public void addConfigurationError(Report.ConfigurationError error) {
+        errors.addConfigurationError(error);
+    }
+
+    /**
+     * Write the rules and errors, and the end of the log. The output
+     * is flushed.
+     */
+    public void end() throws IOException {
+        out.endArray();
+        out.name("tool");
+        gson.toJson(SarifLogBuilder.buildTool(rules), Tool.class, out);
+        out.name("invocations").beginArray();
+        for (Invocation invocation : errors.buildInvocations()) {
+            gson.toJson(invocation, Invocation.class, out);
+        }
+        out.endArray();
+        out.endObject();
+        out.endArray();
+        out.endObject();
+        out.flush();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.Report.ConfigurationError;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+
+/**
+ * Forwards the events of an analysis to another listener on a dedicated
+ * thread. See {@link GlobalAnalysisListener#asynchronous(GlobalAnalysisListener, int)}.
+ */
+final class AsyncAnalysisListener implements GlobalAnalysisListener {
+
+    /** Marks the end of the queue. */
+    private static final Task END = () -> { };
+    /** How long producers wait for space in the queue before checking whether the forwarding thread stopped. */
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final GlobalAnalysisListener delegate;
+    private final BlockingQueue<Task> queue;
+    private final Thread forwardingThread;
+
+    // first exception thrown by the delegate, or the interruption of the
+    // forwarding thread, the following tasks are skipped
+    private volatile Throwable failure;
+    private boolean closed;
+
+    AsyncAnalysisListener(GlobalAnalysisListener delegate, int maxQueuedFiles) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(maxQueuedFiles);
+        this.forwardingThread = new Thread(this::forwardEvents, "PmdAsyncListener-" + delegate);
+        this.forwardingThread.setDaemon(true);
+        this.forwardingThread.start();
+    }
+
+    private void forwardEvents() {
+        try {
+            Task task = queue.take();
+            for (; task != END; task = queue.take()) {
+                if (failure == null) {
+                    try {
+                        task.run();
+                    } catch (Exception | Error e) {
+                        // also catch errors, so that the queue is still drained
+                        failure = e;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            // the remaining tasks are dropped, close rethrows this
+            if (failure == null) {
+                failure = e;
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(Task task) {
+        try {
+            while (!queue.offer(task, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (failure != null && !forwardingThread.isAlive()) {
+                    // the forwarding thread was interrupted, nobody drains the queue
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + delegate, e);
+        }
+    }
+
+    @Override
+    public ListenerInitializer initializer() {
+        // the initializer is used before any event is queued
+        return delegate.initializer();
+    }
+
+    @Override
+    public void onConfigError(ConfigurationError error) {
+        enqueue(() -> delegate.onConfigError(error));
+    }
+
+    @Override
+    public FileAnalysisListener startFileAnalysis(TextFile file) {
+        return new FileBatch(file, false);
+    }
+
+    @Override
+    public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+        return new FileBatch(file, true);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        enqueue(END);
+        forwardingThread.join();
+
+        Throwable exception = failure;
+        try {
+            delegate.close();
+        } catch (Exception e) {
+            if (exception == null) {
+                exception = e;
+            } else {
+                exception.addSuppressed(e);
+            }
+        }
+        if (exception instanceof Error) {
+            throw (Error) exception;
+        } else if (exception != null) {
+            throw (Exception) exception;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncAnalysisListener[" + delegate + "]";
+    }
+
+    /**
+     * Records the events of a file, and queues them when the file is done.
+     */
+    private final class FileBatch implements FileAnalysisListener {
+
+        private final TextFile file;
+        private final boolean crossFile;
+        private final List<Consumer<FileAnalysisListener>> events = new ArrayList<>();
+
+        FileBatch(TextFile file, boolean crossFile) {
+            this.file = file;
+            this.crossFile = crossFile;
+        }
+
+        @Override
+        public void onRuleViolation(RuleViolation violation) {
+            events.add(listener -> listener.onRuleViolation(violation));
+        }
+
+        @Override
+        public void onSuppressedRuleViolation(SuppressedViolation violation) {
+            events.add(listener -> listener.onSuppressedRuleViolation(violation));
+        }
+
+        @Override
+        public void onError(ProcessingError error) {
+            events.add(listener -> listener.onError(error));
+        }
+
+        @Override
+        public void onFileSummary(Rule rule, FileSummary summary) {
+            events.add(listener -> listener.onFileSummary(rule, summary));
+        }
+
+        @Override
+        public void close() {
+            enqueue(() -> {
+                try (FileAnalysisListener listener = crossFile ? delegate.startCrossFileAnalysis(file)
+                                                               : delegate.startFileAnalysis(file)) {
+                    for (Consumer<FileAnalysisListener> event : events) {
+                        event.accept(listener);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "FileBatch[" + file.getFileId() + "]";
+        }
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+}
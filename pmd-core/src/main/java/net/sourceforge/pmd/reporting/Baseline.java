@@ -0,0 +1,428 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.Chars;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.Report.ConfigurationError;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+import net.sourceforge.pmd.util.log.PmdReporter;
+
+/**
+ * A set of known violations, that are filtered out of the report of an
+ * analysis, so that only new violations are reported. A baseline is
+ * written by the listener returned by {@link #writer(Path)}, and used
+ * in a later analysis with {@link #filter(GlobalAnalysisListener, PmdReporter)}.
+ *
+ * <p>Violations are identified by a fingerprint, which is a hash of the
+ * name of the rule, the display name of the file, and the text of the
+ * first line of the violation without whitespace. Line numbers are not
+ * part of the fingerprint, so that violations are still matched when
+ * code is added or removed above them. A violation that occurs several
+ * times on identical lines of a file is matched as many times as it
+ * occurs in the baseline.
+ *
+ * <p>The baseline only stores fingerprints, in a hash table of longs:
+ * loading it takes about 16 bytes per violation, and looking up a
+ * violation takes constant time.
+ *
+ * @since 7.7.0
+ */
+@Experimental
+public final class Baseline {
+
+    /** Marks violations that were filtered out by a baseline. */
+    public static final ViolationSuppressor SUPPRESSOR = new ViolationSuppressor() {
+        @Override
+        public String getId() {
+            return "Baseline";
+        }
+
+        @Override
+        public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
+            // violations are matched by the listener returned by filter
+            return null;
+        }
+    };
+
+    private static final byte[] MAGIC = {'P', 'M', 'D', 'B'};
+    private static final int VERSION = 1;
+
+    // reserved values of the slots of the table
+    private static final long EMPTY = 0;
+    private static final long MATCHED = 1;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray table;
+    private final int mask;
+    private final int size;
+
+    Baseline(long[] fingerprints, int size) {
+        // keep the load factor under 3/4
+        int capacity = Integer.highestOneBit(Math.max(8, size + size / 2)) << 1;
+        this.table = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.size = size;
+        for (int i = 0; i < size; i++) {
+            int slot = slot(fingerprints[i]);
+            while (table.get(slot) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table.set(slot, fingerprints[i]);
+        }
+    }
+
+    /**
+     * Read a baseline written by the listener returned by {@link #writer(Path)}.
+     *
+     * @param file Baseline file
+     *
+     * @throws IOException If the file cannot be read, or is not a baseline
+     */
+    public static Baseline read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IOUtil.REPORT_BUFFER_SIZE))) {
+            byte[] header = new byte[MAGIC.length + 1];
+            try {
+                in.readFully(header);
+            } catch (EOFException e) {
+                throw new IOException("Not a PMD baseline: " + file, e);
+            }
+            if (!Arrays.equals(MAGIC, Arrays.copyOf(header, MAGIC.length))) {
+                throw new IOException("Not a PMD baseline: " + file);
+            }
+            if (header[MAGIC.length] != VERSION) {
+                throw new IOException("Unsupported version of the PMD baseline format: " + header[MAGIC.length]);
+            }
+            int size = in.readInt();
+            if (size < 0 || size > 1 << 29) {
+                throw new IOException("Invalid size of PMD baseline: " + size);
+            }
+            long[] fingerprints = new long[size];
+            for (int i = 0; i < size; i++) {
+                fingerprints[i] = in.readLong();
+            }
+            return new Baseline(fingerprints, size);
+        }
+    }
+
+    /**
+     * Returns a listener that collects the fingerprints of all violations
+     * of an analysis, and writes them to the given file when it is closed.
+     * Suppressed violations are not part of the baseline.
+     *
+     * @param file Baseline file, overwritten if it exists
+     */
+    public static GlobalAnalysisListener writer(Path file) {
+        return new BaselineWriter(file);
+    }
+
+    /**
+     * Returns a listener that forwards the events of an analysis to the
+     * given listener, except for the violations that are in this baseline.
+     * Those are forwarded as violations suppressed by {@link #SUPPRESSOR}.
+     * When the listener is closed, the number of violations of the baseline
+     * that were not found anymore is logged to the reporter.
+     *
+     * <p>Matched violations are removed from the baseline, so a baseline
+     * can only filter a single analysis.
+     *
+     * @param listener Listener for the new violations
+     * @param reporter Reporter for the violations that were fixed
+     */
+    public GlobalAnalysisListener filter(GlobalAnalysisListener listener, PmdReporter reporter) {
+        return new BaselineFilter(listener, reporter);
+    }
+
+    /** Returns the number of violations in this baseline. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove one occurrence of the fingerprint from the table. Returns
+     * false if there is none left. This is thread-safe.
+     */
+    boolean match(long fingerprint) {
+        for (int slot = slot(fingerprint);; slot = (slot + 1) & mask) {
+            long value = table.get(slot);
+            if (value == EMPTY) {
+                return false;
+            } else if (value == fingerprint && table.compareAndSet(slot, fingerprint, MATCHED)) {
+                return true;
+            }
+            // another fingerprint, or an occurrence that was matched meanwhile
+        }
+    }
+
+    /** Returns the number of violations of the baseline that were not matched. */
+    int countUnmatched() {
+        int count = 0;
+        for (int i = 0; i < table.length(); i++) {
+            long value = table.get(i);
+            if (value != EMPTY && value != MATCHED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int slot(long fingerprint) {
+        // fingerprints are already well mixed
+        return (int) fingerprint & mask;
+    }
+
+    /**
+     * Compute the fingerprint of a violation.
+     *
+     * @param ruleName Name of the rule
+     * @param fileName Display name of the file
+     * @param line     Text of the first line of the violation, null if unknown
+     */
+    static long fingerprint(String ruleName, String fileName, @Nullable CharSequence line) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < ruleName.length(); i++) {
+            hash = (hash ^ ruleName.charAt(i)) * FNV_PRIME;
+        }
+        hash *= FNV_PRIME;
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            hash = (hash ^ (c == '\\' ? '/' : c)) * FNV_PRIME;
+        }
+        hash *= FNV_PRIME;
+        if (line != null) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    hash = (hash ^ c) * FNV_PRIME;
+                }
+            }
+        }
+        // finalizer of MurmurHash3, so that the low bits can be used as slot
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY || hash == MATCHED ? hash + 2 : hash;
+    }
+
+    /**
+     * Base class of the listeners, which computes the fingerprints of the
+     * violations of each file.
+     */
+    private abstract static class FingerprintListener implements GlobalAnalysisListener {
+
+        private FileNameRenderer fileNameRenderer = FileId::getOriginalPath;
+
+        @Override
+        public ListenerInitializer initializer() {
+            return new ListenerInitializer() {
+                @Override
+                public void setFileNameRenderer(FileNameRenderer renderer) {
+                    fileNameRenderer = renderer;
+                }
+            };
+        }
+
+        FileFingerprints fingerprints(TextFile file) {
+            return new FileFingerprints(file, fileNameRenderer.getDisplayName(file));
+        }
+    }
+
+    /**
+     * Computes the fingerprints of the violations of a file. The text of
+     * the file is only read if the file has violations.
+     */
+    private static final class FileFingerprints implements AutoCloseable {
+
+        private final TextFile file;
+        private final String fileName;
+        private TextDocument document;
+        private int lineCount;
+        private boolean unreadable;
+
+        FileFingerprints(TextFile file, String fileName) {
+            this.file = file;
+            this.fileName = fileName;
+        }
+
+        long of(RuleViolation violation) {
+            return fingerprint(violation.getRule().getName(), fileName, line(violation.getBeginLine()));
+        }
+
+        private @Nullable Chars line(int line) {
+            if (document == null && !unreadable) {
+                try {
+                    document = TextDocument.create(file);
+                    lineCount = document.lineColumnAtOffset(document.getLength()).getLine();
+                } catch (IOException e) {
+                    // fingerprints of the file only depend on the rule
+                    unreadable = true;
+                }
+            }
+            if (document == null || line < 1 || line > lineCount) {
+                return null;
+            }
+            return document.sliceOriginalText(document.createLineRange(line, line));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (document != null) {
+                document.close();
+            }
+        }
+    }
+
+    private final class BaselineFilter extends FingerprintListener {
+
+        private final GlobalAnalysisListener delegate;
+        private final PmdReporter reporter;
+
+        BaselineFilter(GlobalAnalysisListener delegate, PmdReporter reporter) {
+            this.delegate = delegate;
+            this.reporter = reporter;
+        }
+
+        @Override
+        public ListenerInitializer initializer() {
+            return ListenerInitializer.tee(listOf(super.initializer(), delegate.initializer()));
+        }
+
+        @Override
+        public void onConfigError(ConfigurationError error) {
+            delegate.onConfigError(error);
+        }
+
+        @Override
+        public FileAnalysisListener startFileAnalysis(TextFile file) {
+            return filter(file, delegate.startFileAnalysis(file));
+        }
+
+        @Override
+        public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+            return filter(file, delegate.startCrossFileAnalysis(file));
+        }
+
+        private FileAnalysisListener filter(TextFile file, FileAnalysisListener fileListener) {
+            FileFingerprints fingerprints = fingerprints(file);
+            return new FileAnalysisListener() {
+                @Override
+                public void onRuleViolation(RuleViolation violation) {
+                    if (match(fingerprints.of(violation))) {
+                        fileListener.onSuppressedRuleViolation(new SuppressedViolation(violation, SUPPRESSOR, "Known violation of the baseline"));
+                    } else {
+                        fileListener.onRuleViolation(violation);
+                    }
+                }
+
+                @Override
+                public void onSuppressedRuleViolation(SuppressedViolation violation) {
+                    fileListener.onSuppressedRuleViolation(violation);
+                }
+
+                @Override
+                public void onError(ProcessingError error) {
+                    fileListener.onError(error);
+                }
+
+                @Override
+                public void onFileSummary(Rule rule, FileSummary summary) {
+                    fileListener.onFileSummary(rule, summary);
+                }
+
+                @Override
+                public void close() throws Exception {
+                    try {
+                        fileListener.close();
+                    } finally {
+                        fingerprints.close();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void close() throws Exception {
+            int fixed = countUnmatched();
+            if (fixed > 0) {
+                reporter.info("{0} of {1} violations of the baseline were not found anymore", fixed, size);
+            }
+            delegate.close();
+        }
+    }
+
+    private static final class BaselineWriter extends FingerprintListener {
+
+        private final Path file;
+        private long[] fingerprints = new long[1024];
+        private int size;
+
+        BaselineWriter(Path file) {
+            this.file = file;
+        }
+
+        private synchronized void add(long fingerprint) {
+            if (size == fingerprints.length) {
+                fingerprints = Arrays.copyOf(fingerprints, size * 2);
+            }
+            fingerprints[size++] = fingerprint;
+        }
+
+        @Override
+        public FileAnalysisListener startFileAnalysis(TextFile file) {
+            FileFingerprints fileFingerprints = fingerprints(file);
+            return new FileAnalysisListener() {
+                @Override
+                public void onRuleViolation(RuleViolation violation) {
+                    add(fileFingerprints.of(violation));
+                }
+
+                @Override
+                public void close() throws IOException {
+                    fileFingerprints.close();
+                }
+            };
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), IOUtil.REPORT_BUFFER_SIZE))) {
+                out.write(MAGIC);
+                out.write(VERSION);
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(fingerprints[i]);
+                }
+            }
+        }
+    }
+}
@@ -8,7 +8,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.rule.CrossFileRule;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.reporting.Report.ProcessingError;
 import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
 import net.sourceforge.pmd.util.AssertionUtil;
@@ -49,6 +53,22 @@ public interface FileAnalysisListener extends AutoCloseable {
     }
 
 
+    /**
+     * Handle the summary of the file reported by a {@link CrossFileRule}.
+     * Summaries of files that are up to date in the analysis cache
+     * are also reported, before the cached violations.
+     *
+     * @param rule    Rule that created the summary
+     * @param summary Summary of the file
+     *
+     * @since 7.7.0
+     */
+    @Experimental
+    default void onFileSummary(Rule rule, FileSummary summary) {
+        // by default do nothing
+    }
+
+
     /**
      * Signals the end of the analysis: no further calls will be made
      * to this listener. This is run in the thread the listener has
@@ -121,6 +141,13 @@ public interface FileAnalysisListener extends AutoCloseable {
                 }
             }
 
+            @Override
+            public void onFileSummary(Rule rule, FileSummary summary) {
+                for (FileAnalysisListener it : list) {
+                    it.onFileSummary(rule, summary);
+                }
+            }
+
             @Override
             public void close() throws Exception {
                 Exception composed = IOUtil.closeAll(list);
@@ -0,0 +1,330 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.Report.ConfigurationError;
+import net.sourceforge.pmd.reporting.Report.ProcessingError;
+import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
+
+/**
+ * The files and lines that changed in a git repository since a base
+ * revision. This is used to only analyze the changed files, and only
+ * report the violations on changed lines, so that the cost of an
+ * analysis is proportional to the size of the change.
+ *
+ * <p>The changes are read with the {@code git} executable from the
+ * repository of the current directory. They are the changes between the
+ * merge base of the revision and {@code HEAD}, and the working tree, so
+ * that uncommitted changes to tracked files are included. Renamed files
+ * are tracked, so only their changed lines are reported. Deleted files
+ * are ignored.
+ *
+ * @since 7.7.0
+ */
+@Experimental
+public final class GitChanges {
+
+    /** Marks violations that were filtered out because they are not on changed lines. */
+    public static final ViolationSuppressor SUPPRESSOR = new ViolationSuppressor() {
+        @Override
+        public String getId() {
+            return "GitChanges";
+        }
+
+        @Override
+        public @Nullable SuppressedViolation suppressOrNull(RuleViolation rv, @NonNull Node node) {
+            // violations are matched by the listener returned by filter
+            return null;
+        }
+    };
+
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -\\d+(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+    private static final int[] NO_LINES = {};
+
+    /** Sorted and disjoint ranges of changed lines (first and last line) of each file, by real path. */
+    private final Map<Path, int[]> changedLines;
+
+    private GitChanges(Map<Path, int[]> changedLines) {
+        this.changedLines = changedLines;
+    }
+
+    /**
+     * Read the changes since the given revision from the git repository
+     * of the current directory.
+     *
+     * @param baseRevision A revision, like {@code origin/main}
+     *
+     * @throws IOException If git cannot be run, or fails
+     */
+    public static GitChanges read(String baseRevision) throws IOException {
+        Path topLevel = Paths.get(git("rev-parse", "--show-toplevel").trim()).toRealPath();
+        String mergeBase = git("merge-base", baseRevision, "HEAD").trim();
+        String diff = git("-c", "core.quotePath=false", "diff", "--no-color", "--no-ext-diff",
+                          "--src-prefix=a/", "--dst-prefix=b/", "--find-renames", "--diff-filter=ACMR", "--unified=0", mergeBase);
+        return parse(topLevel, new StringReader(diff));
+    }
+
+    private static String git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = process.getInputStream().read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("Command '" + String.join(" ", command) + "' failed with exit code " + exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git", e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse the output of {@code git diff --unified=0}.
+     *
+     * @param topLevel The real path of the top-level directory of the repository
+     * @param diff     The diff
+     */
+    static GitChanges parse(Path topLevel, Reader diff) throws IOException {
+        Map<Path, List<int[]>> ranges = new HashMap<>();
+        List<int[]> current = null;
+        BufferedReader reader = new BufferedReader(diff);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("diff --git ")) {
+                current = null;
+            } else if (line.startsWith("rename to ")) {
+                // a renamed file may have no hunk
+                current = ranges.computeIfAbsent(resolve(topLevel, line.substring("rename to ".length())), k -> new ArrayList<>());
+            } else if (line.startsWith("+++ ")) {
+                // git appends a tab to names with spaces
+                String path = unquote(StringUtils.removeEnd(line.substring("+++ ".length()), "\t"));
+                current = path.startsWith("b/")
+                          ? ranges.computeIfAbsent(resolve(topLevel, path.substring(2)), k -> new ArrayList<>())
+                          : null;
+            } else if (line.startsWith("@@ ") && current != null) {
+                Matcher matcher = HUNK_HEADER.matcher(line);
+                if (!matcher.matches()) {
+                    throw new IOException("Unexpected hunk header: " + line);
+                }
+                int oldCount = count(matcher.group(1));
+                int newStart = Integer.parseInt(matcher.group(2));
+                int newCount = count(matcher.group(3));
+                if (newCount > 0) {
+                    current.add(new int[] {newStart, newStart + newCount - 1});
+                }
+                // skip the lines of the hunk, which may look like headers
+                int remaining = oldCount + newCount;
+                String hunkLine;
+                while (remaining > 0 && (hunkLine = reader.readLine()) != null) {
+                    // "\ No newline at end of file" is not a line of the hunk
+                    if (!hunkLine.startsWith("\\")) {
+                        remaining--;
+                    }
+                }
+            }
+        }
+
+        Map<Path, int[]> changedLines = new HashMap<>();
+        ranges.forEach((path, fileRanges) -> {
+            int[] flat = new int[fileRanges.size() * 2];
+            for (int i = 0; i < fileRanges.size(); i++) {
+                flat[2 * i] = fileRanges.get(i)[0];
+                flat[2 * i + 1] = fileRanges.get(i)[1];
+            }
+            changedLines.put(path, flat);
+        });
+        return new GitChanges(changedLines);
+    }
+
+    private static int count(@Nullable String count) {
+        return count == null ? 1 : Integer.parseInt(count);
+    }
+
+    private static Path resolve(Path topLevel, String relativePath) {
+        return topLevel.resolve(unquote(relativePath)).normalize();
+    }
+
+    /** Unquote a path that git quoted because of special characters. */
+    private static String unquote(String path) {
+        if (path.length() < 2 || path.charAt(0) != '"' || path.charAt(path.length() - 1) != '"') {
+            return path;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int end = path.length() - 1;
+        int i = 1;
+        while (i < end) {
+            char c = path.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                char escaped = path.charAt(i + 1);
+                if (escaped >= '0' && escaped <= '3' && i + 3 < end) {
+                    // octal escape of a byte of the UTF-8 encoding
+                    bytes.write(Integer.parseInt(path.substring(i + 1, i + 4), 8));
+                    i += 4;
+                } else {
+                    bytes.write(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped);
+                    i += 2;
+                }
+            } else {
+                byte[] utf8 = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                bytes.write(utf8, 0, utf8.length);
+                i++;
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the real paths of the files that were added, modified or
+     * renamed.
+     */
+    public Set<Path> getChangedFiles() {
+        return Collections.unmodifiableSet(changedLines.keySet());
+    }
+
+    /**
+     * Returns a listener that forwards the violations on changed lines
+     * to the given listener. The other violations are forwarded as violations
+     * suppressed by {@link #SUPPRESSOR}. The violations of files that
+     * don't exist on disk, like files created from a string, are all forwarded.
+     *
+     * @param delegate Listener for the violations on changed lines
+     */
+    public GlobalAnalysisListener filter(GlobalAnalysisListener delegate) {
+        return new ChangedLinesFilter(delegate);
+    }
+
+    /**
+     * Returns the ranges of changed lines of the file, null if the file
+     * is not on disk.
+     */
+    int @Nullable [] changedLines(TextFile file) {
+        Path path;
+        try {
+            path = Paths.get(file.getFileId().getAbsolutePath()).toRealPath();
+        } catch (InvalidPathException | IOException e) {
+            return null;
+        }
+        return changedLines.getOrDefault(path, NO_LINES);
+    }
+
+    static boolean isOnChangedLine(int[] ranges, RuleViolation violation) {
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (violation.getBeginLine() <= ranges[i + 1] && violation.getEndLine() >= ranges[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class ChangedLinesFilter implements GlobalAnalysisListener {
+
+        private final GlobalAnalysisListener delegate;
+
+        ChangedLinesFilter(GlobalAnalysisListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ListenerInitializer initializer() {
+            return delegate.initializer();
+        }
+
+        @Override
+        public void onConfigError(ConfigurationError error) {
+            delegate.onConfigError(error);
+        }
+
+        @Override
+        public FileAnalysisListener startFileAnalysis(TextFile file) {
+            return filter(file, delegate.startFileAnalysis(file));
+        }
+
+        @Override
+        public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+            return filter(file, delegate.startCrossFileAnalysis(file));
+        }
+
+        private FileAnalysisListener filter(TextFile file, FileAnalysisListener fileListener) {
+            int[] ranges = changedLines(file);
+            if (ranges == null) {
+                return fileListener;
+            }
+            return new FileAnalysisListener() {
+                @Override
+                public void onRuleViolation(RuleViolation violation) {
+                    if (isOnChangedLine(ranges, violation)) {
+                        fileListener.onRuleViolation(violation);
+                    } else {
+                        fileListener.onSuppressedRuleViolation(new SuppressedViolation(violation, SUPPRESSOR, "Not on a changed line"));
+                    }
+                }
+
+                @Override
+                public void onSuppressedRuleViolation(SuppressedViolation violation) {
+                    fileListener.onSuppressedRuleViolation(violation);
+                }
+
+                @Override
+                public void onError(ProcessingError error) {
+                    fileListener.onError(error);
+                }
+
+                @Override
+                public void onFileSummary(Rule rule, FileSummary summary) {
+                    fileListener.onFileSummary(rule, summary);
+                }
+
+                @Override
+                public void close() throws Exception {
+                    fileListener.close();
+                }
+            };
+        }
+
+        @Override
+        public void close() throws Exception {
+            delegate.close();
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.internal.util.IOUtil;
 import net.sourceforge.pmd.lang.ast.FileAnalysisException;
 import net.sourceforge.pmd.lang.document.FileId;
@@ -71,6 +72,30 @@ public interface GlobalAnalysisListener extends AutoCloseable {
      */
     FileAnalysisListener startFileAnalysis(TextFile file);
 
+    /**
+     * Returns a file listener for the violations of the given file that
+     * are reported after all files have been analysed, like the violations
+     * of {@linkplain net.sourceforge.pmd.lang.rule.CrossFileRule cross-file rules}.
+     * This does not mean that the file is analysed again: the listener
+     * returned by {@link #startFileAnalysis(TextFile)} for this file has
+     * already been closed. This is called at most once per file, on a
+     * single thread, before {@link #close()}.
+     *
+     * <p>The default implementation returns {@link #startFileAnalysis(TextFile)}.
+     * Listeners that expect each file to be started once, like renderers
+     * or progress reporters, should override it.
+     *
+     * @param file File to which the violations belong
+     *
+     * @return A new listener
+     *
+     * @since 7.7.0
+     */
+    @Experimental
+    default FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+        return startFileAnalysis(file);
+    }
+
     /**
      * Notify the implementation that the analysis ended, ie all files
      * have been processed. This listener won't be used after this is
@@ -133,6 +158,11 @@ public interface GlobalAnalysisListener extends AutoCloseable {
                 return FileAnalysisListener.tee(CollectionUtil.map(myList, it -> it.startFileAnalysis(file)));
             }
 
+            @Override
+            public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+                return FileAnalysisListener.tee(CollectionUtil.map(myList, it -> it.startCrossFileAnalysis(file)));
+            }
+
             @Override
             public void close() throws Exception {
                 Exception composed = IOUtil.closeAll(myList);
@@ -169,6 +199,37 @@ public interface GlobalAnalysisListener extends AutoCloseable {
         return new TeeListener(myList);
     }
 
+    /**
+     * Produce a listener that forwards the events to the given listener
+     * on a dedicated thread, so that a slow listener, like a renderer
+     * that writes to a slow disk, does not hold up the analysis threads.
+     * The events of a file are buffered until the file is done, and then
+     * queued. The analysis threads block while the queue is full.
+     *
+     * <p>The file listeners of the given listener are created when the
+     * analysis of their file is done, and are all used on the forwarding
+     * thread. Closing the returned listener waits until all queued events
+     * have been forwarded, then closes the given listener. The first
+     * exception thrown by the given listener is rethrown at that point,
+     * the events that follow it are dropped. If the forwarding thread
+     * is interrupted, it stops, the remaining events are dropped, and
+     * closing rethrows the {@link InterruptedException}.
+     *
+     * @param listener       Listener to which the events are forwarded
+     * @param maxQueuedFiles Maximum number of files whose events are queued
+     *
+     * @return An asynchronous listener
+     *
+     * @throws IllegalArgumentException If the maximum number of files is not positive
+     * @since 7.7.0
+     */
+    @Experimental
+    static GlobalAnalysisListener asynchronous(GlobalAnalysisListener listener, int maxQueuedFiles) {
+        AssertionUtil.requireParamNotNull("listener", listener);
+        AssertionUtil.requireOver1("maxQueuedFiles", maxQueuedFiles);
+        return new AsyncAnalysisListener(listener, maxQueuedFiles);
+    }
+
 
     /**
      * A listener that just counts recorded violations. The result is
@@ -22,6 +22,11 @@ final class NoopAnalysisListener implements GlobalAnalysisListener {
         return FileAnalysisListener.noop();
     }
 
+    @Override
+    public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+        return FileAnalysisListener.noop();
+    }
+
     @Override
     public void close() {
         // do nothing
@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.reporting;
 
+import static net.sourceforge.pmd.lang.document.InternalApiBridge.detachFileLocation;
+
 import java.util.Collections;
 import java.util.Map;
 
@@ -29,7 +31,8 @@ class ParametricRuleViolation implements RuleViolation {
     ParametricRuleViolation(Rule theRule, FileLocation location, String message, Map<String, String> additionalInfo) {
         this.rule = AssertionUtil.requireParamNotNull("rule", theRule);
         this.description = AssertionUtil.requireParamNotNull("message", message);
-        this.location = location;
+        // the violation may outlive the document, so don't keep its line index
+        this.location = detachFileLocation(location);
 
         if (!additionalInfo.isEmpty()) {
             this.additionalInfo = Collections.unmodifiableMap(additionalInfo);
@@ -40,7 +40,7 @@ import net.sourceforge.pmd.util.BaseResultProducingCloseable;
  *
  */
 public final class Report {
-    private final List<RuleViolation> violations = synchronizedList(new ArrayList<>());
+    private final ViolationStore violations = new ViolationStore();
     private final List<SuppressedViolation> suppressedRuleViolations = synchronizedList(new ArrayList<>());
     private final List<ProcessingError> errors = synchronizedList(new ArrayList<>());
     private final List<ConfigurationError> configErrors = synchronizedList(new ArrayList<>());
@@ -181,24 +181,26 @@ public final class Report {
     }
 
     /**
-     * Adds a new rule violation to the report and notify the listeners.
+     * Adds a new rule violation to the report.
      *
      * @param violation the violation to add
      */
     private void addRuleViolation(RuleViolation violation) {
-        synchronized (violations) {
-            // note that this binary search is inefficient as we usually
-            // report violations file by file.
-            int index = Collections.binarySearch(violations, violation, RuleViolation.DEFAULT_COMPARATOR);
-            violations.add(index < 0 ? -index - 1 : index, violation);
-        }
+        violations.add(violation);
+    }
+
+    /**
+     * Adds the violations of a file to the report at once.
+     */
+    private void addRuleViolations(List<RuleViolation> fileViolations) {
+        violations.addAll(fileViolations);
     }
 
     /**
-     * Adds a new suppressed violation.
+     * Adds the suppressed violations of a file to the report at once.
      */
-    private void addSuppressedViolation(SuppressedViolation sv) {
-        suppressedRuleViolations.add(sv);
+    private void addSuppressedViolations(List<SuppressedViolation> fileSuppressedViolations) {
+        suppressedRuleViolations.addAll(fileSuppressedViolations);
     }
 
     /**
@@ -211,12 +213,10 @@ public final class Report {
     }
 
     /**
-     * Adds a new processing error to the report.
-     *
-     * @param error the error to add
+     * Adds the processing errors of a file to the report at once.
      */
-    private void addError(ProcessingError error) {
-        errors.add(error);
+    private void addErrors(List<ProcessingError> fileErrors) {
+        errors.addAll(fileErrors);
     }
 
     /**
@@ -231,9 +231,10 @@ public final class Report {
      * recorded until now. None of those violations were suppressed.
      *
      * <p>The violations list is sorted with {@link RuleViolation#DEFAULT_COMPARATOR}.
+     * Its elements are the instances that were reported.
      */
     public List<RuleViolation> getViolations() {
-        return Collections.unmodifiableList(violations);
+        return violations.getViolations();
     }
 
 
@@ -264,11 +265,17 @@ public final class Report {
 
     /**
      * A {@link FileAnalysisListener} that accumulates events into a
-     * {@link Report}.
+     * {@link Report}. The events are added to the report when this
+     * listener is closed.
      */
     public static final class ReportBuilderListener extends BaseResultProducingCloseable<Report> implements FileAnalysisListener {
 
         private final Report report;
+        // Events are buffered and added to the report when the file
+        // is done, as the report may be shared by several threads.
+        private final List<RuleViolation> fileViolations = new ArrayList<>();
+        private final List<SuppressedViolation> fileSuppressedViolations = new ArrayList<>();
+        private final List<ProcessingError> fileErrors = new ArrayList<>();
 
         public ReportBuilderListener() {
             this(new Report());
@@ -285,17 +292,27 @@ public final class Report {
 
         @Override
         public void onRuleViolation(RuleViolation violation) {
-            report.addRuleViolation(violation);
+            fileViolations.add(violation);
         }
 
         @Override
         public void onSuppressedRuleViolation(SuppressedViolation violation) {
-            report.addSuppressedViolation(violation);
+            fileSuppressedViolations.add(violation);
         }
 
         @Override
         public void onError(ProcessingError error) {
-            report.addError(error);
+            fileErrors.add(error);
+        }
+
+        @Override
+        protected void closeImpl() {
+            report.addRuleViolations(fileViolations);
+            report.addSuppressedViolations(fileSuppressedViolations);
+            report.addErrors(fileErrors);
+            fileViolations.clear();
+            fileSuppressedViolations.clear();
+            fileErrors.clear();
         }
 
         @Override
@@ -339,7 +356,7 @@ public final class Report {
     public Report filterViolations(Predicate<RuleViolation> filter) {
         Report copy = new Report();
 
-        for (RuleViolation violation : violations) {
+        for (RuleViolation violation : getViolations()) {
             if (filter.test(violation)) {
                 copy.addRuleViolation(violation);
             }
@@ -361,12 +378,8 @@ public final class Report {
     public Report union(Report other) {
         Report copy = new Report();
 
-        for (RuleViolation violation : violations) {
-            copy.addRuleViolation(violation);
-        }
-        for (RuleViolation violation : other.violations) {
-            copy.addRuleViolation(violation);
-        }
+        copy.addRuleViolations(getViolations());
+        copy.addRuleViolations(other.getViolations());
 
         copy.suppressedRuleViolations.addAll(suppressedRuleViolations);
         copy.suppressedRuleViolations.addAll(other.suppressedRuleViolations);
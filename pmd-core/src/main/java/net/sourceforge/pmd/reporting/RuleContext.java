@@ -4,6 +4,7 @@
 
 package net.sourceforge.pmd.reporting;
 
+import static net.sourceforge.pmd.lang.rule.InternalApiBridge.asCrossFileRule;
 import static net.sourceforge.pmd.util.CollectionUtil.listOf;
 
 import java.text.MessageFormat;
@@ -15,11 +16,14 @@ import org.apache.commons.lang3.StringUtils;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import net.sourceforge.pmd.annotation.Experimental;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.document.FileLocation;
 import net.sourceforge.pmd.lang.document.TextRange2d;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.CrossFileRule;
+import net.sourceforge.pmd.lang.rule.FileSummary;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.properties.PropertyDescriptor;
 import net.sourceforge.pmd.reporting.Report.SuppressedViolation;
@@ -154,6 +158,26 @@ public final class RuleContext {
         }
     }
 
+    /**
+     * Report the summary of the current file for the contextual rule,
+     * which must be a {@link CrossFileRule}. The summary will be passed
+     * to the {@linkplain CrossFileRule#reduce(List, java.util.function.Consumer) reduce step}
+     * of the rule, and should not be modified afterwards.
+     *
+     * @param summary Summary of the current file
+     *
+     * @throws IllegalStateException If the rule is not a {@link CrossFileRule}
+     * @since 7.7.0
+     */
+    @Experimental
+    public void reportSummary(FileSummary summary) {
+        Objects.requireNonNull(summary, "Summary was null");
+        if (asCrossFileRule(rule) == null) {
+            throw new IllegalStateException("Rule " + rule.getName() + " is not a cross-file rule");
+        }
+        listener.onFileSummary(rule, summary);
+    }
+
     private static @Nullable SuppressedViolation suppressOrNull(Node location, RuleViolation rv, LanguageVersionHandler handler) {
         SuppressedViolation suppressed = ViolationSuppressor.suppressOrNull(handler.getExtraViolationSuppressors(), rv, location);
         if (suppressed == null) {
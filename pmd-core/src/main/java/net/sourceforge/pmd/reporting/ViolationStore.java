@@ -0,0 +1,70 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Storage for the violations of a {@link Report}. The reported
+ * instances are kept as they are, so that the report returns the
+ * same instances, with their own class.
+ *
+ * <p>Violations are appended in any order, usually file by file. They
+ * are only sorted with {@link RuleViolation#DEFAULT_COMPARATOR} when
+ * the list of violations is requested, instead of being inserted at
+ * their sorted position under the lock. As the violations of a file
+ * are mostly reported in order, the sort mostly merges sorted runs.
+ * This class is thread-safe.
+ */
+final class ViolationStore {
+
+    private RuleViolation[] violations = new RuleViolation[16];
+    private int size;
+
+    /** Sorted snapshot of the violations, reset when a violation is added. */
+    private List<RuleViolation> snapshot;
+
+    synchronized void add(RuleViolation violation) {
+        ensureCapacity(size + 1);
+        violations[size++] = violation;
+        snapshot = null;
+    }
+
+    synchronized void addAll(Collection<? extends RuleViolation> newViolations) {
+        ensureCapacity(size + newViolations.size());
+        for (RuleViolation violation : newViolations) {
+            violations[size++] = violation;
+        }
+        snapshot = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > violations.length) {
+            violations = Arrays.copyOf(violations, Math.max(capacity, violations.length * 2));
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns an unmodifiable list of the violations added until now,
+     * sorted with {@link RuleViolation#DEFAULT_COMPARATOR}. The list
+     * does not reflect violations added later.
+     */
+    synchronized List<RuleViolation> getViolations() {
+        if (snapshot == null) {
+            RuleViolation[] sorted = Arrays.copyOf(violations, size);
+            // stable, and linear on runs that are already sorted
+            Arrays.sort(sorted, RuleViolation.DEFAULT_COMPARATOR);
+            snapshot = Collections.unmodifiableList(Arrays.asList(sorted));
+        }
+        return snapshot;
+    }
+}
@@ -122,6 +122,48 @@ public final class DataMap<K> {
         return map != null && map.containsKey(key);
     }
 
+    /**
+     * Returns true if no key is set in this map.
+     *
+     * @since 7.7.0
+     */
+    public boolean isEmpty() {
+        return map == null || map.isEmpty();
+    }
+
+    /**
+     * Removes all mappings.
+     *
+     * @since 7.7.0
+     */
+    public void clear() {
+        map = null;
+    }
+
+    /**
+     * Sets all the mappings of the other map in this map.
+     *
+     * @param other Other map
+     *
+     * @since 7.7.0
+     */
+    public void putAll(DataMap<K> other) {
+        if (!other.isEmpty()) {
+            getMap().putAll(other.map);
+        }
+    }
+
+    /**
+     * Returns a new map with the same mappings. The values are not copied.
+     *
+     * @since 7.7.0
+     */
+    public DataMap<K> copy() {
+        DataMap<K> copy = newDataMap();
+        copy.putAll(this);
+        return copy;
+    }
+
     public static <K> DataMap<K> newDataMap() {
         return new DataMap<>();
     }
@@ -0,0 +1,108 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.Dummy2LanguageModule;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.SimpleTestTextFile;
+import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.RuleSet;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+class AnalysisSessionTest {
+
+    private static final SimpleDataKey<Boolean> VISITED = DataMap.simpleDataKey("test.visited");
+
+    private final LanguageVersion dummy2 = Dummy2LanguageModule.getInstance().getDefaultVersion();
+
+    private static PMDConfiguration newConfig() {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setIgnoreIncrementalAnalysis(true);
+        return config;
+    }
+
+    private int analyze(AnalysisSession session, String contents) {
+        try (PmdAnalysis pmd = session.newPmdAnalysis(newConfig())) {
+            pmd.addRuleSet(RuleSet.forSingleRule(new TestRule()));
+            pmd.files().addFile(new SimpleTestTextFile(contents, FileId.fromPathLikeString("a.txt"), dummy2));
+            Report report = pmd.performAnalysisAndCollectReport();
+            assertEquals(0, report.getProcessingErrors().size());
+            return report.getViolations().size();
+        }
+    }
+
+    @Test
+    void testParsedFilesAreShared() {
+        try (AnalysisSession session = AnalysisSession.create(newConfig())) {
+            assertEquals(1, analyze(session, "foo"));
+            assertEquals(1, analyze(session, "foo"));
+            assertEquals(1, session.getAstCache().getMisses());
+            assertEquals(1, session.getAstCache().getHits());
+        }
+    }
+
+    @Test
+    void testChangedFileIsParsedAgain() {
+        try (AnalysisSession session = AnalysisSession.create(newConfig())) {
+            assertEquals(1, analyze(session, "foo"));
+            assertEquals(1, analyze(session, "bar"));
+            assertEquals(2, session.getAstCache().getMisses());
+            assertEquals(0, session.getAstCache().getHits());
+        }
+    }
+
+    @Test
+    void testCacheCanBeDisabled() {
+        try (AnalysisSession session = AnalysisSession.create(newConfig(), 0)) {
+            assertEquals(1, analyze(session, "foo"));
+            assertEquals(1, analyze(session, "foo"));
+            assertEquals(0, session.getAstCache().size());
+            assertEquals(0, session.getAstCache().getHits());
+        }
+    }
+
+    @Test
+    void testRuleDataIsNotSharedBetweenAnalyses() {
+        try (AnalysisSession session = AnalysisSession.create(newConfig())) {
+            assertEquals(1, analyze(session, "foo"));
+            assertEquals(1, analyze(session, "foo"));
+            assertEquals(1, session.getAstCache().getHits());
+        }
+    }
+
+    @Test
+    void testClosedSession() {
+        AnalysisSession session = AnalysisSession.create(newConfig());
+        session.close();
+        assertThrows(IllegalStateException.class, () -> session.newPmdAnalysis(newConfig()));
+    }
+
+    public static class TestRule extends AbstractRule {
+        public TestRule() {
+            setLanguage(Dummy2LanguageModule.getInstance());
+            setMessage("dummy 2 test rule");
+        }
+
+        @Override
+        public void apply(Node node, RuleContext ctx) {
+            // a cached AST does not keep the data of the previous analysis
+            if (node.getUserMap().isSet(VISITED)) {
+                throw new IllegalStateException("Node already visited");
+            }
+            node.getUserMap().set(VISITED, true);
+            ctx.addViolation(node);
+        }
+    }
+}
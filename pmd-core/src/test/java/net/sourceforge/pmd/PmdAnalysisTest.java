@@ -7,6 +7,7 @@ package net.sourceforge.pmd;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -17,6 +18,14 @@ import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -29,13 +38,20 @@ import net.sourceforge.pmd.lang.LanguageProcessor;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.document.SimpleTestTextFile;
+import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.AbstractRule;
+import net.sourceforge.pmd.lang.rule.CrossFileRule;
+import net.sourceforge.pmd.lang.rule.FileSummary;
 import net.sourceforge.pmd.lang.rule.MockRule;
+import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.RuleSet;
 import net.sourceforge.pmd.renderers.Renderer;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
 import net.sourceforge.pmd.reporting.Report;
 import net.sourceforge.pmd.reporting.ReportStats;
 import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.reporting.RuleViolation;
 import net.sourceforge.pmd.util.log.PmdReporter;
 
 /**
@@ -170,6 +186,121 @@ class PmdAnalysisTest {
         }
     }
 
+    @Test
+    void testCrossFileRule() {
+        final Language language = Dummy2LanguageModule.getInstance();
+        PMDConfiguration config = new PMDConfiguration();
+        config.setIgnoreIncrementalAnalysis(true);
+        RuleSet ruleset = RuleSet.forSingleRule(new TestCrossFileRule());
+
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(ruleset);
+            pmd.files().addFile(new SimpleTestTextFile("foo", FileId.fromPathLikeString("a.txt"), language.getDefaultVersion()));
+            pmd.files().addFile(new SimpleTestTextFile("bar", FileId.fromPathLikeString("b.txt"), language.getDefaultVersion()));
+            pmd.files().addFile(new SimpleTestTextFile("foo", FileId.fromPathLikeString("c.txt"), language.getDefaultVersion()));
+            Report report = pmd.performAnalysisAndCollectReport();
+            assertEquals(0, report.getProcessingErrors().size());
+            // "foo" is in two files
+            assertThat(report.getViolations(), hasSize(2));
+            for (RuleViolation violation : report.getViolations()) {
+                assertEquals("duplicate contents foo", violation.getDescription());
+            }
+        }
+    }
+
+    @Test
+    void testCrossFileViolationsDoNotRestartFiles() {
+        final Language language = Dummy2LanguageModule.getInstance();
+        PMDConfiguration config = new PMDConfiguration();
+        config.setIgnoreIncrementalAnalysis(true);
+        Map<FileId, Integer> started = new ConcurrentHashMap<>();
+        Map<FileId, Integer> crossFileStarted = new ConcurrentHashMap<>();
+
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(RuleSet.forSingleRule(new TestCrossFileRule()));
+            pmd.addListener(new GlobalAnalysisListener() {
+                @Override
+                public FileAnalysisListener startFileAnalysis(TextFile file) {
+                    started.merge(file.getFileId(), 1, Integer::sum);
+                    return FileAnalysisListener.noop();
+                }
+
+                @Override
+                public FileAnalysisListener startCrossFileAnalysis(TextFile file) {
+                    crossFileStarted.merge(file.getFileId(), 1, Integer::sum);
+                    return FileAnalysisListener.noop();
+                }
+
+                @Override
+                public void close() {
+                    // nothing to do
+                }
+            });
+            pmd.files().addFile(new SimpleTestTextFile("foo", FileId.fromPathLikeString("a.txt"), language.getDefaultVersion()));
+            pmd.files().addFile(new SimpleTestTextFile("bar", FileId.fromPathLikeString("b.txt"), language.getDefaultVersion()));
+            pmd.files().addFile(new SimpleTestTextFile("foo", FileId.fromPathLikeString("c.txt"), language.getDefaultVersion()));
+            pmd.performAnalysis();
+        }
+
+        assertEquals(3, started.size());
+        assertThat(started.values(), everyItem(equalTo(1)));
+        assertEquals(2, crossFileStarted.size());
+        assertThat(crossFileStarted.values(), everyItem(equalTo(1)));
+    }
+
+    @Test
+    void testSuppressedCrossFileViolation() {
+        final Language language = Dummy2LanguageModule.getInstance();
+        PMDConfiguration config = new PMDConfiguration();
+        config.setIgnoreIncrementalAnalysis(true);
+        TestCrossFileRule rule = new TestCrossFileRule();
+        rule.setProperty(Rule.VIOLATION_SUPPRESS_REGEX_DESCRIPTOR, Optional.of(Pattern.compile(".*bar")));
+
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(RuleSet.forSingleRule(rule));
+            pmd.files().addFile(new SimpleTestTextFile("foo", FileId.fromPathLikeString("a.txt"), language.getDefaultVersion()));
+            pmd.files().addFile(new SimpleTestTextFile("bar", FileId.fromPathLikeString("b.txt"), language.getDefaultVersion()));
+            pmd.files().addFile(new SimpleTestTextFile("foo", FileId.fromPathLikeString("c.txt"), language.getDefaultVersion()));
+            pmd.files().addFile(new SimpleTestTextFile("bar", FileId.fromPathLikeString("d.txt"), language.getDefaultVersion()));
+            Report report = pmd.performAnalysisAndCollectReport();
+            assertThat(report.getViolations(), hasSize(2));
+            assertThat(report.getSuppressedViolations(), hasSize(2));
+            for (Report.SuppressedViolation violation : report.getSuppressedViolations()) {
+                assertEquals("duplicate contents bar", violation.getRuleViolation().getDescription());
+            }
+        }
+    }
+
+    private static class TestCrossFileRule extends AbstractRule implements CrossFileRule {
+        TestCrossFileRule() {
+            setLanguage(Dummy2LanguageModule.getInstance());
+            setMessage("duplicate contents {0}");
+        }
+
+        @Override
+        public void apply(Node node, RuleContext ctx) {
+            String contents = node.getTextDocument().getText().toString();
+            FileSummary summary = new FileSummary();
+            summary.addFact("contents", contents);
+            summary.deferViolation(contents, ctx, node, contents);
+            ctx.reportSummary(summary);
+        }
+
+        @Override
+        public void reduce(List<FileSummary> summaries, Consumer<? super RuleViolation> reporter) {
+            Map<String, List<RuleViolation>> byContents = new HashMap<>();
+            for (FileSummary summary : summaries) {
+                summary.getDeferredViolations().forEach(
+                    (contents, violations) -> byContents.computeIfAbsent(contents, k -> new ArrayList<>()).addAll(violations));
+            }
+            for (List<RuleViolation> violations : byContents.values()) {
+                if (violations.size() > 1) {
+                    violations.forEach(reporter);
+                }
+            }
+        }
+    }
+
     private static class TestRule extends AbstractRule {
         TestRule() {
             setLanguage(Dummy2LanguageModule.getInstance());
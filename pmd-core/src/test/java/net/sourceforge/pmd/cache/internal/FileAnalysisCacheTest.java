@@ -10,21 +10,27 @@ import static net.sourceforge.pmd.util.CollectionUtil.setOf;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.zip.ZipEntry;
@@ -35,7 +41,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
+import net.sourceforge.pmd.PMDVersion;
 import net.sourceforge.pmd.PmdCoreTestUtils;
+import net.sourceforge.pmd.internal.SystemProps;
 import net.sourceforge.pmd.lang.Language;
 import net.sourceforge.pmd.lang.LanguageVersion;
 import net.sourceforge.pmd.lang.document.FileId;
@@ -44,6 +52,7 @@ import net.sourceforge.pmd.lang.document.TextDocument;
 import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.document.TextFileContent;
 import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.FileSummary;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.internal.RuleSets;
 import net.sourceforge.pmd.reporting.FileAnalysisListener;
@@ -137,7 +146,7 @@ class FileAnalysisCacheTest {
         assertTrue(reloadedCache.isUpToDate(sourceFile),
                 "Cache believes unmodified file with violations is not up to date");
 
-        final List<RuleViolation> cachedViolations = reloadedCache.getCachedViolations(sourceFile);
+        final List<RuleViolation> cachedViolations = reloadedCache.getCachedViolations(sourceFile.getFileId());
         assertEquals(1, cachedViolations.size(), "Cached rule violations count mismatch");
         final RuleViolation cachedViolation = cachedViolations.get(0);
         assertSame(sourceFile.getFileId(), cachedViolation.getFileId());
@@ -173,10 +182,63 @@ class FileAnalysisCacheTest {
         assertFalse(reloadedCache.isUpToDate(sourceFile),
                 "Cache believes file is up to date although processing errors happened earlier");
 
-        final List<RuleViolation> cachedViolations = reloadedCache.getCachedViolations(sourceFile);
+        final List<RuleViolation> cachedViolations = reloadedCache.getCachedViolations(sourceFile.getFileId());
         assertTrue(cachedViolations.isEmpty(), "There should be no cached rule violations");
     }
 
+    @Test
+    void testStorePersistsFileSummaries() throws IOException {
+        final Rule rule = mock(Rule.class, Mockito.RETURNS_SMART_NULLS);
+        final Language language = mock(Language.class);
+        when(language.getId()).thenReturn("dummy");
+        when(rule.getLanguage()).thenReturn(language);
+        when(rule.getRuleClass()).thenReturn("CrossFile");
+        when(rule.getName()).thenReturn("CrossFile");
+        final RuleSets rs = mock(RuleSets.class);
+        when(rs.getAllRules()).thenReturn(setOf(rule));
+
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.checkValidity(rs, mock(ClassLoader.class), setOf(sourceFileBackend));
+        final FileAnalysisListener cacheListener = cache.startFileAnalysis(sourceFile);
+        cache.isUpToDate(sourceFile);
+
+        final FileSummary summary = new FileSummary();
+        summary.addFact("uses", "a");
+        summary.addFact("uses", "b");
+        net.sourceforge.pmd.lang.rule.InternalApiBridge.addDeferredViolation(
+            summary, "key",
+            InternalApiBridge.createRuleViolation(rule, FileLocation.range(sourceFile.getFileId(), TextRange2d.range2d(1, 2, 3, 4)),
+                                                  "message", Collections.emptyMap()));
+        cacheListener.onFileSummary(rule, summary);
+        cache.persist();
+
+        final FileAnalysisCache reloadedCache = new FileAnalysisCache(newCacheFile);
+        reloadedCache.checkValidity(rs, mock(ClassLoader.class), setOf(sourceFileBackend));
+        assertTrue(reloadedCache.isUpToDate(sourceFile));
+
+        final List<FileSummary> cachedSummaries = new ArrayList<>();
+        reloadedCache.reportCachedSummaries(sourceFile.getFileId(), new FileAnalysisListener() {
+            @Override
+            public void onRuleViolation(RuleViolation violation) {
+                fail("Unexpected violation");
+            }
+
+            @Override
+            public void onFileSummary(Rule summaryRule, FileSummary fileSummary) {
+                assertSame(rule, summaryRule);
+                cachedSummaries.add(fileSummary);
+            }
+        });
+
+        assertEquals(1, cachedSummaries.size());
+        final FileSummary cachedSummary = cachedSummaries.get(0);
+        assertEquals(setOf("a", "b"), cachedSummary.getFacts("uses"));
+        assertEquals(setOf("key"), cachedSummary.getDeferredViolations().keySet());
+        final RuleViolation cachedViolation = cachedSummary.getDeferredViolations().get("key").get(0);
+        assertEquals("message", cachedViolation.getDescription());
+        assertEquals(3, cachedViolation.getEndLine());
+    }
+
     @Test
     void testDisplayNameIsRespected() throws Exception {
         // This checks that the display name of the file is respected even if
@@ -217,7 +279,7 @@ class FileAnalysisCacheTest {
         try (TextDocument doc1 = TextDocument.create(mockFile)) {
             assertTrue(reloadedCache.isUpToDate(doc1),
                        "Cache believes unmodified file with violations is not up to date");
-            List<RuleViolation> cachedViolations = reloadedCache.getCachedViolations(doc1);
+            List<RuleViolation> cachedViolations = reloadedCache.getCachedViolations(doc1.getFileId());
             assertEquals(1, cachedViolations.size(), "Cached rule violations count mismatch");
             final RuleViolation cachedViolation = cachedViolations.get(0);
             assertEquals(mockFile.getFileId(), cachedViolation.getLocation().getFileId());
@@ -469,6 +531,39 @@ class FileAnalysisCacheTest {
                 "Cache believes a known, unchanged file is not up to date");
     }
 
+    @Test
+    void testCacheWithOtherFormatVersionIsDiscarded() throws IOException {
+        setupCacheWithFiles(newCacheFile, mock(RuleSets.class), mock(ClassLoader.class));
+
+        // same PMD version, other format version (written right after the PMD version)
+        final byte[] contents = Files.readAllBytes(newCacheFile.toPath());
+        final int formatVersionOffset = 2 + PMDVersion.VERSION.getBytes(StandardCharsets.UTF_8).length;
+        ByteBuffer.wrap(contents).putInt(formatVersionOffset, FileAnalysisCache.CACHE_FORMAT_VERSION + 1);
+        Files.write(newCacheFile.toPath(), contents);
+
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.checkValidity(mock(RuleSets.class), mock(ClassLoader.class), setOf(sourceFileBackend));
+        assertFalse(cache.isUpToDate(sourceFile),
+                "Cache with another format version was used");
+    }
+
+    @Test
+    void testTruncatedCacheIsDiscarded() throws IOException {
+        setupCacheWithFiles(newCacheFile, mock(RuleSets.class), mock(ClassLoader.class));
+
+        // a complete entry for Source.java followed by a truncated entry
+        try (DataOutputStream out = new DataOutputStream(
+            Files.newOutputStream(newCacheFile.toPath(), StandardOpenOption.APPEND))) {
+            out.writeUTF(tempFolder.resolve("Other.java").toUri().toString());
+            out.writeLong(0L);
+        }
+
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.checkValidity(mock(RuleSets.class), mock(ClassLoader.class), setOf(sourceFileBackend));
+        assertFalse(cache.isUpToDate(sourceFile),
+                "Entries of a truncated cache file were used");
+    }
+
     @Test
     void testFileIsNotUpToDateWhenEdited() throws IOException {
         setupCacheWithFiles(newCacheFile, mock(RuleSets.class), mock(ClassLoader.class));
@@ -484,6 +579,69 @@ class FileAnalysisCacheTest {
                 "Cache believes a known, changed file is up to date");
     }
 
+    @Test
+    void testFileIsUnchanged() throws IOException {
+        setupCacheWithFiles(newCacheFile, mock(RuleSets.class), mock(ClassLoader.class));
+
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.checkValidity(mock(RuleSets.class), mock(ClassLoader.class), setOf(sourceFileBackend));
+        assertNull(cache.checkUnchanged(sourceFileBackend),
+                "Cache believes a known, unchanged file has changed");
+    }
+
+    @Test
+    void testFileIsNotUnchangedWhenEdited() throws IOException {
+        setupCacheWithFiles(newCacheFile, mock(RuleSets.class), mock(ClassLoader.class));
+
+        // same size, other contents
+        Files.write(tempFolder.resolve("Source.java"), listOf("dummy texT"));
+
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.checkValidity(mock(RuleSets.class), mock(ClassLoader.class), setOf(sourceFileBackend));
+        final TextFile changedFile = cache.checkUnchanged(sourceFileBackend);
+        assertNotNull(changedFile, "Cache believes a known, changed file is unchanged");
+
+        // the contents that were read for the check are not read again
+        Files.delete(tempFolder.resolve("Source.java"));
+        assertEquals("dummy texT", changedFile.readContents().getNormalizedText().toString().trim());
+    }
+
+    @Test
+    void testUnknownFileIsNotUnchanged() throws IOException {
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        assertSame(sourceFileBackend, cache.checkUnchanged(sourceFileBackend),
+                "Cache believes an unknown file is unchanged");
+    }
+
+    @Test
+    void testModificationTimeIsOnlyTrustedIfEnabled() throws Exception {
+        final Path path = tempFolder.resolve("Source.java");
+        final FileTime lastModified = FileTime.fromMillis(System.currentTimeMillis() - 60_000);
+        Files.setLastModifiedTime(path, lastModified);
+        setupCacheWithFiles(newCacheFile, mock(RuleSets.class), mock(ClassLoader.class));
+
+        // a first unchanged check records the size and modification time
+        final FileAnalysisCache cache = new FileAnalysisCache(newCacheFile);
+        cache.checkValidity(mock(RuleSets.class), mock(ClassLoader.class), setOf(sourceFileBackend));
+        assertNull(cache.checkUnchanged(sourceFileBackend));
+        cache.persist();
+
+        // edit the file without changing its size or modification time
+        Files.write(path, listOf("dummy texT"));
+        Files.setLastModifiedTime(path, lastModified);
+
+        restoreSystemProperties(() -> {
+            final FileAnalysisCache reloadedCache = new FileAnalysisCache(newCacheFile);
+            reloadedCache.checkValidity(mock(RuleSets.class), mock(ClassLoader.class), setOf(sourceFileBackend));
+            assertNotNull(reloadedCache.checkUnchanged(sourceFileBackend),
+                    "Cache trusts modification times by default");
+
+            System.setProperty(SystemProps.PMD_CACHE_TRUST_MTIME, "true");
+            assertNull(reloadedCache.checkUnchanged(sourceFileBackend),
+                    "Cache does not trust modification times if enabled");
+        });
+    }
+
     private void setupCacheWithFiles(final File cacheFile,
                                      final RuleSets ruleSets,
                                      final ClassLoader classLoader) throws IOException {
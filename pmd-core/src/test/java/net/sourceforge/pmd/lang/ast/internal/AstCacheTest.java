@@ -0,0 +1,128 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.ast.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import net.sourceforge.pmd.DummyParsingHelper;
+import net.sourceforge.pmd.lang.ast.DummyNode.DummyRootNode;
+import net.sourceforge.pmd.lang.ast.Node;
+import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.ast.SemanticException;
+import net.sourceforge.pmd.lang.document.TextDocument;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+class AstCacheTest {
+
+    private static final SimpleDataKey<String> PROCESSING_KEY = DataMap.simpleDataKey("test.processing");
+    private static final SimpleDataKey<String> RULE_KEY = DataMap.simpleDataKey("test.rule");
+
+    @RegisterExtension
+    private final DummyParsingHelper helper = new DummyParsingHelper();
+
+    @Test
+    void testRuleDataIsClearedOnReuse() {
+        AstCache cache = new AstCache(Long.MAX_VALUE);
+        DummyRootNode root = helper.parse("(a(b))", "a.txt");
+        Node b = root.descendants().last();
+        b.getUserMap().set(PROCESSING_KEY, "processing");
+        cache.put(root.getTextDocument(), root, new AstCache.RecordingReporter(SemanticErrorReporter.noop()));
+
+        // a rule stores data on the nodes
+        root.getUserMap().set(RULE_KEY, "rule");
+        b.getUserMap().set(RULE_KEY, "rule");
+        b.getUserMap().set(PROCESSING_KEY, "overwritten");
+
+        assertSame(root, cache.get(root.getTextDocument(), SemanticErrorReporter.noop()));
+        assertTrue(root.getUserMap().isEmpty());
+        assertFalse(b.getUserMap().isSet(RULE_KEY));
+        assertEquals("processing", b.getUserMap().get(PROCESSING_KEY));
+    }
+
+    @Test
+    void testWarningsAreReportedAgain() {
+        AstCache cache = new AstCache(Long.MAX_VALUE);
+        DummyRootNode root = helper.parse("(a)", "a.txt");
+        AstCache.RecordingReporter recorder = new AstCache.RecordingReporter(SemanticErrorReporter.noop());
+        recorder.warning(root, "warning {0}", 1);
+        cache.put(root.getTextDocument(), root, recorder);
+
+        List<String> warnings = new ArrayList<>();
+        assertSame(root, cache.get(root.getTextDocument(), collectWarnings(warnings)));
+        assertEquals(1, warnings.size());
+        assertEquals("warning {0} [1]", warnings.get(0));
+    }
+
+    @Test
+    void testBoundIsEstimatedFromNodes() {
+        DummyRootNode root = helper.parse("(a(b)(c))", "a.txt");
+        long size = AstCache.estimatedBytes(root.getTextDocument().getLength(), 4);
+
+        AstCache cache = new AstCache(size);
+        cache.put(root.getTextDocument(), root, new AstCache.RecordingReporter(SemanticErrorReporter.noop()));
+        assertEquals(1, cache.size());
+        assertEquals(size, cache.getCachedBytes());
+
+        AstCache smallCache = new AstCache(size - 1);
+        smallCache.put(root.getTextDocument(), root, new AstCache.RecordingReporter(SemanticErrorReporter.noop()));
+        assertEquals(0, smallCache.size());
+    }
+
+    @Test
+    void testEvictionReleasesMemory() throws InterruptedException {
+        DummyRootNode first = helper.parse("(a(b))", "a.txt");
+        DummyRootNode second = helper.parse("(c(d))", "b.txt");
+        TextDocument firstDoc = first.getTextDocument();
+        AstCache cache = new AstCache(AstCache.estimatedBytes(firstDoc.getLength(), 3));
+
+        cache.put(firstDoc, first, new AstCache.RecordingReporter(SemanticErrorReporter.noop()));
+        WeakReference<DummyRootNode> firstRef = new WeakReference<>(first);
+        first = null; // NOPMD only the cache references the AST now
+        cache.put(second.getTextDocument(), second, new AstCache.RecordingReporter(SemanticErrorReporter.noop()));
+
+        assertEquals(1, cache.size());
+        assertEquals(AstCache.estimatedBytes(second.getTextDocument().getLength(), 3), cache.getCachedBytes());
+        for (int i = 0; i < 50 && firstRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(firstRef.get(), "The evicted AST should be garbage collected");
+        assertNull(cache.get(firstDoc, SemanticErrorReporter.noop()));
+    }
+
+    private static SemanticErrorReporter collectWarnings(List<String> warnings) {
+        SemanticErrorReporter noop = SemanticErrorReporter.noop();
+        return new SemanticErrorReporter() {
+            @Override
+            public void warning(Node location, String message, Object... formatArgs) {
+                warnings.add(message + " " + Arrays.toString(formatArgs));
+            }
+
+            @Override
+            public SemanticException error(Node location, String message, Object... formatArgs) {
+                return noop.error(location, message, formatArgs);
+            }
+
+            @Override
+            public @Nullable SemanticException getFirstError() {
+                return noop.getFirstError();
+            }
+        };
+    }
+}
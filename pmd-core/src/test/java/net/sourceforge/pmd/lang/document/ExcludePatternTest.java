@@ -0,0 +1,65 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.document;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class ExcludePatternTest {
+
+    @Test
+    void testNameMatchesAtAnyDepth() {
+        ExcludePattern pattern = ExcludePattern.compile("*.generated.java");
+        assertTrue(pattern.matches("Foo.generated.java", false));
+        assertTrue(pattern.matches("a/b/Foo.generated.java", false));
+        assertFalse(pattern.matches("a/Foo.java", false));
+        assertFalse(pattern.matches("Foo.generated.java/Bar.java", false));
+    }
+
+    @Test
+    void testPathIsAnchored() {
+        ExcludePattern pattern = ExcludePattern.compile("src/*/gen");
+        assertTrue(pattern.matches("src/main/gen", true));
+        assertFalse(pattern.matches("src/main/java/gen", true));
+        assertFalse(pattern.matches("x/src/main/gen", true));
+
+        assertTrue(ExcludePattern.compile("/gen").matches("gen", true));
+        assertFalse(ExcludePattern.compile("/gen").matches("a/gen", true));
+    }
+
+    @Test
+    void testDoubleStar() {
+        ExcludePattern pattern = ExcludePattern.compile("src/**/gen/**");
+        assertTrue(pattern.matches("src/gen/Foo.java", false));
+        assertTrue(pattern.matches("src/a/b/gen/c/Foo.java", false));
+        assertFalse(pattern.matches("src/gen", true));
+    }
+
+    @Test
+    void testDirectoryOnly() {
+        ExcludePattern pattern = ExcludePattern.compile("target/");
+        assertTrue(pattern.isDirectoryOnly());
+        assertTrue(pattern.matches("a/target", true));
+        assertFalse(pattern.matches("a/target", false));
+    }
+
+    @Test
+    void testCharacterSets() {
+        ExcludePattern pattern = ExcludePattern.compile("Foo[0-9].java");
+        assertTrue(pattern.matches("Foo1.java", false));
+        assertFalse(pattern.matches("Foox.java", false));
+        assertTrue(ExcludePattern.compile("Foo[!0-9].java").matches("Foox.java", false));
+        assertTrue(ExcludePattern.compile("Fo?.java").matches("Fox.java", false));
+    }
+
+    @Test
+    void testInvalidPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> ExcludePattern.compile(" "));
+        assertThrows(IllegalArgumentException.class, () -> ExcludePattern.compile("!Foo.java"));
+    }
+}
@@ -101,6 +101,123 @@ class FileCollectorTest {
         assertCollected(collector, listOf(FileId.fromPath(foo), FileId.fromPath(bar)));
     }
 
+    @Test
+    void testAddDirectoryWithOneWalkerThread() throws IOException {
+        Path root = tempFolder;
+        Path foo = newFile(root, "src/foo.dummy");
+        Path bar = newFile(root, "src/x/bar.dummy");
+        Path baz = newFile(root, "src/x/y/z/baz.dummy");
+
+        FileCollector collector = newCollector();
+        InternalApiBridge.setWalkerThreads(collector, 1);
+
+        collector.addDirectory(root.resolve("src"));
+
+        assertCollected(collector, listOf(FileId.fromPath(foo), FileId.fromPath(bar), FileId.fromPath(baz)));
+    }
+
+    @Test
+    void testAddDirectoryNonRecursive() throws IOException {
+        Path root = tempFolder;
+        Path foo = newFile(root, "src/foo.dummy");
+        newFile(root, "src/x/bar.dummy");
+
+        FileCollector collector = newCollector();
+
+        collector.addDirectory(root.resolve("src"), false);
+
+        assertCollected(collector, listOf(FileId.fromPath(foo)));
+    }
+
+    @Test
+    void testAddDirectoryWithExcludedPath() throws IOException {
+        Path root = tempFolder;
+        Path foo = newFile(root, "src/foo.dummy");
+        newFile(root, "src/x/bar.dummy");
+        Path baz = newFile(root, "src/y/baz.dummy");
+        newFile(root, "src/y/qux.dummy");
+
+        FileCollector collector = newCollector();
+        collector.excludePath(root.resolve("src/x"));
+        collector.excludePath(root.resolve("src/./y/qux.dummy"));
+
+        collector.addDirectory(root.resolve("src"));
+
+        assertCollected(collector, listOf(FileId.fromPath(foo), FileId.fromPath(baz)));
+    }
+
+    @Test
+    void testAddDirectoryInsideExcludedPath() throws IOException {
+        Path root = tempFolder;
+        newFile(root, "src/x/bar.dummy");
+
+        FileCollector collector = newCollector();
+        collector.excludePath(root.resolve("src"));
+
+        assertFalse(collector.addDirectory(root.resolve("src/x")));
+
+        assertThat(collector.getCollectedFiles(), hasSize(0));
+        assertNoErrors(collector);
+    }
+
+    @Test
+    void testFileListEntryInsideExcludedPath() throws IOException {
+        Path root = tempFolder;
+        Path foo = newFile(root, "src/foo.dummy");
+        Path bar = newFile(root, "src/x/bar.dummy");
+        Path fileList = root.resolve("filelist.txt");
+        Files.write(fileList, listOf(foo.toString() + "," + bar.toString()));
+
+        FileCollector collector = newCollector();
+        collector.excludePath(root.resolve("src/x"));
+
+        collectFileList(collector, fileList);
+
+        assertCollected(collector, listOf(FileId.fromPath(foo)));
+        assertNoErrors(collector);
+    }
+
+    @Test
+    void testAddDirectoryWithExcludePatterns() throws IOException {
+        Path root = tempFolder;
+        Path foo = newFile(root, "src/foo.dummy");
+        newFile(root, "src/target/foo.dummy");
+        newFile(root, "src/x/target/bar.dummy");
+        newFile(root, "src/x/Bar.generated.dummy");
+        Path bar = newFile(root, "src/x/bar.dummy");
+        newFile(root, "src/x/y/baz.dummy");
+        // not a directory
+        Path target = newFile(root, "src/y/target");
+        Path baz = newFile(root, "src/y/baz.dummy");
+
+        FileCollector collector = newCollector(DummyLanguageModule.getInstance().getDefaultVersion());
+        collector.excludePattern("target/");
+        collector.excludePattern("*.generated.dummy");
+        collector.excludePattern("x/y/**");
+
+        collector.addDirectory(root.resolve("src"));
+
+        assertCollected(collector, listOf(FileId.fromPath(foo), FileId.fromPath(bar), FileId.fromPath(baz), FileId.fromPath(target)));
+    }
+
+    @Test
+    void testAddDirectoryFiles() throws IOException {
+        Path root = tempFolder;
+        Path foo = newFile(root, "src/foo.dummy");
+        newFile(root, "src/bar.dummy");
+        Path baz = newFile(root, "src/x/baz.dummy");
+        Path excluded = newFile(root, "src/target/foo.dummy");
+        Path outside = newFile(root, "other/foo.dummy");
+
+        FileCollector collector = newCollector();
+        collector.excludePattern("target/");
+
+        collector.addDirectoryFiles(root.resolve("src"), listOf(foo.toRealPath(), baz.toRealPath(),
+                                                                excluded.toRealPath(), outside.toRealPath()));
+
+        assertCollected(collector, listOf(FileId.fromPath(foo), FileId.fromPath(baz)));
+    }
+
     @Test
     void testGetApplicableFiles() {
         FileCollector collector = newCollector();
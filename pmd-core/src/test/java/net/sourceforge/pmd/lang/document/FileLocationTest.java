@@ -7,9 +7,12 @@ package net.sourceforge.pmd.lang.document;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import org.junit.jupiter.api.Test;
 
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+
 /**
  * @author Clément Fournier
  */
@@ -50,4 +53,22 @@ class FileLocationTest {
         assertThat(loc.toString(), containsString("!debug only!"));
     }
 
+    @Test
+    void testLazyLocation() {
+        TextDocument doc = TextDocument.readOnlyString("class Foo {\n  int bar;\n}\n", FNAME,
+                                                       DummyLanguageModule.getInstance().getDefaultVersion());
+        TextRegion region = TextRegion.fromOffsetLength("class Foo {\n  ".length(), "int bar;\n}".length());
+        FileLocation loc = doc.toLocation(region);
+        assertEquals(2, loc.getStartLine());
+        assertEquals(3, loc.getEndLine());
+        assertEquals(3, loc.getStartColumn());
+        assertEquals(2, loc.getEndColumn());
+        assertSame(region, loc.getRegionInFile());
+
+        FileLocation detached = loc.detach();
+        assertEquals(loc.toRange2d(), detached.toRange2d());
+        assertSame(region, detached.getRegionInFile());
+        assertSame(detached, detached.detach());
+    }
+
 }
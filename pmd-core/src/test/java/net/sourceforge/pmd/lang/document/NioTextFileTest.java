@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.FileOutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.zip.ZipEntry;
@@ -18,12 +19,31 @@ import org.junit.jupiter.api.io.TempDir;
 
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageVersion;
 
 class NioTextFileTest {
 
     @TempDir
     private Path tempDir;
 
+    @Test
+    void checksumOfBytesIsChecksumOfDocument() throws Exception {
+        Path file = tempDir.resolve("source.dummy");
+        Files.write(file, "\ufeffa\r\nb\u00e9\r\n".getBytes(StandardCharsets.UTF_8));
+        LanguageVersion dummyVersion = DummyLanguageModule.getInstance().getDefaultVersion();
+        long checksum = InternalApiBridge.computeCheckSum(Files.readAllBytes(file));
+        try (TextDocument doc = TextDocument.create(TextFile.forPath(file, StandardCharsets.UTF_8, dummyVersion))) {
+            assertEquals(checksum, doc.getCheckSum());
+            assertEquals(Chars.wrap("a\nb\u00e9\n"), doc.getText());
+        }
+        try (TextDocument doc = TextDocument.create(InternalApiBridge.withBytes(TextFile.forPath(file, StandardCharsets.UTF_8, dummyVersion),
+                                                                                 Files.readAllBytes(file)))) {
+            assertEquals(checksum, doc.getCheckSum());
+            assertEquals(Chars.wrap("a\nb\u00e9\n"), doc.getText());
+        }
+    }
+
     @Test
     void zipFileDisplayName() throws Exception {
         Path zipArchive = tempDir.resolve("sources.zip");
@@ -132,6 +132,35 @@ class TextFileContentTest {
         assertEquals("\r", content.getLineTerminator());
     }
 
+    @ParameterizedTest
+    @EnumSource(value = TextContentOrigin.class, names = {"INPUT_STREAM", "BYTES"})
+    void testMultibyteCharacters(TextContentOrigin origin) throws IOException {
+        TextFileContent content = origin.normalize("\u00e9t\u00e9\r\n\u20ac\r\n");
+        assertEquals(Chars.wrap("\u00e9t\u00e9\n\u20ac\n"), content.getNormalizedText());
+        assertEquals("\r\n", content.getLineTerminator());
+        // offsets are char offsets, not byte offsets
+        assertEquals(4, content.getPositioner().offsetFromLineColumn(2, 1));
+    }
+
+    @Test
+    void testChecksumOfBytesIsChecksumOfInputStream() throws IOException {
+        String text = "\ufeffa\r\nb\u00e9\rc\n";
+        TextFileContent fromStream = TextContentOrigin.INPUT_STREAM.normalize(text);
+        TextFileContent fromBytes = TextContentOrigin.BYTES.normalize(text);
+        assertEquals(fromStream.getCheckSum(), fromBytes.getCheckSum());
+        assertEquals(fromStream.getNormalizedText(), fromBytes.getNormalizedText());
+        assertEquals(fromStream.getLineTerminator(), fromBytes.getLineTerminator());
+    }
+
+    @Test
+    void testBytesWithOtherCharset() throws IOException {
+        Charset utf16 = StandardCharsets.UTF_16;
+        byte[] bytes = "a\r\nb\r\n".getBytes(utf16);
+        TextFileContent content = TextFileContent.fromBytes(bytes, utf16, LINESEP_SENTINEL);
+        assertEquals(Chars.wrap("a\nb\n"), content.getNormalizedText());
+        assertEquals("\r\n", content.getLineTerminator());
+    }
+
     enum TextContentOrigin {
         INPUT_STREAM {
             @Override
@@ -145,6 +174,12 @@ class TextFileContentTest {
                 return content;
             }
         },
+        BYTES {
+            @Override
+            TextFileContent normalize(String text) throws IOException {
+                return TextFileContent.fromBytes(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, LINESEP_SENTINEL);
+            }
+        },
         READER {
             @Override
             TextFileContent normalize(String input) throws IOException {
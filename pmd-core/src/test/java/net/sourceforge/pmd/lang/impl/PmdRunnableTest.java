@@ -143,6 +143,19 @@ class PmdRunnableTest {
         assertEquals(1, report.getProcessingErrors().size());
     }
 
+    @Test
+    void parseErrorIsReportedIfNoRuleAppliesToLanguageVersion() {
+        // the rule does not apply to the language version of the file
+        rule.setMinimumLanguageVersion(ThrowingLanguageModule.INSTANCE.getDefaultVersion());
+
+        Report report = process(getVersionWithParserThatThrowsSemanticError());
+
+        verify(reporter, times(1)).log(eq(Level.ERROR), contains(TEST_MESSAGE_SEMANTIC_ERROR));
+        verify(rule, never()).apply(Mockito.any(), Mockito.any());
+
+        assertEquals(1, report.getProcessingErrors().size());
+    }
+
     private static LanguageVersion versionWithParserThatThrowsAssertionError() {
         return ThrowingLanguageModule.INSTANCE.getVersion(THROWS_ASSERTION_ERROR);
     }
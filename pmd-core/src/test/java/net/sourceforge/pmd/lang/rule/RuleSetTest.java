@@ -450,6 +450,34 @@ class RuleSetTest {
         assertEquals(1, report.getViolations().size(), "Violations");
     }
 
+    @Test
+    void testApplicableRules() {
+        Rule rule1 = new MockRule("rule1", "desc", "msg", "rulesetname");
+        Rule rule2 = new MockRule("rule2", "desc", "msg", "rulesetname");
+        rule2.setMinimumLanguageVersion(dummyLanguage().getVersion("1.5"));
+        Rule rule3 = new MockRule("rule3", "desc", "msg", "rulesetname");
+
+        RuleSet ruleSet1 = createRuleSetBuilder("RuleSet1")
+            .withFileExclusions(Pattern.compile(".*/package/.*"))
+            .addRule(rule1)
+            .build();
+        RuleSet ruleSet2 = createRuleSetBuilder("RuleSet2").addRule(rule2).build();
+        RuleSet ruleSet3 = createRuleSetBuilder("RuleSet3")
+            .withFileExclusions(Pattern.compile(".*/package/.*"))
+            .addRule(rule3)
+            .build();
+        RuleSets ruleSets = new RuleSets(listOf(ruleSet1, ruleSet2, ruleSet3));
+
+        FileId included = FileId.fromPathLikeString("C:\\other\\RandomClass.java");
+        FileId excluded = FileId.fromPathLikeString("C:\\package\\RandomClass.java");
+
+        assertEquals(listOf(rule1, rule2, rule3), ruleSets.getApplicableRules(included, dummyLanguage().getVersion("1.5")));
+        assertEquals(listOf(rule1, rule3), ruleSets.getApplicableRules(included, dummyLanguage().getVersion("1.4")));
+        assertEquals(listOf(rule2), ruleSets.getApplicableRules(excluded, dummyLanguage().getVersion("1.5")));
+        assertTrue(ruleSets.getApplicableRules(excluded, dummyLanguage().getVersion("1.4")).isEmpty());
+        assertTrue(ruleSets.getApplicableRules(included, dummyLanguage2().getDefaultVersion()).isEmpty());
+    }
+
     @Test
     void copyConstructorDeepCopies() {
         Rule rule = new FooRule();
@@ -0,0 +1,147 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.renderers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.internal.util.IOUtil;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RulePriority;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.InternalApiBridge;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+class BinaryRendererTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testConversionToXml() throws Exception {
+        String expected = renderFile(new XMLRenderer(), "direct.xml");
+
+        Path binaryReport = tempDir.resolve("report.pmdbin");
+        renderAnalysis(new BinaryRenderer(), binaryReport);
+        XMLRenderer xmlRenderer = new XMLRenderer();
+        Path converted = tempDir.resolve("converted.xml");
+        xmlRenderer.setReportFile(converted.toString());
+        BinaryReportReader.render(binaryReport, xmlRenderer);
+
+        assertEquals(filter(expected), filter(IOUtil.readFileToString(converted.toFile(), Charset.defaultCharset())));
+    }
+
+    @Test
+    void testReportsAreReadFileByFile() throws Exception {
+        Path binaryReport = tempDir.resolve("report.pmdbin.gz");
+        renderAnalysis(new BinaryRenderer(), binaryReport);
+
+        List<Report> reports = new ArrayList<>();
+        try (BinaryReportReader reader = BinaryReportReader.open(binaryReport)) {
+            reader.readFileReports(reports::add);
+        }
+
+        assertEquals(3, reports.size());
+        assertEquals(2, reports.get(0).getViolations().size());
+        RuleViolation violation = reports.get(0).getViolations().get(1);
+        assertEquals("Boo", violation.getRule().getName());
+        assertEquals(RulePriority.HIGH, violation.getRule().getPriority());
+        assertEquals("file1.dummy", violation.getFileId().getOriginalPath());
+        assertEquals(TextRange2d.range2d(2, 3, 4, 5), violation.getLocation().toRange2d());
+        assertEquals(Collections.singletonMap("variable", "x"), violation.getAdditionalInfo());
+
+        assertEquals(1, reports.get(1).getProcessingErrors().size());
+        assertEquals("RuntimeException: Error", reports.get(1).getProcessingErrors().get(0).getMsg());
+
+        // configuration errors come last
+        assertEquals(1, reports.get(2).getConfigurationErrors().size());
+        assertEquals("a configuration error", reports.get(2).getConfigurationErrors().get(0).issue());
+    }
+
+    @Test
+    void testWriterIsNotSupported() {
+        BinaryRenderer renderer = new BinaryRenderer();
+        renderer.setWriter(new StringWriter());
+        assertThrows(IOException.class, renderer::start);
+    }
+
+    private String renderFile(Renderer renderer, String fileName) throws IOException {
+        Path report = tempDir.resolve(fileName);
+        renderAnalysis(renderer, report);
+        return IOUtil.readFileToString(report.toFile(), Charset.defaultCharset());
+    }
+
+    private static void renderAnalysis(Renderer renderer, Path reportFile) {
+        renderer.setReportFile(reportFile.toString());
+        try (GlobalAnalysisListener listener = renderer.newListener()) {
+            listener.onConfigError(new Report.ConfigurationError(new FooRule(), "a configuration error"));
+            analyzeFile(listener, "file1.dummy", it -> {
+                it.onRuleViolation(violation(createFooRule(), "file1.dummy", 1, 1, 1, 1, Collections.emptyMap()));
+                it.onRuleViolation(violation(createBooRule(), "file1.dummy", 2, 3, 4, 5, Collections.singletonMap("variable", "x")));
+            });
+            analyzeFile(listener, "file2.dummy", it -> {
+                it.onError(new Report.ProcessingError(new RuntimeException("Error"), FileId.fromPathLikeString("file2.dummy")));
+            });
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void analyzeFile(GlobalAnalysisListener listener, String fileName, Consumer<FileAnalysisListener> effects) throws Exception {
+        LanguageVersion version = DummyLanguageModule.getInstance().getDefaultVersion();
+        TextFile file = TextFile.forCharSeq("dummyText", FileId.fromPathLikeString(fileName), version);
+        try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+            effects.accept(fileListener);
+        }
+    }
+
+    private static RuleViolation violation(Rule rule, String fileName, int beginLine, int beginColumn,
+                                           int endLine, int endColumn, Map<String, String> additionalInfo) {
+        TextRange2d range = TextRange2d.range2d(beginLine, beginColumn, endLine, endColumn);
+        FileLocation location = FileLocation.range(FileId.fromPathLikeString(fileName), range);
+        return InternalApiBridge.createRuleViolation(rule, location, "blah", additionalInfo);
+    }
+
+    private static Rule createFooRule() {
+        Rule rule = new FooRule();
+        rule.setName("Foo");
+        rule.setPriority(RulePriority.LOW);
+        return rule;
+    }
+
+    private static Rule createBooRule() {
+        Rule rule = new FooRule();
+        rule.setName("Boo");
+        rule.setDescription("desc");
+        rule.setPriority(RulePriority.HIGH);
+        return rule;
+    }
+
+    private static String filter(String xml) {
+        return xml.replaceAll(" timestamp=\"[^\"]+\">", " timestamp=\"\">");
+    }
+}
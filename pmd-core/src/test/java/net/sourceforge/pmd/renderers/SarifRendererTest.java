@@ -98,6 +98,26 @@ class SarifRendererTest extends AbstractRendererTest {
         assertEquals(filter(readFile("expected-multiple-locations.sarif.json")), filter(actual));
     }
 
+    @Test
+    void testRuleIsDescribedOnceForDistinctMessages() throws Exception {
+        Rule fooRule = createFooRule();
+        String actual = renderReport(getRenderer(), reportBuilder -> {
+            reportBuilder.onRuleViolation(newRuleViolation(fooRule, createLocation(1, 1, 1, 10), "first"));
+            reportBuilder.onRuleViolation(newRuleViolation(fooRule, createLocation(5, 1, 5, 11), "second"));
+        });
+
+        JsonObject run = new Gson().fromJson(actual, JsonObject.class).getAsJsonArray("runs").get(0).getAsJsonObject();
+        JsonArray rules = run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules");
+        assertEquals(1, rules.size());
+        assertEquals("blah", rules.get(0).getAsJsonObject().getAsJsonObject("shortDescription").get("text").getAsString());
+
+        JsonArray results = run.getAsJsonArray("results");
+        assertEquals(2, results.size());
+        assertEquals("first", results.get(0).getAsJsonObject().getAsJsonObject("message").get("text").getAsString());
+        assertEquals("second", results.get(1).getAsJsonObject().getAsJsonObject("message").get("text").getAsString());
+        assertEquals(0, results.get(1).getAsJsonObject().get("ruleIndex").getAsInt());
+    }
+
     private Consumer<FileAnalysisListener> reportThreeViolationsTwoRules() {
         Rule fooRule = createFooRule();
         Rule booRule = createBooRule();
@@ -0,0 +1,111 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.LanguageVersion;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.reporting.Report.GlobalReportBuilderListener;
+import net.sourceforge.pmd.util.log.PmdReporter;
+
+class BaselineTest {
+
+    private final Rule rule = new FooRule();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void testKnownViolationsAreFilteredAfterCodeMoved() throws Exception {
+        Path baselineFile = tempDir.resolve("baseline");
+        try (GlobalAnalysisListener writer = Baseline.writer(baselineFile)) {
+            analyze(writer, "class Foo {\n  bar();\n}\n", 2);
+        }
+        Baseline baseline = Baseline.read(baselineFile);
+        assertEquals(1, baseline.size());
+
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = baseline.filter(reportBuilder, mock(PmdReporter.class))) {
+            // the known violation moved to line 4 and was reformatted, the one on line 1 is new
+            analyze(filter, "class Foo {\n\n  // comment\n      bar( );\n}\n", 4, 1);
+        }
+        Report report = reportBuilder.getResult();
+        assertEquals(1, report.getViolations().size());
+        assertEquals(1, report.getViolations().get(0).getBeginLine());
+        assertEquals(1, report.getSuppressedViolations().size());
+        assertSame(Baseline.SUPPRESSOR, report.getSuppressedViolations().get(0).getSuppressor());
+        assertEquals(4, report.getSuppressedViolations().get(0).getRuleViolation().getBeginLine());
+    }
+
+    @Test
+    void testEachKnownViolationIsMatchedOnce() throws Exception {
+        Path baselineFile = tempDir.resolve("baseline");
+        try (GlobalAnalysisListener writer = Baseline.writer(baselineFile)) {
+            analyze(writer, "bar();\nbar();\nbaz();\n", 1, 2, 3);
+        }
+        Baseline baseline = Baseline.read(baselineFile);
+        assertEquals(3, baseline.size());
+
+        PmdReporter reporter = mock(PmdReporter.class);
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = baseline.filter(reportBuilder, reporter)) {
+            // baz() was fixed, and bar() occurs once more than in the baseline
+            analyze(filter, "bar();\nbar();\nbar();\n", 1, 2, 3);
+        }
+        assertEquals(1, reportBuilder.getResult().getViolations().size());
+        assertEquals(2, reportBuilder.getResult().getSuppressedViolations().size());
+        assertEquals(1, baseline.countUnmatched());
+        verify(reporter).info("{0} of {1} violations of the baseline were not found anymore", 1, 3);
+    }
+
+    @Test
+    void testFingerprint() {
+        long fingerprint = Baseline.fingerprint("Rule", "src/Foo.java", "int x = 0;");
+        assertEquals(fingerprint, Baseline.fingerprint("Rule", "src\\Foo.java", "  int x=0;\n"));
+        assertNotEquals(fingerprint, Baseline.fingerprint("Other", "src/Foo.java", "int x = 0;"));
+        assertNotEquals(fingerprint, Baseline.fingerprint("Rule", "src/Bar.java", "int x = 0;"));
+        assertNotEquals(fingerprint, Baseline.fingerprint("Rule", "src/Foo.java", "int y = 0;"));
+    }
+
+    @Test
+    void testInvalidBaseline() throws IOException {
+        Path baselineFile = tempDir.resolve("baseline");
+        Files.write(baselineFile, "<pmd></pmd>".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> Baseline.read(baselineFile));
+    }
+
+    private void analyze(GlobalAnalysisListener listener, String text, int... violationLines) throws Exception {
+        LanguageVersion version = DummyLanguageModule.getInstance().getDefaultVersion();
+        FileId fileId = FileId.fromPathLikeString("Foo.dummy");
+        TextFile file = TextFile.forCharSeq(text, fileId, version);
+        try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+            for (int line : violationLines) {
+                FileLocation location = FileLocation.range(fileId, TextRange2d.range2d(line, 1, line, 2));
+                fileListener.onRuleViolation(InternalApiBridge.createRuleViolation(rule, location, "blah", Collections.emptyMap()));
+            }
+        }
+    }
+}
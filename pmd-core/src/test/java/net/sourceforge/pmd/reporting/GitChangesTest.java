@@ -0,0 +1,118 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.reporting;
+
+import static net.sourceforge.pmd.util.CollectionUtil.setOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.sourceforge.pmd.FooRule;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.FileLocation;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.document.TextRange2d;
+import net.sourceforge.pmd.reporting.Report.GlobalReportBuilderListener;
+
+class GitChangesTest {
+
+    private static final String DIFF = "diff --git a/src/Foo.dummy b/src/Foo.dummy\n"
+        + "index 1234567..89abcde 100644\n"
+        + "--- a/src/Foo.dummy\n"
+        + "+++ b/src/Foo.dummy\n"
+        + "@@ -2 +2,2 @@ class Foo {\n"
+        + "-  bar();\n"
+        + "+  bar(1);\n"
+        + "+++ b/not/a/header\n"
+        + "@@ -10,2 +11,0 @@\n"
+        + "-  baz();\n"
+        + "-  qux();\n"
+        + "@@ -20 +19 @@\n"
+        + "-}\n"
+        + "+} \n"
+        + "\\ No newline at end of file\n"
+        + "diff --git a/Old.dummy b/src/Renamed.dummy\n"
+        + "similarity index 100%\n"
+        + "rename from Old.dummy\n"
+        + "rename to src/Renamed.dummy\n"
+        + "diff --git a/\"sp ace.dummy\" b/\"sp ace.dummy\"\n"
+        + "new file mode 100644\n"
+        + "--- /dev/null\n"
+        + "+++ \"b/sp ace.dummy\"\t\n"
+        + "@@ -0,0 +1 @@\n"
+        + "+x\n";
+
+    @TempDir
+    private Path tempDir;
+
+    private Path topLevel;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        topLevel = tempDir.toRealPath();
+    }
+
+    @Test
+    void testChangedFiles() throws IOException {
+        GitChanges changes = GitChanges.parse(topLevel, new StringReader(DIFF));
+        assertEquals(setOf(topLevel.resolve("src/Foo.dummy"), topLevel.resolve("src/Renamed.dummy"), topLevel.resolve("sp ace.dummy")),
+                     changes.getChangedFiles());
+    }
+
+    @Test
+    void testOnlyViolationsOnChangedLinesAreReported() throws Exception {
+        GitChanges changes = GitChanges.parse(topLevel, new StringReader(DIFF));
+        Path foo = topLevel.resolve("src/Foo.dummy");
+        Files.createDirectories(foo.getParent());
+        Files.write(foo, "class Foo {\n  bar(1);\n  baz();\n}\n".getBytes(StandardCharsets.UTF_8));
+        TextFile file = TextFile.forPath(foo, StandardCharsets.UTF_8, DummyLanguageModule.getInstance().getDefaultVersion());
+
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = changes.filter(reportBuilder);
+             FileAnalysisListener fileListener = filter.startFileAnalysis(file)) {
+            // lines 2 and 3, and line 19 were changed
+            fileListener.onRuleViolation(violation(file.getFileId(), 1, 1));
+            fileListener.onRuleViolation(violation(file.getFileId(), 1, 2));
+            fileListener.onRuleViolation(violation(file.getFileId(), 3, 3));
+            fileListener.onRuleViolation(violation(file.getFileId(), 4, 18));
+            fileListener.onRuleViolation(violation(file.getFileId(), 19, 19));
+            fileListener.onRuleViolation(violation(file.getFileId(), 20, 20));
+        }
+        Report report = reportBuilder.getResult();
+        assertEquals(3, report.getViolations().size());
+        assertEquals(3, report.getSuppressedViolations().size());
+        assertSame(GitChanges.SUPPRESSOR, report.getSuppressedViolations().get(0).getSuppressor());
+    }
+
+    @Test
+    void testFilesNotOnDiskAreNotFiltered() throws Exception {
+        GitChanges changes = GitChanges.parse(topLevel, new StringReader(DIFF));
+        FileId fileId = FileId.fromPathLikeString("Foo.dummy");
+        TextFile file = TextFile.forCharSeq("class Foo {}", fileId, DummyLanguageModule.getInstance().getDefaultVersion());
+
+        GlobalReportBuilderListener reportBuilder = new GlobalReportBuilderListener();
+        try (GlobalAnalysisListener filter = changes.filter(reportBuilder);
+             FileAnalysisListener fileListener = filter.startFileAnalysis(file)) {
+            fileListener.onRuleViolation(violation(fileId, 1, 1));
+        }
+        assertEquals(1, reportBuilder.getResult().getViolations().size());
+    }
+
+    private static RuleViolation violation(FileId fileId, int beginLine, int endLine) {
+        FileLocation location = FileLocation.range(fileId, TextRange2d.range2d(beginLine, 1, endLine, 2));
+        return InternalApiBridge.createRuleViolation(new FooRule(), location, "blah", Collections.emptyMap());
+    }
+}
@@ -6,12 +6,14 @@ package net.sourceforge.pmd.reporting;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -24,9 +26,11 @@ import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.PmdAnalysis;
 import net.sourceforge.pmd.cache.internal.AnalysisCache;
 import net.sourceforge.pmd.cache.internal.NoopAnalysisCache;
+import net.sourceforge.pmd.lang.DummyLanguageModule;
 import net.sourceforge.pmd.lang.ast.FileAnalysisException;
 import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.RuleSet;
 
@@ -120,6 +124,73 @@ class GlobalAnalysisListenerTest {
         verify(mockCache, times(1)).isUpToDate(any());
     }
 
+    @Test
+    void testAsynchronousListener() {
+
+        PMDConfiguration config = newConfig();
+        config.setThreads(2);
+
+        GlobalAnalysisListener.ViolationCounterListener listener = new GlobalAnalysisListener.ViolationCounterListener();
+
+        runPmd(config, GlobalAnalysisListener.asynchronous(listener, 1), new MyFooRule());
+
+        // closing the asynchronous listener closed the counter
+        assertEquals(2, (int) listener.getResult());
+    }
+
+    @Test
+    void testAsynchronousListenerRethrowsExceptions() throws Exception {
+        GlobalAnalysisListener listener = GlobalAnalysisListener.asynchronous(GlobalAnalysisListener.exceptionThrower(), 1);
+
+        TextFile file = TextFile.forCharSeq("abc", FileId.fromPathLikeString("fname1.dummy"),
+                                            DummyLanguageModule.getInstance().getDefaultVersion());
+        FileAnalysisListener fileListener = listener.startFileAnalysis(file);
+        fileListener.onError(new Report.ProcessingError(new IllegalArgumentException("Something happened"), file.getFileId()));
+        fileListener.close();
+
+        FileAnalysisException exception = assertThrows(FileAnalysisException.class, listener::close);
+        assertEquals("fname1.dummy", exception.getFileId().getOriginalPath());
+    }
+
+    @Test
+    void testAsynchronousListenerStopsWhenInterrupted() {
+        GlobalAnalysisListener interrupting = new GlobalAnalysisListener() {
+            @Override
+            public FileAnalysisListener startFileAnalysis(TextFile file) {
+                return new FileAnalysisListener() {
+                    @Override
+                    public void onRuleViolation(RuleViolation violation) {
+                        // do nothing
+                    }
+
+                    @Override
+                    public void onError(Report.ProcessingError error) {
+                        // this runs on the forwarding thread
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+
+            @Override
+            public void close() {
+                // nothing to do
+            }
+        };
+        GlobalAnalysisListener listener = GlobalAnalysisListener.asynchronous(interrupting, 1);
+
+        // producers must not block forever on the queue once the forwarding thread stopped
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            for (int i = 0; i < 10; i++) {
+                TextFile file = TextFile.forCharSeq("abc", FileId.fromPathLikeString("fname" + i + ".dummy"),
+                                                    DummyLanguageModule.getInstance().getDefaultVersion());
+                try (FileAnalysisListener fileListener = listener.startFileAnalysis(file)) {
+                    fileListener.onError(new Report.ProcessingError(new IllegalArgumentException("Something happened"), file.getFileId()));
+                }
+            }
+            assertThrows(InterruptedException.class, listener::close);
+        });
+    }
+
     @NonNull
     private PMDConfiguration newConfig() {
         PMDConfiguration config = new PMDConfiguration();
@@ -7,6 +7,7 @@ package net.sourceforge.pmd.reporting;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.StringWriter;
@@ -25,6 +26,7 @@ import net.sourceforge.pmd.lang.rule.MockRule;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.renderers.Renderer;
 import net.sourceforge.pmd.renderers.XMLRenderer;
+import net.sourceforge.pmd.reporting.Report.GlobalReportBuilderListener;
 
 class ReportTest {
 
@@ -102,6 +104,67 @@ class ReportTest {
         assertEquals(2, union.getViolations().size());
     }
 
+    @Test
+    void testViolationsAreSortedAcrossFiles() throws Exception {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        GlobalReportBuilderListener global = new GlobalReportBuilderListener();
+        FileAnalysisListener second = global.startFileAnalysis(dummyFile("file2"));
+        FileAnalysisListener first = global.startFileAnalysis(dummyFile("file1"));
+        second.onRuleViolation(violation(rule, getNode(1, 1, "file2")));
+        first.onRuleViolation(violation(rule, getNode(3, 1, "file1")));
+        first.onRuleViolation(violation(rule, getNode(2, 1, "file1")));
+        second.close();
+        first.close();
+        global.close();
+
+        Report report = global.getResult();
+
+        assertEquals(3, report.getViolations().size());
+        assertEquals(2, report.getViolations().get(0).getBeginLine());
+        assertEquals(3, report.getViolations().get(1).getBeginLine());
+        assertEquals("file2", report.getViolations().get(2).getFileId().getOriginalPath());
+    }
+
+    @Test
+    void testReportedInstancesAreKept() {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        RuleViolation first = new CustomRuleViolation(rule, getNode(1, 1, "file1"));
+        RuleViolation second = violation(rule, getNode(2, 1, "file1"));
+        Report report = Report.buildReport(it -> {
+            it.onRuleViolation(second);
+            it.onRuleViolation(first);
+        });
+
+        assertEquals(2, report.getViolations().size());
+        assertSame(first, report.getViolations().get(0));
+        assertSame(second, report.getViolations().get(1));
+        assertSame(first, report.union(Report.buildReport(it -> { })).getViolations().get(0));
+        assertSame(second, report.filterViolations(it -> it.getBeginLine() == 2).getViolations().get(0));
+    }
+
+    @Test
+    void testEventsAreAddedWhenFileIsDone() throws Exception {
+        Rule rule = new MockRule("name", "desc", "msg", "rulesetname");
+        GlobalReportBuilderListener global = new GlobalReportBuilderListener();
+        FileAnalysisListener listener = global.startFileAnalysis(dummyFile("file1"));
+        listener.onRuleViolation(violation(rule, getNode(1, 1, "file1")));
+        listener.onSuppressedRuleViolation(new Report.SuppressedViolation(violation(rule, getNode(2, 1, "file1")),
+                                                                           ViolationSuppressor.NOPMD_COMMENT_SUPPRESSOR,
+                                                                           null));
+        listener.onError(new Report.ProcessingError(new RuntimeException("error"), FileId.fromPathLikeString("file1")));
+
+        Report report = global.getResultImpl();
+        assertEquals(0, report.getViolations().size());
+        assertEquals(0, report.getSuppressedViolations().size());
+        assertEquals(0, report.getProcessingErrors().size());
+
+        listener.close();
+        assertEquals(1, report.getViolations().size());
+        assertEquals(1, report.getSuppressedViolations().size());
+        assertEquals(1, report.getProcessingErrors().size());
+        global.close();
+    }
+
     public static @NonNull RuleViolation violation(Rule rule, FileLocation loc2) {
         return violation(rule, loc2, rule.getMessage());
     }
@@ -111,6 +174,18 @@ class ReportTest {
     }
 
 
+    private static final class CustomRuleViolation extends ParametricRuleViolation {
+
+        CustomRuleViolation(Rule rule, FileLocation location) {
+            super(rule, location, rule.getMessage(), Collections.emptyMap());
+        }
+    }
+
+    private static TextFile dummyFile(String filename) {
+        LanguageVersion dummyVersion = DummyLanguageModule.getInstance().getDefaultVersion();
+        return TextFile.forCharSeq("dummyText", FileId.fromPathLikeString(filename), dummyVersion);
+    }
+
     private static FileLocation getNode(int line, int column, String filename) {
         return FileLocation.caret(FileId.fromPathLikeString(filename), line, column);
     }
@@ -11,6 +11,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.annotation.Experimental;
+import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.lang.ast.AstInfo;
 import net.sourceforge.pmd.lang.ast.NodeStream;
 import net.sourceforge.pmd.lang.ast.RootNode;
@@ -50,6 +51,10 @@ public final class ASTCompilationUnit extends AbstractJavaNode implements RootNo
     private LazyTypeResolver lazyTypeResolver;
     private List<JavaComment> comments;
     private AstInfo<ASTCompilationUnit> astInfo;
+    private boolean usagesResolved;
+    private boolean overridesResolved;
+    // non-null while the top-level types are processed in parallel, see TopLevelTypeTasks
+    volatile @Nullable ThreadLocal<LazyTypeResolver> taskTypeResolvers;
 
     ASTCompilationUnit(int id) {
         super(id);
@@ -160,10 +165,41 @@ public final class ASTCompilationUnit extends AbstractJavaNode implements RootNo
     }
 
     @NonNull LazyTypeResolver getLazyTypeResolver() {
+        ThreadLocal<LazyTypeResolver> taskResolvers = this.taskTypeResolvers;
+        if (taskResolvers != null) {
+            LazyTypeResolver taskResolver = taskResolvers.get();
+            if (taskResolver != null) {
+                return taskResolver;
+            }
+        }
         assert lazyTypeResolver != null : "Type resolution not initialized";
         return lazyTypeResolver;
     }
 
+    /**
+     * Usages of variables are only needed by some rules, so they are
+     * collected the first time they are queried. This is a noop if
+     * the semantic passes did not run on this tree.
+     */
+    void ensureUsagesResolved() {
+        if (!usagesResolved && lazyTypeResolver != null) {
+            usagesResolved = true;
+            TimeTracker.bench("Usage resolution", () -> InternalApiBridge.usageResolution(this));
+        }
+    }
+
+    /**
+     * Overridden methods are only needed by some rules, so they are
+     * resolved the first time they are queried. This is a noop if
+     * the semantic passes did not run on this tree.
+     */
+    void ensureOverridesResolved() {
+        if (!overridesResolved && lazyTypeResolver != null) {
+            overridesResolved = true;
+            TimeTracker.bench("Override resolution", () -> InternalApiBridge.overrideResolution(this));
+        }
+    }
+
     @Experimental("Implicitly Declared Classes and Instance Main Methods is a Java 22 / Java 23 Preview feature")
     @NoAttribute
     public boolean isSimpleCompilationUnit() {
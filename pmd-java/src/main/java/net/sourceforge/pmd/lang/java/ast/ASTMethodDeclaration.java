@@ -63,7 +63,7 @@ public final class ASTMethodDeclaration extends AbstractExecutableDeclaration<JM
      * Returns true if this method is overridden.
      */
     public boolean isOverridden() {
-        return overriddenMethod != null;
+        return getOverriddenMethod() != null;
     }
 
     /**
@@ -74,8 +74,12 @@ public final class ASTMethodDeclaration extends AbstractExecutableDeclaration<JM
      * <p>If the method has an {@link Override} annotation, but we couldn't
      * resolve any method that is actually implemented, this will return
      * {@link TypeSystem#UNRESOLVED_METHOD}.
+     *
+     * <p>Overrides are resolved for the whole file the first time
+     * this method is called on any method of the file.
      */
     public JMethodSig getOverriddenMethod() {
+        getRoot().ensureOverridesResolved();
         return overriddenMethod;
     }
 
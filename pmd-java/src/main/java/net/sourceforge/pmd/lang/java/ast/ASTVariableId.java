@@ -64,8 +64,12 @@ public final class ASTVariableId extends AbstractTypedSymbolDeclarator<JVariable
      *
      * <p>Note that a variable initializer is not part of the usages
      * (though this should be evident from the return type).
+     *
+     * <p>Usages are collected for the whole file the first time
+     * this method is called on any variable of the file.
      */
     public List<ASTNamedReferenceExpr> getLocalUsages() {
+        getRoot().ensureUsagesResolved();
         return usages;
     }
 
@@ -46,7 +46,16 @@ final class CommentAssignmentPass {
             return;
         }
 
-        for (JavadocCommentOwner commentableNode : javadocOwners(root)) {
+        // a comment is assigned to a node of the part that follows it,
+        // so the top-level types can be processed independently
+        TopLevelTypeTasks.mapParts(root, part -> {
+            assignComments(part, comments);
+            return null;
+        });
+    }
+
+    private static void assignComments(JavaNode part, List<JavadocComment> comments) {
+        for (JavadocCommentOwner commentableNode : javadocOwners(part)) {
             JavaccToken firstToken = commentableNode.getFirstToken();
 
             for (JavaccToken maybeComment : GenericToken.previousSpecials(firstToken)) {
@@ -70,7 +79,7 @@ final class CommentAssignmentPass {
         }
     }
 
-    private static NodeStream<JavadocCommentOwner> javadocOwners(ASTCompilationUnit root) {
-        return root.descendants().crossFindBoundaries().filterIs(JavadocCommentOwner.class);
+    private static NodeStream<JavadocCommentOwner> javadocOwners(JavaNode part) {
+        return part.descendantsOrSelf().crossFindBoundaries().filterIs(JavadocCommentOwner.class);
     }
 }
@@ -4,6 +4,8 @@
 
 package net.sourceforge.pmd.lang.java.ast;
 
+import java.util.List;
+
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -77,6 +79,17 @@ public final class InternalApiBridge {
         AstDisambiguationPass.disambigWithCtx(nodes, ctx);
     }
 
+    /**
+     * Disambiguates the whole file. The top-level types are disambiguated
+     * in parallel if the file is large enough, see {@link JavaAstProcessor#getTopLevelTypePool()}.
+     */
+    public static void disambigCompilationUnit(ASTCompilationUnit root, ReferenceCtx ctx) {
+        TopLevelTypeTasks.mapParts(root, part -> {
+            AstDisambiguationPass.disambigWithCtx(NodeStream.of(part), ctx);
+            return null;
+        });
+    }
+
     /**
      * Forcing type resolution allows us to report errors more cleanly
      * than if it was done completely lazy. Failures (other than semantic exceptions)
@@ -85,35 +98,54 @@ public final class InternalApiBridge {
      * rules are applied, so several semantic exceptions may be collected.
      */
     public static void forceTypeResolutionPhase(JavaAstProcessor processor, ASTCompilationUnit root) {
-        root.descendants(TypeNode.class)
-            .crossFindBoundaries()
-            .forEach(typeNode -> {
-                try {
-                    typeNode.getTypeMirror();
-                } catch (SemanticException e) {
-                    processor.getLogger().acceptError(e);
-                }
-            });
-    }
-
-    public static void usageResolution(JavaAstProcessor processor, ASTCompilationUnit root) {
-        root.descendants(ASTNamedReferenceExpr.class)
-            .crossFindBoundaries()
-            .forEach(node -> {
-                JVariableSymbol sym = node.getReferencedSym();
-                if (sym != null) {
-                    ASTVariableId reffed = sym.tryGetNode();
-                    if (reffed != null) { // declared in this file
-                        reffed.addUsage(node);
+        TopLevelTypeTasks.mapParts(root, part -> {
+            part.descendantsOrSelf()
+                .crossFindBoundaries()
+                .filterIs(TypeNode.class)
+                .forEach(typeNode -> {
+                    try {
+                        typeNode.getTypeMirror();
+                    } catch (SemanticException e) {
+                        processor.getLogger().acceptError(e);
                     }
-                }
-            });
+                });
+            return null;
+        });
+    }
+
+    static void usageResolution(ASTCompilationUnit root) {
+        // A variable may be used in another top-level type than the one
+        // that declares it, so the usages are only collected by the tasks,
+        // and added afterwards in document order.
+        List<List<ASTNamedReferenceExpr>> usagesByPart = TopLevelTypeTasks.mapParts(
+            root,
+            part -> part.descendants(ASTNamedReferenceExpr.class)
+                        .crossFindBoundaries()
+                        .filter(node -> getDeclarationInFile(node) != null)
+                        .toList()
+        );
+        for (List<ASTNamedReferenceExpr> usages : usagesByPart) {
+            for (ASTNamedReferenceExpr node : usages) {
+                ASTVariableId reffed = getDeclarationInFile(node);
+                assert reffed != null : "Declaration of " + node + " was found before";
+                reffed.addUsage(node);
+            }
+        }
+    }
+
+    private static @Nullable ASTVariableId getDeclarationInFile(ASTNamedReferenceExpr node) {
+        JVariableSymbol sym = node.getReferencedSym();
+        return sym == null ? null : sym.tryGetNode();
     }
 
-    public static void overrideResolution(JavaAstProcessor processor, ASTCompilationUnit root) {
-        root.descendants(ASTTypeDeclaration.class)
-            .crossFindBoundaries()
-            .forEach(OverrideResolutionPass::resolveOverrides);
+    static void overrideResolution(ASTCompilationUnit root) {
+        TopLevelTypeTasks.mapParts(root, part -> {
+            part.descendantsOrSelf()
+                .crossFindBoundaries()
+                .filterIs(ASTTypeDeclaration.class)
+                .forEach(OverrideResolutionPass::resolveOverrides);
+            return null;
+        });
     }
 
     public static @Nullable JTypeMirror getTypeMirrorInternal(TypeNode node) {
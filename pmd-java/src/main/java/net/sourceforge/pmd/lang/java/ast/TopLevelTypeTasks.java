@@ -0,0 +1,85 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.ast;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+import net.sourceforge.pmd.lang.java.internal.JavaAstProcessor;
+import net.sourceforge.pmd.lang.java.types.ast.internal.LazyTypeResolver;
+
+/**
+ * Runs a semantic pass separately on each top-level type of a large
+ * compilation unit, in the pool given by {@link JavaAstProcessor#getTopLevelTypePool()}.
+ *
+ * <p>Each task resolves types with its own {@link LazyTypeResolver},
+ * as the inference caches of a resolver are not thread-safe. The state
+ * that is shared by the tasks, ie the symbol tables and the
+ * {@linkplain net.sourceforge.pmd.lang.java.symbols.internal.UnresolvedClassStore unresolved symbols},
+ * is thread-safe. A pass must not mutate nodes outside of the part it
+ * is given, so the results that concern other parts, eg usages of a
+ * field declared in another top-level type, are returned and applied
+ * by the caller.
+ */
+final class TopLevelTypeTasks {
+
+    private TopLevelTypeTasks() {
+        // utility class
+    }
+
+    /**
+     * Applies the pass to the parts of the compilation unit, and returns
+     * the results in document order. If the top-level types of this file
+     * are not processed in parallel, the only part is the compilation unit
+     * itself. Otherwise, each child of the compilation unit is a part:
+     * type declarations are processed in the pool, and the other children,
+     * eg imports, on the calling thread.
+     */
+    static <R> List<R> mapParts(ASTCompilationUnit root, Function<? super JavaNode, ? extends R> pass) {
+        JavaAstProcessor processor = root.getLazyTypeResolver().getProcessor();
+        ForkJoinPool pool = processor.getTopLevelTypePool();
+        if (pool == null || root.taskTypeResolvers != null) {
+            return Collections.singletonList(pass.apply(root));
+        }
+
+        ThreadLocal<LazyTypeResolver> taskResolvers = new ThreadLocal<>();
+        root.taskTypeResolvers = taskResolvers;
+        List<ForkJoinTask<R>> tasks = new ArrayList<>();
+        try {
+            for (JavaNode part : root.children()) {
+                if (part instanceof ASTTypeDeclaration) {
+                    tasks.add(pool.submit(() -> {
+                        taskResolvers.set(processor.newTaskTypeResolver());
+                        try {
+                            return pass.apply(part);
+                        } finally {
+                            taskResolvers.remove();
+                        }
+                    }));
+                } else {
+                    ForkJoinTask<R> inline = ForkJoinTask.adapt(() -> pass.apply(part));
+                    inline.quietlyInvoke();
+                    tasks.add(inline);
+                }
+            }
+        } finally {
+            // wait for all tasks before the main resolver is used again
+            for (ForkJoinTask<R> task : tasks) {
+                task.quietlyJoin();
+            }
+            root.taskTypeResolvers = null;
+        }
+
+        List<R> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<R> task : tasks) {
+            results.add(task.join()); // rethrows the exception of the task
+        }
+        return results;
+    }
+}
@@ -6,23 +6,30 @@ package net.sourceforge.pmd.lang.java.internal;
 
 import static net.sourceforge.pmd.lang.java.symbols.table.internal.JavaSemanticErrors.CANNOT_RESOLVE_SYMBOL;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import net.sourceforge.pmd.benchmark.TimeTracker;
-import net.sourceforge.pmd.lang.ast.NodeStream;
+import net.sourceforge.pmd.lang.ast.Node;
 import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
+import net.sourceforge.pmd.lang.ast.SemanticException;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.InternalApiBridge;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
 import net.sourceforge.pmd.lang.java.symbols.JTypeDeclSymbol;
 import net.sourceforge.pmd.lang.java.symbols.SymbolResolver;
+import net.sourceforge.pmd.lang.java.symbols.internal.SourceTypeIndex;
+import net.sourceforge.pmd.lang.java.symbols.internal.SourceTypeIndexResolver;
 import net.sourceforge.pmd.lang.java.symbols.internal.UnresolvedClassStore;
 import net.sourceforge.pmd.lang.java.symbols.internal.ast.SymbolResolutionPass;
 import net.sourceforge.pmd.lang.java.symbols.table.internal.ReferenceCtx;
 import net.sourceforge.pmd.lang.java.symbols.table.internal.SymbolTableResolver;
 import net.sourceforge.pmd.lang.java.types.TypeSystem;
+import net.sourceforge.pmd.lang.java.types.ast.internal.LazyTypeResolver;
+import net.sourceforge.pmd.lang.java.types.internal.infer.InferenceBudget;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
 
 /**
@@ -30,8 +37,9 @@ import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
  * This performs all semantic analyses in layered passes.
  *
  * <p>This is the root context object for file-specific context. Instances
- * do not need to be thread-safe. Global information about eg the classpath
- * is held in a {@link TypeSystem} instance.
+ * are only used by several threads if the top-level types of the file are
+ * processed in parallel, see {@link #getTopLevelTypePool()}. Global information
+ * about eg the classpath is held in a {@link TypeSystem} instance.
  *
  * <p>The object lives as long as a file, it is accessible from nodes
  * using {@link InternalApiBridge#getProcessor(JavaNode)}.
@@ -44,7 +52,9 @@ public final class JavaAstProcessor {
     private SymbolResolver symResolver;
 
     private final UnresolvedClassStore unresolvedTypes;
+    private final InferenceBudget inferenceBudget;
     private final ASTCompilationUnit acu;
+    private final @Nullable ForkJoinPool topLevelTypePool;
 
 
     private JavaAstProcessor(JavaLanguageProcessor globalProc,
@@ -52,14 +62,39 @@ public final class JavaAstProcessor {
                              TypeInferenceLogger typeInfLogger,
                              ASTCompilationUnit acu) {
 
-        this.symResolver = globalProc.getTypeSystem().bootstrapResolver();
         this.globalProc = globalProc;
-        this.logger = logger;
+        this.topLevelTypePool = selectTopLevelTypePool(globalProc, typeInfLogger, acu);
+        this.logger = topLevelTypePool == null ? logger : new SynchronizedErrorReporter(logger);
         this.typeInferenceLogger = typeInfLogger;
         this.unresolvedTypes = new UnresolvedClassStore(globalProc.getTypeSystem());
+
+        SymbolResolver classpathResolver = globalProc.getTypeSystem().bootstrapResolver();
+        SourceTypeIndex sourceTypes = globalProc.getSourceTypeIndex();
+        if (sourceTypes.isEmpty()) {
+            this.symResolver = classpathResolver;
+        } else {
+            // types that are both on the classpath and in the sources
+            // must be resolved from the classpath, which is more precise
+            this.symResolver = SymbolResolver.layer(classpathResolver, new SourceTypeIndexResolver(sourceTypes, unresolvedTypes));
+        }
+        this.inferenceBudget = globalProc.newInferenceBudget();
         this.acu = acu;
     }
 
+    private static @Nullable ForkJoinPool selectTopLevelTypePool(JavaLanguageProcessor globalProc,
+                                                                 TypeInferenceLogger typeInfLogger,
+                                                                 ASTCompilationUnit acu) {
+        int minFileSize = globalProc.getProperties().getProperty(JavaLanguageProperties.INTERNAL_PARALLEL_PASSES_MIN_FILE_SIZE);
+        if (minFileSize <= 0
+            || acu.getTextRegion().getLength() < minFileSize
+            // the inference loggers are not thread-safe
+            || !typeInfLogger.isNoop()
+            || acu.getTypeDeclarations().count() < 2) {
+            return null;
+        }
+        return globalProc.getTopLevelTypePool();
+    }
+
     public UnresolvedClassStore getUnresolvedStore() {
         return unresolvedTypes;
     }
@@ -103,6 +138,34 @@ public final class JavaAstProcessor {
         return makeUnresolvedReference("error." + simpleName, typeArity);
     }
 
+    /**
+     * Returns the budget that bounds type inference on this file.
+     */
+    public InferenceBudget getInferenceBudget() {
+        return inferenceBudget;
+    }
+
+    /**
+     * Returns the pool in which the semantic passes process each top-level
+     * type of this file, or null if they process the file sequentially.
+     * The top-level types are processed in parallel if the file is larger
+     * than the property {@link JavaLanguageProperties#INTERNAL_PARALLEL_PASSES_MIN_FILE_SIZE},
+     * and declares several top-level types.
+     */
+    public @Nullable ForkJoinPool getTopLevelTypePool() {
+        return topLevelTypePool;
+    }
+
+    /**
+     * Returns a new type resolver for a task that processes a single
+     * top-level type of this file. Its type inference is bounded by a
+     * new budget, so the time limit of {@link JavaLanguageProperties#INTERNAL_INFERENCE_MAX_MILLIS_PER_FILE}
+     * applies to each top-level type separately.
+     */
+    public LazyTypeResolver newTaskTypeResolver() {
+        return new LazyTypeResolver(this, typeInferenceLogger, globalProc.newInferenceBudget());
+    }
+
     public SymbolResolver getSymResolver() {
         return symResolver;
     }
@@ -117,6 +180,16 @@ public final class JavaAstProcessor {
 
     /**
      * Performs semantic analysis on the given source file.
+     *
+     * <p>Symbol resolution and symbol table resolution run on the whole
+     * file. If this file has a {@linkplain #getTopLevelTypePool() pool},
+     * the later passes (disambiguation, type resolution, comment assignment,
+     * and the lazy usage and override resolution) then process each top-level
+     * type in a separate task. The tasks share the {@link UnresolvedClassStore}
+     * and the symbol tables, which are thread-safe, but each one has its
+     * own type resolver, since the inference caches are not. Each pass is
+     * timed separately with {@link TimeTracker#bench(String, Runnable)}, so
+     * that a slow pass shows up in the timing report.
      */
     public void process() {
 
@@ -130,19 +203,52 @@ public final class JavaAstProcessor {
         InternalApiBridge.initTypeResolver(acu, this, typeInferenceLogger);
 
         TimeTracker.bench("Symbol table resolution", () -> SymbolTableResolver.traverse(this, acu));
-        TimeTracker.bench("AST disambiguation", () -> InternalApiBridge.disambigWithCtx(NodeStream.of(acu), ReferenceCtx.root(this, acu)));
+        TimeTracker.bench("AST disambiguation", () -> InternalApiBridge.disambigCompilationUnit(acu, ReferenceCtx.root(this, acu)));
         if (globalProc.getProperties().getProperty(JavaLanguageProperties.INTERNAL_DO_STRICT_TYPERES)) {
             TimeTracker.bench("Force type resolution", () -> InternalApiBridge.forceTypeResolutionPhase(this, acu));
         }
         TimeTracker.bench("Comment assignment", () -> InternalApiBridge.assignComments(acu));
-        TimeTracker.bench("Usage resolution", () -> InternalApiBridge.usageResolution(this, acu));
-        TimeTracker.bench("Override resolution", () -> InternalApiBridge.overrideResolution(this, acu));
+        // Usage resolution and override resolution are performed lazily,
+        // when a rule first asks for them, see ASTCompilationUnit.
     }
 
     public TypeSystem getTypeSystem() {
         return globalProc.getTypeSystem();
     }
 
+    /**
+     * Reports the semantic errors of a file whose top-level types are
+     * processed in parallel.
+     */
+    private static final class SynchronizedErrorReporter implements SemanticErrorReporter {
+
+        private final SemanticErrorReporter delegate;
+
+        SynchronizedErrorReporter(SemanticErrorReporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void warning(Node location, String message, Object... formatArgs) {
+            delegate.warning(location, message, formatArgs);
+        }
+
+        @Override
+        public synchronized SemanticException error(Node location, String message, Object... formatArgs) {
+            return delegate.error(location, message, formatArgs);
+        }
+
+        @Override
+        public synchronized void acceptError(SemanticException e) {
+            delegate.acceptError(e);
+        }
+
+        @Override
+        public synchronized @Nullable SemanticException getFirstError() {
+            return delegate.getFirstError();
+        }
+    }
+
 
     public static void process(JavaLanguageProcessor globalProcessor,
                                           SemanticErrorReporter semanticErrorReporter,
@@ -4,15 +4,20 @@
 
 package net.sourceforge.pmd.lang.java.internal;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.lang.LanguageVersionHandler;
 import net.sourceforge.pmd.lang.ast.Parser;
+import net.sourceforge.pmd.lang.document.TextFile;
 import net.sourceforge.pmd.lang.impl.BatchLanguageProcessor;
 import net.sourceforge.pmd.lang.java.ast.JavaParser;
 import net.sourceforge.pmd.lang.java.internal.JavaLanguageProperties.InferenceLoggingVerbosity;
@@ -22,7 +27,9 @@ import net.sourceforge.pmd.lang.java.rule.xpath.internal.GetModifiersFun;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MatchesSignatureFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.MetricFunction;
 import net.sourceforge.pmd.lang.java.rule.xpath.internal.NodeIsFunction;
+import net.sourceforge.pmd.lang.java.symbols.internal.SourceTypeIndex;
 import net.sourceforge.pmd.lang.java.types.TypeSystem;
+import net.sourceforge.pmd.lang.java.types.internal.infer.InferenceBudget;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger.SimpleLogger;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger.VerboseLogger;
@@ -44,6 +51,9 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     private final JavaParser parser;
     private final JavaParser parserWithoutProcessing;
     private TypeSystem typeSystem;
+    private volatile SourceTypeIndex sourceTypeIndex = SourceTypeIndex.empty();
+    private volatile int analysisThreadCount = Runtime.getRuntime().availableProcessors();
+    private ForkJoinPool topLevelTypePool; // guarded by this
 
     public JavaLanguageProcessor(JavaLanguageProperties properties, TypeSystem typeSystem) {
         super(properties);
@@ -77,6 +87,43 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
         return typeSystem;
     }
 
+    /**
+     * Returns the index of the types declared in the analyzed files.
+     * This is empty unless the property {@link JavaLanguageProperties#INTERNAL_INDEX_SOURCE_TYPES}
+     * is set.
+     */
+    SourceTypeIndex getSourceTypeIndex() {
+        return sourceTypeIndex;
+    }
+
+    @Override
+    public @NonNull AutoCloseable launchAnalysis(@NonNull AnalysisTask task) {
+        this.analysisThreadCount = Math.max(1, task.getThreadCount());
+        if (getProperties().getProperty(JavaLanguageProperties.INTERNAL_INDEX_SOURCE_TYPES)) {
+            List<TextFile> javaFiles = new ArrayList<>(task.getFiles());
+            javaFiles.removeIf(it -> !it.getLanguageVersion().getLanguage().equals(getLanguage()));
+            this.sourceTypeIndex = TimeTracker.bench("Source type indexing", () -> SourceTypeIndex.build(javaFiles));
+        }
+        return super.launchAnalysis(task);
+    }
+
+    /**
+     * Returns the pool in which the semantic passes process the top-level
+     * types of large files, or null if this is disabled with the property
+     * {@link JavaLanguageProperties#INTERNAL_PARALLEL_PASSES_MIN_FILE_SIZE}.
+     * The pool is created on first use with as many threads as the analysis,
+     * and shut down when this processor is closed.
+     */
+    synchronized @Nullable ForkJoinPool getTopLevelTypePool() {
+        if (getProperties().getProperty(JavaLanguageProperties.INTERNAL_PARALLEL_PASSES_MIN_FILE_SIZE) <= 0) {
+            return null;
+        }
+        if (topLevelTypePool == null) {
+            topLevelTypePool = new ForkJoinPool(analysisThreadCount);
+        }
+        return topLevelTypePool;
+    }
+
     TypeInferenceLogger newTypeInfLogger() {
         InferenceLoggingVerbosity verbosity = getProperties().getProperty(JavaLanguageProperties.INTERNAL_INFERENCE_LOGGING_VERBOSITY);
         if (verbosity == InferenceLoggingVerbosity.VERBOSE) {
@@ -88,6 +135,13 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
         }
     }
 
+    InferenceBudget newInferenceBudget() {
+        return InferenceBudget.create(
+            getProperties().getProperty(JavaLanguageProperties.INTERNAL_INFERENCE_MAX_STEPS_PER_EXPR),
+            getProperties().getProperty(JavaLanguageProperties.INTERNAL_INFERENCE_MAX_MILLIS_PER_FILE)
+        );
+    }
+
     @Override
     public DesignerBindings getDesignerBindings() {
         return JavaDesignerBindings.INSTANCE;
@@ -133,6 +187,12 @@ public class JavaLanguageProcessor extends BatchLanguageProcessor<JavaLanguagePr
     @Override
     public void close() throws Exception {
         this.typeSystem.logStats();
+        synchronized (this) {
+            if (topLevelTypePool != null) {
+                topLevelTypePool.shutdown();
+                topLevelTypePool = null;
+            }
+        }
         super.close();
     }
 }
@@ -35,11 +35,58 @@ public class JavaLanguageProperties extends JvmLanguagePropertyBundle {
                        .defaultValue(true)
                        .build();
 
+    /**
+     * @since 7.7.0
+     */
+    static final PropertyDescriptor<Integer> INTERNAL_INFERENCE_MAX_STEPS_PER_EXPR =
+        PropertyFactory.intProperty("xTypeInferenceMaxStepsPerExpr")
+                       .desc("Maximum number of inference steps spent on a single expression, after which "
+                                 + "its type is left unresolved. Zero means unlimited")
+                       .defaultValue(0)
+                       .build();
+
+    /**
+     * @since 7.7.0
+     */
+    static final PropertyDescriptor<Integer> INTERNAL_INFERENCE_MAX_MILLIS_PER_FILE =
+        PropertyFactory.intProperty("xTypeInferenceMaxMillisPerFile")
+                       .desc("Maximum time in milliseconds spent in type inference for a single file, after which "
+                                 + "the types of remaining expressions are left unresolved. Zero means unlimited")
+                       .defaultValue(0)
+                       .build();
+
+    /**
+     * @since 7.7.0
+     */
+    static final PropertyDescriptor<Boolean> INTERNAL_INDEX_SOURCE_TYPES =
+        PropertyFactory.booleanProperty("xIndexSourceTypes")
+                       .desc("Whether to index the types declared in all analyzed files before the analysis starts. "
+                                 + "This lets references to those types be resolved even when they are not on the "
+                                 + "auxclasspath. Files are read twice, so this should not be used with files that "
+                                 + "can only be read once, like files backed by a Reader")
+                       .defaultValue(false)
+                       .build();
+
+    /**
+     * @since 7.7.0
+     */
+    static final PropertyDescriptor<Integer> INTERNAL_PARALLEL_PASSES_MIN_FILE_SIZE =
+        PropertyFactory.intProperty("xParallelPassesMinFileSize")
+                       .desc("Minimum size in characters of a file, above which the semantic passes process its "
+                                 + "top-level types in parallel. Only files that declare several top-level types "
+                                 + "are concerned. Zero means never")
+                       .defaultValue(0)
+                       .build();
+
 
     public JavaLanguageProperties() {
         super(JavaLanguageModule.getInstance());
         definePropertyDescriptor(INTERNAL_INFERENCE_LOGGING_VERBOSITY);
         definePropertyDescriptor(INTERNAL_DO_STRICT_TYPERES);
+        definePropertyDescriptor(INTERNAL_INFERENCE_MAX_STEPS_PER_EXPR);
+        definePropertyDescriptor(INTERNAL_INFERENCE_MAX_MILLIS_PER_FILE);
+        definePropertyDescriptor(INTERNAL_INDEX_SOURCE_TYPES);
+        definePropertyDescriptor(INTERNAL_PARALLEL_PASSES_MIN_FILE_SIZE);
         definePropertyDescriptor(CpdLanguageProperties.CPD_IGNORE_METADATA);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_IDENTIFIERS);
         definePropertyDescriptor(CpdLanguageProperties.CPD_ANONYMIZE_LITERALS);
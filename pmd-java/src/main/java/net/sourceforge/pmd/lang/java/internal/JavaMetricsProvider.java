@@ -8,6 +8,9 @@ import static net.sourceforge.pmd.util.CollectionUtil.setOf;
 
 import java.util.Set;
 
+import net.sourceforge.pmd.lang.ast.NodeStream;
+import net.sourceforge.pmd.lang.ast.RootNode;
+import net.sourceforge.pmd.lang.java.ast.ASTExecutableDeclaration;
 import net.sourceforge.pmd.lang.java.metrics.JavaMetrics;
 import net.sourceforge.pmd.lang.metrics.LanguageMetricsProvider;
 import net.sourceforge.pmd.lang.metrics.Metric;
@@ -35,4 +38,10 @@ class JavaMetricsProvider implements LanguageMetricsProvider {
     public Set<Metric<?, ?>> getMetrics() {
         return metrics;
     }
+
+    @Override
+    public NodeStream<ASTExecutableDeclaration> getOperations(RootNode root) {
+        // also the methods of local and anonymous classes
+        return root.descendants(ASTExecutableDeclaration.class).crossFindBoundaries();
+    }
 }
@@ -35,6 +35,7 @@ import net.sourceforge.pmd.lang.java.metrics.internal.CognitiveComplexityVisitor
 import net.sourceforge.pmd.lang.java.metrics.internal.CycloVisitor;
 import net.sourceforge.pmd.lang.java.metrics.internal.NcssVisitor;
 import net.sourceforge.pmd.lang.java.metrics.internal.NpathBaseVisitor;
+import net.sourceforge.pmd.lang.java.metrics.internal.OperationMetricsWalker;
 import net.sourceforge.pmd.lang.java.rule.internal.JavaRuleUtil;
 import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
 import net.sourceforge.pmd.lang.java.symbols.JFieldSymbol;
@@ -43,6 +44,8 @@ import net.sourceforge.pmd.lang.metrics.Metric;
 import net.sourceforge.pmd.lang.metrics.MetricOption;
 import net.sourceforge.pmd.lang.metrics.MetricOptions;
 import net.sourceforge.pmd.lang.metrics.MetricsUtil;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
 
 /**
  * Built-in Java metrics. See {@link Metric} and {@link MetricsUtil}
@@ -401,6 +404,11 @@ public final class JavaMetrics {
         Metric.of(JavaMetrics::computeWoc, asClass(it -> !it.isInterface()),
                   "Weight Of Class", "WOC");
 
+    private static final NpathBaseVisitor<Long> NPATH_LONG_VISITOR = NpathBaseVisitor.bounded(Long.MAX_VALUE);
+
+    // Cyclo, NCSS and NPath of an operation with the default options, which are computed together
+    private static final SimpleDataKey<OperationMetricsWalker> OPERATION_METRICS = DataMap.simpleDataKey("java.metrics.operation");
+
     private JavaMetrics() {
         // utility class
     }
@@ -440,7 +448,26 @@ public final class JavaMetrics {
                    .count();
     }
 
+    /**
+     * Returns the Cyclo, NCSS and NPath complexities of the node if it
+     * is an operation and the options are the defaults, which is what
+     * the rules use by default. The three metrics are then computed in
+     * a single traversal, the first time one of them is requested.
+     * Returns null otherwise.
+     */
+    private static @Nullable OperationMetricsWalker operationMetrics(JavaNode node, MetricOptions options) {
+        if (node instanceof ASTExecutableDeclaration && options.getOptions().isEmpty()) {
+            return node.getUserMap().computeIfAbsent(
+                OPERATION_METRICS, () -> OperationMetricsWalker.walk((ASTExecutableDeclaration) node, options));
+        }
+        return null;
+    }
+
     private static int computeNcss(JavaNode node, MetricOptions options) {
+        OperationMetricsWalker operation = operationMetrics(node, options);
+        if (operation != null) {
+            return operation.getNcss();
+        }
         MutableInt result = new MutableInt(0);
         node.acceptVisitor(new NcssVisitor(options, node), result);
         return result.getValue();
@@ -455,15 +482,51 @@ public final class JavaMetrics {
 
 
     private static int computeCyclo(JavaNode node, MetricOptions options) {
+        OperationMetricsWalker operation = operationMetrics(node, options);
+        if (operation != null) {
+            return operation.getCyclo();
+        }
         MutableInt counter = new MutableInt(0);
         node.acceptVisitor(new CycloVisitor(options, node), counter);
         return counter.getValue();
     }
 
     private static BigInteger computeNpath(JavaNode node, MetricOptions ignored) {
+        // the result nearly always fits in a long, which is much cheaper than BigInteger
+        OperationMetricsWalker operation = operationMetrics(node, MetricOptions.emptyOptions());
+        long npath = operation != null ? operation.getNpath() : node.acceptVisitor(NPATH_LONG_VISITOR, null);
+        if (npath < Long.MAX_VALUE) {
+            return BigInteger.valueOf(npath);
+        }
         return node.acceptVisitor(NpathBaseVisitor.INSTANCE, null);
     }
 
+    /**
+     * Computes the {@linkplain #NPATH NPath complexity} of a method or
+     * constructor, up to a bound. If the complexity is greater than or
+     * equal to the bound, returns the bound. This is useful to compare
+     * the complexity with a threshold: it is much cheaper than {@link #NPATH},
+     * as it uses primitive arithmetic and mostly stops computing when
+     * the bound is reached. The result is not cached, but if one of
+     * {@link #CYCLO}, {@link #NCSS} and {@link #NPATH} was already
+     * computed with the default options, its cached traversal is used.
+     *
+     * @param node  Method or constructor
+     * @param bound Bound, which must be positive
+     *
+     * @return The NPath complexity, or the bound if it is reached
+     *
+     * @throws IllegalArgumentException If the bound is not positive
+     * @since 7.7.0
+     */
+    public static long computeNpathUpTo(ASTExecutableDeclaration node, long bound) {
+        OperationMetricsWalker operation = node.getUserMap().get(OPERATION_METRICS);
+        if (operation != null && bound > 0) {
+            return Math.min(operation.getNpath(), bound);
+        }
+        return node.acceptVisitor(NpathBaseVisitor.bounded(bound), null);
+    }
+
     private static int computeCognitive(JavaNode node, MetricOptions ignored) {
         State state = new State(node);
         node.acceptVisitor(CognitiveComplexityVisitor.INSTANCE, state);
@@ -0,0 +1,144 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics.internal;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic used by {@link NpathBaseVisitor}.
+ *
+ * @param <N> Type of the numbers
+ */
+abstract class NpathArithmetic<N> {
+
+    /** Exact arithmetic. */
+    static final NpathArithmetic<BigInteger> EXACT = new NpathArithmetic<BigInteger>() {
+        @Override
+        BigInteger valueOf(long value) {
+            return BigInteger.valueOf(value);
+        }
+
+        @Override
+        BigInteger add(BigInteger a, BigInteger b) {
+            return a.add(b);
+        }
+
+        @Override
+        BigInteger multiply(BigInteger a, BigInteger b) {
+            return a.multiply(b);
+        }
+
+        @Override
+        BigInteger decrement(BigInteger a) {
+            return a.subtract(BigInteger.ONE);
+        }
+
+        @Override
+        boolean isZero(BigInteger a) {
+            return a.signum() == 0;
+        }
+
+        @Override
+        boolean isSaturated(BigInteger a) {
+            return false;
+        }
+    };
+
+    abstract N valueOf(long value);
+
+    N one() {
+        return valueOf(1);
+    }
+
+    /** Adds two non-negative values. */
+    abstract N add(N a, N b);
+
+    /** Multiplies two non-negative values. */
+    abstract N multiply(N a, N b);
+
+    /**
+     * Subtracts one from a positive value. If the value is saturated,
+     * the result is saturated too, so this may only be used on a term
+     * of a sum whose other terms sum to at least one.
+     */
+    abstract N decrement(N a);
+
+    abstract boolean isZero(N a);
+
+    /**
+     * Whether the value has reached the bound. The sum of a saturated
+     * value and another value is saturated. The product of a saturated
+     * value and another value is saturated, except if the other value
+     * is zero.
+     */
+    abstract boolean isSaturated(N a);
+
+    /**
+     * Arithmetic on primitive longs, where all values greater than or
+     * equal to the bound are represented by the bound.
+     */
+    static NpathArithmetic<Long> saturatingAt(long bound) {
+        if (bound <= 0) {
+            throw new IllegalArgumentException("Bound should be positive, got " + bound);
+        }
+        return new Saturating(bound);
+    }
+
+    private static final class Saturating extends NpathArithmetic<Long> {
+
+        private final long bound;
+
+        Saturating(long bound) {
+            this.bound = bound;
+        }
+
+        @Override
+        Long valueOf(long value) {
+            return Math.min(value, bound);
+        }
+
+        @Override
+        Long add(Long a, Long b) {
+            long x = a;
+            long y = b;
+            // operands are between zero and the bound, so bound - y does not overflow
+            if (x >= bound - y) {
+                return bound;
+            }
+            return x + y;
+        }
+
+        @Override
+        Long multiply(Long a, Long b) {
+            long x = a;
+            long y = b;
+            if (x == 0 || y == 0) {
+                return 0L;
+            } else if (x == bound || y == bound) {
+                return bound;
+            }
+            if (x > bound / y) {
+                return bound;
+            }
+            return x * y;
+        }
+
+        @Override
+        Long decrement(Long a) {
+            long x = a;
+            return x == bound ? bound : x - 1;
+        }
+
+        @Override
+        boolean isZero(Long a) {
+            return a == 0;
+        }
+
+        @Override
+        boolean isSaturated(Long a) {
+            return a == bound;
+        }
+    }
+}
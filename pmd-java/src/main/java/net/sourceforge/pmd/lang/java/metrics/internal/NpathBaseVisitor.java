@@ -33,32 +33,67 @@ import net.sourceforge.pmd.lang.java.ast.internal.JavaAstUtils;
 /**
  * Visitor for the default n-path complexity version.
  *
+ * <p>The arithmetic is abstracted by an {@link NpathArithmetic}: the
+ * exact visitor uses {@link BigInteger}, while a bounded visitor uses
+ * primitive longs that saturate at a bound. All the terms of a sum
+ * are non-negative, so once a sum reaches the bound, the remaining
+ * terms are not visited. A product may still be zero after reaching
+ * the bound (an empty switch has complexity zero), so the factors of a
+ * product are all visited, unless one of them is zero.
+ *
+ * @param <N> Type of the numbers
+ *
  * @author Clément Fournier
  * @author Jason Bennett
  */
-public class NpathBaseVisitor extends JavaVisitorBase<Void, BigInteger> {
+public final class NpathBaseVisitor<N> extends JavaVisitorBase<Void, N> {
 
     /** Instance. */
-    public static final NpathBaseVisitor INSTANCE = new NpathBaseVisitor();
+    public static final NpathBaseVisitor<BigInteger> INSTANCE = new NpathBaseVisitor<>(NpathArithmetic.EXACT);
+
+    private final NpathArithmetic<N> arith;
+
+    private NpathBaseVisitor(NpathArithmetic<N> arith) {
+        this.arith = arith;
+    }
+
+    /**
+     * Returns a visitor that computes the complexity up to the given
+     * bound. Its result is the complexity if it is lower than the bound,
+     * otherwise the bound.
+     */
+    public static NpathBaseVisitor<Long> bounded(long bound) {
+        return new NpathBaseVisitor<>(NpathArithmetic.saturatingAt(bound));
+    }
 
 
     /* Multiplies the complexity of the children of this node. */
-    private BigInteger multiplyChildrenComplexities(JavaNode node) {
+    private N multiplyChildrenComplexities(JavaNode node) {
         return multiplyComplexities(node.children());
     }
 
-    private BigInteger multiplyComplexities(NodeStream<? extends JavaNode> nodes) {
-        return nodes.reduce(BigInteger.ONE, (acc, n) -> acc.multiply(n.acceptVisitor(this, null)));
+    private N multiplyComplexities(NodeStream<? extends JavaNode> nodes) {
+        N product = arith.one();
+        for (JavaNode n : nodes) {
+            if (arith.isZero(product)) {
+                break;
+            }
+            product = arith.multiply(product, n.acceptVisitor(this, null));
+        }
+        return product;
     }
 
 
     /* Sums the complexity of the children of the node. */
-    private BigInteger sumChildrenComplexities(JavaNode node, Void data) {
-        BigInteger sum = BigInteger.ZERO;
+    private N sumChildrenComplexities(JavaNode node, Void data) {
+        N sum = arith.valueOf(0);
 
         for (JavaNode child : node.children()) {
-            BigInteger childComplexity = child.acceptVisitor(this, data);
-            sum = sum.add(childComplexity);
+            if (arith.isSaturated(sum)) {
+                break;
+            }
+            N childComplexity = child.acceptVisitor(this, data);
+            sum = arith.add(sum, childComplexity);
         }
 
         return sum;
@@ -66,145 +101,154 @@ public class NpathBaseVisitor extends JavaVisitorBase<Void, BigInteger> {
 
 
     @Override
-    public BigInteger visitMethodOrCtor(ASTExecutableDeclaration node, Void data) {
+    public N visitMethodOrCtor(ASTExecutableDeclaration node, Void data) {
         return multiplyChildrenComplexities(node);
     }
 
 
     @Override
-    public BigInteger visitJavaNode(JavaNode node, Void data) {
+    public N visitJavaNode(JavaNode node, Void data) {
         return multiplyChildrenComplexities(node);
     }
 
 
     @Override
-    public BigInteger visit(ASTIfStatement node, Void data) {
+    public N visit(ASTIfStatement node, Void data) {
         // (npath of if + npath of else (or 1) + bool_comp of if) * npath of next
 
         int boolCompIf = CycloVisitor.booleanExpressionComplexity(node.getCondition());
 
-        BigInteger thenResult = node.getThenBranch().acceptVisitor(this, data);
+        N thenResult = node.getThenBranch().acceptVisitor(this, data);
         ASTStatement elseBranch = node.getElseBranch();
-        BigInteger elseResult = elseBranch != null ? elseBranch.acceptVisitor(this, data) : BigInteger.ONE;
+        N elseResult = elseBranch != null ? elseBranch.acceptVisitor(this, data) : arith.one();
 
-        return thenResult.add(BigInteger.valueOf(boolCompIf)).add(elseResult);
+        return arith.add(arith.add(thenResult, arith.valueOf(boolCompIf)), elseResult);
     }
 
 
     @Override
-    public BigInteger visit(ASTWhileStatement node, Void data) {
+    public N visit(ASTWhileStatement node, Void data) {
         // (npath of while + bool_comp of while + 1) * npath of next
 
         int boolComp = CycloVisitor.booleanExpressionComplexity(node.getCondition());
-        BigInteger nPathBody = node.getBody().acceptVisitor(this, data);
-        return nPathBody.add(BigInteger.valueOf(boolComp + 1));
+        N nPathBody = node.getBody().acceptVisitor(this, data);
+        return arith.add(nPathBody, arith.valueOf(boolComp + 1));
     }
 
 
     @Override
-    public BigInteger visit(ASTDoStatement node, Void data) {
+    public N visit(ASTDoStatement node, Void data) {
         // (npath of do + bool_comp of do + 1) * npath of next
 
         int boolComp = CycloVisitor.booleanExpressionComplexity(node.getCondition());
-        BigInteger nPathBody = node.getBody().acceptVisitor(this, data);
-        return nPathBody.add(BigInteger.valueOf(boolComp + 1));
+        N nPathBody = node.getBody().acceptVisitor(this, data);
+        return arith.add(nPathBody, arith.valueOf(boolComp + 1));
     }
 
 
     @Override
-    public BigInteger visit(ASTForStatement node, Void data) {
+    public N visit(ASTForStatement node, Void data) {
         // (npath of for + bool_comp of for + 1) * npath of next
 
         int boolComp = CycloVisitor.booleanExpressionComplexity(node.getCondition());
-        BigInteger nPathBody = node.getBody().acceptVisitor(this, data);
-        return nPathBody.add(BigInteger.valueOf(boolComp + 1));
+        N nPathBody = node.getBody().acceptVisitor(this, data);
+        return arith.add(nPathBody, arith.valueOf(boolComp + 1));
     }
 
     @Override
-    public BigInteger visit(ASTForeachStatement node, Void data) {
+    public N visit(ASTForeachStatement node, Void data) {
         // (npath of for + 1) * npath of next
 
-        BigInteger nPathBody = node.getBody().acceptVisitor(this, data);
-        return nPathBody.add(BigInteger.ONE);
+        N nPathBody = node.getBody().acceptVisitor(this, data);
+        return arith.add(nPathBody, arith.one());
     }
 
 
     @Override
-    public BigInteger visit(ASTReturnStatement node, Void data) {
+    public N visit(ASTReturnStatement node, Void data) {
         // return statements are valued at 1, or the value of the boolean expression
 
         ASTExpression expr = node.getExpr();
 
         if (expr == null) {
-            return BigInteger.ONE;
+            return arith.one();
         }
 
         int boolCompReturn = CycloVisitor.booleanExpressionComplexity(expr);
-        BigInteger conditionalExpressionComplexity = multiplyChildrenComplexities(expr);
+        N conditionalExpressionComplexity = multiplyChildrenComplexities(expr);
 
-        return conditionalExpressionComplexity.add(BigInteger.valueOf(boolCompReturn));
+        return arith.add(conditionalExpressionComplexity, arith.valueOf(boolCompReturn));
     }
 
 
     @Override
-    public BigInteger visit(ASTSwitchExpression node, Void data) {
+    public N visit(ASTSwitchExpression node, Void data) {
         return handleSwitch(node, data);
     }
 
     @Override
-    public BigInteger visit(ASTSwitchStatement node, Void data) {
+    public N visit(ASTSwitchStatement node, Void data) {
         return handleSwitch(node, data);
     }
 
-    public BigInteger handleSwitch(ASTSwitchLike node, Void data) {
+    public N handleSwitch(ASTSwitchLike node, Void data) {
         // bool_comp of switch + sum(npath(case_range))
 
         int boolCompSwitch = CycloVisitor.booleanExpressionComplexity(node.getTestedExpression());
 
-        BigInteger npath = BigInteger.ZERO;
+        N npath = arith.valueOf(0);
         int caseRange = 0;
 
         for (ASTSwitchBranch n : node) {
+            if (arith.isSaturated(npath)) {
+                break;
+            }
 
             // Fall-through labels count as 1 for complexity
             if (n instanceof ASTSwitchFallthroughBranch) {
                 caseRange += JavaAstUtils.numAlternatives(n);
                 NodeStream<ASTStatement> statements = ((ASTSwitchFallthroughBranch) n).getStatements();
                 if (statements.nonEmpty()) {
-                    BigInteger branchNpath = multiplyComplexities(statements);
-                    npath = npath.add(branchNpath.multiply(BigInteger.valueOf(caseRange)));
+                    N branchNpath = multiplyComplexities(statements);
+                    npath = arith.add(npath, arith.multiply(branchNpath, arith.valueOf(caseRange)));
                     caseRange = 0;
                 }
             } else if (n instanceof ASTSwitchArrowBranch) {
                 int numAlts = JavaAstUtils.numAlternatives(n);
-                BigInteger branchNpath = ((ASTSwitchArrowBranch) n).getRightHandSide().acceptVisitor(this, data);
-                npath = npath.add(branchNpath.multiply(BigInteger.valueOf(numAlts)));
+                N branchNpath = ((ASTSwitchArrowBranch) n).getRightHandSide().acceptVisitor(this, data);
+                npath = arith.add(npath, arith.multiply(branchNpath, arith.valueOf(numAlts)));
             }
         }
         // add in npath of last label
-        return npath.add(BigInteger.valueOf(boolCompSwitch));
+        return arith.add(npath, arith.valueOf(boolCompSwitch));
     }
 
     @Override
-    public BigInteger visit(ASTSwitchLabel node, Void data) {
+    public N visit(ASTSwitchLabel node, Void data) {
         if (node.isDefault()) {
-            return BigInteger.ONE;
+            return arith.one();
         }
-        return BigInteger.valueOf(node.children(ASTExpression.class).count());
+        return arith.valueOf(node.children(ASTExpression.class).count());
     }
 
     @Override
-    public BigInteger visit(ASTConditionalExpression node, Void data) {
+    public N visit(ASTConditionalExpression node, Void data) {
         // bool comp of guard clause + complexity of last two children (= total - 1)
 
         int boolCompTernary = CycloVisitor.booleanExpressionComplexity(node.getCondition());
-
-        return sumChildrenComplexities(node, data).add(BigInteger.valueOf(boolCompTernary - 1));
+        N condition = node.getCondition().acceptVisitor(this, data);
+        N branches = arith.add(node.getThenBranch().acceptVisitor(this, data),
+                               node.getElseBranch().acceptVisitor(this, data));
+
+        // the -1 is folded into a term that is at least one, so that no term is negative
+        N guard = boolCompTernary > 0 ? arith.add(condition, arith.valueOf(boolCompTernary - 1))
+                                      : arith.decrement(condition);
+        return arith.add(guard, branches);
     }
 
 
     @Override
-    public BigInteger visit(ASTTryStatement node, Void data) {
+    public N visit(ASTTryStatement node, Void data) {
         /*
          * This scenario was not addressed by the original paper. Based on the
          * principles outlined in the paper, as well as the Checkstyle NPath
@@ -0,0 +1,354 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics.internal;
+
+import net.sourceforge.pmd.lang.java.ast.ASTAnnotationTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTAssertStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTBreakStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTCatchClause;
+import net.sourceforge.pmd.lang.java.ast.ASTClassDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTConditionalExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTConstructorDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTContinueStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTDoStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTEnumDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTExecutableDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTExplicitConstructorInvocation;
+import net.sourceforge.pmd.lang.java.ast.ASTExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTExpressionStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTFinallyClause;
+import net.sourceforge.pmd.lang.java.ast.ASTForInit;
+import net.sourceforge.pmd.lang.java.ast.ASTForStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTForUpdate;
+import net.sourceforge.pmd.lang.java.ast.ASTForeachStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTIfStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTImportDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTInitializer;
+import net.sourceforge.pmd.lang.java.ast.ASTLabeledStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTLocalVariableDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTPackageDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTReturnStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchArrowBranch;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchBranch;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchFallthroughBranch;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchLabel;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchLike;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTSynchronizedStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTThrowStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTTryStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTWhileStatement;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.internal.JavaAstUtils;
+import net.sourceforge.pmd.lang.java.metrics.JavaMetrics.CycloOption;
+import net.sourceforge.pmd.lang.java.metrics.JavaMetrics.NcssOption;
+import net.sourceforge.pmd.lang.metrics.MetricOptions;
+
+
+/**
+ * Computes the Cyclo, NCSS and NPath metrics of an operation in a single
+ * traversal of its subtree. The results are the same as those of
+ * {@link CycloVisitor}, {@link NcssVisitor} and {@link NpathBaseVisitor},
+ * which each traverse the subtree.
+ *
+ * <p>The three metrics do not cover the same nodes: Cyclo does not
+ * descend into lambdas and nested classes, NCSS does not descend into
+ * expression statements, and NPath combines the complexities of the
+ * children of a node depending on its kind. The walker therefore visits
+ * every node, tracks which metrics the node counts for, and computes
+ * the NPath complexity of each node after that of its children.
+ *
+ * <p>The NPath complexity is computed with saturating long arithmetic,
+ * so {@link #getNpath()} is {@link Long#MAX_VALUE} if the complexity
+ * does not fit in a long.
+ *
+ * @since 7.7.0
+ */
+public final class OperationMetricsWalker {
+
+    private static final long[] NO_CHILDREN = {};
+
+    private final NpathArithmetic<Long> arith = NpathArithmetic.saturatingAt(Long.MAX_VALUE);
+    private final boolean considerBooleanPaths;
+    private final boolean considerAssert;
+    private final boolean countImports;
+    private final JavaNode topNode;
+
+    private int cyclo;
+    private int ncss;
+    private long npath;
+
+    // NPath complexities of the node walked last, which is a child of the current node
+    private long lastChildrenProduct;
+    private long lastProductWithoutLabels;
+
+    private OperationMetricsWalker(ASTExecutableDeclaration topNode, MetricOptions options) {
+        this.considerBooleanPaths = !options.getOptions().contains(CycloOption.IGNORE_BOOLEAN_PATHS);
+        this.considerAssert = options.getOptions().contains(CycloOption.CONSIDER_ASSERT);
+        this.countImports = options.getOptions().contains(NcssOption.COUNT_IMPORTS);
+        this.topNode = topNode;
+    }
+
+    /**
+     * Computes the metrics of an operation. The options may contain
+     * {@link CycloOption}s and {@link NcssOption}s.
+     *
+     * @param node    Method or constructor
+     * @param options Options of the Cyclo and NCSS metrics
+     *
+     * @return A walker that holds the results
+     */
+    public static OperationMetricsWalker walk(ASTExecutableDeclaration node, MetricOptions options) {
+        OperationMetricsWalker walker = new OperationMetricsWalker(node, options);
+        walker.npath = walker.walk(node, true, true);
+        return walker;
+    }
+
+    /** Returns the cyclomatic complexity. */
+    public int getCyclo() {
+        return cyclo;
+    }
+
+    /** Returns the number of non-commenting source statements. */
+    public int getNcss() {
+        return ncss;
+    }
+
+    /** Returns the NPath complexity, or {@link Long#MAX_VALUE} if it does not fit in a long. */
+    public long getNpath() {
+        return npath;
+    }
+
+    /**
+     * Adds the Cyclo and NCSS counts of the subtree, and returns its
+     * NPath complexity.
+     *
+     * @param inCyclo Whether the parent is counted by Cyclo
+     * @param inNcss  Whether the parent lets its children be counted by NCSS
+     */
+    private long walk(JavaNode node, boolean inCyclo, boolean inNcss) {
+        boolean countCyclo = inCyclo && !(node.isFindBoundary() && !node.equals(topNode));
+        int boolComp = booleanComplexityOfCondition(node);
+        if (countCyclo) {
+            cyclo += cycloIncrement(node, boolComp);
+        }
+        if (inNcss) {
+            ncss += ncssIncrement(node);
+        }
+        boolean ncssChildren = inNcss && !isNcssLeaf(node);
+
+        int numChildren = node.getNumChildren();
+        long[] childNpaths = numChildren == 0 ? NO_CHILDREN : new long[numChildren];
+        // for switches, the NPath complexities that are used for each branch
+        long[] branchNpaths = node instanceof ASTSwitchLike ? new long[numChildren] : NO_CHILDREN;
+        long returnExprProduct = 1;
+        long childrenProduct = 1;
+        long productWithoutLabels = 1;
+        for (int i = 0; i < numChildren; i++) {
+            JavaNode child = node.getChild(i);
+            long childNpath = walk(child, countCyclo, ncssChildren);
+            childNpaths[i] = childNpath;
+            if (node instanceof ASTSwitchLike) {
+                branchNpaths[i] = lastProductWithoutLabels;
+            } else if (node instanceof ASTReturnStatement) {
+                returnExprProduct = lastChildrenProduct;
+            }
+            childrenProduct = arith.multiply(childrenProduct, childNpath);
+            if (!(child instanceof ASTSwitchLabel)) {
+                productWithoutLabels = arith.multiply(productWithoutLabels, childNpath);
+            }
+        }
+
+        long result = npath(node, boolComp, childNpaths, childrenProduct, branchNpaths, returnExprProduct);
+        lastChildrenProduct = childrenProduct;
+        lastProductWithoutLabels = productWithoutLabels;
+        return result;
+    }
+
+    /**
+     * Returns the number of boolean operators in the condition of the
+     * node, for the nodes whose Cyclo or NPath complexity depends on it.
+     */
+    private static int booleanComplexityOfCondition(JavaNode node) {
+        if (node instanceof ASTIfStatement) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTIfStatement) node).getCondition());
+        } else if (node instanceof ASTWhileStatement) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTWhileStatement) node).getCondition());
+        } else if (node instanceof ASTDoStatement) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTDoStatement) node).getCondition());
+        } else if (node instanceof ASTForStatement) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTForStatement) node).getCondition());
+        } else if (node instanceof ASTConditionalExpression) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTConditionalExpression) node).getCondition());
+        } else if (node instanceof ASTSwitchLike) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTSwitchLike) node).getTestedExpression());
+        } else if (node instanceof ASTReturnStatement) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTReturnStatement) node).getExpr());
+        } else if (node instanceof ASTAssertStatement) {
+            return CycloVisitor.booleanExpressionComplexity(((ASTAssertStatement) node).getCondition());
+        }
+        return 0;
+    }
+
+    /** Same as {@link CycloVisitor}. */
+    private int cycloIncrement(JavaNode node, int boolComp) {
+        int pathsOfCondition = considerBooleanPaths ? boolComp : 0;
+        if (node instanceof ASTSwitchLike) {
+            int increment = pathsOfCondition;
+            for (ASTSwitchBranch branch : (ASTSwitchLike) node) {
+                if (branch.getLabel().isDefault()) {
+                    continue;
+                }
+                if (considerBooleanPaths) {
+                    increment += JavaAstUtils.numAlternatives(branch);
+                } else if (branch instanceof ASTSwitchFallthroughBranch
+                    && ((ASTSwitchFallthroughBranch) branch).getStatements().nonEmpty()) {
+                    increment++;
+                }
+            }
+            return increment;
+        } else if (node instanceof ASTConditionalExpression
+            || node instanceof ASTWhileStatement
+            || node instanceof ASTIfStatement
+            || node instanceof ASTForStatement
+            || node instanceof ASTDoStatement) {
+            return 1 + pathsOfCondition;
+        } else if (node instanceof ASTForeachStatement
+            || node instanceof ASTMethodDeclaration
+            || node instanceof ASTConstructorDeclaration
+            || node instanceof ASTCatchClause
+            || node instanceof ASTThrowStatement) {
+            return 1;
+        } else if (node instanceof ASTAssertStatement) {
+            return considerAssert ? 2 + pathsOfCondition : 0;
+        }
+        return 0;
+    }
+
+    /** Same as {@link NcssVisitor}. */
+    private int ncssIncrement(JavaNode node) {
+        if (node instanceof ASTClassDeclaration) {
+            int increment = 1;
+            if (countImports) {
+                ASTCompilationUnit acu = node.getRoot();
+                increment += acu.children(ASTImportDeclaration.class).count();
+                if (acu.children(ASTPackageDeclaration.class).nonEmpty()) {
+                    increment++;
+                }
+            }
+            return increment;
+        } else if (node instanceof ASTLocalVariableDeclaration) {
+            // doesn't count variable declared inside a for initializer
+            return node.getParent() instanceof ASTForInit ? 0 : 1;
+        } else if (node instanceof ASTIfStatement) {
+            return ((ASTIfStatement) node).hasElse() ? 2 : 1;
+        } else if (node instanceof ASTExpressionStatement) {
+            return node.getParent().getParent() instanceof ASTForUpdate ? 0 : 1;
+        } else if (node instanceof ASTEnumDeclaration
+            || node instanceof ASTAnnotationTypeDeclaration
+            || node instanceof ASTFieldDeclaration
+            || node instanceof ASTMethodDeclaration
+            || node instanceof ASTConstructorDeclaration
+            || node instanceof ASTWhileStatement
+            || node instanceof ASTSwitchStatement
+            || node instanceof ASTDoStatement
+            || node instanceof ASTForStatement
+            || node instanceof ASTSynchronizedStatement
+            || node instanceof ASTCatchClause
+            || node instanceof ASTThrowStatement
+            || node instanceof ASTFinallyClause
+            || node instanceof ASTLabeledStatement
+            || node instanceof ASTSwitchLabel
+            || node instanceof ASTInitializer
+            || node instanceof ASTAssertStatement
+            || isNcssLeaf(node)) {
+            return 1;
+        }
+        return 0;
+    }
+
+    /** Whether NCSS counts this node, but not its descendants. */
+    private static boolean isNcssLeaf(JavaNode node) {
+        return node instanceof ASTExpressionStatement
+            || node instanceof ASTExplicitConstructorInvocation
+            || node instanceof ASTContinueStatement
+            || node instanceof ASTBreakStatement
+            || node instanceof ASTReturnStatement;
+    }
+
+    /** Same as {@link NpathBaseVisitor}, given the complexities of the children. */
+    private long npath(JavaNode node,
+                       int boolComp,
+                       long[] childNpaths,
+                       long childrenProduct,
+                       long[] branchNpaths,
+                       long returnExprProduct) {
+        if (node instanceof ASTIfStatement) {
+            ASTIfStatement ifStmt = (ASTIfStatement) node;
+            ASTStatement elseBranch = ifStmt.getElseBranch();
+            long thenResult = childNpaths[ifStmt.getThenBranch().getIndexInParent()];
+            long elseResult = elseBranch != null ? childNpaths[elseBranch.getIndexInParent()] : 1;
+            return arith.add(arith.add(thenResult, (long) boolComp), elseResult);
+        } else if (node instanceof ASTWhileStatement) {
+            return arith.add(childNpaths[((ASTWhileStatement) node).getBody().getIndexInParent()], (long) boolComp + 1);
+        } else if (node instanceof ASTDoStatement) {
+            return arith.add(childNpaths[((ASTDoStatement) node).getBody().getIndexInParent()], (long) boolComp + 1);
+        } else if (node instanceof ASTForStatement) {
+            return arith.add(childNpaths[((ASTForStatement) node).getBody().getIndexInParent()], (long) boolComp + 1);
+        } else if (node instanceof ASTForeachStatement) {
+            return arith.add(childNpaths[((ASTForeachStatement) node).getBody().getIndexInParent()], 1L);
+        } else if (node instanceof ASTReturnStatement) {
+            if (((ASTReturnStatement) node).getExpr() == null) {
+                return 1;
+            }
+            return arith.add(returnExprProduct, (long) boolComp);
+        } else if (node instanceof ASTSwitchLike) {
+            return switchNpath((ASTSwitchLike) node, boolComp, branchNpaths);
+        } else if (node instanceof ASTSwitchLabel) {
+            ASTSwitchLabel label = (ASTSwitchLabel) node;
+            return label.isDefault() ? 1 : label.children(ASTExpression.class).count();
+        } else if (node instanceof ASTConditionalExpression) {
+            ASTConditionalExpression conditional = (ASTConditionalExpression) node;
+            long condition = childNpaths[conditional.getCondition().getIndexInParent()];
+            long branches = arith.add(childNpaths[conditional.getThenBranch().getIndexInParent()],
+                                      childNpaths[conditional.getElseBranch().getIndexInParent()]);
+            long guard = boolComp > 0 ? arith.add(condition, (long) boolComp - 1)
+                                      : arith.decrement(condition);
+            return arith.add(guard, branches);
+        } else if (node instanceof ASTTryStatement) {
+            long sum = 0;
+            for (long childNpath : childNpaths) {
+                sum = arith.add(sum, childNpath);
+            }
+            return sum;
+        }
+        return childrenProduct;
+    }
+
+    private long switchNpath(ASTSwitchLike node, int boolComp, long[] branchNpaths) {
+        long result = 0;
+        int caseRange = 0;
+        for (ASTSwitchBranch branch : node) {
+            // the complexity of the statements of a fallthrough branch,
+            // or of the right hand side of an arrow branch
+            long branchNpath = branchNpaths[branch.getIndexInParent()];
+            if (branch instanceof ASTSwitchFallthroughBranch) {
+                // Fall-through labels count as 1 for complexity
+                caseRange += JavaAstUtils.numAlternatives(branch);
+                if (((ASTSwitchFallthroughBranch) branch).getStatements().nonEmpty()) {
+                    result = arith.add(result, arith.multiply(branchNpath, (long) caseRange));
+                    caseRange = 0;
+                }
+            } else if (branch instanceof ASTSwitchArrowBranch) {
+                result = arith.add(result, arith.multiply(branchNpath, (long) JavaAstUtils.numAlternatives(branch)));
+            }
+        }
+        return arith.add(result, (long) boolComp);
+    }
+}
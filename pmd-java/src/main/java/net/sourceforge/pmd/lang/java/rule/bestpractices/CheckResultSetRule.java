@@ -24,6 +24,11 @@ public class CheckResultSetRule extends AbstractJavaRule {
 
     private static final Set<String> METHODS = setOf("next", "previous", "last", "first");
 
+    @Override
+    public Set<String> getRequiredTokens() {
+        return METHODS;
+    }
+
     @Override
     public Object visit(ASTWhileStatement node, Object data) {
         return data;
@@ -8,9 +8,11 @@ import static net.sourceforge.pmd.properties.PropertyFactory.stringListProperty;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -91,6 +93,15 @@ public class GuardLogStatementRule extends AbstractJavaRulechainRule {
         definePropertyDescriptor(GUARD_METHODS);
     }
 
+    @Override
+    public Set<String> getRequiredTokens() {
+        // a log statement calls a method named after its log level,
+        // or the log method of java.util.logging
+        Set<String> methodNames = new HashSet<>(getProperty(LOG_LEVELS));
+        methodNames.add(JAVA_UTIL_LOG_METHOD);
+        return methodNames;
+    }
+
     @Override
     public void start(RuleContext ctx) {
         extractProperties();
@@ -0,0 +1,172 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule.bestpractices;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import net.sourceforge.pmd.lang.java.ast.ASTAssignableExpr.ASTNamedReferenceExpr;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTFieldDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodCall;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodReference;
+import net.sourceforge.pmd.lang.java.ast.ASTTypeDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableId;
+import net.sourceforge.pmd.lang.java.ast.ModifierOwner.Visibility;
+import net.sourceforge.pmd.lang.java.ast.internal.PrettyPrintingUtil;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRulechainRule;
+import net.sourceforge.pmd.lang.java.symbols.JExecutableSymbol;
+import net.sourceforge.pmd.lang.java.symbols.JFieldSymbol;
+import net.sourceforge.pmd.lang.java.symbols.JVariableSymbol;
+import net.sourceforge.pmd.lang.java.types.JMethodSig;
+import net.sourceforge.pmd.lang.java.types.TypeOps;
+import net.sourceforge.pmd.lang.rule.CrossFileRule;
+import net.sourceforge.pmd.lang.rule.FileSummary;
+import net.sourceforge.pmd.reporting.RuleContext;
+import net.sourceforge.pmd.reporting.RuleViolation;
+import net.sourceforge.pmd.util.CollectionUtil;
+
+/**
+ * Reports non-private methods and fields that are not used anywhere in
+ * the analysed sources. The summary of each file contains the members
+ * it declares, as deferred violations, and the members it references.
+ * A reference whose symbol could not be resolved marks all the members
+ * with the same name as used.
+ */
+public class UnusedNonPrivateMemberRule extends AbstractJavaRulechainRule implements CrossFileRule {
+
+    private static final String USED_MEMBERS = "usedMembers";
+    private static final String USED_NAMES = "usedNames";
+
+    private static final Set<String> SERIALIZATION_METHODS = CollectionUtil.setOf(
+        "readObject", "writeObject", "readObjectNoData", "readResolve", "writeReplace"
+    );
+
+    private static final Set<String> SERIALIZATION_FIELDS = CollectionUtil.setOf(
+        "serialVersionUID", "serialPersistentFields"
+    );
+
+    public UnusedNonPrivateMemberRule() {
+        super(ASTCompilationUnit.class);
+    }
+
+    @Override
+    public Object visit(ASTCompilationUnit node, Object data) {
+        RuleContext ctx = asCtx(data);
+        FileSummary summary = new FileSummary();
+
+        for (ASTTypeDeclaration type : node.descendants(ASTTypeDeclaration.class).crossFindBoundaries()) {
+            if (isIgnored(type)) {
+                continue;
+            }
+            for (ASTMethodDeclaration method : type.getDeclarations(ASTMethodDeclaration.class)) {
+                if (!isIgnored(method)) {
+                    summary.deferViolation(methodKey(method.getSymbol()), ctx, method,
+                                           "method", PrettyPrintingUtil.displaySignature(method));
+                }
+            }
+            for (ASTFieldDeclaration field : type.getDeclarations(ASTFieldDeclaration.class)) {
+                if (isIgnored(field)) {
+                    continue;
+                }
+                for (ASTVariableId varId : field.getVarIds()) {
+                    if (varId.getSymbol() instanceof JFieldSymbol) {
+                        summary.deferViolation(fieldKey((JFieldSymbol) varId.getSymbol()), ctx, varId, "field", varId.getName());
+                    }
+                }
+            }
+        }
+
+        for (ASTMethodCall call : node.descendants(ASTMethodCall.class).crossFindBoundaries()) {
+            addUsage(summary, call.getMethodType(), call.getMethodName());
+        }
+        for (ASTMethodReference ref : node.descendants(ASTMethodReference.class).crossFindBoundaries()) {
+            addUsage(summary, ref.getReferencedMethod(), ref.getMethodName());
+        }
+        for (ASTNamedReferenceExpr ref : node.descendants(ASTNamedReferenceExpr.class).crossFindBoundaries()) {
+            JVariableSymbol sym = ref.getReferencedSym();
+            if (sym == null || sym.isUnresolved()) {
+                summary.addFact(USED_NAMES, ref.getName());
+            } else if (sym instanceof JFieldSymbol) {
+                summary.addFact(USED_MEMBERS, fieldKey((JFieldSymbol) sym));
+            }
+        }
+
+        ctx.reportSummary(summary);
+        return null;
+    }
+
+    private static void addUsage(FileSummary summary, JMethodSig method, String name) {
+        if (TypeOps.isUnresolved(method.getDeclaringType())) {
+            summary.addFact(USED_NAMES, name);
+        } else {
+            summary.addFact(USED_MEMBERS, methodKey(method.getSymbol()));
+        }
+    }
+
+    @Override
+    public void reduce(List<FileSummary> summaries, Consumer<? super RuleViolation> reporter) {
+        Set<String> usedMembers = new HashSet<>();
+        Set<String> usedNames = new HashSet<>();
+        for (FileSummary summary : summaries) {
+            usedMembers.addAll(summary.getFacts(USED_MEMBERS));
+            usedNames.addAll(summary.getFacts(USED_NAMES));
+        }
+
+        for (FileSummary summary : summaries) {
+            for (Entry<String, List<RuleViolation>> candidate : summary.getDeferredViolations().entrySet()) {
+                String key = candidate.getKey();
+                if (!usedMembers.contains(key) && !usedNames.contains(memberName(key))) {
+                    candidate.getValue().forEach(reporter);
+                }
+            }
+        }
+    }
+
+    // Members are identified by the binary name of their declaring class,
+    // their name, and their arity for methods. Overloads with the same
+    // arity are therefore considered used together.
+
+    private static String methodKey(JExecutableSymbol method) {
+        return method.getEnclosingClass().getBinaryName() + '#' + method.getSimpleName() + '/' + method.getArity();
+    }
+
+    private static String fieldKey(JFieldSymbol field) {
+        return field.getEnclosingClass().getBinaryName() + '#' + field.getSimpleName();
+    }
+
+    private static String memberName(String key) {
+        int start = key.lastIndexOf('#') + 1;
+        int end = key.indexOf('/', start);
+        return end < 0 ? key.substring(start) : key.substring(start, end);
+    }
+
+    private static boolean isIgnored(ASTTypeDeclaration type) {
+        // members of annotated types are often used reflectively, eg by frameworks
+        return type.isAnnotation()
+            || type.ancestorsOrSelf()
+                   .filterIs(ASTTypeDeclaration.class)
+                   .any(it -> it.isLocal() || it.isAnonymous() || it.getDeclaredAnnotations().nonEmpty());
+    }
+
+    private static boolean isIgnored(ASTMethodDeclaration method) {
+        return method.getVisibility() == Visibility.V_PRIVATE
+            || method.getDeclaredAnnotations().nonEmpty()
+            || method.isMainMethod()
+            || method.getAccessedRecordComponent() != null
+            || SERIALIZATION_METHODS.contains(method.getName())
+            || method.isOverridden();
+    }
+
+    private static boolean isIgnored(ASTFieldDeclaration field) {
+        return field.getVisibility() == Visibility.V_PRIVATE
+            || field.getDeclaredAnnotations().nonEmpty()
+            || field.getVarIds().any(it -> SERIALIZATION_FIELDS.contains(it.getName()));
+    }
+}
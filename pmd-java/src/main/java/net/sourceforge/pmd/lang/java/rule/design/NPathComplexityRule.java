@@ -49,8 +49,9 @@ public class NPathComplexityRule extends AbstractJavaRulechainRule {
             return data;
         }
 
-        BigInteger npath = MetricsUtil.computeMetric(JavaMetrics.NPATH, node);
-        if (npath.compareTo(BigInteger.valueOf(reportLevel)) >= 0) {
+        // most methods are under the threshold, the exact value is only needed for the message
+        if (JavaMetrics.computeNpathUpTo(node, reportLevel) >= reportLevel) {
+            BigInteger npath = MetricsUtil.computeMetric(JavaMetrics.NPATH, node);
             asCtx(data).addViolation(node, node instanceof ASTMethodDeclaration ? "method" : "constructor",
                                      PrettyPrintingUtil.displaySignature(node),
                                      String.valueOf(npath),
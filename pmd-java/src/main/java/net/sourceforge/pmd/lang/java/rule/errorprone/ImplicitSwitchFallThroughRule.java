@@ -4,16 +4,26 @@
 
 package net.sourceforge.pmd.lang.java.rule.errorprone;
 
+import java.util.BitSet;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import net.sourceforge.pmd.lang.ast.GenericToken;
+import net.sourceforge.pmd.lang.ast.NodeStream;
 import net.sourceforge.pmd.lang.ast.impl.javacc.JavaccToken;
+import net.sourceforge.pmd.lang.java.ast.ASTBlock;
+import net.sourceforge.pmd.lang.java.ast.ASTExecutableDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTInitializer;
+import net.sourceforge.pmd.lang.java.ast.ASTLambdaExpression;
 import net.sourceforge.pmd.lang.java.ast.ASTSwitchBranch;
 import net.sourceforge.pmd.lang.java.ast.ASTSwitchFallthroughBranch;
 import net.sourceforge.pmd.lang.java.ast.ASTSwitchStatement;
 import net.sourceforge.pmd.lang.java.ast.JavaNode;
 import net.sourceforge.pmd.lang.java.ast.internal.JavaAstUtils;
 import net.sourceforge.pmd.lang.java.rule.AbstractJavaRulechainRule;
+import net.sourceforge.pmd.lang.java.rule.internal.ControlFlowGraph;
 import net.sourceforge.pmd.lang.java.rule.internal.DataflowPass;
 import net.sourceforge.pmd.lang.java.rule.internal.DataflowPass.DataflowResult;
 import net.sourceforge.pmd.util.OptionalBool;
@@ -31,14 +41,13 @@ public class ImplicitSwitchFallThroughRule extends AbstractJavaRulechainRule {
 
     @Override
     public Object visit(ASTSwitchStatement node, Object data) {
-        DataflowResult dataflow = DataflowPass.getDataflowResult(node.getRoot());
+        Predicate<ASTSwitchBranch> mayFallThrough = fallthroughPredicate(node);
 
         for (ASTSwitchBranch branch : node.getBranches()) {
             if (branch instanceof ASTSwitchFallthroughBranch && branch != node.getLastChild()) {
                 ASTSwitchFallthroughBranch fallthrough = (ASTSwitchFallthroughBranch) branch;
-                OptionalBool bool = dataflow.switchBranchFallsThrough(branch);
-                if (bool != OptionalBool.NO
-                    && fallthrough.getStatements().nonEmpty()
+                if (fallthrough.getStatements().nonEmpty()
+                    && mayFallThrough.test(branch)
                     && !nextBranchHasComment(branch)) {
                     asCtx(data).addViolation(branch.getNextBranch().getLabel());
                 }
@@ -49,6 +58,58 @@ public class ImplicitSwitchFallThroughRule extends AbstractJavaRulechainRule {
         return null;
     }
 
+    /**
+     * Returns a predicate that tests whether the end of a branch may be
+     * reached. This uses the control flow graph of the innermost body
+     * that contains the switch, so that other methods need not be analysed.
+     * If the switch is not an element of that graph, eg because it is
+     * in a switch expression, this falls back to the dataflow pass of
+     * the whole file.
+     */
+    private static Predicate<ASTSwitchBranch> fallthroughPredicate(ASTSwitchStatement node) {
+        ControlFlowGraph cfg = controlFlowGraph(node);
+        if (cfg == null || !isElement(cfg, node.getTestedExpression())) {
+            DataflowResult dataflow = DataflowPass.getDataflowResult(node.getRoot());
+            return branch -> dataflow.switchBranchFallsThrough(branch) != OptionalBool.NO;
+        }
+        int switchBlock = cfg.getBlock(node.getTestedExpression());
+        BitSet reachable = cfg.getReachableBlocks();
+        return branch -> {
+            // the block of the next label has the switch block as predecessor,
+            // and the end of this branch if it may complete normally
+            int nextLabel = cfg.getBlock(branch.getNextBranch().getLabel());
+            for (int pred : cfg.getPredecessors(nextLabel)) {
+                if (pred != switchBlock && reachable.get(pred)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static boolean isElement(ControlFlowGraph cfg, JavaNode node) {
+        int block = cfg.getBlock(node);
+        return block >= 0 && cfg.getElements(block).contains(node);
+    }
+
+    private static @Nullable ControlFlowGraph controlFlowGraph(ASTSwitchStatement node) {
+        JavaNode owner = node.ancestors()
+                             .map(NodeStream.asInstanceOf(ASTExecutableDeclaration.class,
+                                                          ASTLambdaExpression.class,
+                                                          ASTInitializer.class))
+                             .first();
+        if (owner instanceof ASTExecutableDeclaration) {
+            return ControlFlowGraph.of((ASTExecutableDeclaration) owner);
+        }
+        ASTBlock body = null;
+        if (owner instanceof ASTLambdaExpression) {
+            body = ((ASTLambdaExpression) owner).getBlock();
+        } else if (owner instanceof ASTInitializer) {
+            body = ((ASTInitializer) owner).getBody();
+        }
+        return body == null ? null : ControlFlowGraph.build(body, false);
+    }
+
     boolean nextBranchHasComment(ASTSwitchBranch branch) {
         JavaNode nextBranch = branch.getNextBranch();
         if (nextBranch == null) {
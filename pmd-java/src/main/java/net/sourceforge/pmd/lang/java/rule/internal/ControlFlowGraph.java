@@ -0,0 +1,259 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule.internal;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.java.ast.ASTBlock;
+import net.sourceforge.pmd.lang.java.ast.ASTExecutableDeclaration;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.util.DataMap;
+import net.sourceforge.pmd.util.DataMap.SimpleDataKey;
+
+/**
+ * A control flow graph for the body of a method or constructor. The
+ * graph is made of basic blocks, identified by their index. A basic
+ * block is a sequence of <i>elements</i>, which are executed in order
+ * if the first one is. Elements are nodes of the AST:
+ * <ul>
+ * <li>Simple statements (expression statements, local variable
+ * declarations, assert statements, local class declarations, etc),
+ * and jump statements (return, throw, break, continue, yield is not
+ * supported as switch expressions are elements);
+ * <li>The expressions that control compound statements (the condition
+ * of an if or a loop, the tested expression of a switch, the iterable
+ * of a foreach, the lock of a synchronized statement), and other parts
+ * of compound statements (the variable of a foreach, the init and update
+ * of a for, switch labels, catch parameters, try resources).
+ * </ul>
+ * Expressions are not split into several blocks, eg a lambda or a
+ * conditional expression is a single element.
+ *
+ * <p>The block {@link #ENTRY} and {@link #EXIT} are empty. All paths
+ * go from the entry to the exit, a return or an uncaught throw jumps
+ * to the exit. Finally clauses are built once: all the jumps that
+ * cross a finally go through it, and the end of the finally may
+ * continue to all of their targets.
+ *
+ * <p>Optionally, the graph contains <i>exceptional edges</i>: from
+ * every block of a try block to the catch clauses and finally clause,
+ * which model the fact that any element of the try block may throw.
+ * Those edges are separate from the normal successors.
+ *
+ * <p>Graphs are immutable, and are built once per executable. Several
+ * rules may share the same graph with {@link #of(ASTExecutableDeclaration)}.
+ * Dataflow analyses over the graph can be written with a {@link FlowAnalysis}.
+ */
+public final class ControlFlowGraph {
+
+    /** Index of the entry block. */
+    public static final int ENTRY = 0;
+    /** Index of the exit block. */
+    public static final int EXIT = 1;
+
+    private static final int[] NO_BLOCKS = {};
+
+    private static final SimpleDataKey<ControlFlowGraph> CFG_K = DataMap.simpleDataKey("java.cfg");
+    private static final SimpleDataKey<ControlFlowGraph> CFG_WITH_EXCEPTIONS_K = DataMap.simpleDataKey("java.cfg.exceptional");
+
+    /** Elements of all blocks. The elements of block i are at indices [blockStart[i], blockStart[i + 1]). */
+    private final JavaNode[] elements;
+    private final int[] blockStart;
+    private final int[][] successors;
+    private final int[][] exceptionalSuccessors;
+    private final Map<JavaNode, Integer> blockOfElement;
+
+    private int[][] predecessors;
+    private int[][] exceptionalPredecessors;
+
+    ControlFlowGraph(JavaNode[] elements,
+                     int[] blockStart,
+                     int[][] successors,
+                     int[][] exceptionalSuccessors,
+                     Map<JavaNode, Integer> blockOfElement) {
+        this.elements = elements;
+        this.blockStart = blockStart;
+        this.successors = successors;
+        this.exceptionalSuccessors = exceptionalSuccessors;
+        this.blockOfElement = blockOfElement;
+    }
+
+    /**
+     * Returns the graph for the body of the given method or constructor,
+     * without exceptional edges. The graph is built at most once. Returns
+     * null if the executable has no body.
+     */
+    public static @Nullable ControlFlowGraph of(ASTExecutableDeclaration executable) {
+        return of(executable, false);
+    }
+
+    /**
+     * Returns the graph for the body of the given method or constructor.
+     * The graph is built at most once. Returns null if the executable
+     * has no body.
+     *
+     * @param withExceptionalEdges Whether to add exceptional edges
+     */
+    public static @Nullable ControlFlowGraph of(ASTExecutableDeclaration executable, boolean withExceptionalEdges) {
+        ASTBlock body = executable.getBody();
+        if (body == null) {
+            return null;
+        }
+        SimpleDataKey<ControlFlowGraph> key = withExceptionalEdges ? CFG_WITH_EXCEPTIONS_K : CFG_K;
+        return executable.getUserMap().computeIfAbsent(key, () -> build(body, withExceptionalEdges));
+    }
+
+    /**
+     * Builds a new graph for the given block, which may be eg the
+     * body of a lambda. The graph is not cached.
+     */
+    public static ControlFlowGraph build(ASTBlock body, boolean withExceptionalEdges) {
+        return new ControlFlowGraphBuilder(withExceptionalEdges).build(body);
+    }
+
+    /** Returns the number of blocks, including the entry and exit block. */
+    public int getNumBlocks() {
+        return successors.length;
+    }
+
+    /** Returns the elements of the given block, in execution order. */
+    public List<JavaNode> getElements(int block) {
+        return Collections.unmodifiableList(Arrays.asList(elements).subList(blockStart[block], blockStart[block + 1]));
+    }
+
+    /**
+     * Returns the block that contains the given element, or the element
+     * that contains the given node (eg a lambda is part of the element
+     * that contains it). Returns -1 if the node is not within the body.
+     */
+    public int getBlock(@NonNull JavaNode node) {
+        for (JavaNode n = node; n != null; n = n.getParent()) {
+            Integer block = blockOfElement.get(n);
+            if (block != null) {
+                return block;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the normal successors of the block. The returned array
+     * must not be modified.
+     */
+    public int[] getSuccessors(int block) {
+        return successors[block];
+    }
+
+    /**
+     * Returns the exceptional successors of the block. This is empty
+     * if the graph was built without exceptional edges. The returned
+     * array must not be modified.
+     */
+    public int[] getExceptionalSuccessors(int block) {
+        return exceptionalSuccessors[block];
+    }
+
+    /**
+     * Returns the normal predecessors of the block. The returned array
+     * must not be modified.
+     */
+    public int[] getPredecessors(int block) {
+        if (predecessors == null) {
+            predecessors = invert(successors);
+        }
+        return predecessors[block];
+    }
+
+    /**
+     * Returns the exceptional predecessors of the block. The returned
+     * array must not be modified.
+     */
+    public int[] getExceptionalPredecessors(int block) {
+        if (exceptionalPredecessors == null) {
+            exceptionalPredecessors = invert(exceptionalSuccessors);
+        }
+        return exceptionalPredecessors[block];
+    }
+
+    /**
+     * Returns the set of blocks that are reachable from the entry block,
+     * following exceptional edges too.
+     */
+    public BitSet getReachableBlocks() {
+        BitSet reachable = new BitSet(getNumBlocks());
+        Deque<Integer> todo = new ArrayDeque<>();
+        todo.push(ENTRY);
+        reachable.set(ENTRY);
+        while (!todo.isEmpty()) {
+            int block = todo.pop();
+            pushUnvisited(successors[block], reachable, todo);
+            pushUnvisited(exceptionalSuccessors[block], reachable, todo);
+        }
+        return reachable;
+    }
+
+    private static void pushUnvisited(int[] blocks, BitSet visited, Deque<Integer> todo) {
+        for (int block : blocks) {
+            if (!visited.get(block)) {
+                visited.set(block);
+                todo.push(block);
+            }
+        }
+    }
+
+    /**
+     * Solve the given analysis over this graph, with a worklist algorithm.
+     */
+    public <S> FlowAnalysis.Result<S> solve(FlowAnalysis<S> analysis) {
+        return analysis.solve(this);
+    }
+
+    private static int[][] invert(int[][] edges) {
+        int[] counts = new int[edges.length];
+        for (int[] succs : edges) {
+            for (int succ : succs) {
+                counts[succ]++;
+            }
+        }
+        int[][] result = new int[edges.length][];
+        for (int i = 0; i < edges.length; i++) {
+            result[i] = counts[i] == 0 ? NO_BLOCKS : new int[counts[i]];
+        }
+        int[] filled = new int[edges.length];
+        for (int block = 0; block < edges.length; block++) {
+            for (int succ : edges[block]) {
+                result[succ][filled[succ]++] = block;
+            }
+        }
+        return result;
+    }
+
+    static int[] noBlocks() {
+        return NO_BLOCKS;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ControlFlowGraph[\n");
+        for (int i = 0; i < getNumBlocks(); i++) {
+            sb.append("  ").append(i).append(": ").append(getElements(i))
+              .append(" -> ").append(Arrays.toString(successors[i]));
+            if (exceptionalSuccessors[i].length > 0) {
+                sb.append(" exceptional ").append(Arrays.toString(exceptionalSuccessors[i]));
+            }
+            sb.append('\n');
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,533 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule.internal;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.java.ast.ASTBlock;
+import net.sourceforge.pmd.lang.java.ast.ASTBreakStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTCatchClause;
+import net.sourceforge.pmd.lang.java.ast.ASTContinueStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTDoStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTExpression;
+import net.sourceforge.pmd.lang.java.ast.ASTFinallyClause;
+import net.sourceforge.pmd.lang.java.ast.ASTForStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTForeachStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTIfStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTLabeledStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTReturnStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchArrowBranch;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchArrowRHS;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchBranch;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchFallthroughBranch;
+import net.sourceforge.pmd.lang.java.ast.ASTSwitchStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTSynchronizedStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTThrowStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTTryStatement;
+import net.sourceforge.pmd.lang.java.ast.ASTWhileStatement;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.JavaVisitorBase;
+
+/**
+ * Builds a {@link ControlFlowGraph} in a single traversal of the
+ * statements of a body. Jumps whose target is not built yet (break,
+ * continue, return, throw) are recorded in a {@link JumpTarget}, and
+ * resolved when the target block is created.
+ */
+final class ControlFlowGraphBuilder extends JavaVisitorBase<Void, Void> {
+
+    private final boolean withExceptionalEdges;
+
+    private final List<List<JavaNode>> blocks = new ArrayList<>();
+    private final List<BitSet> successors = new ArrayList<>();
+    private final List<BitSet> exceptionalSuccessors = new ArrayList<>();
+
+    private final Map<ASTStatement, JumpTarget> breakTargets = new HashMap<>();
+    private final Map<ASTStatement, JumpTarget> continueTargets = new HashMap<>();
+    /** Enclosing try statements, the innermost is last. */
+    private final List<TryFrame> tryStack = new ArrayList<>();
+    private final JumpTarget returnTarget = new JumpTarget(0);
+    /** Target of a throw which is not caught in the body. */
+    private final JumpTarget throwTarget = new JumpTarget(0);
+
+    /** The block to which elements are appended, -1 if the current point is unreachable. */
+    private int current = -1;
+
+    ControlFlowGraphBuilder(boolean withExceptionalEdges) {
+        this.withExceptionalEdges = withExceptionalEdges;
+    }
+
+    ControlFlowGraph build(ASTBlock body) {
+        int entry = newBlock();
+        int exit = newBlock();
+        assert entry == ControlFlowGraph.ENTRY && exit == ControlFlowGraph.EXIT;
+
+        current = newBlock();
+        addEdge(entry, current);
+        body.acceptVisitor(this, null);
+        addEdge(current, exit);
+        resolve(returnTarget, exit);
+        resolve(throwTarget, exit);
+        return finish();
+    }
+
+    private ControlFlowGraph finish() {
+        int numBlocks = blocks.size();
+        int numElements = 0;
+        for (List<JavaNode> block : blocks) {
+            numElements += block.size();
+        }
+        JavaNode[] elements = new JavaNode[numElements];
+        int[] blockStart = new int[numBlocks + 1];
+        Map<JavaNode, Integer> blockOfElement = new HashMap<>(numElements * 2);
+        int i = 0;
+        for (int block = 0; block < numBlocks; block++) {
+            blockStart[block] = i;
+            for (JavaNode element : blocks.get(block)) {
+                elements[i++] = element;
+                blockOfElement.put(element, block);
+            }
+        }
+        blockStart[numBlocks] = i;
+        return new ControlFlowGraph(elements, blockStart, toArrays(successors), toArrays(exceptionalSuccessors), blockOfElement);
+    }
+
+    private static int[][] toArrays(List<BitSet> edges) {
+        int[][] result = new int[edges.size()][];
+        for (int i = 0; i < result.length; i++) {
+            BitSet bits = edges.get(i);
+            result[i] = bits.isEmpty() ? ControlFlowGraph.noBlocks() : bits.stream().toArray();
+        }
+        return result;
+    }
+
+    // block management
+
+    private int newBlock() {
+        blocks.add(new ArrayList<>(2));
+        successors.add(new BitSet());
+        exceptionalSuccessors.add(new BitSet());
+        return blocks.size() - 1;
+    }
+
+    /** Add an edge, if the source is reachable. */
+    private void addEdge(int from, int to) {
+        if (from >= 0) {
+            successors.get(from).set(to);
+        }
+    }
+
+    /** Starts a new block, which follows the current one. */
+    private int startBlock() {
+        int block = newBlock();
+        addEdge(current, block);
+        current = block;
+        return block;
+    }
+
+    /** Returns a new block which follows the given block. */
+    private int branchFrom(int from) {
+        int block = newBlock();
+        addEdge(from, block);
+        return block;
+    }
+
+    private void append(JavaNode element) {
+        if (current < 0) {
+            // dead code, it gets a block with no predecessor
+            current = newBlock();
+        }
+        blocks.get(current).add(element);
+    }
+
+    /** Continue in a block that joins the given ones, or in dead code if none is reachable. */
+    private void join(List<Integer> ends) {
+        int join = -1;
+        for (int end : ends) {
+            if (end >= 0) {
+                if (join < 0) {
+                    join = newBlock();
+                }
+                addEdge(end, join);
+            }
+        }
+        current = join;
+    }
+
+    private void addExceptionalEdges(int fromBlock, int toBlock, int target) {
+        for (int block = fromBlock; block < toBlock; block++) {
+            exceptionalSuccessors.get(block).set(target);
+        }
+    }
+
+    // jumps
+
+    private JumpTarget newTarget(Map<ASTStatement, JumpTarget> targets, ASTStatement stmt) {
+        JumpTarget target = new JumpTarget(tryStack.size());
+        targets.put(stmt, target);
+        return target;
+    }
+
+    private void resolve(JumpTarget target, int block) {
+        for (int source : target.sources) {
+            addEdge(source, block);
+        }
+        target.sources.clear();
+    }
+
+    /** A jump from the given block, which goes through the finally clauses between it and the target. */
+    private void jump(int from, @Nullable JumpTarget target) {
+        if (target == null || from < 0) {
+            return; // invalid code
+        } else if (target == throwTarget) { // NOPMD CompareObjectsWithEquals
+            throwFrom(from);
+            return;
+        }
+        for (int i = tryStack.size() - 1; i >= target.tryDepth; i--) {
+            TryFrame frame = tryStack.get(i);
+            if (frame.hasFinally) {
+                frame.finallySources.add(from);
+                frame.continuations.add(target);
+                return;
+            }
+        }
+        target.sources.add(from);
+    }
+
+    /** A throw from the given block, which goes to the enclosing catch clauses, until the first finally. */
+    private void throwFrom(int from) {
+        for (int i = tryStack.size() - 1; i >= 0; i--) {
+            TryFrame frame = tryStack.get(i);
+            if (frame.inBody) {
+                frame.catchSources.add(from);
+            }
+            if (frame.hasFinally) {
+                frame.finallySources.add(from);
+                frame.continuations.add(throwTarget);
+                return;
+            }
+        }
+        throwTarget.sources.add(from);
+    }
+
+    private static @Nullable ASTStatement unwrapLabels(@Nullable ASTStatement stmt) {
+        while (stmt instanceof ASTLabeledStatement) {
+            stmt = ((ASTLabeledStatement) stmt).getStatement();
+        }
+        return stmt;
+    }
+
+    private static boolean isTrue(@Nullable ASTExpression condition) {
+        return condition != null && Boolean.TRUE.equals(condition.getConstValue());
+    }
+
+    // statements
+
+    @Override
+    public Void visitStatement(ASTStatement node, Void data) {
+        // simple statements, eg expression statements, local variables, asserts
+        append(node);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTBlock node, Void data) {
+        for (ASTStatement stmt : node) {
+            stmt.acceptVisitor(this, data);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTLabeledStatement node, Void data) {
+        JumpTarget breakTarget = newTarget(breakTargets, node);
+        node.getStatement().acceptVisitor(this, data);
+        int after = startBlock();
+        resolve(breakTarget, after);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTIfStatement node, Void data) {
+        append(node.getCondition());
+        int condition = current;
+
+        List<Integer> ends = new ArrayList<>(2);
+        current = branchFrom(condition);
+        node.getThenBranch().acceptVisitor(this, data);
+        ends.add(current);
+
+        if (node.getElseBranch() != null) {
+            current = branchFrom(condition);
+            node.getElseBranch().acceptVisitor(this, data);
+            ends.add(current);
+        } else {
+            ends.add(condition);
+        }
+        join(ends);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTWhileStatement node, Void data) {
+        int head = startBlock();
+        append(node.getCondition());
+        JumpTarget breakTarget = newTarget(breakTargets, node);
+        JumpTarget continueTarget = newTarget(continueTargets, node);
+
+        current = branchFrom(head);
+        node.getBody().acceptVisitor(this, data);
+        addEdge(current, head);
+        resolve(continueTarget, head);
+
+        current = isTrue(node.getCondition()) ? newBlock() : branchFrom(head);
+        resolve(breakTarget, current);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTDoStatement node, Void data) {
+        int bodyStart = startBlock();
+        JumpTarget breakTarget = newTarget(breakTargets, node);
+        JumpTarget continueTarget = newTarget(continueTargets, node);
+        node.getBody().acceptVisitor(this, data);
+
+        int condition = startBlock();
+        resolve(continueTarget, condition);
+        append(node.getCondition());
+        addEdge(condition, bodyStart);
+
+        current = isTrue(node.getCondition()) ? newBlock() : branchFrom(condition);
+        resolve(breakTarget, current);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTForStatement node, Void data) {
+        if (node.getInit() != null) {
+            append(node.getInit());
+        }
+        int head = startBlock();
+        if (node.getCondition() != null) {
+            append(node.getCondition());
+        }
+        JumpTarget breakTarget = newTarget(breakTargets, node);
+        JumpTarget continueTarget = newTarget(continueTargets, node);
+
+        current = branchFrom(head);
+        node.getBody().acceptVisitor(this, data);
+
+        int update = startBlock();
+        resolve(continueTarget, update);
+        if (node.getUpdate() != null) {
+            append(node.getUpdate());
+        }
+        addEdge(update, head);
+
+        boolean infinite = node.getCondition() == null || isTrue(node.getCondition());
+        current = infinite ? newBlock() : branchFrom(head);
+        resolve(breakTarget, current);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTForeachStatement node, Void data) {
+        append(node.getIterableExpr());
+        int head = startBlock();
+        JumpTarget breakTarget = newTarget(breakTargets, node);
+        JumpTarget continueTarget = newTarget(continueTargets, node);
+
+        current = branchFrom(head);
+        append(node.getVarId());
+        node.getBody().acceptVisitor(this, data);
+        addEdge(current, head);
+        resolve(continueTarget, head);
+
+        current = branchFrom(head);
+        resolve(breakTarget, current);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTSwitchStatement node, Void data) {
+        append(node.getTestedExpression());
+        int switchBlock = current;
+        JumpTarget breakTarget = newTarget(breakTargets, node);
+
+        List<Integer> ends = new ArrayList<>();
+        int fallthrough = -1;
+        for (ASTSwitchBranch branch : node.getBranches()) {
+            current = branchFrom(switchBlock);
+            addEdge(fallthrough, current);
+            append(branch.getLabel());
+            if (branch instanceof ASTSwitchFallthroughBranch) {
+                for (ASTStatement stmt : ((ASTSwitchFallthroughBranch) branch).getStatements()) {
+                    stmt.acceptVisitor(this, data);
+                }
+                fallthrough = current;
+            } else {
+                ASTSwitchArrowRHS rhs = ((ASTSwitchArrowBranch) branch).getRightHandSide();
+                if (rhs instanceof ASTExpression) {
+                    append(rhs);
+                } else {
+                    // a block or a throw statement
+                    rhs.acceptVisitor(this, data);
+                }
+                ends.add(current);
+                fallthrough = -1;
+            }
+        }
+        ends.add(fallthrough);
+        if (!node.hasDefaultCase() && !node.isExhaustiveEnumSwitch()) {
+            ends.add(switchBlock);
+        }
+        int after = newBlock();
+        for (int end : ends) {
+            addEdge(end, after);
+        }
+        resolve(breakTarget, after);
+        current = after;
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTSynchronizedStatement node, Void data) {
+        append(node.getLockExpression());
+        node.getBody().acceptVisitor(this, data);
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTTryStatement node, Void data) {
+        ASTFinallyClause finallyClause = node.getFinallyClause();
+        TryFrame frame = new TryFrame(finallyClause != null);
+        tryStack.add(frame);
+
+        int firstBodyBlock = blocks.size();
+        startBlock();
+        if (node.isTryWithResources()) {
+            append(node.getResources());
+        }
+        node.getBody().acceptVisitor(this, data);
+        int endOfBodyBlocks = blocks.size();
+        frame.inBody = false;
+
+        List<Integer> ends = new ArrayList<>();
+        ends.add(current);
+        for (ASTCatchClause catchClause : node.getCatchClauses()) {
+            int entry = newBlock();
+            for (int source : frame.catchSources) {
+                addEdge(source, entry);
+            }
+            if (withExceptionalEdges) {
+                addExceptionalEdges(firstBodyBlock, endOfBodyBlocks, entry);
+            }
+            current = entry;
+            append(catchClause.getParameter());
+            catchClause.getBody().acceptVisitor(this, data);
+            ends.add(current);
+        }
+        int endOfCatchBlocks = blocks.size();
+        tryStack.remove(tryStack.size() - 1);
+
+        if (finallyClause == null) {
+            join(ends);
+            return null;
+        }
+
+        int finallyEntry = newBlock();
+        boolean canCompleteNormally = false;
+        for (int end : ends) {
+            addEdge(end, finallyEntry);
+            canCompleteNormally |= end >= 0;
+        }
+        for (int source : frame.finallySources) {
+            addEdge(source, finallyEntry);
+        }
+        if (withExceptionalEdges) {
+            addExceptionalEdges(firstBodyBlock, endOfCatchBlocks, finallyEntry);
+            // an exception thrown by the try block continues after the finally
+            frame.continuations.add(throwTarget);
+        }
+
+        current = finallyEntry;
+        finallyClause.getBody().acceptVisitor(this, data);
+        int finallyEnd = current;
+        for (JumpTarget continuation : frame.continuations) {
+            jump(finallyEnd, continuation);
+        }
+        current = canCompleteNormally ? branchFrom(finallyEnd) : -1;
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTReturnStatement node, Void data) {
+        append(node);
+        jump(current, returnTarget);
+        current = -1;
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTThrowStatement node, Void data) {
+        append(node);
+        throwFrom(current);
+        current = -1;
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTBreakStatement node, Void data) {
+        append(node);
+        jump(current, breakTargets.get(node.getTarget()));
+        current = -1;
+        return null;
+    }
+
+    @Override
+    public Void visit(ASTContinueStatement node, Void data) {
+        append(node);
+        jump(current, continueTargets.get(unwrapLabels(node.getTarget())));
+        current = -1;
+        return null;
+    }
+
+    /** Collects the jumps to a statement that is not built yet. */
+    private static final class JumpTarget {
+
+        /** Number of enclosing try statements at the target. */
+        final int tryDepth;
+        final List<Integer> sources = new ArrayList<>(1);
+
+        JumpTarget(int tryDepth) {
+            this.tryDepth = tryDepth;
+        }
+    }
+
+    /** State of an enclosing try statement. */
+    private static final class TryFrame {
+
+        final boolean hasFinally;
+        /** Whether we are building the try block, in which case throws go to the catch clauses. */
+        boolean inBody = true;
+        final List<Integer> catchSources = new ArrayList<>(0);
+        final List<Integer> finallySources = new ArrayList<>(0);
+        /** Where the end of the finally clause may continue, besides after the try statement. */
+        final Set<JumpTarget> continuations = new LinkedHashSet<>(0);
+
+        TryFrame(boolean hasFinally) {
+            this.hasFinally = hasFinally;
+        }
+    }
+}
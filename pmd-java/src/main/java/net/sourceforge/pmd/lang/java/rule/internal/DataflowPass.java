@@ -9,8 +9,10 @@ import static net.sourceforge.pmd.util.CollectionUtil.asSingle;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -126,12 +128,57 @@ public final class DataflowPass {
 
     /**
      * Returns the info computed by the dataflow pass for the given file.
-     * The computation is done at most once.
+     * The computation is done at most once. Method results that were
+     * already computed by {@link #getDataflowResult(ASTMethodDeclaration)}
+     * are reused.
      */
     public static DataflowResult getDataflowResult(ASTCompilationUnit acu) {
         return acu.getUserMap().computeIfAbsent(DATAFLOW_RESULT_K, () -> process(acu));
     }
 
+    /**
+     * Returns the info computed by the dataflow pass for the given method.
+     * Only the body of the method is analysed, the computation is done
+     * at most once. The result only contains information about the
+     * method (eg its unused assignments, and the reaching definitions of
+     * the variable accesses within it). If the result for the whole file
+     * has already been computed, that one is returned.
+     *
+     * <p>Methods of local and anonymous classes may observe the state of
+     * their enclosing method, for those the whole file is analysed instead.
+     *
+     * <p>Results for different methods of the same file may be computed
+     * concurrently, provided the result for the whole file is not being
+     * computed at the same time.
+     */
+    public static DataflowResult getDataflowResult(ASTMethodDeclaration method) {
+        DataflowResult fileResult = method.getRoot().getUserMap().get(DATAFLOW_RESULT_K);
+        if (fileResult != null) {
+            return fileResult;
+        }
+        ASTTypeDeclaration owner = method.getEnclosingType();
+        if (method.getBody() == null || owner.isLocal() || owner.isAnonymous()) {
+            return getDataflowResult(method.getRoot());
+        }
+        return method.getUserMap().computeIfAbsent(DATAFLOW_RESULT_K, () -> processMethod(owner, method));
+    }
+
+    /**
+     * Returns a dataflow result that contains information about the
+     * given node. If the node is in a method, only that method is
+     * analysed, see {@link #getDataflowResult(ASTMethodDeclaration)}.
+     * Otherwise the whole file is analysed. This is what rules should use
+     * if they only query the {@linkplain DataflowResult#getReachingDefinitions(ASTNamedReferenceExpr) reaching definitions}
+     * of some expressions.
+     */
+    public static DataflowResult getDataflowResultFor(JavaNode node) {
+        ASTMethodDeclaration method = node.ancestorsOrSelf().first(ASTMethodDeclaration.class);
+        if (method != null) {
+            return getDataflowResult(method);
+        }
+        return getDataflowResult(node.getRoot());
+    }
+
     /**
      * If the var id is that of a field, returns the assignment entry that
      * corresponds to its definition (either blank or its initializer). From
@@ -150,26 +197,23 @@ public final class DataflowPass {
         for (ASTTypeDeclaration typeDecl : node.getTypeDeclarations()) {
             GlobalAlgoState subResult = new GlobalAlgoState();
             ReachingDefsVisitor.processTypeDecl(typeDecl, new SpanInfo(subResult));
-            if (subResult.usedAssignments.size() < subResult.allAssignments.size()) {
-                Set<AssignmentEntry> unused = subResult.allAssignments;
-                unused.removeAll(subResult.usedAssignments);
-                unused.removeIf(AssignmentEntry::isUnbound);
-                unused.removeIf(AssignmentEntry::isFieldDefaultValue);
-                dataflowResult.unusedAssignments.addAll(unused);
+            dataflowResult.absorb(subResult);
+            for (DataflowResult methodResult : subResult.reusedMethodResults) {
+                dataflowResult.absorb(methodResult);
             }
-
-            CollectionUtil.mergeMaps(
-                dataflowResult.killRecord,
-                subResult.killRecord,
-                (s1, s2) -> {
-                    s1.addAll(s2);
-                    return s1;
-                });
         }
 
         return dataflowResult;
     }
 
+    private static DataflowResult processMethod(ASTTypeDeclaration owner, ASTMethodDeclaration method) {
+        DataflowResult dataflowResult = new DataflowResult();
+        GlobalAlgoState subResult = new GlobalAlgoState();
+        ReachingDefsVisitor.processMethod(owner, method, new SpanInfo(subResult));
+        dataflowResult.absorb(subResult);
+        return dataflowResult;
+    }
+
     /**
      * A set of reaching definitions, ie the assignments that are visible
      * at some point. One can use {@link DataflowResult#getReachingDefinitions(ASTNamedReferenceExpr)}
@@ -252,6 +296,8 @@ public final class DataflowPass {
 
         final Set<AssignmentEntry> unusedAssignments;
         final Map<AssignmentEntry, Set<AssignmentEntry>> killRecord;
+        /** Largest number of definitions in a frame, which bounds the size of the bit sets. For tests. */
+        int maxFrameSize;
 
 
         DataflowResult() {
@@ -259,6 +305,38 @@ public final class DataflowPass {
             this.killRecord = new LinkedHashMap<>();
         }
 
+        void absorb(GlobalAlgoState subResult) {
+            // an assignment may have been imported in other frames, and used there
+            Set<AssignmentEntry> used = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (DefinitionFrame frame : subResult.frames) {
+                frame.collectUsed(used);
+                maxFrameSize = Math.max(maxFrameSize, frame.size());
+            }
+            for (AssignmentEntry assignment : subResult.allAssignments) {
+                if (!used.contains(assignment) && !assignment.isUnbound() && !assignment.isFieldDefaultValue()) {
+                    unusedAssignments.add(assignment);
+                }
+            }
+            mergeKillRecord(subResult.killRecord);
+        }
+
+        void absorb(DataflowResult other) {
+            unusedAssignments.addAll(other.unusedAssignments);
+            mergeKillRecord(other.killRecord);
+            maxFrameSize = Math.max(maxFrameSize, other.maxFrameSize);
+        }
+
+        private void mergeKillRecord(Map<AssignmentEntry, Set<AssignmentEntry>> otherRecord) {
+            CollectionUtil.mergeMaps(
+                killRecord,
+                otherRecord,
+                (s1, s2) -> {
+                    Set<AssignmentEntry> merged = new LinkedHashSet<>(s1);
+                    merged.addAll(s2);
+                    return merged;
+                });
+        }
+
         /**
          * To be interpreted by {@link  UnusedAssignmentRule}.
          */
@@ -705,7 +783,7 @@ public final class DataflowPass {
             JavaNode lambdaBody = node.getChild(node.getNumChildren() - 1);
             // if it's an expression, then no assignments may occur in it,
             // but it can still use some variables of the context
-            acceptOpt(lambdaBody, before.forkCapturingNonLocal());
+            acceptOpt(lambdaBody, before.forkCapturingNonLocal().inNewFrame());
             return before;
         }
 
@@ -1017,7 +1095,7 @@ public final class DataflowPass {
                     }
 
                     VarLocalInfo oldVar = result.assign(lhsVar, rhs);
-                    SpanInfo.updateReachingDefs(lhs, lhsVar, oldVar);
+                    result.updateReachingDefs(lhs, lhsVar, oldVar);
                 }
             }
             return result;
@@ -1130,17 +1208,13 @@ public final class DataflowPass {
             for (ASTBodyDeclaration decl : node.getDeclarations()) {
                 if (decl instanceof ASTMethodDeclaration) {
                     ASTMethodDeclaration method = (ASTMethodDeclaration) decl;
-                    if (method.getBody() != null) {
-                        SpanInfo span = data.forkCapturingNonLocal();
-                        boolean staticCtx = method.isStatic();
-                        span.declareSpecialFieldValues(node.getSymbol(), staticCtx);
-                        SpanInfo endState;
-                        if (staticCtx) {
-                            endState = staticVisitor.acceptOpt(decl, span);
-                        } else {
-                            endState = instanceVisitor.acceptOpt(decl, span);
-                        }
-                        useAllSelfFields(endState, staticCtx, node.getSymbol());
+                    DataflowResult methodResult = method.getUserMap().get(DATAFLOW_RESULT_K);
+                    if (methodResult != null) {
+                        // already analysed on its own, see getDataflowResult(ASTMethodDeclaration)
+                        data.global.reusedMethodResults.add(methodResult);
+                    } else if (method.getBody() != null) {
+                        SpanInfo span = data.forkCapturingNonLocal().inNewFrame();
+                        processMethodBody(node, method, span, method.isStatic() ? staticVisitor : instanceVisitor);
                     }
                 } else if (decl instanceof ASTTypeDeclaration) {
                     processTypeDecl((ASTTypeDeclaration) decl, data.forkEmptyNonLocal());
@@ -1149,6 +1223,25 @@ public final class DataflowPass {
             return data;
         }
 
+        /**
+         * Process a method of a member or toplevel type, independently
+         * of the rest of the type. This starts from the same state as
+         * {@link #processTypeDecl(ASTTypeDeclaration, SpanInfo)}, as the
+         * reaching definitions of a method do not depend on the other
+         * members of its class.
+         */
+        static void processMethod(ASTTypeDeclaration owner, ASTMethodDeclaration method, SpanInfo data) {
+            ReachingDefsVisitor visitor = new ReachingDefsVisitor(owner.getSymbol(), method.isStatic());
+            processMethodBody(owner, method, data.forkCapturingNonLocal().inNewFrame(), visitor);
+        }
+
+        private static void processMethodBody(ASTTypeDeclaration owner, ASTMethodDeclaration method, SpanInfo span, ReachingDefsVisitor visitor) {
+            boolean staticCtx = method.isStatic();
+            span.declareSpecialFieldValues(owner.getSymbol(), staticCtx);
+            SpanInfo endState = visitor.acceptOpt(method, span);
+            useAllSelfFields(endState, staticCtx, owner.getSymbol());
+        }
+
         private static void processInitializers(NodeStream<ASTBodyDeclaration> declarations,
                                                 SpanInfo beforeLocal,
                                                 @NonNull JClassSymbol classSymbol,
@@ -1156,7 +1249,7 @@ public final class DataflowPass {
                                                 ReachingDefsVisitor staticVisitor) {
 
             // All static field initializers + static initializers
-            SpanInfo staticInit = beforeLocal.forkEmptyNonLocal();
+            SpanInfo staticInit = beforeLocal.forkEmptyNonLocal().inNewFrame();
 
             List<ASTBodyDeclaration> ctors = new ArrayList<>();
             // Those are initializer blocks and instance field initializers
@@ -1192,7 +1285,7 @@ public final class DataflowPass {
             // All field initializers + instance initializers
             // This also contains the static definitions, as the class must be
             // initialized before an instance is created.
-            SpanInfo ctorHeader = beforeLocal.forkCapturingNonLocal().absorb(staticInit);
+            SpanInfo ctorHeader = beforeLocal.forkCapturingNonLocal().inNewFrame().absorb(staticInit);
 
             // Static fields get an "initial value" placeholder before starting instance ctors
             ctorHeader.declareSpecialFieldValues(classSymbol, true);
@@ -1203,7 +1296,7 @@ public final class DataflowPass {
 
             SpanInfo ctorEndState = ctors.isEmpty() ? ctorHeader : null;
             for (ASTBodyDeclaration ctor : ctors) {
-                SpanInfo ctorBody = ctorHeader.forkCapturingNonLocal();
+                SpanInfo ctorBody = ctorHeader.forkCapturingNonLocal().inNewFrame();
                 ctorBody.declareSpecialFieldValues(classSymbol, true);
                 SpanInfo state = instanceVisitor.acceptOpt(ctor, ctorBody);
                 ctorEndState = ctorEndState == null ? state : ctorEndState.absorb(state);
@@ -1229,52 +1322,155 @@ public final class DataflowPass {
      */
     private static final class GlobalAlgoState {
 
-        final Set<AssignmentEntry> allAssignments;
-        final Set<AssignmentEntry> usedAssignments;
+        /** All assignments, in creation order. */
+        final List<AssignmentEntry> allAssignments;
+        /** All the frames in which assignments were numbered. */
+        final List<DefinitionFrame> frames;
 
         // track which assignments kill which
         // assignment -> killers(assignment)
         final Map<AssignmentEntry, Set<AssignmentEntry>> killRecord;
 
+        /**
+         * Results of methods that were analysed on their own before
+         * the whole type was, which are reused instead of analysing the
+         * method again.
+         */
+        final List<DataflowResult> reusedMethodResults = new ArrayList<>(0);
+
         final TargetStack breakTargets = new TargetStack();
         // continue jumps to the condition check, while break jumps to after the loop
         final TargetStack continueTargets = new TargetStack();
 
-        private GlobalAlgoState(Set<AssignmentEntry> allAssignments,
-                                Set<AssignmentEntry> usedAssignments,
-                                Map<AssignmentEntry, Set<AssignmentEntry>> killRecord) {
-            this.allAssignments = allAssignments;
-            this.usedAssignments = usedAssignments;
-            this.killRecord = killRecord;
+        private GlobalAlgoState() {
+            this.allAssignments = new ArrayList<>();
+            this.frames = new ArrayList<>();
+            this.killRecord = new LinkedHashMap<>();
+        }
 
+        DefinitionFrame newFrame() {
+            DefinitionFrame frame = new DefinitionFrame();
+            frames.add(frame);
+            return frame;
         }
+    }
 
-        private GlobalAlgoState() {
-            this(new LinkedHashSet<>(),
-                 new LinkedHashSet<>(),
-                 new LinkedHashMap<>());
+    /**
+     * Numbers the assignments of a method, lambda, constructor or
+     * initializer. Sets of assignments are represented as bit sets of
+     * those numbers, which makes the frequent copies and merges of
+     * reaching definitions cheap. Since the numbering starts again in each
+     * frame, the bit sets are bounded by the number of assignments of the
+     * frame, and not by those of the whole class.
+     *
+     * <p>Reaching definitions of an enclosing frame may still reach a frame,
+     * e.g. the local variables captured by a lambda. They keep the numbers
+     * of their own frame (see {@link VarLocalInfo#frame}), until they are
+     * merged with definitions of the current frame. They are then imported
+     * into the current frame, under a new number.
+     */
+    private static final class DefinitionFrame {
+
+        /** Assignments of this frame, or imported into it, indexed by their number. */
+        private final List<AssignmentEntry> assignments = new ArrayList<>();
+        /** Numbers of the assignments that are used somewhere. */
+        private final BitSet used = new BitSet();
+        /** Numbers of the assignments of other frames that were imported into this one. */
+        private @Nullable Map<AssignmentEntry, Integer> imported;
+
+        /** Number the given assignment, and return its number. */
+        int addAssignment(AssignmentEntry entry) {
+            assignments.add(entry);
+            return assignments.size() - 1;
+        }
+
+        /** Returns the number of an assignment of another frame in this frame. */
+        int importAssignment(AssignmentEntry entry) {
+            if (imported == null) {
+                imported = new IdentityHashMap<>();
+            }
+            return imported.computeIfAbsent(entry, this::addAssignment);
+        }
+
+        AssignmentEntry get(int number) {
+            return assignments.get(number);
+        }
+
+        int size() {
+            return assignments.size();
+        }
+
+        void markUsed(BitSet numbers) {
+            used.or(numbers);
+        }
+
+        void collectUsed(Set<AssignmentEntry> result) {
+            for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1)) {
+                result.add(assignments.get(i));
+            }
+        }
+
+        /** Returns the assignments whose number is in the bit set, in numbering order. */
+        Set<AssignmentEntry> toAssignments(BitSet numbers) {
+            Set<AssignmentEntry> result = new LinkedHashSet<>(numbers.cardinality());
+            for (int i = numbers.nextSetBit(0); i >= 0; i = numbers.nextSetBit(i + 1)) {
+                result.add(assignments.get(i));
+            }
+            return result;
         }
     }
 
     // Information about a variable in a code span.
     static class VarLocalInfo {
 
-        // this is not modified so can be shared between different SpanInfos.
-        final Set<AssignmentEntry> reachingDefs;
+        // The frame that numbers the reaching assignments.
+        final DefinitionFrame frame;
+        // Numbers of the reaching assignments in the frame.
+        // This is not modified so can be shared between different SpanInfos.
+        final BitSet reachingDefs;
 
-        VarLocalInfo(Set<AssignmentEntry> reachingDefs) {
+        VarLocalInfo(DefinitionFrame frame, BitSet reachingDefs) {
+            this.frame = frame;
             this.reachingDefs = reachingDefs;
         }
 
-        // and produce an independent instance
-        VarLocalInfo merge(VarLocalInfo other) {
+        static VarLocalInfo singleton(DefinitionFrame frame, int assignmentNumber) {
+            BitSet bits = new BitSet(assignmentNumber + 1);
+            bits.set(assignmentNumber);
+            return new VarLocalInfo(frame, bits);
+        }
+
+        /** Returns the same definitions, numbered in the given frame. */
+        VarLocalInfo inFrame(DefinitionFrame target) {
+            if (target == frame) { // NOPMD CompareObjectsWithEqual this is what we want
+                return this;
+            }
+            BitSet bits = new BitSet(target.size() + reachingDefs.cardinality());
+            for (int i = reachingDefs.nextSetBit(0); i >= 0; i = reachingDefs.nextSetBit(i + 1)) {
+                bits.set(target.importAssignment(frame.get(i)));
+            }
+            return new VarLocalInfo(target, bits);
+        }
+
+        // and produce an independent instance. If both infos are not
+        // numbered in the same frame, the result is numbered in the given
+        // frame, which is the frame of the span that merges them.
+        VarLocalInfo merge(VarLocalInfo other, DefinitionFrame currentFrame) {
             if (other == this) { // NOPMD #3205
                 return this;
             }
-            Set<AssignmentEntry> merged = new LinkedHashSet<>(reachingDefs.size() + other.reachingDefs.size());
-            merged.addAll(reachingDefs);
-            merged.addAll(other.reachingDefs);
-            return new VarLocalInfo(merged);
+            if (other.frame != frame) { // NOPMD CompareObjectsWithEqual this is what we want
+                return inFrame(currentFrame).merge(other.inFrame(currentFrame), currentFrame);
+            }
+            BitSet merged = (BitSet) reachingDefs.clone();
+            merged.or(other.reachingDefs);
+            if (merged.equals(reachingDefs)) {
+                // the other defs are already included, avoid copying
+                return this;
+            } else if (merged.equals(other.reachingDefs)) {
+                return other;
+            }
+            return new VarLocalInfo(frame, merged);
         }
 
         @Override
@@ -1309,6 +1505,9 @@ public final class DataflowPass {
 
         final GlobalAlgoState global;
 
+        /** Numbers the assignments made in this span. */
+        final DefinitionFrame frame;
+
         final Map<JVariableSymbol, VarLocalInfo> symtable;
 
         /**
@@ -1342,15 +1541,17 @@ public final class DataflowPass {
 
 
         private SpanInfo(GlobalAlgoState global) {
-            this(null, global, new LinkedHashMap<>());
+            this(null, global, global.newFrame(), new LinkedHashMap<>());
         }
 
         private SpanInfo(@Nullable SpanInfo parent,
                          GlobalAlgoState global,
+                         DefinitionFrame frame,
                          Map<JVariableSymbol, VarLocalInfo> symtable) {
             this.parent = parent;
             this.returnOrThrowTarget = parent == null ? this : parent.returnOrThrowTarget;
             this.global = global;
+            this.frame = frame;
             this.symtable = symtable;
             this.myCatches = Collections.emptyList();
         }
@@ -1376,19 +1577,22 @@ public final class DataflowPass {
             AssignmentEntry entry = kind != SpecialAssignmentKind.NOT_SPECIAL
                                     ? new UnboundAssignment(var, node, rhs, kind)
                                     : new AssignmentEntry(var, node, rhs);
-            VarLocalInfo newInfo = new VarLocalInfo(Collections.singleton(entry));
+            global.allAssignments.add(entry);
+            VarLocalInfo newInfo = VarLocalInfo.singleton(frame, frame.addAssignment(entry));
             if (kind.shouldJoinWithPreviousAssignment()) {
                 // For unknown method calls, we don't know if the existing reaching defs were killed or not.
                 // In that case we just add an unbound entry to the existing reaching def set.
                 VarLocalInfo prev = symtable.remove(var);
                 if (prev != null) {
-                    newInfo = prev.merge(newInfo);
+                    newInfo = prev.merge(newInfo, frame);
                 }
             }
             VarLocalInfo previous = symtable.put(var, newInfo);
             if (previous != null) {
                 // those assignments were overwritten ("killed")
-                for (AssignmentEntry killed : previous.reachingDefs) {
+                BitSet killedDefs = previous.reachingDefs;
+                for (int i = killedDefs.nextSetBit(0); i >= 0; i = killedDefs.nextSetBit(i + 1)) {
+                    AssignmentEntry killed = previous.frame.get(i);
                     if (killed.isBlankLocal()) {
                         continue;
                     }
@@ -1397,7 +1601,6 @@ public final class DataflowPass {
                                      .add(entry);
                 }
             }
-            global.allAssignments.add(entry);
             return previous;
         }
 
@@ -1436,19 +1639,19 @@ public final class DataflowPass {
             VarLocalInfo info = symtable.get(var);
             // may be null for implicit assignments, like method parameter
             if (info != null) {
-                global.usedAssignments.addAll(info.reachingDefs);
+                info.frame.markUsed(info.reachingDefs);
                 if (reachingDefSink != null) {
                     updateReachingDefs(reachingDefSink, var, info);
                 }
             }
         }
 
-        private static void updateReachingDefs(@NonNull ASTNamedReferenceExpr reachingDefSink, JVariableSymbol var, VarLocalInfo info) {
+        void updateReachingDefs(@NonNull ASTNamedReferenceExpr reachingDefSink, JVariableSymbol var, VarLocalInfo info) {
             ReachingDefinitionSet reaching;
             if (info == null || var.isField() && var.isFinal()) {
                 return;
             } else {
-                reaching = new ReachingDefinitionSet(new LinkedHashSet<>(info.reachingDefs));
+                reaching = new ReachingDefinitionSet(info.frame.toAssignments(info.reachingDefs));
             }
             // need to merge into previous to account for cyclic control flow
             reachingDefSink.getUserMap().merge(REACHING_DEFS, reaching, (current, newer) -> {
@@ -1516,7 +1719,18 @@ public final class DataflowPass {
         }
 
         private SpanInfo doFork(/*nullable*/ SpanInfo parent, Map<JVariableSymbol, VarLocalInfo> reaching) {
-            return new SpanInfo(parent, this.global, reaching);
+            return new SpanInfo(parent, this.global, this.frame, reaching);
+        }
+
+        /**
+         * Returns a span with the same state, whose assignments are numbered
+         * in a new frame. This is used at the start of methods, lambdas,
+         * constructors and initializers. This span must not have been
+         * used yet, nor have a parent.
+         */
+        SpanInfo inNewFrame() {
+            assert parent == null : "Only non-local forks can start a frame";
+            return new SpanInfo(null, this.global, global.newFrame(), this.symtable);
         }
 
         /** Abrupt completion for return, continue, break. */
@@ -1606,7 +1820,7 @@ public final class DataflowPass {
                 return this;
             }
 
-            CollectionUtil.mergeMaps(this.symtable, other.symtable, VarLocalInfo::merge);
+            CollectionUtil.mergeMaps(this.symtable, other.symtable, (mine, theirs) -> mine.merge(theirs, frame));
             this.hasCompletedAbruptly = mergeCertitude(this.hasCompletedAbruptly, other.hasCompletedAbruptly);
             this.abruptCompletionTargets = CollectionUtil.union(this.abruptCompletionTargets, other.abruptCompletionTargets);
             return this;
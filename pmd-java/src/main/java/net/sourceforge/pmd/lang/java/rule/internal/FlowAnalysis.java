@@ -0,0 +1,178 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule.internal;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * A dataflow analysis over a {@link ControlFlowGraph}, which is solved
+ * with a worklist algorithm. Subclasses define the lattice of states
+ * (with {@link #bottom()} and {@link #join(Object, Object)}) and the
+ * effect of each block ({@link #transfer(ControlFlowGraph, int, Object)}).
+ * Transfer functions must be monotonic for the analysis to terminate.
+ *
+ * <p>States should be treated as immutable: the transfer function and
+ * join should return a new state instead of modifying their parameters.
+ *
+ * @param <S> Type of the state
+ */
+public abstract class FlowAnalysis<S> {
+
+    /**
+     * Whether the analysis is forward (from the entry to the exit), or
+     * backward (from the exit to the entry, eg a liveness analysis).
+     */
+    protected boolean isForward() {
+        return true;
+    }
+
+    /**
+     * Whether the exceptional edges of the graph should be followed
+     * like normal edges. Note that the graph has no exceptional edges
+     * unless it was built with them.
+     */
+    protected boolean followExceptionalEdges() {
+        return true;
+    }
+
+    /** The state at the start of the analysis, ie at the entry of a forward analysis, or the exit of a backward one. */
+    protected abstract S initialState();
+
+    /** The smallest element of the lattice, the state of a block that is not reached by the analysis. */
+    protected abstract S bottom();
+
+    /** Join the states of two paths that merge. */
+    protected abstract S join(S first, S second);
+
+    /**
+     * Returns the state after the given block. For a forward analysis,
+     * the input state is the state before the block, and the output is
+     * the state after it. For a backward analysis, it is the reverse.
+     */
+    protected abstract S transfer(ControlFlowGraph cfg, int block, S input);
+
+    /** Whether two states are equal, used to detect the fixpoint. */
+    protected boolean isSameState(S first, S second) {
+        return Objects.equals(first, second);
+    }
+
+    final Result<S> solve(ControlFlowGraph cfg) {
+        final int numBlocks = cfg.getNumBlocks();
+        final boolean forward = isForward();
+        final int start = forward ? ControlFlowGraph.ENTRY : ControlFlowGraph.EXIT;
+
+        Object[] inputs = new Object[numBlocks];
+        Object[] outputs = new Object[numBlocks];
+        S bottom = bottom();
+        for (int i = 0; i < numBlocks; i++) {
+            inputs[i] = bottom;
+            outputs[i] = bottom;
+        }
+        inputs[start] = initialState();
+
+        Worklist worklist = new Worklist(numBlocks);
+        worklist.add(start);
+
+        while (!worklist.isEmpty()) {
+            int block = worklist.poll();
+
+            @SuppressWarnings("unchecked")
+            S output = transfer(cfg, block, (S) inputs[block]);
+            outputs[block] = output;
+
+            propagate(forward ? cfg.getSuccessors(block) : cfg.getPredecessors(block),
+                      output, inputs, worklist);
+            if (followExceptionalEdges()) {
+                propagate(forward ? cfg.getExceptionalSuccessors(block) : cfg.getExceptionalPredecessors(block),
+                          output, inputs, worklist);
+            }
+        }
+        return new Result<>(inputs, outputs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void propagate(int[] targets, S output, Object[] inputs, Worklist worklist) {
+        for (int target : targets) {
+            S previous = (S) inputs[target];
+            S joined = join(previous, output);
+            // every reached block is processed at least once
+            if (!worklist.wasVisited(target) || !isSameState(previous, joined)) {
+                inputs[target] = joined;
+                worklist.add(target);
+            }
+        }
+    }
+
+    /** A FIFO queue of blocks without duplicates. */
+    private static final class Worklist {
+
+        private final Deque<Integer> queue = new ArrayDeque<>();
+        private final BitSet queued;
+        private final BitSet visited;
+
+        Worklist(int numBlocks) {
+            queued = new BitSet(numBlocks);
+            visited = new BitSet(numBlocks);
+        }
+
+        void add(int block) {
+            if (!queued.get(block)) {
+                queued.set(block);
+                queue.add(block);
+            }
+        }
+
+        int poll() {
+            int block = queue.poll();
+            queued.clear(block);
+            visited.set(block);
+            return block;
+        }
+
+        boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        boolean wasVisited(int block) {
+            return visited.get(block);
+        }
+    }
+
+    /**
+     * The solution of an analysis, which has the state before and
+     * after each block.
+     *
+     * @param <S> Type of the state
+     */
+    public static final class Result<S> {
+
+        private final Object[] inputs;
+        private final Object[] outputs;
+
+        Result(Object[] inputs, Object[] outputs) {
+            this.inputs = inputs;
+            this.outputs = outputs;
+        }
+
+        /**
+         * Returns the input state of the transfer function of the block,
+         * ie the state before the block for a forward analysis, and after
+         * it for a backward analysis.
+         */
+        @SuppressWarnings("unchecked")
+        public S getInput(int block) {
+            return (S) inputs[block];
+        }
+
+        /** Returns the output state of the transfer function of the block. */
+        @SuppressWarnings("unchecked")
+        public S getOutput(int block) {
+            return (S) outputs[block];
+        }
+    }
+}
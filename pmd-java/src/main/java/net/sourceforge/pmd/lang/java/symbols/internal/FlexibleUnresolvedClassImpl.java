@@ -21,6 +21,11 @@ import net.sourceforge.pmd.lang.java.types.TypeSystem;
 /**
  * Unresolved <i>external reference</i> to a class.
  *
+ * <p>The mutators are synchronized, and the lists are replaced rather
+ * than mutated in place, as the symbol may be shared by the tasks
+ * that process the top-level types of a file in parallel (see
+ * {@link UnresolvedClassStore}).
+ *
  * @see JClassSymbol#isUnresolved()
  */
 final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
@@ -28,8 +33,8 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
     private static final int UNKNOWN_ARITY = 0;
 
     private int arity = UNKNOWN_ARITY;
-    private List<JTypeVar> tparams = Collections.emptyList();
-    private List<UnresolvedClassImpl> childClasses = Collections.emptyList();
+    private volatile List<JTypeVar> tparams = Collections.emptyList();
+    private volatile List<UnresolvedClassImpl> childClasses = Collections.emptyList();
 
     FlexibleUnresolvedClassImpl(TypeSystem ts,
                                 @Nullable JClassSymbol enclosing,
@@ -46,7 +51,7 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
      * @param newArity New number of type parameters
      */
     @Override
-    void setTypeParameterCount(int newArity) {
+    synchronized void setTypeParameterCount(int newArity) {
         if (arity == UNKNOWN_ARITY) {
             this.arity = newArity;
             List<JTypeVar> newParams = new ArrayList<>(newArity);
@@ -58,10 +63,7 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
     }
 
     @Override
-    UnresolvedClassImpl getOrCreateUnresolvedChildClass(String simpleName) {
-        if (childClasses.isEmpty()) {
-            childClasses = new ArrayList<>(); // make it mutable
-        }
+    synchronized UnresolvedClassImpl getOrCreateUnresolvedChildClass(String simpleName) {
         for (UnresolvedClassImpl childClass : childClasses) {
             if (childClass.nameEquals(simpleName)) {
                 return childClass;
@@ -69,7 +71,9 @@ final class FlexibleUnresolvedClassImpl extends UnresolvedClassImpl {
         }
         FlexibleUnresolvedClassImpl newChild =
             new FlexibleUnresolvedClassImpl(getTypeSystem(), this, getCanonicalName() + '.' + simpleName);
-        childClasses.add(newChild);
+        List<UnresolvedClassImpl> newChildren = new ArrayList<>(childClasses);
+        newChildren.add(newChild);
+        childClasses = newChildren;
         return newChild;
     }
 
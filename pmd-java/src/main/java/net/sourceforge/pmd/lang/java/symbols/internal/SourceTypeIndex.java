@@ -0,0 +1,379 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sourceforge.pmd.lang.document.TextFile;
+
+/**
+ * An index of the types declared in the analyzed source files. This
+ * only records names and type parameter counts, which are found by
+ * scanning the tokens of each file, without parsing it. It is built
+ * once before the analysis starts, and is immutable afterwards.
+ *
+ * <p>This allows resolving a reference to a type which is declared in
+ * the sources but is not on the auxclasspath, eg because the project
+ * was not compiled. Such a reference would otherwise be ambiguous (is
+ * {@code a.b.C} a class, or a package?), and would not have a proper
+ * canonical name if it was imported on-demand. See {@link SourceTypeIndexResolver}.
+ *
+ * <p>Local and anonymous classes are not indexed, as they cannot be
+ * referenced from another file.
+ */
+public final class SourceTypeIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SourceTypeIndex.class);
+
+    private static final SourceTypeIndex EMPTY = new SourceTypeIndex(Collections.emptyMap());
+
+    /** Maps both binary names and canonical names to the entry. */
+    private final Map<String, IndexedType> byName;
+
+    private SourceTypeIndex(Map<String, IndexedType> byName) {
+        this.byName = byName;
+    }
+
+    public static SourceTypeIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the entry for the given binary or canonical name,
+     * or null if no such type is declared in the sources.
+     */
+    public @Nullable IndexedType get(@NonNull String name) {
+        return byName.get(name);
+    }
+
+    public boolean isEmpty() {
+        return byName.isEmpty();
+    }
+
+    /**
+     * Build an index by scanning the given files in parallel. Files that
+     * cannot be read are skipped, they will be reported when they are
+     * analyzed.
+     */
+    public static SourceTypeIndex build(Collection<? extends TextFile> files) {
+        List<IndexedType> allTypes =
+            files.parallelStream()
+                 .flatMap(file -> scanFile(file).stream())
+                 .collect(Collectors.toList());
+
+        Map<String, IndexedType> byName = new HashMap<>(allTypes.size() * 2);
+        for (IndexedType type : allTypes) {
+            // if the same name is declared several times, the first one wins
+            byName.putIfAbsent(type.getBinaryName(), type);
+            byName.putIfAbsent(type.getCanonicalName(), type);
+        }
+        LOG.debug("Indexed {} types declared in {} source files", allTypes.size(), files.size());
+        return new SourceTypeIndex(byName);
+    }
+
+    private static List<IndexedType> scanFile(TextFile file) {
+        List<IndexedType> result = new ArrayList<>();
+        try {
+            scan(file.readContents().getNormalizedText(), result::add);
+        } catch (IOException e) {
+            LOG.debug("Could not read file {} to index it", file.getFileId(), e);
+        }
+        return result;
+    }
+
+    /**
+     * Scan the text of a compilation unit and report all the non-local
+     * types declared in it.
+     */
+    static void scan(CharSequence text, Consumer<? super IndexedType> sink) {
+        new TypeDeclScanner(text, sink).scan();
+    }
+
+
+    /**
+     * A type declared in a source file.
+     */
+    public static final class IndexedType {
+
+        private final @Nullable IndexedType enclosing;
+        private final String binaryName;
+        private final String canonicalName;
+        private final String simpleName;
+        private final int typeParameterCount;
+
+        IndexedType(@Nullable IndexedType enclosing, String packageName, String simpleName, int typeParameterCount) {
+            this.enclosing = enclosing;
+            this.simpleName = simpleName;
+            this.typeParameterCount = typeParameterCount;
+            if (enclosing != null) {
+                this.binaryName = enclosing.binaryName + '$' + simpleName;
+                this.canonicalName = enclosing.canonicalName + '.' + simpleName;
+            } else {
+                this.binaryName = packageName.isEmpty() ? simpleName : packageName + '.' + simpleName;
+                this.canonicalName = binaryName;
+            }
+        }
+
+        /** Returns the entry for the enclosing type, null if this is a top-level type. */
+        public @Nullable IndexedType getEnclosing() {
+            return enclosing;
+        }
+
+        public String getBinaryName() {
+            return binaryName;
+        }
+
+        public String getCanonicalName() {
+            return canonicalName;
+        }
+
+        public String getSimpleName() {
+            return simpleName;
+        }
+
+        public int getTypeParameterCount() {
+            return typeParameterCount;
+        }
+
+        @Override
+        public String toString() {
+            return "IndexedType[" + binaryName + ", arity=" + typeParameterCount + "]";
+        }
+    }
+
+    /**
+     * Finds type declarations by looking at the keywords, keeping track
+     * of braces to know whether a declaration is a member of another type.
+     */
+    private static final class TypeDeclScanner {
+
+        private final CharSequence text;
+        private final Consumer<? super IndexedType> sink;
+        private int pos;
+        private @Nullable String pushedBack;
+
+        TypeDeclScanner(CharSequence text, Consumer<? super IndexedType> sink) {
+            this.text = text;
+            this.sink = sink;
+        }
+
+        void scan() {
+            String packageName = "";
+            // types whose body we are in, with the brace depth of their body
+            Deque<IndexedType> enclosingTypes = new ArrayDeque<>();
+            Deque<Integer> bodyDepths = new ArrayDeque<>();
+
+            int depth = 0;
+            @Nullable IndexedType pending = null; // declared but its body is not opened yet
+            String prev = null;
+            String tok;
+            while ((tok = next()) != null) {
+                switch (tok) {
+                case "{":
+                    depth++;
+                    if (pending != null) {
+                        enclosingTypes.push(pending);
+                        bodyDepths.push(depth);
+                        pending = null;
+                    }
+                    break;
+                case "}":
+                    if (!bodyDepths.isEmpty() && bodyDepths.peek() == depth) {
+                        enclosingTypes.pop();
+                        bodyDepths.pop();
+                    }
+                    depth--;
+                    break;
+                case ";":
+                    // a declaration header is never interrupted by a semicolon
+                    pending = null;
+                    break;
+                case "package":
+                    if (depth == 0 && enclosingTypes.isEmpty()) {
+                        packageName = readQualifiedName();
+                    }
+                    break;
+                case "class":
+                case "interface":
+                case "enum":
+                case "record":
+                    boolean isMemberPosition = bodyDepths.isEmpty() ? depth == 0 : bodyDepths.peek() == depth;
+                    if (pending == null && isMemberPosition && !".".equals(prev)) {
+                        pending = readTypeHeader(enclosingTypes.peek(), packageName, "record".equals(tok));
+                        if (pending != null) {
+                            sink.accept(pending);
+                        }
+                    }
+                    break;
+                default:
+                    break;
+                }
+                prev = tok;
+            }
+        }
+
+        private String readQualifiedName() {
+            StringBuilder sb = new StringBuilder();
+            String tok;
+            while ((tok = next()) != null && !";".equals(tok)) {
+                if (isIdentifier(tok) || ".".equals(tok)) {
+                    sb.append(tok);
+                }
+            }
+            return sb.toString();
+        }
+
+        private @Nullable IndexedType readTypeHeader(@Nullable IndexedType enclosing, String packageName, boolean isRecord) {
+            String name = next();
+            if (name == null || !isIdentifier(name)) {
+                pushBack(name);
+                return null;
+            }
+            String afterName = next();
+            if (isRecord && !"(".equals(afterName) && !"<".equals(afterName)) {
+                // "record" is a contextual keyword, this is not a record declaration
+                pushBack(afterName);
+                return null;
+            }
+            int arity = 0;
+            if ("<".equals(afterName)) {
+                arity = countTypeParameters();
+            } else {
+                pushBack(afterName);
+            }
+            return new IndexedType(enclosing, packageName, name, arity);
+        }
+
+        /** Called after the opening angle bracket. */
+        private int countTypeParameters() {
+            int nesting = 1;
+            int count = 1;
+            String tok;
+            while (nesting > 0 && (tok = next()) != null) {
+                if ("<".equals(tok)) {
+                    nesting++;
+                } else if (">".equals(tok)) {
+                    nesting--;
+                } else if (",".equals(tok) && nesting == 1) {
+                    count++;
+                } else if ("{".equals(tok) || ";".equals(tok)) {
+                    // malformed, give up
+                    pushBack(tok);
+                    break;
+                }
+            }
+            return count;
+        }
+
+        private void pushBack(@Nullable String tok) {
+            assert pushedBack == null;
+            pushedBack = tok;
+        }
+
+        private static boolean isIdentifier(String tok) {
+            return Character.isJavaIdentifierStart(tok.charAt(0));
+        }
+
+        /**
+         * Returns the next token, skipping whitespace, comments and literals.
+         * Identifiers and numbers are returned as a whole, other characters
+         * are returned one by one. Returns null at the end of input.
+         */
+        private @Nullable String next() {
+            if (pushedBack != null) {
+                String tok = pushedBack;
+                pushedBack = null;
+                return tok;
+            }
+            final int len = text.length();
+            while (pos < len) {
+                char c = text.charAt(pos);
+                if (Character.isWhitespace(c)) {
+                    pos++;
+                } else if (c == '/' && pos + 1 < len && text.charAt(pos + 1) == '/') {
+                    while (pos < len && text.charAt(pos) != '\n') {
+                        pos++;
+                    }
+                } else if (c == '/' && pos + 1 < len && text.charAt(pos + 1) == '*') {
+                    skipBlockComment();
+                } else if (c == '"') {
+                    if (pos + 2 < len && text.charAt(pos + 1) == '"' && text.charAt(pos + 2) == '"') {
+                        skipTextBlock();
+                    } else {
+                        skipQuoted('"');
+                    }
+                } else if (c == '\'') {
+                    skipQuoted('\'');
+                } else if (Character.isJavaIdentifierPart(c)) {
+                    int start = pos;
+                    while (pos < len && Character.isJavaIdentifierPart(text.charAt(pos))) {
+                        pos++;
+                    }
+                    return text.subSequence(start, pos).toString();
+                } else {
+                    pos++;
+                    return String.valueOf(c);
+                }
+            }
+            return null;
+        }
+
+        private void skipQuoted(char quote) {
+            pos++; // opening quote
+            final int len = text.length();
+            while (pos < len) {
+                char c = text.charAt(pos++);
+                if (c == '\\') {
+                    pos++;
+                } else if (c == quote || c == '\n') {
+                    return;
+                }
+            }
+        }
+
+        private void skipTextBlock() {
+            pos += 3; // opening delimiter
+            final int len = text.length();
+            while (pos < len) {
+                char c = text.charAt(pos);
+                if (c == '\\') {
+                    pos += 2;
+                } else if (c == '"' && pos + 2 < len && text.charAt(pos + 1) == '"' && text.charAt(pos + 2) == '"') {
+                    pos += 3;
+                    return;
+                } else {
+                    pos++;
+                }
+            }
+        }
+
+        private void skipBlockComment() {
+            pos += 2; // opening delimiter
+            final int len = text.length();
+            while (pos < len) {
+                if (text.charAt(pos) == '*' && pos + 1 < len && text.charAt(pos + 1) == '/') {
+                    pos += 2;
+                    return;
+                }
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.symbols.JModuleSymbol;
+import net.sourceforge.pmd.lang.java.symbols.SymbolResolver;
+import net.sourceforge.pmd.lang.java.symbols.internal.SourceTypeIndex.IndexedType;
+
+/**
+ * Resolves the types declared in the analyzed sources, using a
+ * {@link SourceTypeIndex}. The index only knows names, so the returned
+ * symbols are unresolved symbols, but they have the correct canonical
+ * name, enclosing class, and number of type parameters. This resolver
+ * is meant to be asked after the classpath, so that types which are
+ * also on the classpath get a complete symbol.
+ *
+ * <p>Not thread-safe, as it uses a file-specific {@link UnresolvedClassStore}.
+ */
+public final class SourceTypeIndexResolver implements SymbolResolver {
+
+    private final SourceTypeIndex index;
+    private final UnresolvedClassStore unresolvedStore;
+
+    public SourceTypeIndexResolver(SourceTypeIndex index, UnresolvedClassStore unresolvedStore) {
+        this.index = index;
+        this.unresolvedStore = unresolvedStore;
+    }
+
+    @Override
+    public @Nullable JClassSymbol resolveClassFromBinaryName(@NonNull String binaryName) {
+        IndexedType type = index.get(binaryName);
+        return type == null ? null : makeSymbol(type);
+    }
+
+    private JClassSymbol makeSymbol(IndexedType type) {
+        IndexedType enclosing = type.getEnclosing();
+        if (enclosing == null) {
+            return unresolvedStore.makeUnresolvedReference(type.getCanonicalName(), type.getTypeParameterCount());
+        }
+        return unresolvedStore.makeUnresolvedReference(makeSymbol(enclosing), type.getSimpleName(), type.getTypeParameterCount());
+    }
+
+    @Override
+    public @Nullable JModuleSymbol resolveModule(@NonNull String moduleName) {
+        return null;
+    }
+
+    @Override
+    public void logStats() {
+        // nothing to log, the index is logged when it is built
+    }
+}
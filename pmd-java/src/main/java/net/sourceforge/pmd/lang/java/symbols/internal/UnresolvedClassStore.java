@@ -25,8 +25,9 @@ import net.sourceforge.pmd.lang.java.types.TypeSystem;
  * disambiguation pass (but zero type arguments is always allowed, that
  * could be a raw type) to not throw off errors later during type resolution.
  *
- * <p>Not thread-safe. One instance is created by file (in JavaAstProcessor),
- * so these symbols are not global.
+ * <p>One instance is created by file (in JavaAstProcessor), so these
+ * symbols are not global. The store is synchronized, because the
+ * top-level types of a large file may be processed in parallel.
  */
 public final class UnresolvedClassStore {
 
@@ -48,7 +49,7 @@ public final class UnresolvedClassStore {
      *
      * @throws NullPointerException If the name is null
      */
-    public @NonNull JClassSymbol makeUnresolvedReference(@Nullable String canonicalName, int typeArity) {
+    public synchronized @NonNull JClassSymbol makeUnresolvedReference(@Nullable String canonicalName, int typeArity) {
         UnresolvedClassImpl unresolved = this.unresolved.computeIfAbsent(
             canonicalName,
             n -> new FlexibleUnresolvedClassImpl(this.ts, null, n)
@@ -58,7 +59,7 @@ public final class UnresolvedClassStore {
         return unresolved;
     }
 
-    public @NonNull JClassSymbol makeUnresolvedReference(JClassSymbol qualifier, String simpleName, int typeArity) {
+    public synchronized @NonNull JClassSymbol makeUnresolvedReference(JClassSymbol qualifier, String simpleName, int typeArity) {
 
         if (qualifier instanceof UnresolvedClassImpl) {
             UnresolvedClassImpl child = ((UnresolvedClassImpl) qualifier).getOrCreateUnresolvedChildClass(simpleName);
@@ -101,7 +101,7 @@ public abstract class ShadowChainBuilder<S, I> {
 
     public ShadowChainNode<S, I> shadowWithCache(ShadowChainNode<S, I> parent,
                                                  I scopeTag,
-                                                 // this map will be used as the cache without copy,
+                                                 // this map is copied to initialize the cache,
                                                  // it may contain initial bindings, which is only
                                                  // valid if the built group is a shadow barrier, which
                                                  // is why this parameter is defaulted.
@@ -67,6 +67,12 @@ public final class JavaSemanticErrors {
      */
     public static final String CANNOT_RESOLVE_AMBIGUOUS_NAME = "Cannot resolve ambiguous name {0}, treating it as {1}";
     public static final String AMBIGUOUS_NAME_REFERENCE = "Reference ''{0}'' is ambiguous, both {1} and {2} match";
+    /**
+     * Type inference exceeded its budget on an expression, whose type
+     * is probably unresolved. The budget is configured with internal
+     * language properties.
+     */
+    public static final String INFERENCE_BUDGET_EXCEEDED = "Type inference aborted after {0} steps, the type of this expression may be unresolved";
 
     private JavaSemanticErrors() {
         // utility class
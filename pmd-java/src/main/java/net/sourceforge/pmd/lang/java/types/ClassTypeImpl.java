@@ -36,16 +36,24 @@ class ClassTypeImpl implements JClassType {
     private final PSet<SymAnnot> typeAnnotations;
     private final TypeGenericity genericity;
 
-    private JClassType superClass;
-    private List<JClassType> interfaces;
+    // Interned instances are shared between analysis threads, so these
+    // lazy fields are volatile, and only ever set to fully built immutable
+    // values. Several threads may compute them concurrently, which is
+    // harmless as the results are equal.
+    private volatile JClassType superClass;
+    private volatile List<JClassType> interfaces;
 
-    private Substitution subst;
+    private volatile Substitution subst;
 
     // Cache the hash. Instances are super often put in sets or used as
     // map keys and hash computation is expensive since we recurse in the
     // type arguments. This was confirmed through profiling
     private int hash = 0;
 
+    // Whether this instance is the canonical one, see ClassTypeInterner.
+    // Only written under the lock of the interner.
+    private boolean interned;
+
     /**
      * @param symbol   Erased type
      * @param typeArgs Type arguments of this parameterization. If empty
@@ -150,13 +158,15 @@ class ClassTypeImpl implements JClassType {
 
     @Override
     public Substitution getTypeParamSubst() {
-        if (subst == null) {
+        Substitution result = subst;
+        if (result == null) {
             Substitution enclSubst = getEnclosingType() == null
                                      ? Substitution.EMPTY
                                      : getEnclosingType().getTypeParamSubst();
-            subst = enclSubst.andThen(localSubst());
+            result = enclSubst.andThen(localSubst());
+            subst = result;
         }
-        return subst;
+        return result;
     }
 
     private Substitution localSubst() {
@@ -207,12 +217,12 @@ class ClassTypeImpl implements JClassType {
 
     @Override
     public final JClassType selectInner(JClassSymbol symbol, List<? extends JTypeMirror> targs, PSet<SymAnnot> typeAnnotations) {
-        return new ClassTypeImpl(ts,
-                                 this,
-                                 symbol,
-                                 CollectionUtil.defensiveUnmodifiableCopy(targs),
-                                 typeAnnotations,
-                                 isRaw());
+        return ts.intern(new ClassTypeImpl(ts,
+                                           this,
+                                           symbol,
+                                           CollectionUtil.defensiveUnmodifiableCopy(targs),
+                                           typeAnnotations,
+                                           isRaw()));
     }
 
     @Override
@@ -240,7 +250,7 @@ class ClassTypeImpl implements JClassType {
         if (isGenericTypeDeclaration() || !isGeneric()) {
             return this;
         }
-        return new ClassTypeImpl(ts, symbol, emptyList(), false, typeAnnotations);
+        return ts.intern(new ClassTypeImpl(ts, symbol, emptyList(), false, typeAnnotations));
     }
 
     @Override
@@ -249,6 +259,22 @@ class ClassTypeImpl implements JClassType {
         return isGenericTypeDeclaration() ? (List) getFormalTypeParams() : typeArgs;
     }
 
+    /**
+     * Returns the type arguments as they were given to the constructor,
+     * which is empty for a generic type declaration.
+     */
+    final List<JTypeMirror> getExplicitTypeArgs() {
+        return typeArgs;
+    }
+
+    final boolean isInterned() {
+        return interned;
+    }
+
+    final void markInterned() {
+        interned = true;
+    }
+
     @Override
     public @Nullable JClassType getEnclosingType() {
         return enclosingType;
@@ -278,31 +304,36 @@ class ClassTypeImpl implements JClassType {
         if (expected == 0 && typeArgs.isEmpty() && this.typeArgs.isEmpty()) {
             return this; // non-generic
         }
-        return new ClassTypeImpl(ts, symbol, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, typeAnnotations);
+        return ts.intern(new ClassTypeImpl(ts, symbol, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, typeAnnotations));
     }
 
     @Override
     public @Nullable JClassType getSuperClass() {
-        if (superClass == null && !isTop()) {
+        JClassType result = superClass;
+        if (result == null && !isTop()) {
             if (hasErasedSuperTypes()) {
-                superClass = ts.erasedType(symbol.getSuperclass());
+                result = ts.erasedType(symbol.getSuperclass());
             } else {
-                superClass = symbol.getSuperclassType(getTypeParamSubst());
+                result = symbol.getSuperclassType(getTypeParamSubst());
             }
+            superClass = result;
         }
-        return superClass;
+        return result;
     }
 
     @Override
     public List<JClassType> getSuperInterfaces() {
-        if (interfaces == null) {
+        List<JClassType> result = interfaces;
+        if (result == null) {
             if (hasErasedSuperTypes()) {
-                interfaces = map(symbol.getSuperInterfaces(), ts::erasedType);
+                result = map(symbol.getSuperInterfaces(), ts::erasedType);
             } else {
-                interfaces = symbol.getSuperInterfaceTypes(getTypeParamSubst());
+                result = symbol.getSuperInterfaceTypes(getTypeParamSubst());
             }
+            result = CollectionUtil.defensiveUnmodifiableCopy(result);
+            interfaces = result;
         }
-        return interfaces;
+        return result;
     }
 
     @Override
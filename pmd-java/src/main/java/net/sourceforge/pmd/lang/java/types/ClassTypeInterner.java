@@ -0,0 +1,208 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+
+/**
+ * Hash-conses class types, so that equal parameterizations like
+ * {@code List<String>} are represented by the same instance. This
+ * saves memory, lets {@link TypeOps#isSameType(JTypeMirror, JTypeMirror)}
+ * return early on the identity check, and shares the lazily computed
+ * supertypes and substitution of a type between all its uses.
+ *
+ * <p>Only types without type annotations, whose type arguments and
+ * enclosing type are themselves canonical, are interned. Since the
+ * components are canonical, two types can be compared by comparing
+ * their symbol and the identity of their components, which is cheap
+ * and does not depend on any lazy state. Symbols are also compared by
+ * identity, so types of symbols that are specific to a file (which
+ * may have the same binary name as another symbol) are never shared
+ * between files. Types of AST symbols are not interned at all.
+ *
+ * <p>Entries are weakly referenced, they are removed when the type
+ * is not used anymore. The table is split into segments to reduce
+ * contention between analysis threads.
+ *
+ * <p>Concurrency: the table is shared by all the analysis threads, so
+ * a canonical instance may be used by several threads at the same time.
+ * Its lazily computed state (supertypes, substitution, hash) must then
+ * be safe to compute concurrently: {@link ClassTypeImpl} stores it in
+ * volatile fields, or racy but idempotent primitive fields for the hash,
+ * and only stores immutable values there. Any new lazy state added to
+ * {@link ClassTypeImpl} must follow the same rules.
+ */
+final class ClassTypeInterner {
+
+    private static final int NUM_SEGMENTS = 16;
+
+    private final TypeSystem ts;
+    private final Segment[] segments = new Segment[NUM_SEGMENTS];
+
+    ClassTypeInterner(TypeSystem ts) {
+        this.ts = ts;
+        for (int i = 0; i < NUM_SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the canonical instance equal to the given type, which
+     * may be the parameter. If the type cannot be interned, returns it
+     * unchanged.
+     */
+    ClassTypeImpl intern(ClassTypeImpl type) {
+        if (type.isInterned() || !isInternable(type)) {
+            return type;
+        }
+        Key key = new Key(type);
+        return segments[(key.hash & Integer.MAX_VALUE) % NUM_SEGMENTS].intern(key, type);
+    }
+
+    private boolean isInternable(ClassTypeImpl type) {
+        if (type.getClass() != ClassTypeImpl.class
+            || !type.getTypeAnnotations().isEmpty()
+            || type.getSymbol().tryGetNode() != null) {
+            return false;
+        }
+        JClassType enclosing = type.getEnclosingType();
+        if (enclosing != null && !isCanonical(enclosing)) {
+            return false;
+        }
+        for (JTypeMirror arg : type.getExplicitTypeArgs()) {
+            if (!isCanonical(arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCanonical(JTypeMirror t) {
+        if (t == ts.UNBOUNDED_WILD) { // NOPMD CompareObjectsWithEquals
+            return true;
+        } else if (t instanceof ClassTypeImpl) {
+            ClassTypeImpl klass = (ClassTypeImpl) t;
+            return klass.isInterned()
+                || ts.isSharedType(klass);
+        }
+        return false;
+    }
+
+    /** Number of live entries, for tests. */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static final class Segment {
+
+        private final Map<Key, Entry> table = new HashMap<>();
+        private final ReferenceQueue<ClassTypeImpl> queue = new ReferenceQueue<>();
+
+        synchronized ClassTypeImpl intern(Key key, ClassTypeImpl type) {
+            expungeStaleEntries();
+            Entry entry = table.get(key);
+            ClassTypeImpl existing = entry == null ? null : entry.get();
+            if (existing != null) {
+                return existing;
+            }
+            type.markInterned();
+            table.put(key, new Entry(type, key, queue));
+            return type;
+        }
+
+        synchronized int size() {
+            expungeStaleEntries();
+            return table.size();
+        }
+
+        private void expungeStaleEntries() {
+            Reference<? extends ClassTypeImpl> ref;
+            while ((ref = queue.poll()) != null) {
+                Entry entry = (Entry) ref;
+                // the key may have been reused by a newer entry
+                table.remove(entry.key, entry);
+            }
+        }
+    }
+
+    private static final class Entry extends WeakReference<ClassTypeImpl> {
+
+        private final Key key;
+
+        Entry(ClassTypeImpl referent, Key key, ReferenceQueue<? super ClassTypeImpl> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * Compares the components of a type by identity. This is only
+     * correct because the components of an internable type are canonical.
+     */
+    private static final class Key {
+
+        private final JClassSymbol symbol;
+        private final boolean isRaw;
+        private final @Nullable JClassType enclosing;
+        private final List<JTypeMirror> typeArgs;
+        private final int hash;
+
+        Key(ClassTypeImpl type) {
+            this.symbol = type.getSymbol();
+            this.isRaw = type.isRaw();
+            this.enclosing = type.getEnclosingType();
+            this.typeArgs = type.getExplicitTypeArgs();
+
+            int h = System.identityHashCode(symbol);
+            h = h * 31 + System.identityHashCode(enclosing);
+            for (JTypeMirror arg : typeArgs) {
+                h = h * 31 + System.identityHashCode(arg);
+            }
+            this.hash = h * 2 + (isRaw ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            if (this.hash != that.hash
+                || this.symbol != that.symbol // NOPMD CompareObjectsWithEquals
+                || this.isRaw != that.isRaw
+                || this.enclosing != that.enclosing // NOPMD CompareObjectsWithEquals
+                || this.typeArgs.size() != that.typeArgs.size()) {
+                return false;
+            }
+            for (int i = 0; i < typeArgs.size(); i++) {
+                if (this.typeArgs.get(i) != that.typeArgs.get(i)) { // NOPMD CompareObjectsWithEquals
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -173,6 +173,8 @@ public final class TypeSystem {
 
     /** Contains special types, that must be shared to be comparable by reference. */
     private final Map<JTypeDeclSymbol, JTypeMirror> sharedTypes;
+    /** Shares instances of equal class types. */
+    private final ClassTypeInterner classTypes = new ClassTypeInterner(this);
     // test only
     final SymbolResolver resolver;
 
@@ -463,7 +465,7 @@ public final class TypeSystem {
                 assert component != null : "the symbol necessarily has an array component symbol";
                 return arrayType(component, classSym);
             } else {
-                return new ClassTypeImpl(this, classSym, emptyList(), isErased, HashTreePSet.empty());
+                return intern(new ClassTypeImpl(this, classSym, emptyList(), isErased, HashTreePSet.empty()));
             }
         } else if (symbol instanceof JTypeParameterSymbol) {
             return ((JTypeParameterSymbol) symbol).getTypeMirror();
@@ -527,7 +529,7 @@ public final class TypeSystem {
             return rawType(klass); // note this ensures that OBJECT and such is preserved
         }
         // if the type arguments are mismatched, the constructor will throw
-        return new ClassTypeImpl(this, klass, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, HashTreePSet.empty());
+        return intern(new ClassTypeImpl(this, klass, CollectionUtil.defensiveUnmodifiableCopy(typeArgs), true, HashTreePSet.empty()));
     }
 
 
@@ -660,6 +662,19 @@ public final class TypeSystem {
         return sharedTypes.get(raw);
     }
 
+    /** Whether the type is the unique shared instance for its symbol, see {@link #specialCache(JTypeDeclSymbol)}. */
+    boolean isSharedType(JClassType t) {
+        return specialCache(t.getSymbol()) == t; // NOPMD CompareObjectsWithEquals
+    }
+
+    /**
+     * Returns the canonical instance for the given class type, see
+     * {@link ClassTypeInterner}.
+     */
+    ClassTypeImpl intern(ClassTypeImpl t) {
+        return classTypes.intern(t);
+    }
+
 
     /**
      * Gets the primitive type identified by the given kind.
@@ -16,6 +16,7 @@ import java.util.List;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import net.sourceforge.pmd.benchmark.TimeTracker;
 import net.sourceforge.pmd.lang.ast.SemanticErrorReporter;
 import net.sourceforge.pmd.lang.java.ast.ASTAmbiguousName;
 import net.sourceforge.pmd.lang.java.ast.ASTAnnotation;
@@ -94,6 +95,7 @@ import net.sourceforge.pmd.lang.java.types.TypingContext;
 import net.sourceforge.pmd.lang.java.types.ast.ExprContext;
 import net.sourceforge.pmd.lang.java.types.ast.ExprContext.ExprContextKind;
 import net.sourceforge.pmd.lang.java.types.internal.infer.Infer;
+import net.sourceforge.pmd.lang.java.types.internal.infer.InferenceBudget;
 import net.sourceforge.pmd.lang.java.types.internal.infer.TypeInferenceLogger;
 
 /**
@@ -112,8 +114,19 @@ public final class LazyTypeResolver extends JavaVisitorBase<TypingContext, @NonN
 
     public LazyTypeResolver(JavaAstProcessor processor,
                             TypeInferenceLogger logger) {
+        this(processor, logger, processor.getInferenceBudget());
+    }
+
+    /**
+     * Creates a resolver that bounds type inference with the given budget,
+     * instead of the budget of the file. The inference caches are owned by
+     * the resolver, so a resolver must not be used by several threads at once.
+     */
+    public LazyTypeResolver(JavaAstProcessor processor,
+                            TypeInferenceLogger logger,
+                            InferenceBudget budget) {
         this.ts = processor.getTypeSystem();
-        this.infer = new Infer(ts, processor.getJdkVersion(), logger);
+        this.infer = new Infer(ts, processor.getJdkVersion(), logger, budget);
         this.polyResolution = new PolyResolution(infer);
         this.stringType = (JClassType) TypesFromReflection.fromReflect(String.class, ts);
         this.processor = processor;
@@ -355,7 +368,19 @@ public final class LazyTypeResolver extends JavaVisitorBase<TypingContext, @NonN
      * the others.
      */
     private JTypeMirror handlePoly(TypeNode node) {
-        return polyResolution.computePolyType(node);
+        InferenceBudget budget = infer.getBudget();
+        budget.enterExpr();
+        try {
+            return polyResolution.computePolyType(node);
+        } finally {
+            if (budget.exitExpr()) {
+                // the type is probably unresolved, warn and record the offender
+                err.warning(node, JavaSemanticErrors.INFERENCE_BUDGET_EXCEEDED, budget.getExprSteps());
+                TimeTracker.recordOutlier("Type inference budget exceeded: "
+                                              + node.getReportLocation().startPosToStringWithFile(),
+                                          budget.getExprSteps());
+            }
+        }
     }
 
     @Override
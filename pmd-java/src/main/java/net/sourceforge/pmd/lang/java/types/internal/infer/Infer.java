@@ -62,8 +62,10 @@ public final class Infer {
 
     private final SupertypeCheckCache supertypeCheckCache = new SupertypeCheckCache();
 
+    private final InferenceBudget budget;
+
     /**
-     * Creates a new instance.
+     * Creates a new instance with an unlimited budget.
      *
      * @param ts         Type system
      * @param jdkVersion JDK version to use. Type inference was changed
@@ -71,9 +73,23 @@ public final class Infer {
      * @param logger     Strategy to log failures
      */
     public Infer(TypeSystem ts, int jdkVersion, TypeInferenceLogger logger) {
+        this(ts, jdkVersion, logger, InferenceBudget.unlimited());
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ts         Type system
+     * @param jdkVersion JDK version to use. Type inference was changed
+     *                   in Java 8 to propagate the context type.
+     * @param logger     Strategy to log failures
+     * @param budget     Limits the work done by inference
+     */
+    public Infer(TypeSystem ts, int jdkVersion, TypeInferenceLogger logger, InferenceBudget budget) {
         this.ts = ts;
         this.isPreJava8 = jdkVersion < 8;
         this.LOG = logger;
+        this.budget = budget;
 
         this.NO_CTDECL = MethodCtDecl.unresolved(ts);
         this.FAILED_INVOCATION = MethodCtDecl.unresolved(ts);
@@ -93,6 +109,10 @@ public final class Infer {
         return LOG;
     }
 
+    public InferenceBudget getBudget() {
+        return budget;
+    }
+
     public PolySite<FunctionalExprMirror> newFunctionalSite(FunctionalExprMirror mirror, @Nullable JTypeMirror expectedType) {
         return new PolySite<>(mirror, expectedType);
     }
@@ -375,6 +395,11 @@ public final class Infer {
 
 
     private @NonNull MethodCtDecl logInference(MethodCallSite site, MethodResolutionPhase phase, JMethodSig m) {
+        if (!budget.tryStep()) {
+            // the budget is exhausted, fail fast so that the expression
+            // falls back to an unresolved type.
+            return FAILED_INVOCATION;
+        }
         LOG.startInference(m, site, phase);
         @Nullable JMethodSig candidate = instantiateMethodOrCtor(site, phase, m);
         LOG.endInference(candidate);
@@ -0,0 +1,141 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types.internal.infer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the work that type inference may perform on a file. When
+ * the budget is exhausted, {@link Infer} stops trying candidates and
+ * the expression falls back to an unresolved type. This degrades the
+ * precision of type resolution on pathological expressions (eg deeply
+ * nested generic lambdas) instead of stalling the analysis.
+ *
+ * <p>There are two limits:
+ * <ul>
+ * <li>A number of steps per top-level expression. A step is one attempt
+ * to instantiate a candidate method, which includes nested attempts.
+ * <li>A total time spent in inference for the whole file.
+ * </ul>
+ * Only the work done between {@link #enterExpr()} and {@link #exitExpr()}
+ * counts, steps taken outside of an expression are neither counted nor
+ * limited, so they cannot exhaust the budget of unrelated expressions.
+ *
+ * <p>A zero limit means unlimited. Instances are file-specific, and
+ * are not thread-safe.
+ */
+public final class InferenceBudget {
+
+    private final int maxStepsPerExpr;
+    private final long maxNanosPerFile;
+
+    /** Nesting depth of {@link #enterExpr()} calls. */
+    private int depth;
+    private int exprSteps;
+    private long exprStartNanos;
+    private boolean exprExceeded;
+
+    private long fileNanos;
+    private boolean fileExceeded;
+    private int numExceededExprs;
+
+    private InferenceBudget(int maxStepsPerExpr, long maxNanosPerFile) {
+        this.maxStepsPerExpr = maxStepsPerExpr;
+        this.maxNanosPerFile = maxNanosPerFile;
+    }
+
+    /**
+     * Returns a new budget for a file.
+     *
+     * @param maxStepsPerExpr Maximum number of steps for a single expression, zero for unlimited
+     * @param maxMillisPerFile Maximum time spent in inference for the whole file, zero for unlimited
+     */
+    public static InferenceBudget create(int maxStepsPerExpr, long maxMillisPerFile) {
+        return new InferenceBudget(Math.max(0, maxStepsPerExpr),
+                                   TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxMillisPerFile)));
+    }
+
+    /** Returns a budget that never runs out. */
+    public static InferenceBudget unlimited() {
+        return new InferenceBudget(0, 0);
+    }
+
+    public boolean isUnlimited() {
+        return maxStepsPerExpr == 0 && maxNanosPerFile == 0;
+    }
+
+    /**
+     * Start the inference of an expression. Calls may be nested, only
+     * the outermost call starts a new expression budget.
+     */
+    public void enterExpr() {
+        if (depth++ == 0) {
+            exprSteps = 0;
+            // once the file budget is exhausted, all expressions fail
+            exprExceeded = fileExceeded;
+            if (maxNanosPerFile > 0) {
+                exprStartNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Finish the inference of an expression. Returns true if this
+     * finishes a top-level expression that exceeded the budget.
+     */
+    public boolean exitExpr() {
+        assert depth > 0 : "Unbalanced exitExpr";
+        if (--depth > 0) {
+            return false;
+        }
+        if (maxNanosPerFile > 0) {
+            fileNanos += System.nanoTime() - exprStartNanos;
+        }
+        if (exprExceeded) {
+            numExceededExprs++;
+        }
+        return exprExceeded;
+    }
+
+    /**
+     * Record a step of inference. Returns false if the budget is
+     * exhausted, in which case the step must not be performed.
+     */
+    boolean tryStep() {
+        if (depth == 0 || isUnlimited()) {
+            return true;
+        } else if (exprExceeded) {
+            return false;
+        }
+
+        exprSteps++;
+        if (maxStepsPerExpr > 0 && exprSteps > maxStepsPerExpr) {
+            exprExceeded = true;
+            return false;
+        }
+        if (maxNanosPerFile > 0
+            && fileNanos + System.nanoTime() - exprStartNanos > maxNanosPerFile) {
+            fileExceeded = true;
+            exprExceeded = true;
+            return false;
+        }
+        return true;
+    }
+
+    /** Number of steps performed in the current or last top-level expression. */
+    public int getExprSteps() {
+        return exprSteps;
+    }
+
+    /** Whether the time budget of the file has been exceeded. */
+    public boolean isFileExceeded() {
+        return fileExceeded;
+    }
+
+    /** Number of top-level expressions that exceeded the budget so far. */
+    public int getNumExceededExprs() {
+        return numExceededExprs;
+    }
+}
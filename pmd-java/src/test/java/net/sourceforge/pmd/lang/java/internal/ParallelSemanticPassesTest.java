@@ -0,0 +1,127 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.java.ast.ASTVariableId;
+import net.sourceforge.pmd.lang.java.ast.InternalApiBridge;
+import net.sourceforge.pmd.lang.java.ast.JavaNode;
+import net.sourceforge.pmd.lang.java.ast.JavadocCommentOwner;
+import net.sourceforge.pmd.lang.java.ast.TypeNode;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.rule.RuleSet;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * Checks that processing the top-level types of a file in parallel gives
+ * the same results as processing the file sequentially.
+ */
+class ParallelSemanticPassesTest {
+
+    private static final String SOURCE = "package p;\n"
+        + "import java.util.*;\n"
+        + "import java.util.function.Function;\n"
+        + "/** First type. */\n"
+        + "class First extends Second {\n"
+        + "  /** Overrides. */\n"
+        + "  @Override\n"
+        + "  List<String> names(int n) {\n"
+        + "    List<String> result = new ArrayList<>();\n"
+        + "    Function<Integer, String> f = i -> Second.PREFIX + i + Missing.NAME;\n"
+        + "    for (int i = 0; i < n; i++) { result.add(f.apply(i)); }\n"
+        + "    return result;\n"
+        + "  }\n"
+        + "}\n"
+        + "/** Second type. */\n"
+        + "class Second {\n"
+        + "  static final String PREFIX = \"x\";\n"
+        + "  List<String> names(int n) { return Collections.nCopies(n, PREFIX); }\n"
+        + "  Map<String, Integer> counts() { return new First().names(2).stream().collect(java.util.stream.Collectors.toMap(s -> s, String::length)); }\n"
+        + "}\n"
+        + "interface Third<T extends Comparable<T>> {\n"
+        + "  /** Sorts. */\n"
+        + "  default T max(Collection<? extends T> ts) { return Collections.max(ts); }\n"
+        + "}\n";
+
+    @Test
+    void testParallelPassesGiveSameResults() {
+        List<String> sequential = describeFile(0);
+        List<String> parallel = describeFile(1);
+
+        assertTrue(sequential.remove("parallel=false"));
+        assertTrue(parallel.remove("parallel=true"));
+        assertEquals(sequential, parallel);
+        assertTrue(parallel.size() > 20, "Expected types, usages, overrides and comments: " + parallel);
+    }
+
+    /** Returns the semantic information collected by {@link DescribeRule}, sorted. */
+    private static List<String> describeFile(int minFileSize) {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setThreads(2);
+        config.getLanguageProperties(JavaLanguageModule.getInstance())
+              .setProperty(JavaLanguageProperties.INTERNAL_PARALLEL_PASSES_MIN_FILE_SIZE, minFileSize);
+
+        Report report;
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(RuleSet.forSingleRule(new DescribeRule()));
+            pmd.files().addSourceFile(FileId.fromPathLikeString("p/First.java"), SOURCE);
+            report = pmd.performAnalysisAndCollectReport();
+        }
+
+        return report.getViolations().stream()
+                     .map(RuleViolation::getDescription)
+                     .sorted()
+                     .collect(Collectors.toList());
+    }
+
+    /** Reports the types, usages, overridden methods and comments of all nodes. */
+    private static final class DescribeRule extends AbstractJavaRule {
+
+        DescribeRule() {
+            setLanguage(JavaLanguageModule.getInstance());
+            setName("Describe");
+            setMessage("{0}");
+        }
+
+        @Override
+        public Object visit(ASTCompilationUnit node, Object data) {
+            boolean parallel = InternalApiBridge.getProcessor(node).getTopLevelTypePool() != null;
+            asCtx(data).addViolation(node, "parallel=" + parallel);
+            return super.visit(node, data);
+        }
+
+        @Override
+        public Object visitJavaNode(JavaNode node, Object data) {
+            String location = node.getXPathNodeName() + "@" + node.getBeginLine() + ":" + node.getBeginColumn();
+            if (node instanceof TypeNode) {
+                asCtx(data).addViolation(node, location + " type " + ((TypeNode) node).getTypeMirror());
+            }
+            if (node instanceof ASTVariableId) {
+                asCtx(data).addViolation(node, location + " usages " + ((ASTVariableId) node).getLocalUsages().size());
+            }
+            if (node instanceof ASTMethodDeclaration) {
+                asCtx(data).addViolation(node, location + " overrides " + ((ASTMethodDeclaration) node).getOverriddenMethod());
+            }
+            if (node instanceof JavadocCommentOwner) {
+                asCtx(data).addViolation(node, location + " comment " + (((JavadocCommentOwner) node).getJavadocComment() != null));
+            }
+            return super.visitJavaNode(node, data);
+        }
+    }
+}
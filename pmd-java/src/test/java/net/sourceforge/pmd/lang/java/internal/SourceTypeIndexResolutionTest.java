@@ -0,0 +1,95 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.lang.document.FileId;
+import net.sourceforge.pmd.lang.java.JavaLanguageModule;
+import net.sourceforge.pmd.lang.java.ast.ASTClassType;
+import net.sourceforge.pmd.lang.java.rule.AbstractJavaRule;
+import net.sourceforge.pmd.lang.java.symbols.JClassSymbol;
+import net.sourceforge.pmd.lang.java.symbols.JTypeDeclSymbol;
+import net.sourceforge.pmd.lang.rule.RuleSet;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+/**
+ * Checks that references to types declared in other analyzed files are
+ * resolved through the {@link net.sourceforge.pmd.lang.java.symbols.internal.SourceTypeIndex}.
+ */
+class SourceTypeIndexResolutionTest {
+
+    private static final String USER = "package p;\n"
+        + "import q.*;\n"
+        + "class User {\n"
+        + "  Box<String> field;\n"
+        + "}\n";
+
+    private static final String DECLARATION = "package q;\n"
+        + "public class Box<T> { }\n";
+
+    @Test
+    void testTypeOfOtherFileIsResolvedThroughIndex() {
+        assertEquals("q.Box/1", resolveBoxReference(true));
+    }
+
+    @Test
+    void testTypeOfOtherFileIsNotResolvedWithoutIndex() {
+        assertNotEquals("q.Box/1", resolveBoxReference(false));
+    }
+
+    /** Returns the binary name and arity of the symbol of {@code Box} in the file User. */
+    private static String resolveBoxReference(boolean indexSourceTypes) {
+        PMDConfiguration config = new PMDConfiguration();
+        config.setThreads(1);
+        config.getLanguageProperties(JavaLanguageModule.getInstance())
+              .setProperty(JavaLanguageProperties.INTERNAL_INDEX_SOURCE_TYPES, indexSourceTypes);
+
+        Report report;
+        try (PmdAnalysis pmd = PmdAnalysis.create(config)) {
+            pmd.addRuleSet(RuleSet.forSingleRule(new ReportClassTypesRule()));
+            pmd.files().addSourceFile(FileId.fromPathLikeString("p/User.java"), USER);
+            pmd.files().addSourceFile(FileId.fromPathLikeString("q/Box.java"), DECLARATION);
+            report = pmd.performAnalysisAndCollectReport();
+        }
+
+        List<String> symbols = report.getViolations().stream()
+                                     .filter(v -> v.getFileId().getFileName().equals("User.java"))
+                                     .map(RuleViolation::getDescription)
+                                     .filter(it -> it.contains("Box"))
+                                     .collect(Collectors.toList());
+        assertEquals(1, symbols.size(), "Expected a single reference to Box: " + symbols);
+        return symbols.get(0);
+    }
+
+    /** Reports the symbol of every class type, in the format binaryName/arity. */
+    private static final class ReportClassTypesRule extends AbstractJavaRule {
+
+        ReportClassTypesRule() {
+            setLanguage(JavaLanguageModule.getInstance());
+            setName("ReportClassTypes");
+            setMessage("{0}");
+        }
+
+        @Override
+        public Object visit(ASTClassType node, Object data) {
+            JTypeDeclSymbol symbol = node.getTypeMirror().getSymbol();
+            if (symbol instanceof JClassSymbol) {
+                JClassSymbol klass = (JClassSymbol) symbol;
+                asCtx(data).addViolation(node, klass.getBinaryName() + "/" + klass.getTypeParameterCount());
+            }
+            return super.visit(node, data);
+        }
+    }
+}
@@ -6,6 +6,7 @@ package net.sourceforge.pmd.lang.java.metrics;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.Map;
 
@@ -16,6 +17,7 @@ import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
 import net.sourceforge.pmd.lang.java.ast.ASTTypeDeclaration;
 import net.sourceforge.pmd.lang.metrics.LanguageMetricsProvider;
 import net.sourceforge.pmd.lang.metrics.Metric;
+import net.sourceforge.pmd.lang.metrics.MetricsUtil;
 
 /**
  * @author Clément Fournier
@@ -59,5 +61,15 @@ class JavaMetricsProviderTest {
 
     }
 
+    @Test
+    void testResultsAreSharedWithRules() {
+        ASTTypeDeclaration type = java8.parse("class Foo { void bar() { if (true) { System.out.println(1); } } }")
+                                       .getTypeDeclarations().firstOrThrow();
+
+        LanguageMetricsProvider provider = type.getAstInfo().getLanguageProcessor().services().getLanguageMetricsProvider();
+        Map<Metric<?, ?>, Number> results = provider.computeAllMetricsFor(type);
 
+        assertSame(results.get(JavaMetrics.WEIGHED_METHOD_COUNT), MetricsUtil.computeMetric(JavaMetrics.WEIGHED_METHOD_COUNT, type));
+        assertSame(results.get(JavaMetrics.TIGHT_CLASS_COHESION), MetricsUtil.computeMetric(JavaMetrics.TIGHT_CLASS_COHESION, type));
+    }
 }
@@ -0,0 +1,78 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.BaseParserTest;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+import net.sourceforge.pmd.lang.metrics.MetricsUtil;
+
+class NpathBoundTest extends BaseParserTest {
+
+    private ASTMethodDeclaration methodWithIfs(int numIfs) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numIfs; i++) {
+            body.append("if (b) { foo(); }\n");
+        }
+        return java.parse("class A { void m(boolean b) {\n" + body + "} }")
+                   .descendants(ASTMethodDeclaration.class).firstOrThrow();
+    }
+
+    @Test
+    void testBelowBound() {
+        ASTMethodDeclaration method = methodWithIfs(5);
+        assertEquals(BigInteger.valueOf(32), MetricsUtil.computeMetric(JavaMetrics.NPATH, method));
+        assertEquals(32, JavaMetrics.computeNpathUpTo(method, 200));
+        assertEquals(32, JavaMetrics.computeNpathUpTo(method, 32));
+    }
+
+    @Test
+    void testBoundIsReached() {
+        ASTMethodDeclaration method = methodWithIfs(10);
+        assertEquals(BigInteger.valueOf(1024), MetricsUtil.computeMetric(JavaMetrics.NPATH, method));
+        assertEquals(200, JavaMetrics.computeNpathUpTo(method, 200));
+    }
+
+    @Test
+    void testExactValueDoesNotFitInLong() {
+        ASTMethodDeclaration method = methodWithIfs(70);
+        assertEquals(BigInteger.ONE.shiftLeft(70), MetricsUtil.computeMetric(JavaMetrics.NPATH, method));
+        assertEquals(Long.MAX_VALUE, JavaMetrics.computeNpathUpTo(method, Long.MAX_VALUE));
+    }
+
+    @Test
+    void testBoundedResultAgreesWithExactResultAroundBound() {
+        String[] bodies = {
+            // the ternary adds boolComp - 1, which is negative for a simple condition
+            "int x = b ? 1 : 2; int y = b ? 3 : 4; if (b) { foo(); }",
+            "return b ? (b ? 1 : 2) : (b && b ? 3 : 4);",
+            "foo(b ? 1 : 2); if (b) { foo(); } else if (b) { foo(); }",
+            // an empty switch has complexity zero, which makes the product zero
+            "if (b) { foo(); } if (b) { foo(); } switch (1) { }",
+            "switch (1) { case 1: if (b) { foo(); } case 2: foo(); break; default: return; }",
+        };
+        for (String body : bodies) {
+            ASTMethodDeclaration method = java.parse("class A { int m(boolean b) {\n" + body + "\n} }")
+                                              .descendants(ASTMethodDeclaration.class).firstOrThrow();
+            long exact = MetricsUtil.computeMetric(JavaMetrics.NPATH, method).longValueExact();
+            for (long bound = Math.max(1, exact - 2); bound <= exact + 2; bound++) {
+                assertEquals(Math.min(exact, bound), JavaMetrics.computeNpathUpTo(method, bound),
+                             "Bound " + bound + " for " + body);
+            }
+        }
+    }
+
+    @Test
+    void testInvalidBound() {
+        ASTMethodDeclaration method = methodWithIfs(1);
+        assertThrows(IllegalArgumentException.class, () -> JavaMetrics.computeNpathUpTo(method, 0));
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.metrics.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.BaseParserTest;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTExecutableDeclaration;
+import net.sourceforge.pmd.lang.java.metrics.JavaMetrics;
+import net.sourceforge.pmd.lang.java.metrics.JavaMetrics.CycloOption;
+import net.sourceforge.pmd.lang.java.metrics.JavaMetrics.NcssOption;
+import net.sourceforge.pmd.lang.java.metrics.testdata.MetricsVisitorTestData;
+import net.sourceforge.pmd.lang.metrics.MetricOptions;
+import net.sourceforge.pmd.lang.metrics.MetricsUtil;
+
+/**
+ * Checks that the fused traversal gives the same results as the
+ * visitors of each metric.
+ */
+class OperationMetricsWalkerTest extends BaseParserTest {
+
+    private static final String SOURCE = "package p;\n"
+        + "import java.util.*;\n"
+        + "import java.io.*;\n"
+        + "class Foo {\n"
+        + "  Foo(int x) { this(x, 0); }\n"
+        + "  Foo(int x, int y) { super(); if (x > y && y > 0 || x == 0) { this.x = x; } else { assert x > 0 : \"x\"; } }\n"
+        + "  int x;\n"
+        + "  int ternaries(boolean a, boolean b) {\n"
+        + "    int r = a ? (b ? 1 : 2) : (a && b ? 3 : 4);\n"
+        + "    return a || b ? r : -r;\n"
+        + "  }\n"
+        + "  void loops(List<String> l) {\n"
+        + "    outer:\n"
+        + "    for (int i = 0, j = 1; i < l.size() && j > 0; i++, j--) {\n"
+        + "      for (String s : l) { if (s.isEmpty()) { continue outer; } }\n"
+        + "      while (i > 2 || j < 3) { i--; }\n"
+        + "      do { j++; } while (j < 10 && i != j);\n"
+        + "      synchronized (this) { break; }\n"
+        + "    }\n"
+        + "  }\n"
+        + "  String switches(int k, Object o) {\n"
+        + "    switch (k) {\n"
+        + "    case 1: case 2: k++;\n"
+        + "    case 3: if (k > 2) { return \"a\"; } break;\n"
+        + "    default: throw new IllegalStateException();\n"
+        + "    }\n"
+        + "    int z = switch (k) { case 1, 2 -> k > 1 ? 1 : 2; case 3 -> { yield k; } default -> 0; };\n"
+        + "    switch (k) { }\n"
+        + "    return switch (o) { case String s when s.isEmpty() -> \"e\"; case String s -> s; default -> \"\" + z; };\n"
+        + "  }\n"
+        + "  Runnable lambdas(boolean a) {\n"
+        + "    Runnable r = () -> { if (a) { System.out.println(); } };\n"
+        + "    Object anon = new Object() { public String toString() { return a ? \"a\" : \"b\"; } };\n"
+        + "    class Local { void m() { while (a) { } } }\n"
+        + "    return a ? r : () -> { };\n"
+        + "  }\n"
+        + "  void tries(File f) throws IOException {\n"
+        + "    try (InputStream in = new FileInputStream(f)) {\n"
+        + "      if (in.read() > 0) { return; }\n"
+        + "    } catch (IOException | RuntimeException e) {\n"
+        + "      throw e;\n"
+        + "    } finally {\n"
+        + "      x = x > 0 ? 1 : 0;\n"
+        + "    }\n"
+        + "    try { x++; } catch (Exception e) { } catch (Error e) { if (x > 0) { throw e; } }\n"
+        + "  }\n"
+        + "  boolean returns(boolean a, boolean b) {\n"
+        + "    if (a) return a && b;\n"
+        + "    else if (b) return !a || b && a;\n"
+        + "    return a ? b : !b;\n"
+        + "  }\n"
+        + "}\n"
+        + "enum E { A { void m() { if (true) { } } }; void m() { } }\n"
+        + "record R(int a) { R { if (a < 0) { throw new IllegalArgumentException(); } } }\n";
+
+    private static final List<MetricOptions> OPTIONS = Arrays.asList(
+        MetricOptions.emptyOptions(),
+        MetricOptions.ofOptions(CycloOption.IGNORE_BOOLEAN_PATHS),
+        MetricOptions.ofOptions(CycloOption.CONSIDER_ASSERT),
+        MetricOptions.ofOptions(NcssOption.COUNT_IMPORTS),
+        MetricOptions.ofOptions(CycloOption.IGNORE_BOOLEAN_PATHS, CycloOption.CONSIDER_ASSERT, NcssOption.COUNT_IMPORTS)
+    );
+
+    @Test
+    void testSameResultsAsVisitors() {
+        checkAllOperations(java.parse(SOURCE));
+    }
+
+    @Test
+    void testSameResultsAsVisitorsOnTestData() {
+        checkAllOperations(java.parseClass(MetricsVisitorTestData.class));
+    }
+
+    @Test
+    void testMetricsWithDefaultOptions() {
+        // these go through the same traversal, which is cached on the node
+        ASTExecutableDeclaration method = java.parse(SOURCE)
+                                              .descendants(ASTExecutableDeclaration.class)
+                                              .filter(it -> "switches".equals(it.getName()))
+                                              .firstOrThrow();
+
+        assertEquals(cycloOf(method, MetricOptions.emptyOptions()), (int) MetricsUtil.computeMetric(JavaMetrics.CYCLO, method));
+        assertEquals(ncssOf(method, MetricOptions.emptyOptions()), (int) MetricsUtil.computeMetric(JavaMetrics.NCSS, method));
+        assertEquals(npathOf(method), MetricsUtil.computeMetric(JavaMetrics.NPATH, method));
+        assertEquals(Math.min(npathOf(method).longValueExact(), 3), JavaMetrics.computeNpathUpTo(method, 3));
+    }
+
+    private static void checkAllOperations(ASTCompilationUnit acu) {
+        List<ASTExecutableDeclaration> operations = acu.descendants(ASTExecutableDeclaration.class)
+                                                       .crossFindBoundaries()
+                                                       .toList();
+        assertTrue(operations.size() > 5);
+        for (ASTExecutableDeclaration operation : operations) {
+            for (MetricOptions options : OPTIONS) {
+                OperationMetricsWalker walker = OperationMetricsWalker.walk(operation, options);
+                String message = operation.getName() + " at line " + operation.getBeginLine() + " with " + options;
+                assertEquals(cycloOf(operation, options), walker.getCyclo(), "Cyclo of " + message);
+                assertEquals(ncssOf(operation, options), walker.getNcss(), "NCSS of " + message);
+                assertEquals(npathOf(operation), BigInteger.valueOf(walker.getNpath()), "NPath of " + message);
+            }
+        }
+    }
+
+    private static int cycloOf(ASTExecutableDeclaration node, MetricOptions options) {
+        MutableInt counter = new MutableInt(0);
+        node.acceptVisitor(new CycloVisitor(options, node), counter);
+        return counter.getValue();
+    }
+
+    private static int ncssOf(ASTExecutableDeclaration node, MetricOptions options) {
+        MutableInt counter = new MutableInt(0);
+        node.acceptVisitor(new NcssVisitor(options, node), counter);
+        return counter.getValue();
+    }
+
+    private static BigInteger npathOf(ASTExecutableDeclaration node) {
+        return node.acceptVisitor(NpathBaseVisitor.INSTANCE, null);
+    }
+}
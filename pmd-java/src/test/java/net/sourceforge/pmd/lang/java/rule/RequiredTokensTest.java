@@ -0,0 +1,137 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule;
+
+import static net.sourceforge.pmd.lang.test.ast.TestUtilsKt.assertSize;
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static net.sourceforge.pmd.util.CollectionUtil.setOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.benchmark.TimeTracker;
+import net.sourceforge.pmd.benchmark.TimingReport;
+import net.sourceforge.pmd.lang.java.JavaParsingHelper;
+import net.sourceforge.pmd.lang.java.rule.DummyJavaRule.DummyRuleOneViolationPerFile;
+import net.sourceforge.pmd.lang.java.rule.bestpractices.GuardLogStatementRule;
+import net.sourceforge.pmd.lang.rule.Rule;
+import net.sourceforge.pmd.lang.rule.RuleReference;
+import net.sourceforge.pmd.lang.rule.RuleSet;
+import net.sourceforge.pmd.lang.rule.RuleSetLoader;
+import net.sourceforge.pmd.reporting.Report;
+import net.sourceforge.pmd.reporting.RuleContext;
+
+class RequiredTokensTest {
+
+    private final JavaParsingHelper java = JavaParsingHelper.DEFAULT;
+
+    @Test
+    void testRuleIsAppliedIfTokenOccurs() {
+        Report report = java.executeRule(new FooCallRule(), "class A { void a() { foo(); } }");
+        assertSize(report, 1);
+    }
+
+    @Test
+    void testRuleIsSkippedIfTokenIsMissing() {
+        Report report = java.executeRule(new FooCallRule(), "class A { void a() { bar(); } }");
+        assertSize(report, 0);
+    }
+
+    @Test
+    void testCommentsAndPartialMatchesAreIgnored() {
+        Report report = java.executeRule(new FooCallRule(), "class A { /* foo */ void foobar() { } }");
+        assertSize(report, 0);
+    }
+
+    @Test
+    void testSkippedRulesAreCounted() {
+        TimeTracker.startGlobalTracking();
+        java.executeRule(new FooCallRule(), "class A { }");
+        TimingReport timingReport = TimeTracker.stopGlobalTracking();
+
+        assertEquals(1, timingReport.getSkippedRuleCounts().size());
+        Map.Entry<String, Long> entry = timingReport.getSkippedRuleCounts().get(0);
+        assertEquals("FooCall", entry.getKey());
+        assertEquals(1L, entry.getValue());
+    }
+
+    @Test
+    void testSkippedRuleIsNeitherStartedNorEnded() {
+        StartEndRecordingRule.CALLS.clear();
+        java.executeRule(new StartEndRecordingRule(), "class A { void a() { bar(); } }");
+        assertEquals(Collections.emptyList(), StartEndRecordingRule.CALLS);
+
+        java.executeRule(new StartEndRecordingRule(), "class A { void a() { foo(); } }");
+        assertEquals(listOf("start", "end"), StartEndRecordingRule.CALLS);
+    }
+
+    @Test
+    void testOverriddenPropertyChangesRequiredTokens() {
+        assertTrue(new GuardLogStatementRule().getRequiredTokens().contains("debug"));
+
+        RuleSet ruleSet = new RuleSetLoader().loadFromString(
+            "custom.xml",
+            "<?xml version=\"1.0\"?>\n"
+                + "<ruleset name=\"Custom\" xmlns=\"http://pmd.sourceforge.net/ruleset/2.0.0\"\n"
+                + "    xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+                + "    xsi:schemaLocation=\"http://pmd.sourceforge.net/ruleset/2.0.0 https://pmd.sourceforge.io/ruleset_2_0_0.xsd\">\n"
+                + "  <description>Custom</description>\n"
+                + "  <rule ref=\"category/java/bestpractices.xml/GuardLogStatement\">\n"
+                + "    <properties>\n"
+                + "      <property name=\"logLevels\" value=\"custom\"/>\n"
+                + "      <property name=\"guardsMethods\" value=\"isCustomEnabled\"/>\n"
+                + "    </properties>\n"
+                + "  </rule>\n"
+                + "</ruleset>\n");
+        Rule rule = ruleSet.getRules().iterator().next();
+        assertInstanceOf(RuleReference.class, rule);
+        assertEquals(setOf("custom", "log"), rule.getRequiredTokens());
+
+        TimeTracker.startGlobalTracking();
+        java.executeRule(rule, "class A { void a(Logger logger) { logger.debug(\"x\"); } }");
+        java.executeRule(rule, "class A { void a(Logger logger) { logger.custom(\"x\"); } }");
+        TimingReport timingReport = TimeTracker.stopGlobalTracking();
+
+        // the rule is only skipped on the first file
+        assertEquals(1, timingReport.getSkippedRuleCounts().size());
+        assertEquals(1L, timingReport.getSkippedRuleCounts().get(0).getValue());
+    }
+
+    public static class FooCallRule extends DummyRuleOneViolationPerFile {
+
+        public FooCallRule() {
+            setName("FooCall");
+            setMessage("Calls foo");
+        }
+
+        @Override
+        public Set<String> getRequiredTokens() {
+            return Collections.singleton("foo");
+        }
+    }
+
+    public static class StartEndRecordingRule extends FooCallRule {
+
+        static final List<String> CALLS = new ArrayList<>();
+
+        @Override
+        public void start(RuleContext ctx) {
+            CALLS.add("start");
+        }
+
+        @Override
+        public void end(RuleContext ctx) {
+            CALLS.add("end");
+        }
+    }
+}
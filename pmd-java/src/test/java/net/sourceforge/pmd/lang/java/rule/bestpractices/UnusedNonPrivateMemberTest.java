@@ -0,0 +1,11 @@
+/**
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule.bestpractices;
+
+import net.sourceforge.pmd.test.PmdRuleTst;
+
+class UnusedNonPrivateMemberTest extends PmdRuleTst {
+    // no additional unit tests
+}
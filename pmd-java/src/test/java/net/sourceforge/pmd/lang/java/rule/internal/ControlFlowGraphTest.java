@@ -0,0 +1,164 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.rule.internal;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.ast.NodeStream;
+import net.sourceforge.pmd.lang.java.BaseParserTest;
+import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodCall;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
+
+class ControlFlowGraphTest extends BaseParserTest {
+
+    private ControlFlowGraph cfgOf(String body, boolean exceptional) {
+        ASTCompilationUnit acu = java.parse("class A { void f(int a) { " + body + " } }");
+        ASTMethodDeclaration method = acu.descendants(ASTMethodDeclaration.class).firstOrThrow();
+        ControlFlowGraph cfg = ControlFlowGraph.of(method, exceptional);
+        assertNotNull(cfg);
+        assertSame(cfg, ControlFlowGraph.of(method, exceptional));
+        return cfg;
+    }
+
+    private static int blockOfCall(ControlFlowGraph cfg, String methodName) {
+        ASTMethodCall call = findCall(cfg, methodName);
+        assertNotNull(call, "No call to " + methodName);
+        return cfg.getBlock(call);
+    }
+
+    private static ASTMethodCall findCall(ControlFlowGraph cfg, String methodName) {
+        for (int i = 0; i < cfg.getNumBlocks(); i++) {
+            for (ASTMethodCall call : NodeStream.fromIterable(cfg.getElements(i))
+                                                .descendantsOrSelf()
+                                                .filterIs(ASTMethodCall.class)) {
+                if (call.getMethodName().equals(methodName)) {
+                    return call;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isReachable(ControlFlowGraph cfg, String methodName) {
+        return cfg.getReachableBlocks().get(blockOfCall(cfg, methodName));
+    }
+
+    @Test
+    void testIfElse() {
+        ControlFlowGraph cfg = cfgOf("if (a > 0) { foo(); } else { bar(); } baz();", false);
+        int foo = blockOfCall(cfg, "foo");
+        int bar = blockOfCall(cfg, "bar");
+        int baz = blockOfCall(cfg, "baz");
+
+        int condition = cfg.getPredecessors(foo)[0];
+        assertArrayEquals(new int[] {foo, bar}, cfg.getSuccessors(condition));
+        assertArrayEquals(new int[] {foo, bar}, cfg.getPredecessors(baz));
+        assertArrayEquals(new int[] {ControlFlowGraph.EXIT}, cfg.getSuccessors(baz));
+    }
+
+    @Test
+    void testDeadCode() {
+        ControlFlowGraph cfg = cfgOf("foo(); return; bar();", false);
+        assertTrue(isReachable(cfg, "foo"));
+        assertFalse(isReachable(cfg, "bar"));
+    }
+
+    @Test
+    void testLoops() {
+        ControlFlowGraph cfg = cfgOf("while (true) { if (foo()) break; } bar(); for (;;) { } baz();", false);
+        assertTrue(isReachable(cfg, "bar"));
+        assertFalse(isReachable(cfg, "baz"));
+    }
+
+    @Test
+    void testLabeledContinue() {
+        ControlFlowGraph cfg = cfgOf("outer: for (int i = 0; i < a; i++) { while (foo()) { continue outer; } bar(); } baz();", false);
+        assertTrue(isReachable(cfg, "bar"));
+        assertTrue(isReachable(cfg, "baz"));
+    }
+
+    @Test
+    void testSwitchFallthrough() {
+        ControlFlowGraph cfg = cfgOf("switch (a) { case 1: foo(); case 2: bar(); break; default: return; } baz();", false);
+        int foo = blockOfCall(cfg, "foo");
+        int bar = blockOfCall(cfg, "bar");
+        // the first case falls through to the second
+        assertTrue(contains(cfg.getPredecessors(bar), foo));
+        assertTrue(isReachable(cfg, "baz"));
+    }
+
+    @Test
+    void testFinally() {
+        ControlFlowGraph cfg = cfgOf("try { foo(); return; } finally { bar(); } baz();", false);
+        assertTrue(isReachable(cfg, "bar"));
+        assertFalse(isReachable(cfg, "baz"));
+        assertTrue(contains(cfg.getSuccessors(blockOfCall(cfg, "bar")), ControlFlowGraph.EXIT));
+    }
+
+    @Test
+    void testExceptionalEdges() {
+        String body = "try { foo(); } catch (Exception e) { bar(); } baz();";
+        ControlFlowGraph normal = cfgOf(body, false);
+        assertFalse(isReachable(normal, "bar"));
+
+        ControlFlowGraph exceptional = cfgOf(body, true);
+        assertTrue(isReachable(exceptional, "bar"));
+        assertTrue(isReachable(exceptional, "baz"));
+    }
+
+    @Test
+    void testForwardAnalysis() {
+        ControlFlowGraph cfg = cfgOf("foo(); if (a > 0) { return; } bar(); throw new RuntimeException(); ", false);
+
+        // counts the max number of non-empty blocks on a path to a block
+        FlowAnalysis.Result<Integer> result = cfg.solve(new FlowAnalysis<Integer>() {
+            @Override
+            protected Integer initialState() {
+                return 0;
+            }
+
+            @Override
+            protected Integer bottom() {
+                return -1;
+            }
+
+            @Override
+            protected Integer join(Integer first, Integer second) {
+                return Math.max(first, second);
+            }
+
+            @Override
+            protected Integer transfer(ControlFlowGraph graph, int block, Integer input) {
+                return graph.getElements(block).isEmpty() ? input : input + 1;
+            }
+        });
+
+        BitSet reachable = cfg.getReachableBlocks();
+        for (int i = 0; i < cfg.getNumBlocks(); i++) {
+            assertEquals(reachable.get(i), result.getInput(i) >= 0, "Block " + i);
+        }
+        // [foo(); a > 0] then [return] or [bar(); throw]
+        assertEquals(2, result.getInput(ControlFlowGraph.EXIT));
+    }
+
+    private static boolean contains(int[] blocks, int block) {
+        for (int b : blocks) {
+            if (b == block) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
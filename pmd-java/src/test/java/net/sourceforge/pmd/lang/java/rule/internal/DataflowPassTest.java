@@ -7,7 +7,11 @@ package net.sourceforge.pmd.lang.java.rule.internal;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
@@ -16,6 +20,7 @@ import org.junit.jupiter.api.Test;
 
 import net.sourceforge.pmd.lang.java.BaseParserTest;
 import net.sourceforge.pmd.lang.java.ast.ASTCompilationUnit;
+import net.sourceforge.pmd.lang.java.ast.ASTMethodDeclaration;
 import net.sourceforge.pmd.lang.java.ast.ASTVariableId;
 import net.sourceforge.pmd.lang.java.ast.internal.JavaAstUtils;
 import net.sourceforge.pmd.lang.java.rule.internal.DataflowPass.AssignmentEntry;
@@ -82,4 +87,50 @@ class DataflowPassTest extends BaseParserTest {
         assertTrue(assignment.isBlankDeclaration());
         assertTrue(assignment.isFieldDefaultValue());
     }
+
+    @Test
+    void testMethodResult() {
+        ASTCompilationUnit ast = java.parse(
+            "class A { void f() { int a = 0; a = 1; use(a); }"
+                + " void g() { int b = 0; b = 1; } }");
+        List<ASTMethodDeclaration> methods = ast.descendants(ASTMethodDeclaration.class).toList();
+        DataflowResult fResult = DataflowPass.getDataflowResult(methods.get(0));
+        DataflowResult gResult = DataflowPass.getDataflowResult(methods.get(1));
+        assertNotSame(fResult, gResult);
+        assertSame(fResult, DataflowPass.getDataflowResult(methods.get(0)));
+        // only the assignments of each method
+        assertThat(fResult.getUnusedAssignments(), hasSize(1));
+        assertThat(gResult.getUnusedAssignments(), hasSize(2));
+
+        ASTVariableId a = ast.descendants(ASTVariableId.class).first();
+        ReachingDefinitionSet reaching = fResult.getReachingDefinitions(a.getLocalUsages().get(1));
+        assertThat(reaching.getReaching(), hasSize(1));
+
+        // the result for the file reuses the method results
+        DataflowResult fileResult = DataflowPass.getDataflowResult(ast);
+        assertThat(fileResult.getUnusedAssignments(), hasSize(3));
+        assertSame(fileResult, DataflowPass.getDataflowResult(methods.get(1)));
+    }
+
+    @Test
+    void testBitSetsAreBoundedPerMethod() {
+        int numMethods = 200;
+        StringBuilder code = new StringBuilder("class A {");
+        for (int i = 0; i < numMethods; i++) {
+            // the first assignment to a is unused, b is only used in the lambda
+            code.append(" void m").append(i).append("() {")
+                .append(" int a = 0; a = 1; int b = a;")
+                .append(" Runnable r = () -> use(b); r.run(); }");
+        }
+        code.append(" }");
+        ASTCompilationUnit ast = java.parse(code.toString());
+
+        DataflowResult df = DataflowPass.getDataflowResult(ast);
+        assertEquals(numMethods, df.getUnusedAssignments().size());
+        for (AssignmentEntry unused : df.getUnusedAssignments()) {
+            assertTrue(JavaAstUtils.isLiteralInt(unused.rhs, 0));
+        }
+        // definitions are numbered per method and lambda, not per class
+        assertThat(df.maxFrameSize, lessThanOrEqualTo(5));
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.symbols.internal;
+
+import static net.sourceforge.pmd.util.CollectionUtil.listOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.sourceforge.pmd.lang.java.symbols.internal.SourceTypeIndex.IndexedType;
+
+class SourceTypeIndexTest {
+
+    private static List<String> scan(String text) {
+        List<String> result = new ArrayList<>();
+        SourceTypeIndex.scan(text, t -> result.add(t.getBinaryName() + "/" + t.getTypeParameterCount()));
+        return result;
+    }
+
+    @Test
+    void testTopLevelAndNested() {
+        List<String> types = scan(
+            "package a.b; // class Comment {}\n"
+                + "import java.util.List;\n"
+                + "/** class Javadoc {} */\n"
+                + "public class Foo<K, V extends Comparable<V>> {\n"
+                + "  String s = \"class Str {}\";\n"
+                + "  Class<?> k = Foo.class;\n"
+                + "  interface Inner { enum E { A { void f() {} }, B; } }\n"
+                + "  void m() { class Local {} new Object() { }; }\n"
+                + "  @interface Annot {}\n"
+                + "  record Rec<T>(T t) { }\n"
+                + "  void record(int x) { }\n"
+                + "}\n"
+                + "class Other {}\n"
+        );
+
+        assertEquals(
+            listOf("a.b.Foo/2", "a.b.Foo$Inner/0", "a.b.Foo$Inner$E/0",
+                    "a.b.Foo$Annot/0", "a.b.Foo$Rec/1", "a.b.Other/0"),
+            types
+        );
+    }
+
+    @Test
+    void testDefaultPackageAndTextBlock() {
+        List<String> types = scan(
+            "class A {\n"
+                + "  String s = \"\"\"\n"
+                + "    class NotAType { \"\n"
+                + "    \"\"\";\n"
+                + "  char c = '{';\n"
+                + "  static class B {}\n"
+                + "}\n"
+        );
+
+        assertEquals(listOf("A/0", "A$B/0"), types);
+    }
+
+    @Test
+    void testCanonicalNames() {
+        List<IndexedType> types = new ArrayList<>();
+        SourceTypeIndex.scan("package p; class A { class B {} }", types::add);
+
+        assertEquals("p.A.B", types.get(1).getCanonicalName());
+        assertEquals("B", types.get(1).getSimpleName());
+        assertEquals(types.get(0), types.get(1).getEnclosing());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * BSD-style license; for more info see http://pmd.sourceforge.net/license.html
+ */
+
+package net.sourceforge.pmd.lang.java.types.internal.infer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class InferenceBudgetTest {
+
+    @Test
+    void testUnlimitedBudget() {
+        InferenceBudget budget = InferenceBudget.unlimited();
+        budget.enterExpr();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(budget.tryStep());
+        }
+        assertFalse(budget.exitExpr());
+        assertEquals(0, budget.getNumExceededExprs());
+    }
+
+    @Test
+    void testStepsPerExpr() {
+        InferenceBudget budget = InferenceBudget.create(3, 0);
+        budget.enterExpr();
+        assertTrue(budget.tryStep());
+        budget.enterExpr(); // nested expression shares the budget
+        assertTrue(budget.tryStep());
+        assertTrue(budget.tryStep());
+        assertFalse(budget.tryStep());
+        assertFalse(budget.exitExpr());
+        assertFalse(budget.tryStep());
+        assertTrue(budget.exitExpr());
+        assertEquals(1, budget.getNumExceededExprs());
+
+        // the next expression starts afresh
+        budget.enterExpr();
+        assertTrue(budget.tryStep());
+        assertFalse(budget.exitExpr());
+        assertEquals(1, budget.getNumExceededExprs());
+    }
+
+    @Test
+    void testStepsOutsideExprAreNotCounted() {
+        InferenceBudget budget = InferenceBudget.create(2, 0);
+        // inference outside of a poly expression is not limited
+        for (int i = 0; i < 10; i++) {
+            assertTrue(budget.tryStep());
+        }
+        budget.enterExpr();
+        assertTrue(budget.tryStep());
+        assertTrue(budget.tryStep());
+        assertFalse(budget.tryStep());
+        assertTrue(budget.exitExpr());
+
+        // nor does it use up the budget of the next expression
+        for (int i = 0; i < 10; i++) {
+            assertTrue(budget.tryStep());
+        }
+        budget.enterExpr();
+        assertTrue(budget.tryStep());
+        assertFalse(budget.exitExpr());
+        assertEquals(1, budget.getNumExceededExprs());
+    }
+
+    @Test
+    void testTimePerFile() throws InterruptedException {
+        InferenceBudget budget = InferenceBudget.create(0, 1);
+        budget.enterExpr();
+        assertTrue(budget.tryStep());
+        Thread.sleep(5);
+        assertFalse(budget.tryStep());
+        assertTrue(budget.exitExpr());
+        assertTrue(budget.isFileExceeded());
+
+        // all further expressions of the file are aborted
+        budget.enterExpr();
+        assertFalse(budget.tryStep());
+        assertTrue(budget.exitExpr());
+        assertEquals(2, budget.getNumExceededExprs());
+    }
+}
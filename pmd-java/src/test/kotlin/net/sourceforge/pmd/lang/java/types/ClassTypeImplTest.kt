@@ -7,9 +7,13 @@ package net.sourceforge.pmd.lang.java.types
 
 import io.kotest.core.spec.style.FunSpec
 import io.kotest.matchers.shouldBe
+import io.kotest.matchers.types.shouldBeSameInstanceAs
+import io.kotest.matchers.types.shouldNotBeSameInstanceAs
 import net.sourceforge.pmd.lang.test.ast.IntelliMarker
 import net.sourceforge.pmd.lang.test.ast.shouldBe
+import net.sourceforge.pmd.lang.java.symbols.internal.FakeSymAnnot
 import net.sourceforge.pmd.lang.java.symbols.internal.asm.createUnresolvedAsmSymbol
+import net.sourceforge.pmd.lang.java.symbols.testdata.ClassWithTypeAnnotationsInside
 
 /**
  * @author Clément Fournier
@@ -38,6 +42,23 @@ class ClassTypeImplTest : IntelliMarker,FunSpec({
 
             }
 
+            test("Test equal parameterizations are interned") {
+                t_List[t_String] shouldBeSameInstanceAs t_List[t_String]
+                ts.parameterise(t_Map.symbol, listOf(t_String, t_List[t_Integer])) shouldBeSameInstanceAs
+                        t_Map[t_String, t_List[t_Integer]]
+                t_List[ts.UNBOUNDED_WILD] shouldBeSameInstanceAs t_List[ts.UNBOUNDED_WILD]
+                t_List.genericTypeDeclaration shouldBeSameInstanceAs t_List.genericTypeDeclaration
+                // raw and generic declarations are different types
+                t_List shouldNotBeSameInstanceAs t_List.genericTypeDeclaration
+            }
+
+            test("Test annotated types are not interned") {
+                val annot = FakeSymAnnot(ts.getClassSymbol(ClassWithTypeAnnotationsInside.A::class.java))
+                val annotated = t_List[t_String.addAnnotation(annot)]
+                annotated shouldBe t_List[t_String]
+                annotated shouldNotBeSameInstanceAs t_List[t_String.addAnnotation(annot)]
+            }
+
 
         }
     }